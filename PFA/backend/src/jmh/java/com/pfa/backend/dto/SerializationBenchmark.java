@@ -0,0 +1,81 @@
+package com.pfa.backend.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pfa.backend.entities.StatutCandidature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation Jackson d'une List<CandidatureDTO>, avec la configuration de Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int nbLignes;
+
+    private ObjectWriter writer;
+    private List<CandidatureDTO> candidatures;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, CandidatureDTO.class));
+
+        candidatures = new ArrayList<>(nbLignes);
+        for (int i = 0; i < nbLignes; i++) {
+            CandidatureDTO dto = new CandidatureDTO();
+            dto.setId((long) i);
+            dto.setOffreId((long) (i / 100));
+            dto.setTitrOffre("Développeur Java");
+            dto.setCandidatId((long) i);
+            dto.setNomCandidat("Nom" + i);
+            dto.setPrenomCandidat("Prenom" + i);
+            dto.setEmailCandidat("candidat" + i + "@example.com");
+            dto.setTelephoneCandidat("0600000000");
+            dto.setFormation("Informatique");
+            dto.setNiveauEtude("Master");
+            dto.setCompetences("Java, Spring, SQL, Docker");
+            dto.setCvUrl("/cv/" + i + ".pdf");
+            dto.setStatut(StatutCandidature.EN_ATTENTE);
+            dto.setLettreMotivation("Lettre de motivation " + i);
+            dto.setScoreMatching((double) (i % 100));
+            dto.setDateCandidature(LocalDateTime.now());
+            candidatures.add(dto);
+        }
+    }
+
+    @Benchmark
+    public void serialiserListe() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), candidatures);
+    }
+
+    @Benchmark
+    public byte[] serialiserListeEnOctets() throws IOException {
+        return writer.writeValueAsBytes(candidatures);
+    }
+}
@@ -0,0 +1,120 @@
+package com.pfa.backend.scoring;
+
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Offre;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Score de matching et ses briques, de 10 à 10 000 compétences par offre et par candidat.
+ * {@link #legacyMatchingKeywords()} reproduit l'ancien découpage regex + scan O(n·m) comme référence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int nbCompetences;
+
+    private SkillVocabulary vocabulary;
+    private ScoringEngineV1 moteur;
+
+    private Offre offre;
+    private CandidateProfile candidat;
+    private OffreFeatures offreFeatures;
+    private CandidatFeatures candidatFeatures;
+
+    @Setup
+    public void setup() {
+        vocabulary = new SkillVocabulary(nbCompetences * 2);
+        moteur = new ScoringEngineV1(vocabulary);
+
+        // Vivier de compétences deux fois plus grand que chaque profil : recouvrement partiel
+        Random random = new Random(42);
+        String[] vivier = new String[nbCompetences * 2];
+        for (int i = 0; i < vivier.length; i++) {
+            vivier[i] = String.format("skill%06d", i);
+        }
+
+        offre = new Offre();
+        offre.setId(1L);
+        offre.setNiveauExperience("Confirmé");
+        offre.setTypeContrat("CDI");
+        offre.setCompetencesRequises(tirer(vivier, random, ", "));
+
+        candidat = new CandidateProfile();
+        candidat.setId(1L);
+        candidat.setNiveauEtude("Master");
+        candidat.setFormation("Informatique");
+        candidat.setCompetences(tirer(vivier, random, "; "));
+
+        offreFeatures = OffreFeatures.of(offre, vocabulary);
+        candidatFeatures = CandidatFeatures.of(candidat, vocabulary);
+    }
+
+    private String tirer(String[] vivier, Random random, String separateur) {
+        return random.ints(nbCompetences, 0, vivier.length)
+                .mapToObj(i -> vivier[i])
+                .collect(Collectors.joining(separateur));
+    }
+
+    /**
+     * Chemin de postuler : features (encodage en cache) puis score.
+     */
+    @Benchmark
+    public double calculerScoreMatching() {
+        return moteur.score(OffreFeatures.of(offre, vocabulary), CandidatFeatures.of(candidat, vocabulary));
+    }
+
+    @Benchmark
+    public double scoreFeatures() {
+        return moteur.score(offreFeatures, candidatFeatures);
+    }
+
+    @Benchmark
+    public double tauxCouverture() {
+        return vocabulary.tauxCouverture(offreFeatures.getCompetencesRequises(), candidatFeatures.getCompetences());
+    }
+
+    @Benchmark
+    public OffreFeatures offreFeatures() {
+        return OffreFeatures.of(offre, vocabulary);
+    }
+
+    @Benchmark
+    public double legacyMatchingKeywords() {
+        String requiredSkills = offre.getCompetencesRequises();
+        String candidateSkills = candidat.getCompetences();
+
+        List<String> required = Arrays.stream(requiredSkills.toLowerCase().split("[ ,;]+"))
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+        List<String> candidate = Arrays.stream(candidateSkills.toLowerCase().split("[ ,;]+"))
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+
+        long matchedKeywords = required.stream()
+                .filter(req -> candidate.stream().anyMatch(cand -> cand.contains(req) || req.contains(cand)))
+                .count();
+        return (double) matchedKeywords / required.size();
+    }
+}
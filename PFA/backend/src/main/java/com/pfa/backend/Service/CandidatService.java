@@ -1,8 +1,11 @@
 package com.pfa.backend.Service;
 
+import com.pfa.backend.config.LectureSurPrimaire;
 import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.event.CandidatEnregistreEvent;
 import com.pfa.backend.repository.CandidatRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,12 +14,37 @@ import org.springframework.transaction.annotation.Transactional;
 public class CandidatService {
 
     private final CandidatRepository candidatRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CandidateProfile createCandidat(CandidateProfile candidat) {
         // Enregistrer le nouveau candidat dans la base de données
-        return candidatRepository.save(candidat);
+        CandidateProfile saved = candidatRepository.save(candidat);
+        // L'index des compétences est mis à jour après le commit
+        eventPublisher.publishEvent(new CandidatEnregistreEvent(saved, true));
+        return saved;
     }
+
+    @Transactional
+    public CandidateProfile updateCandidat(Long id, CandidateProfile donnees) {
+        CandidateProfile candidat = candidatRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Candidat non trouvé"));
+
+        candidat.setNom(donnees.getNom());
+        candidat.setPrenom(donnees.getPrenom());
+        candidat.setEmail(donnees.getEmail());
+        candidat.setTelephone(donnees.getTelephone());
+        candidat.setCompetences(donnees.getCompetences());
+        candidat.setNiveauEtude(donnees.getNiveauEtude());
+        candidat.setFormation(donnees.getFormation());
+        candidat.setCvUrl(donnees.getCvUrl());
+
+        CandidateProfile saved = candidatRepository.save(candidat);
+        // Index des compétences et re-scoring des candidatures, après le commit
+        eventPublisher.publishEvent(new CandidatEnregistreEvent(saved, false));
+        return saved;
+    }
+    @LectureSurPrimaire
     @Transactional(readOnly = true)
     public CandidateProfile getCandidatById(Long id) {
         return candidatRepository.findById(id)
@@ -1,113 +1,214 @@
 package com.pfa.backend.Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pfa.backend.config.LectureSurPrimaire;
 import com.pfa.backend.dto.CandidatureDTO;
+import com.pfa.backend.dto.EtatRessource;
+import com.pfa.backend.dto.FormatFichier;
+import com.pfa.backend.dto.PageCurseur;
+import com.pfa.backend.dto.ResultatStatutDTO;
 import com.pfa.backend.entities.CandidateProfile;
 import com.pfa.backend.entities.Candidature;
 import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.StatutCandidature;
+import com.pfa.backend.event.TypeEvenement;
+import com.pfa.backend.exception.DuplicateResourceException;
+import com.pfa.backend.exception.TransitionStatutInvalideException;
 import com.pfa.backend.repository.CandidatRepository;
 import com.pfa.backend.repository.CandidatureRepository;
 import com.pfa.backend.repository.OffreRepository;
+import com.pfa.backend.scoring.CandidatFeatures;
+import com.pfa.backend.scoring.OffreFeatures;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CandidatureService {
 
+    private static final String CONTRAINTE_UNICITE = "uk_candidatures_offre_candidat";
+
     private final CandidatureRepository candidatureRepository;
     private final OffreRepository offreRepository;
     private final CandidatRepository candidatRepository;
+    private final SkillVocabulary skillVocabulary;
+    private final ScoringEngineRegistry scoringEngineRegistry;
+    private final RescoringService rescoringService;
+    private final FileScoringService fileScoringService;
+    private final OutboxService outboxService;
+    private final ResultatsInterviewService resultatsInterviewService;
+    // Facultatif : sans lui, le doublon est vérifié en base à chaque dépôt
+    private final ObjectProvider<RegistreCandidatures> registreCandidatures;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final PlatformTransactionManager transactionManager;
+
+    // Export : une requête et un envoi au client par page, le buffer d'écriture reste borné
+    @Value("${candidatures.export.taille-page:1000}")
+    private int lignesParPageExport;
+
+    static final int TAILLE_BATCH_STATUT = 500;
+
+    private static final String ENTETE_EXPORT_CSV = "id,offreId,titreOffre,candidatId,nom,prenom,email,telephone," +
+            "formation,niveauEtude,competences,cvUrl,statut,scoreMatching,versionScoring,commentaireRecruteur," +
+            "dateCandidature,dateReponse\n";
 
     // --- LOGIQUE DE SCORE AI (PROXY) ---
 
-    private static final double WEIGHT_KEYWORDS = 0.50;
-    private static final double WEIGHT_EXPERIENCE = 0.20;
-    private static final double WEIGHT_EDUCATION = 0.20;
-    private static final double WEIGHT_CONTRAT = 0.10;
-
     /**
      * Calcule le score de matching entre un candidat et une offre.
      */
     private double calculerScoreMatching(Offre offre, CandidateProfile candidat) {
         if (offre == null || candidat == null) return 0.0;
 
-        double totalScore = 0.0;
-
-        totalScore += matchingKeywords(offre.getCompetencesRequises(), candidat.getCompetences()) * WEIGHT_KEYWORDS;
-        totalScore += matchingExperience(offre.getNiveauExperience(), candidat.getNiveauEtude()) * WEIGHT_EXPERIENCE;
-        totalScore += matchingEducation(offre.getNiveauExperience(), candidat.getNiveauEtude()) * WEIGHT_EDUCATION;
-        totalScore += matchingContrat(offre.getTypeContrat(), candidat.getFormation()) * WEIGHT_CONTRAT;
-
-        double finalScore = Math.max(0.0, Math.min(100.0, totalScore * 100.0));
-
-        return Math.round(finalScore);
+        return scoringEngineRegistry.score(
+                OffreFeatures.of(offre, skillVocabulary),
+                CandidatFeatures.of(candidat, skillVocabulary));
     }
 
-    private double matchingKeywords(String requiredSkills, String candidateSkills) {
-        if (requiredSkills == null || requiredSkills.isEmpty()) return 1.0;
-
-        List<String> required = Arrays.stream(requiredSkills.toLowerCase().split("[ ,;]+"))
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.toList());
+    // Ni score ni version : candidature en file de scoring (postuler asynchrone), notée sous peu
+    private boolean estPerime(CandidatureDTO dto) {
+        boolean enFile = dto.getScoreMatching() == null && dto.getVersionScoring() == null;
+        return !enFile && scoringEngineRegistry.estPerime(dto.getVersionScoring());
+    }
 
-        List<String> candidate = Arrays.stream(candidateSkills != null ? candidateSkills.toLowerCase().split("[ ,;]+") : new String[0])
-                .filter(s -> !s.isEmpty())
+    /**
+     * Re-score à la lecture les candidatures calculées par une ancienne version du moteur.
+     * L'écriture en base est confiée au re-scoring de fond ; les offres concernées ne sont
+     * chargées que s'il y a au moins une candidature périmée.
+     */
+    private List<CandidatureDTO> rescorerPerimees(List<CandidatureDTO> dtos, boolean trierParScore) {
+        List<CandidatureDTO> perimees = dtos.stream()
+                .filter(this::estPerime)
                 .collect(Collectors.toList());
+        if (perimees.isEmpty()) return dtos;
+
+        Set<Long> offreIds = perimees.stream().map(CandidatureDTO::getOffreId).collect(Collectors.toSet());
+        Map<Long, OffreFeatures> offres = new HashMap<>();
+        offreRepository.findAllById(offreIds)
+                .forEach(offre -> offres.put(offre.getId(), OffreFeatures.of(offre, skillVocabulary)));
+
+        for (CandidatureDTO dto : perimees) {
+            CandidatFeatures candidat = CandidatFeatures.of(dto.getCandidatId(), dto.getNiveauEtude(),
+                    dto.getFormation(), dto.getCompetences(), skillVocabulary);
+            dto.setScoreMatching(scoringEngineRegistry.score(offres.get(dto.getOffreId()), candidat));
+            dto.setVersionScoring(scoringEngineRegistry.versionActive());
+        }
+        offreIds.forEach(rescoringService::planifierOffre);
 
-        if (required.isEmpty()) return 1.0;
+        if (trierParScore) {
+            dtos.sort(Comparator.comparing(CandidatureDTO::getScoreMatching,
+                    Comparator.nullsLast(Comparator.reverseOrder())));
+        }
+        return dtos;
+    }
 
-        long matchedKeywords = required.stream()
-                .filter(req -> candidate.stream().anyMatch(cand -> cand.contains(req) || req.contains(cand)))
-                .count();
+    // Variante ligne à ligne pour l'export : les caractéristiques des offres périmées sont gardées en mémoire
+    private CandidatureDTO rescorerSiPerimee(CandidatureDTO dto, Map<Long, OffreFeatures> offres) {
+        if (!estPerime(dto)) return dto;
 
-        return (double) matchedKeywords / required.size();
+        OffreFeatures offre = offres.computeIfAbsent(dto.getOffreId(), id -> OffreFeatures.of(
+                offreRepository.findById(id).orElseThrow(), skillVocabulary));
+        CandidatFeatures candidat = CandidatFeatures.of(dto.getCandidatId(), dto.getNiveauEtude(),
+                dto.getFormation(), dto.getCompetences(), skillVocabulary);
+        dto.setScoreMatching(scoringEngineRegistry.score(offre, candidat));
+        dto.setVersionScoring(scoringEngineRegistry.versionActive());
+        return dto;
     }
 
-    private double matchingExperience(String requiredExperience, String candidateEducation) {
-        String expLower = requiredExperience != null ? requiredExperience.toLowerCase() : "";
-        String eduLower = candidateEducation != null ? candidateEducation.toLowerCase() : "";
+    // --- FONCTION DE CRÉATION DE CANDIDATURE (Postuler) ---
+    @Transactional
+    public CandidatureDTO postuler(Long offreId, Long candidatId, String lettreMotivation, String cvUrl) {
+        Candidature candidature = nouvelleCandidature(offreId, candidatId, lettreMotivation, cvUrl);
 
-        if (expLower.contains("junior")) {
-            if (eduLower.contains("licence") || eduLower.contains("master") || eduLower.contains("ingénieur")) return 1.0;
-            return 0.5;
-        } else if (expLower.contains("intermédiaire") || expLower.contains("confirmé")) {
-            if (eduLower.contains("master") || eduLower.contains("ingénieur")) return 1.0;
-            return 0.7;
-        } else if (expLower.contains("senior")) {
-            if (eduLower.contains("master") || eduLower.contains("ingénieur")) return 0.8;
-            return 0.1;
-        }
-        return 0.5;
-    }
+        double score = calculerScoreMatching(candidature.getOffre(), candidature.getCandidat());
+        candidature.setScoreMatching(score);
+        candidature.setVersionScoring(scoringEngineRegistry.versionActive());
 
-    private double matchingEducation(String requiredExperience, String candidateEducation) {
-        return matchingExperience(requiredExperience, candidateEducation);
+        Candidature savedCandidature = enregistrer(candidature);
+        offreRepository.incrementerCandidatures(offreId);
+        evincerOffreDuCache(offreId);
+        CandidatureDTO dto = convertToDTO(savedCandidature);
+        publierDepot(dto);
+        return dto;
     }
 
-    private double matchingContrat(String typeContrat, String formation) {
-        String contratLower = typeContrat != null ? typeContrat.toLowerCase() : "";
-        String formLower = formation != null ? formation.toLowerCase() : "";
-
-        if (contratLower.contains("stage") && formLower.contains("informatique")) {
-            return 1.0;
-        }
+    /**
+     * Postuler sans attendre le score : la candidature est enregistrée sans score (EN_ATTENTE) et mise
+     * en file ; FileScoringService la note après le commit. L'offre et le candidat viennent le plus
+     * souvent du cache de second niveau.
+     */
+    @Transactional
+    public CandidatureDTO postulerEnDiffere(Long offreId, Long candidatId, String lettreMotivation, String cvUrl) {
+        Candidature candidature = enregistrer(nouvelleCandidature(offreId, candidatId, lettreMotivation, cvUrl));
+        fileScoringService.mettreEnFile(candidature.getId());
+        offreRepository.incrementerCandidatures(offreId);
+        evincerOffreDuCache(offreId);
+        CandidatureDTO dto = convertToDTO(candidature);
+        publierDepot(dto);
+        return dto;
+    }
 
-        if (contratLower.contains("cdi") && !formLower.contains("stage")) {
-            return 1.0;
-        }
+    private void publierDepot(CandidatureDTO dto) {
+        Map<String, Object> charge = charge(dto.getId(), dto.getOffreId(), dto.getCandidatId(), dto.getStatut());
+        charge.put("scoreMatching", dto.getScoreMatching());
+        charge.put("dateCandidature", dto.getDateCandidature());
+        outboxService.publier(TypeEvenement.CANDIDATURE_DEPOSEE, dto.getId(), charge);
+    }
 
-        return 0.5;
+    /**
+     * Charge commune des événements de l'outbox : identifiants et statut, sans données personnelles
+     * (un consommateur qui en a besoin relit la candidature).
+     */
+    private static Map<String, Object> charge(Long id, Long offreId, Long candidatId, StatutCandidature statut) {
+        Map<String, Object> charge = new LinkedHashMap<>();
+        charge.put("candidatureId", id);
+        charge.put("offreId", offreId);
+        charge.put("candidatId", candidatId);
+        charge.put("statut", statut);
+        return charge;
     }
 
-    // --- FONCTION DE CRÉATION DE CANDIDATURE (Postuler) ---
-    @Transactional
-    public CandidatureDTO postuler(Long offreId, Long candidatId, String lettreMotivation, String cvUrl) {
+    private Candidature nouvelleCandidature(Long offreId, Long candidatId, String lettreMotivation, String cvUrl) {
+        if (aDejaPostule(offreId, candidatId)) {
+            throw new DuplicateResourceException("Le candidat a déjà postulé à cette offre");
+        }
         Offre offre = offreRepository.findById(offreId)
                 .orElseThrow(() -> new RuntimeException("Offre non trouvée"));
         CandidateProfile candidat = candidatRepository.findById(candidatId)
@@ -118,77 +219,328 @@ public class CandidatureService {
         candidature.setCandidat(candidat);
         candidature.setLettreMotivation(lettreMotivation);
         candidature.setCvUrl(cvUrl);
-        candidature.setStatut("EN_ATTENTE");
+        candidature.setStatut(StatutCandidature.EN_ATTENTE);
+        return candidature;
+    }
 
-        double score = calculerScoreMatching(offre, candidat);
-        candidature.setScoreMatching(score);
+    /**
+     * INSERT immédiat : deux dépôts simultanés du même candidat butent sur la contrainte unique
+     * (offre_id, candidat_id), traduite ici en doublon.
+     */
+    private Candidature enregistrer(Candidature candidature) {
+        Candidature enregistree;
+        try {
+            enregistree = candidatureRepository.saveAndFlush(candidature);
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+            if (cause.contains(CONTRAINTE_UNICITE)) {
+                throw new DuplicateResourceException("Le candidat a déjà postulé à cette offre");
+            }
+            throw e;
+        }
+        registreCandidatures.ifAvailable(r -> r.ajouter(enregistree.getOffre().getId(), enregistree.getCandidat().getId()));
+        return enregistree;
+    }
 
-        Candidature savedCandidature = candidatureRepository.save(candidature);
-        return convertToDTO(savedCandidature);
+    // Le filtre de Bloom écarte sans requête le cas courant (pas encore postulé)
+    private boolean aDejaPostule(Long offreId, Long candidatId) {
+        BooleanSupplier enBase = () -> candidatureRepository.existsByOffreIdAndCandidatId(offreId, candidatId);
+        RegistreCandidatures registre = registreCandidatures.getIfAvailable();
+        return registre != null ? registre.aDejaPostule(offreId, candidatId, enBase) : enBase.getAsBoolean();
+    }
+
+    /**
+     * Le compteur de l'offre est modifié en SQL, hors du cache de second niveau : l'offre en est retirée
+     * une fois la transaction terminée, pour que la lecture suivante reprenne la valeur en base.
+     */
+    private void evincerOffreDuCache(Long offreId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                entityManagerFactory.getCache().evict(Offre.class, offreId);
+            }
+        });
     }
 
     // --- CONSULTATION ET GESTION DES CANDIDATURES ---
 
     @Transactional(readOnly = true)
     public List<CandidatureDTO> getCandidaturesParOffre(Long offreId) {
-        List<Candidature> candidatures = candidatureRepository
-                .findByOffreIdOrderByScoreMatchingDesc(offreId);
-        return candidatures.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return rescorerPerimees(candidatureRepository.findDTOByOffreId(offreId), true);
     }
 
     @Transactional(readOnly = true)
     public List<CandidatureDTO> getCandidaturesParRecruteur(Long recruteurId) {
-        List<Candidature> candidatures = candidatureRepository
-                .findByOffreRecruteurIdOrderByScoreMatchingDesc(recruteurId);
-        return candidatures.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return rescorerPerimees(candidatureRepository.findDTOByRecruteurId(recruteurId), true);
+    }
+
+    // --- EXPORT EN FLUX ---
+
+    /**
+     * Export du pipeline d'un recruteur, offre par offre (plus récente d'abord) puis par score, écrit page par
+     * page : chaque page est lue par clé (score, id) dans sa propre transaction en lecture seule, puis envoyée.
+     * Aucune connexion n'est gardée pendant que le client lit, et seule la page courante est en mémoire.
+     * Les scores périmés sont recalculés à la volée (l'ordre reste celui des scores en base).
+     *
+     * Ce n'est pas un instantané : une candidature ajoutée, supprimée ou re-scorée pendant l'export peut
+     * manquer ou apparaître deux fois.
+     */
+    public void exporterCandidaturesParRecruteur(Long recruteurId, FormatFichier format, OutputStream sortie)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(sortie, StandardCharsets.UTF_8));
+        ObjectWriter json = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        TransactionTemplate lecture = new TransactionTemplate(transactionManager);
+        lecture.setReadOnly(true);
+        Map<Long, OffreFeatures> offresPerimees = new HashMap<>();
+
+        if (format == FormatFichier.CSV) {
+            writer.write(ENTETE_EXPORT_CSV);
+            writer.flush();
+        }
+        List<Long> offreIds = lecture.execute(status -> offreRepository.findIdsByRecruteurId(recruteurId));
+        for (Long offreId : offreIds) {
+            Curseur.ScoreEtId apres = Curseur.lireScore(null);
+            List<CandidatureDTO> page;
+            do {
+                Curseur.ScoreEtId position = apres;
+                page = lecture.execute(status -> candidatureRepository.findPageDTOByOffreId(
+                        offreId, position.score(), position.id(), Limit.of(lignesParPageExport)));
+                if (page.isEmpty()) break;
+
+                // Reprise tirée des valeurs en base, avant tout re-score
+                CandidatureDTO derniere = page.get(page.size() - 1);
+                apres = Curseur.position(derniere.getScoreMatching(), derniere.getId());
+                for (CandidatureDTO dto : page) {
+                    rescorerSiPerimee(dto, offresPerimees);
+                    if (format == FormatFichier.CSV) {
+                        ecrireLigneCsv(writer, dto);
+                    } else {
+                        json.writeValue(writer, dto);
+                        writer.write('\n');
+                    }
+                }
+                writer.flush();
+            } while (page.size() == lignesParPageExport);
+        }
+        offresPerimees.keySet().forEach(rescoringService::planifierOffre);
     }
 
+    private static void ecrireLigneCsv(Writer writer, CandidatureDTO dto) throws IOException {
+        Object[] valeurs = {dto.getId(), dto.getOffreId(), dto.getTitrOffre(), dto.getCandidatId(),
+                dto.getNomCandidat(), dto.getPrenomCandidat(), dto.getEmailCandidat(), dto.getTelephoneCandidat(),
+                dto.getFormation(), dto.getNiveauEtude(), dto.getCompetences(), dto.getCvUrl(), dto.getStatut(),
+                dto.getScoreMatching(), dto.getVersionScoring(), dto.getCommentaireRecruteur(),
+                dto.getDateCandidature(), dto.getDateReponse()};
+        for (int i = 0; i < valeurs.length; i++) {
+            if (i > 0) writer.write(',');
+            if (valeurs[i] != null) writer.write(champCsv(valeurs[i].toString()));
+        }
+        writer.write('\n');
+    }
+
+    // Guillemets seulement si nécessaire (séparateur, guillemet ou saut de ligne dans la valeur)
+    private static String champCsv(String valeur) {
+        if (valeur.indexOf(',') < 0 && valeur.indexOf('"') < 0
+                && valeur.indexOf('\n') < 0 && valeur.indexOf('\r') < 0) {
+            return valeur;
+        }
+        return '"' + valeur.replace("\"", "\"\"") + '"';
+    }
+
+    // --- PAGINATION PAR CURSEUR (score décroissant, puis id) ---
+
+    @Transactional(readOnly = true)
+    public PageCurseur<CandidatureDTO> getPageCandidaturesParOffre(Long offreId, String curseur, int taille) {
+        Curseur.verifierTaille(taille);
+        Curseur.ScoreEtId apres = Curseur.lireScore(curseur);
+        return paginer(candidatureRepository.findPageDTOByOffreId(
+                offreId, apres.score(), apres.id(), Limit.of(taille + 1)), taille);
+    }
+
+    @Transactional(readOnly = true)
+    public PageCurseur<CandidatureDTO> getPageCandidaturesParRecruteur(Long recruteurId, String curseur, int taille) {
+        Curseur.verifierTaille(taille);
+        Curseur.ScoreEtId apres = Curseur.lireScore(curseur);
+        return paginer(candidatureRepository.findPageDTOByRecruteurId(
+                recruteurId, apres.score(), apres.id(), Limit.of(taille + 1)), taille);
+    }
+
+    @Transactional(readOnly = true)
+    public PageCurseur<CandidatureDTO> getPageCandidaturesParStatut(Long recruteurId, StatutCandidature statut,
+                                                                    String curseur, int taille) {
+        Curseur.verifierTaille(taille);
+        Curseur.ScoreEtId apres = Curseur.lireScore(curseur);
+        return paginer(candidatureRepository.findPageDTOByRecruteurIdAndStatut(
+                recruteurId, statut, apres.score(), apres.id(), Limit.of(taille + 1)), taille);
+    }
+
+    /**
+     * Une ligne de plus que la page est lue pour savoir s'il en reste. Le curseur est tiré des
+     * valeurs en base, avant tout re-score paresseux, pour que la page suivante reprenne au bon endroit.
+     */
+    private PageCurseur<CandidatureDTO> paginer(List<CandidatureDTO> lignes, int taille) {
+        String suivant = null;
+        if (lignes.size() > taille) {
+            lignes = new ArrayList<>(lignes.subList(0, taille));
+            CandidatureDTO derniere = lignes.get(taille - 1);
+            suivant = Curseur.encoderScore(derniere.getScoreMatching(), derniere.getId());
+        }
+        return new PageCurseur<>(rescorerPerimees(lignes, false), suivant);
+    }
+
+    // Relue juste après le dépôt (Location du 202) ou une modification : primaire
+    @LectureSurPrimaire
     @Transactional(readOnly = true)
     public CandidatureDTO getCandidatureById(Long id) {
-        Candidature candidature = candidatureRepository.findById(id)
+        CandidatureDTO candidature = candidatureRepository.findDTOById(id)
+                .orElseThrow(() -> new RuntimeException("Candidature non trouvée"));
+        return rescorerPerimees(new ArrayList<>(List.of(candidature)), false).get(0);
+    }
+
+    /**
+     * Validateurs HTTP de la candidature, sans la charger. La version du moteur de score en fait partie :
+     * un score périmé est recalculé à la lecture, le corps change donc avec elle.
+     */
+    @LectureSurPrimaire
+    @Transactional(readOnly = true)
+    public EtatRessource getEtatCandidature(Long id) {
+        EtatRessource etat = candidatureRepository.findEtatById(id)
                 .orElseThrow(() -> new RuntimeException("Candidature non trouvée"));
-        return convertToDTO(candidature);
+        // (pas d'espace dans un ETag : la date du profil est lue sous forme texte)
+        etat.setEtag(etat.getEtag().replace(' ', 'T') + "-" + scoringEngineRegistry.versionActive());
+        return etat;
     }
 
     @Transactional
-    public CandidatureDTO changerStatutCandidature(Long id, String nouveauStatut, String commentaire) {
+    public void supprimerCandidature(Long id) {
         Candidature candidature = candidatureRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Candidature non trouvée"));
+        Long offreId = candidature.getOffre().getId(); // id du proxy : pas de chargement de l'offre
+        candidatureRepository.delete(candidature);
+        offreRepository.decrementerCandidatures(offreId);
+        evincerOffreDuCache(offreId);
+        outboxService.publier(TypeEvenement.CANDIDATURE_SUPPRIMEE, id,
+                charge(id, offreId, candidature.getCandidat().getId(), candidature.getStatut()));
+    }
 
-        candidature.setStatut(nouveauStatut);
-        candidature.setCommentaireRecruteur(commentaire);
-        candidature.setDateReponse(LocalDateTime.now());
+    /**
+     * Transition de statut en une seule requête conditionnelle : pas de lecture préalable de
+     * l'entité, et deux actions concurrentes ne peuvent pas s'écraser (la seconde obtient 0 ligne).
+     */
+    @Transactional
+    public CandidatureDTO changerStatutCandidature(Long id, StatutCandidature nouveauStatut, String commentaire) {
+        Set<StatutCandidature> depuis = nouveauStatut.predecesseurs();
+        int modifiees = depuis.isEmpty() ? 0 : candidatureRepository.changerStatut(
+                id, depuis, nouveauStatut, commentaire, LocalDateTime.now());
+
+        if (modifiees == 0) {
+            // Chemin d'erreur seulement : distinguer "absente" (404) de "transition refusée" (409)
+            StatutCandidature actuel = candidatureRepository.findStatutById(id)
+                    .orElseThrow(() -> new RuntimeException("Candidature non trouvée"));
+            throw new TransitionStatutInvalideException(
+                    "Transition de statut non autorisée : " + actuel + " -> " + nouveauStatut);
+        }
 
-        Candidature updatedCandidature = candidatureRepository.save(candidature);
-        return convertToDTO(updatedCandidature);
+        CandidatureDTO candidature = candidatureRepository.findDTOById(id)
+                .orElseThrow(() -> new RuntimeException("Candidature non trouvée"));
+        Map<String, Object> charge = charge(id, candidature.getOffreId(), candidature.getCandidatId(), nouveauStatut);
+        charge.put("commentaire", commentaire);
+        charge.put("dateReponse", candidature.getDateReponse());
+        outboxService.publier(TypeEvenement.CANDIDATURE_STATUT_MODIFIE, id, charge);
+        return rescorerPerimees(new ArrayList<>(List.of(candidature)), false).get(0);
+    }
+
+    /**
+     * Même transition appliquée à un lot de candidatures, dans une seule transaction : les UPDATE
+     * conditionnels partent en un batch JDBC, puis une seule lecture qualifie les refus.
+     */
+    @Transactional
+    public List<ResultatStatutDTO> changerStatutEnMasse(List<Long> ids, StatutCandidature nouveauStatut,
+                                                        String commentaire) {
+        List<Long> uniques = new ArrayList<>(new LinkedHashSet<>(ids));
+        Set<StatutCandidature> depuis = nouveauStatut.predecesseurs();
+        int[] modifiees = new int[uniques.size()];
+
+        if (!depuis.isEmpty()) {
+            // Codes d'enum : sûrs à inliner dans la clause IN
+            String codesDepuis = depuis.stream()
+                    .map(statut -> String.valueOf(statut.getCode()))
+                    .collect(Collectors.joining(", "));
+            Timestamp dateReponse = Timestamp.valueOf(LocalDateTime.now());
+            int[][] resultats = jdbcTemplate.batchUpdate(
+                    "UPDATE candidatures SET statut = ?, commentaire_recruteur = ?, date_reponse = ?, " +
+                            "version = version + 1 WHERE id = ? AND statut IN (" + codesDepuis + ")",
+                    uniques, TAILLE_BATCH_STATUT, (ps, id) -> {
+                        ps.setShort(1, nouveauStatut.getCode());
+                        ps.setString(2, commentaire);
+                        ps.setTimestamp(3, dateReponse);
+                        ps.setLong(4, id);
+                    });
+            int i = 0;
+            for (int[] lot : resultats) {
+                for (int n : lot) modifiees[i++] = n;
+            }
+        }
+
+        List<Long> refusees = new ArrayList<>();
+        List<Long> acceptees = new ArrayList<>();
+        for (int i = 0; i < uniques.size(); i++) {
+            (modifiees[i] == 0 ? refusees : acceptees).add(uniques.get(i));
+        }
+        publierStatutsModifies(acceptees, nouveauStatut, commentaire);
+        Map<Long, StatutCandidature> statutsActuels = new HashMap<>();
+        if (!refusees.isEmpty()) {
+            candidatureRepository.findStatutsByIds(refusees)
+                    .forEach(ligne -> statutsActuels.put((Long) ligne[0], (StatutCandidature) ligne[1]));
+        }
+
+        List<ResultatStatutDTO> resultats = new ArrayList<>(uniques.size());
+        for (int i = 0; i < uniques.size(); i++) {
+            Long id = uniques.get(i);
+            if (modifiees[i] > 0) {
+                resultats.add(new ResultatStatutDTO(id, ResultatStatutDTO.Resultat.MODIFIEE, nouveauStatut));
+            } else if (statutsActuels.containsKey(id)) {
+                resultats.add(new ResultatStatutDTO(id, ResultatStatutDTO.Resultat.TRANSITION_REFUSEE,
+                        statutsActuels.get(id)));
+            } else {
+                resultats.add(new ResultatStatutDTO(id, ResultatStatutDTO.Resultat.INTROUVABLE, null));
+            }
+        }
+        return resultats;
+    }
+
+    // Une lecture pour tout le lot (offre et candidat de chaque ligne), puis un batch d'insertions
+    private void publierStatutsModifies(List<Long> ids, StatutCandidature statut, String commentaire) {
+        if (ids.isEmpty()) return;
+        Map<Long, Map<String, Object>> charges = new LinkedHashMap<>();
+        for (Object[] ligne : candidatureRepository.findOffreEtCandidatByIds(ids)) {
+            Map<String, Object> charge = charge((Long) ligne[0], (Long) ligne[1], (Long) ligne[2], statut);
+            charge.put("commentaire", commentaire);
+            charges.put((Long) ligne[0], charge);
+        }
+        outboxService.publierTous(TypeEvenement.CANDIDATURE_STATUT_MODIFIE, charges);
     }
 
     @Transactional(readOnly = true)
-    public List<CandidatureDTO> getCandidaturesParStatut(Long recruteurId, String statut) {
-        List<Candidature> candidatures = candidatureRepository
-                .findByOffreRecruteurIdAndStatut(recruteurId, statut);
-        return candidatures.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public List<CandidatureDTO> getCandidaturesParStatut(Long recruteurId, StatutCandidature statut) {
+        return rescorerPerimees(candidatureRepository.findDTOByRecruteurIdAndStatut(recruteurId, statut), false);
     }
 
     @Transactional
     public CandidatureDTO accepterCandidature(Long id, String commentaire) {
-        return changerStatutCandidature(id, "ACCEPTEE", commentaire);
+        return changerStatutCandidature(id, StatutCandidature.ACCEPTEE, commentaire);
     }
 
     @Transactional
     public CandidatureDTO refuserCandidature(Long id, String commentaire) {
-        return changerStatutCandidature(id, "REFUSEE", commentaire);
+        return changerStatutCandidature(id, StatutCandidature.REFUSEE, commentaire);
     }
 
     @Transactional
     public CandidatureDTO mettreEnCours(Long id, String commentaire) {
-        return changerStatutCandidature(id, "EN_COURS", commentaire);
+        return changerStatutCandidature(id, StatutCandidature.EN_COURS, commentaire);
     }
 
     /**
@@ -196,15 +548,7 @@ public class CandidatureService {
      */
     @Transactional
     public CandidatureDTO mettreEnInterview(Long candidatureId, String commentaire) {
-        Candidature candidature = candidatureRepository.findById(candidatureId)
-                .orElseThrow(() -> new RuntimeException("Candidature non trouvée"));
-
-        candidature.setStatut("INTERVIEW");
-        candidature.setCommentaireRecruteur(commentaire);
-        candidature.setDateReponse(LocalDateTime.now());
-
-        Candidature saved = candidatureRepository.save(candidature);
-        return convertToDTO(saved);
+        return changerStatutCandidature(candidatureId, StatutCandidature.INTERVIEW, commentaire);
     }
 
     /**
@@ -222,19 +566,29 @@ public class CandidatureService {
         candidature.setInterviewCommentaire(commentaire);
 
         // Mettre à jour le statut si pas déjà en INTERVIEW
-        if (!"INTERVIEW".equals(candidature.getStatut())) {
-            candidature.setStatut("INTERVIEW");
+        if (candidature.getStatut() != StatutCandidature.INTERVIEW) {
+            if (!candidature.getStatut().peutPasserA(StatutCandidature.INTERVIEW)) {
+                throw new TransitionStatutInvalideException(
+                        "Transition de statut non autorisée : " + candidature.getStatut() + " -> INTERVIEW");
+            }
+            candidature.setStatut(StatutCandidature.INTERVIEW);
             candidature.setDateReponse(LocalDateTime.now());
         }
 
         Candidature saved = candidatureRepository.save(candidature);
-        return convertToDTO(saved);
+        CandidatureDTO dto = convertToDTO(saved);
+        // Version typée par compétence, pour les agrégats par offre
+        resultatsInterviewService.enregistrer(dto.getId(), dto.getOffreId(), checklistResults, skillComments);
+        Map<String, Object> charge = charge(dto.getId(), dto.getOffreId(), dto.getCandidatId(), dto.getStatut());
+        charge.put("checklist", checklistResults);
+        outboxService.publier(TypeEvenement.INTERVIEW_NOTEE, dto.getId(), charge);
+        return dto;
     }
 
     /**
-     * Convertit une entité Candidature en DTO
+     * Convertit une entité Candidature en DTO (visibilité package : mesuré par les benchmarks JMH)
      */
-    private CandidatureDTO convertToDTO(Candidature candidature) {
+    static CandidatureDTO convertToDTO(Candidature candidature) {
         CandidatureDTO dto = new CandidatureDTO();
 
         dto.setId(candidature.getId());
@@ -256,6 +610,7 @@ public class CandidatureService {
         dto.setStatut(candidature.getStatut());
         dto.setLettreMotivation(candidature.getLettreMotivation());
         dto.setScoreMatching(candidature.getScoreMatching());
+        dto.setVersionScoring(candidature.getVersionScoring());
         dto.setCommentaireRecruteur(candidature.getCommentaireRecruteur());
 
         // Nouveaux champs interview
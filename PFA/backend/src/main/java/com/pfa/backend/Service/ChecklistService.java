@@ -0,0 +1,175 @@
+package com.pfa.backend.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pfa.backend.dto.EtatRessource;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.exception.ConflitModificationException;
+import com.pfa.backend.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checklist d'interview d'une offre (colonne jsonb offres.interview_checklist), modifiée dans la base
+ * en une seule instruction : remplacement, fusion RFC 7396 ou opérations RFC 6902 (fonctions de V10).
+ * L'offre n'est pas chargée et seul le delta transite.
+ *
+ * Chaque modification incrémente la version de l'offre (@Version). Une version attendue (If-Match)
+ * qui n'est plus la version courante lève ConflitModificationException : deux recruteurs qui éditent
+ * la même checklist ne s'écrasent pas.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChecklistService {
+
+    static final int OPERATIONS_MAX = 1000;
+    private static final Set<String> OPERATIONS = Set.of("add", "remove", "replace", "move", "copy", "test");
+    private static final Set<String> AVEC_VALEUR = Set.of("add", "replace", "test");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Remplace la checklist entière (null la supprime).
+     */
+    @Transactional
+    public EtatRessource remplacer(Long offreId, Long versionAttendue, Map<String, Object> checklist) {
+        return modifier(offreId, versionAttendue, "CAST(? AS jsonb)", checklist == null ? null : json(checklist));
+    }
+
+    /**
+     * Fusion RFC 7396 (application/merge-patch+json) : null supprime une clé, un objet est fusionné.
+     */
+    @Transactional
+    public EtatRessource fusionner(Long offreId, Long versionAttendue, JsonNode patch) {
+        return modifier(offreId, versionAttendue, "jsonb_merge_patch(interview_checklist, CAST(? AS jsonb))",
+                json(patch));
+    }
+
+    /**
+     * Opérations RFC 6902 (application/json-patch+json), appliquées tout ou rien. Une checklist absente
+     * est traitée comme un objet vide.
+     */
+    @Transactional
+    public EtatRessource appliquer(Long offreId, Long versionAttendue, JsonNode operations) {
+        return modifier(offreId, versionAttendue,
+                "jsonb_patch(coalesce(interview_checklist, '{}'::jsonb), CAST(? AS jsonb))",
+                json(normaliser(operations)));
+    }
+
+    private EtatRessource modifier(Long offreId, Long versionAttendue, String expression, String argument) {
+        List<EtatRessource> etats;
+        try {
+            etats = jdbcTemplate.query("UPDATE offres SET interview_checklist = " + expression + ", " +
+                            "version = version + 1, updated_at = LOCALTIMESTAMP " +
+                            "WHERE id = ? AND (CAST(? AS bigint) IS NULL OR version = ?) " +
+                            "RETURNING version, nombre_candidatures, updated_at",
+                    (rs, i) -> new EtatRessource("o" + rs.getLong("version") + "-" + rs.getInt("nombre_candidatures"),
+                            rs.getTimestamp("updated_at").toLocalDateTime()),
+                    argument, offreId, versionAttendue, versionAttendue);
+        } catch (DataAccessException e) {
+            String etat = e.getMostSpecificCause() instanceof SQLException sql ? sql.getSQLState() : null;
+            if ("PJ409".equals(etat)) throw new ConflitModificationException(message(e));
+            if ("PJ422".equals(etat)) throw new IllegalArgumentException(message(e));
+            throw e;
+        }
+
+        if (etats.isEmpty()) {
+            Long version = jdbcTemplate.query("SELECT version FROM offres WHERE id = ?",
+                    rs -> rs.next() ? rs.getLong(1) : null, offreId);
+            if (version == null) {
+                throw new ResourceNotFoundException("Offre non trouvée avec l'ID: " + offreId);
+            }
+            throw new ConflitModificationException("Checklist modifiée entre-temps (version " + version
+                    + ", attendue " + versionAttendue + ")");
+        }
+        evincerOffreDuCache(offreId);
+        return etats.get(0);
+    }
+
+    /**
+     * Vérifie la forme des opérations et décode les pointeurs JSON ("/a~1b/0" -> ["a/b", "0"]) ;
+     * leur validité par rapport au document est vérifiée par la base.
+     */
+    ArrayNode normaliser(JsonNode operations) {
+        if (operations == null || !operations.isArray()) {
+            throw new IllegalArgumentException("Tableau d'opérations attendu");
+        }
+        if (operations.size() > OPERATIONS_MAX) {
+            throw new IllegalArgumentException("Trop d'opérations (" + operations.size() + " > " + OPERATIONS_MAX + ")");
+        }
+        ArrayNode normalisees = objectMapper.createArrayNode();
+        for (JsonNode operation : operations) {
+            String op = operation.path("op").asText(null);
+            if (!operation.isObject() || op == null || !OPERATIONS.contains(op)) {
+                throw new IllegalArgumentException("Opération invalide : " + operation);
+            }
+            ObjectNode normalisee = normalisees.addObject();
+            normalisee.put("op", op);
+            normalisee.set("path", decouper(operation.get("path")));
+            if ("move".equals(op) || "copy".equals(op)) {
+                normalisee.set("from", decouper(operation.get("from")));
+            }
+            if (AVEC_VALEUR.contains(op)) {
+                if (!operation.has("value")) {
+                    throw new IllegalArgumentException("Valeur manquante : " + operation);
+                }
+                normalisee.set("value", operation.get("value"));
+            }
+        }
+        return normalisees;
+    }
+
+    // Pointeur JSON (RFC 6901) : "" désigne le document, chaque segment commence par '/'
+    private ArrayNode decouper(JsonNode pointeur) {
+        if (pointeur == null || !pointeur.isTextual()
+                || !(pointeur.asText().isEmpty() || pointeur.asText().startsWith("/"))) {
+            throw new IllegalArgumentException("Pointeur JSON invalide : " + pointeur);
+        }
+        ArrayNode segments = objectMapper.createArrayNode();
+        if (pointeur.asText().isEmpty()) return segments;
+        for (String segment : pointeur.asText().substring(1).split("/", -1)) {
+            segments.add(segment.replace("~1", "/").replace("~0", "~"));
+        }
+        return segments;
+    }
+
+    // Message levé par la fonction, sans le préfixe ni le contexte PL/pgSQL ajoutés par le serveur
+    private static String message(DataAccessException e) {
+        String message = e.getMostSpecificCause().getMessage().lines().findFirst().orElse("");
+        return message.startsWith("ERROR: ") ? message.substring("ERROR: ".length()) : message;
+    }
+
+    private String json(Object valeur) {
+        try {
+            return objectMapper.writeValueAsString(valeur);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Checklist non sérialisable", e);
+        }
+    }
+
+    // Offre modifiée en SQL, hors du cache de second niveau : retirée une fois la transaction terminée
+    private void evincerOffreDuCache(Long offreId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                entityManagerFactory.getCache().evict(Offre.class, offreId);
+            }
+        });
+    }
+}
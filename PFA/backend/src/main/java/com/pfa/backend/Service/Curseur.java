@@ -0,0 +1,89 @@
+package com.pfa.backend.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position dans une liste triée par (clé, id) décroissants, encodée en jeton opaque pour le client.
+ * Un jeton illisible lève IllegalArgumentException.
+ */
+final class Curseur {
+
+    static final int TAILLE_PAGE_MAX = 200;
+
+    // Les scores sont dans [0, 100] : -1 classe les candidatures non scorées en dernier
+    static final double SCORE_ABSENT = -1.0;
+
+    private Curseur() {
+    }
+
+    static String encoderScore(Double score, Long id) {
+        return encoder((score != null ? score : SCORE_ABSENT) + "|" + id);
+    }
+
+    static String encoderDate(LocalDateTime date, Long id) {
+        return encoder(date + "|" + id);
+    }
+
+    /**
+     * (score, id) à partir desquels reprendre ; première page si le jeton est absent.
+     */
+    static ScoreEtId lireScore(String jeton) {
+        if (jeton == null || jeton.isBlank()) {
+            return new ScoreEtId(Double.MAX_VALUE, Long.MAX_VALUE);
+        }
+        String[] parties = decoder(jeton);
+        try {
+            return new ScoreEtId(Double.parseDouble(parties[0]), Long.parseLong(parties[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+
+    // Position juste après une ligne lue, sans passer par le jeton
+    static ScoreEtId position(Double score, Long id) {
+        return new ScoreEtId(score != null ? score : SCORE_ABSENT, id);
+    }
+
+    static DateEtId lireDate(String jeton) {
+        if (jeton == null || jeton.isBlank()) {
+            return new DateEtId(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+        }
+        String[] parties = decoder(jeton);
+        try {
+            return new DateEtId(LocalDateTime.parse(parties[0]), Long.parseLong(parties[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+
+    static void verifierTaille(int taille) {
+        if (taille < 1 || taille > TAILLE_PAGE_MAX) {
+            throw new IllegalArgumentException("Taille de page hors bornes (1.." + TAILLE_PAGE_MAX + ")");
+        }
+    }
+
+    private static String encoder(String valeur) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valeur.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decoder(String jeton) {
+        String[] parties;
+        try {
+            parties = new String(Base64.getUrlDecoder().decode(jeton), StandardCharsets.UTF_8).split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+        if (parties.length != 2) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+        return parties;
+    }
+
+    record ScoreEtId(double score, long id) {
+    }
+
+    record DateEtId(LocalDateTime date, long id) {
+    }
+}
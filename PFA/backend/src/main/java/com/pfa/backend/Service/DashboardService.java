@@ -0,0 +1,154 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.dto.AgregatsCandidaturesDTO;
+import com.pfa.backend.dto.DashboardOffreDTO;
+import com.pfa.backend.dto.DashboardRecruteurDTO;
+import com.pfa.backend.entities.StatutCandidature;
+import com.pfa.backend.entities.StatutOffre;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tableau de bord recruteur, lu dans rollups_candidatures (tenue à jour par trigger, cf. V4 et V12) :
+ * le coût d'un chargement dépend du nombre d'offres, jamais du nombre de candidatures.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    static final int DIMENSION_STATUT = 0;
+    static final int DIMENSION_ENTONNOIR = 1;
+    static final int DIMENSION_SCORE = 2;
+
+    private static final int NB_STATUTS = StatutCandidature.values().length;
+    private static final int NB_CASES_SCORE = 101;
+
+    private static final StatutCandidature[] ETAPES_ENTONNOIR = {
+            StatutCandidature.EN_ATTENTE, StatutCandidature.EN_COURS,
+            StatutCandidature.INTERVIEW, StatutCandidature.ACCEPTEE
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public DashboardRecruteurDTO getDashboard(Long recruteurId) {
+        Map<Long, Compteurs> parOffre = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT o.id, o.titre, o.statut, r.dimension, r.cle, r.nombre, r.somme FROM offres o " +
+                        "LEFT JOIN rollups_candidatures r ON r.offre_id = o.id AND r.nombre <> 0 " +
+                        "WHERE o.recruteur_id = ? ORDER BY o.created_at DESC, o.id DESC",
+                rs -> {
+                    long offreId = rs.getLong(1);
+                    Compteurs compteurs = parOffre.get(offreId);
+                    if (compteurs == null) {
+                        compteurs = new Compteurs(offreId, rs.getString(2), StatutOffre.depuisCode(rs.getShort(3)));
+                        parOffre.put(offreId, compteurs);
+                    }
+                    int dimension = rs.getInt(4);
+                    if (!rs.wasNull()) {
+                        compteurs.ajouter(dimension, rs.getInt(5), rs.getLong(6), rs.getBigDecimal(7));
+                    }
+                },
+                recruteurId);
+
+        Compteurs global = new Compteurs(null, null, null);
+        List<DashboardOffreDTO> offres = new ArrayList<>(parOffre.size());
+        for (Compteurs compteurs : parOffre.values()) {
+            global.cumuler(compteurs);
+            offres.add(new DashboardOffreDTO(compteurs.offreId, compteurs.titre, compteurs.statut, compteurs.agreger()));
+        }
+        return new DashboardRecruteurDTO(recruteurId, global.agreger(), offres);
+    }
+
+    /**
+     * Compteurs bruts d'une offre (ou leur somme). La moyenne vient de la somme exacte des scores ;
+     * médiane et p90 sont lus dans l'histogramme, donc arrondis à l'entier.
+     */
+    private static final class Compteurs {
+        final Long offreId;
+        final String titre;
+        final StatutOffre statut;
+        final long[] parStatut = new long[NB_STATUTS];
+        final long[] entonnoir = new long[NB_STATUTS];
+        final long[] histogramme = new long[NB_CASES_SCORE];
+        BigDecimal sommeScores = BigDecimal.ZERO;
+
+        Compteurs(Long offreId, String titre, StatutOffre statut) {
+            this.offreId = offreId;
+            this.titre = titre;
+            this.statut = statut;
+        }
+
+        void ajouter(int dimension, int cle, long nombre, BigDecimal somme) {
+            switch (dimension) {
+                case DIMENSION_STATUT -> parStatut[cle] += nombre;
+                case DIMENSION_ENTONNOIR -> entonnoir[cle] += nombre;
+                case DIMENSION_SCORE -> {
+                    histogramme[cle] += nombre;
+                    sommeScores = sommeScores.add(somme);
+                }
+                default -> { }
+            }
+        }
+
+        void cumuler(Compteurs autre) {
+            for (int i = 0; i < NB_STATUTS; i++) {
+                parStatut[i] += autre.parStatut[i];
+                entonnoir[i] += autre.entonnoir[i];
+            }
+            for (int i = 0; i < NB_CASES_SCORE; i++) {
+                histogramme[i] += autre.histogramme[i];
+            }
+            sommeScores = sommeScores.add(autre.sommeScores);
+        }
+
+        AgregatsCandidaturesDTO agreger() {
+            Map<StatutCandidature, Long> statuts = new EnumMap<>(StatutCandidature.class);
+            long total = 0;
+            for (StatutCandidature s : StatutCandidature.values()) {
+                statuts.put(s, parStatut[s.getCode()]);
+                total += parStatut[s.getCode()];
+            }
+
+            Map<StatutCandidature, Long> etapes = new EnumMap<>(StatutCandidature.class);
+            Map<StatutCandidature, Double> conversion = new EnumMap<>(StatutCandidature.class);
+            for (int i = 0; i < ETAPES_ENTONNOIR.length; i++) {
+                long atteintes = entonnoir[ETAPES_ENTONNOIR[i].getCode()];
+                etapes.put(ETAPES_ENTONNOIR[i], atteintes);
+                if (i > 0) {
+                    long precedentes = entonnoir[ETAPES_ENTONNOIR[i - 1].getCode()];
+                    conversion.put(ETAPES_ENTONNOIR[i], precedentes > 0 ? (double) atteintes / precedentes : null);
+                }
+            }
+
+            long scores = 0;
+            for (int score = 0; score < NB_CASES_SCORE; score++) {
+                scores += histogramme[score];
+            }
+            Double moyenne = scores > 0 ? sommeScores.doubleValue() / scores : null;
+            return new AgregatsCandidaturesDTO(total, statuts, moyenne,
+                    percentile(0.5, scores), percentile(0.9, scores), etapes, conversion);
+        }
+
+        // Rang le plus proche : plus petit score dont l'effectif cumulé atteint p * n
+        private Double percentile(double p, long n) {
+            if (n == 0) return null;
+            long rang = (long) Math.ceil(p * n);
+            long cumul = 0;
+            for (int score = 0; score < NB_CASES_SCORE; score++) {
+                cumul += histogramme[score];
+                if (cumul >= rang) return (double) score;
+            }
+            return 100.0;
+        }
+    }
+}
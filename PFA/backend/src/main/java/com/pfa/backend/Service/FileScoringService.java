@@ -0,0 +1,272 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.scoring.CandidatFeatures;
+import com.pfa.backend.scoring.OffreFeatures;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scoring différé des candidatures déposées en mode asynchrone, via la table file_scoring.
+ *
+ * La file est en base : elle survit aux redémarrages et se partage entre instances. Chaque worker
+ * réserve un lot (FOR UPDATE SKIP LOCKED : deux workers ne prennent jamais les mêmes lignes), calcule
+ * les scores, les écrit par batch JDBC et retire le lot de la file dans la même transaction.
+ * Le rythme des dépôts ne dépend donc plus du coût du scoring.
+ *
+ * Un lot en échec est repris ligne par ligne : seule la candidature fautive est remise à plus tard.
+ * Après tentatives-max échecs elle reste en file sans être reprise (scoring.file.abandonnees,
+ * derniere_erreur) jusqu'à relancerAbandonnees.
+ *
+ * La jauge scoring.file.taille lit le dernier comptage fait par relever, au plus une fois par
+ * scoring.file.mesure-intervalle-ms : un scrape ne touche pas la base.
+ */
+@Slf4j
+@Service
+public class FileScoringService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final SkillVocabulary skillVocabulary;
+    private final ScoringEngineRegistry scoringEngineRegistry;
+    private final int workers;
+    private final int tailleLot;
+    private final int tentativesMax;
+    private final long intervalleMesureNanos;
+
+    private final AtomicInteger workersActifs = new AtomicInteger();
+
+    private final Counter candidaturesNotees;
+    private final Counter lotsEnEchec;
+    private final Counter abandonnees;
+    private final Timer attente;
+
+    // NaN tant qu'aucun comptage n'a réussi ; prochaineMesure n'est lue que par relever (planifié, sans chevauchement)
+    private volatile double taille = Double.NaN;
+    private long prochaineMesure;
+
+    public FileScoringService(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              @Qualifier("scoringExecutor") ThreadPoolTaskExecutor executor,
+                              SkillVocabulary skillVocabulary,
+                              ScoringEngineRegistry scoringEngineRegistry,
+                              MeterRegistry meterRegistry,
+                              @Value("${scoring.file.workers:4}") int workers,
+                              @Value("${scoring.file.taille-lot:200}") int tailleLot,
+                              @Value("${scoring.file.tentatives-max:5}") int tentativesMax,
+                              @Value("${scoring.file.mesure-intervalle-ms:10000}") long intervalleMesureMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.skillVocabulary = skillVocabulary;
+        this.scoringEngineRegistry = scoringEngineRegistry;
+        this.workers = workers;
+        this.tailleLot = tailleLot;
+        this.tentativesMax = tentativesMax;
+        this.intervalleMesureNanos = TimeUnit.MILLISECONDS.toNanos(intervalleMesureMs);
+        this.prochaineMesure = System.nanoTime();
+
+        Gauge.builder("scoring.file.taille", this, f -> f.taille).register(meterRegistry);
+        this.candidaturesNotees = meterRegistry.counter("scoring.file.notees");
+        this.lotsEnEchec = meterRegistry.counter("scoring.file.echecs");
+        this.abandonnees = meterRegistry.counter("scoring.file.abandonnees");
+        // Du dépôt de la candidature à l'écriture de son score
+        this.attente = meterRegistry.timer("scoring.file.attente");
+    }
+
+    /**
+     * Ajoute la candidature à la file, dans la transaction de l'appelant ; les workers sont réveillés
+     * après le commit.
+     */
+    public void mettreEnFile(Long candidatureId) {
+        jdbcTemplate.update("INSERT INTO file_scoring (candidature_id) VALUES (?)", candidatureId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            declencher();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                declencher();
+            }
+        });
+    }
+
+    // Reprend les tâches remises à plus tard, ou laissées par une autre instance / un redémarrage
+    @Scheduled(fixedDelayString = "${scoring.file.intervalle-ms:1000}")
+    public void relever() {
+        declencher();
+        mesurerTaille();
+    }
+
+    private void declencher() {
+        while (true) {
+            int actifs = workersActifs.get();
+            if (actifs >= workers) return;
+            if (workersActifs.compareAndSet(actifs, actifs + 1)) {
+                executor.execute(this::vider);
+                return;
+            }
+        }
+    }
+
+    private void vider() {
+        try {
+            int notees;
+            do {
+                notees = traiterLot();
+                // Lot complet : il en reste sans doute, un worker de plus peut aider
+                if (notees == tailleLot) declencher();
+            } while (notees > 0);
+        } catch (Exception e) {
+            log.error("Échec du worker de scoring", e);
+        } finally {
+            workersActifs.decrementAndGet();
+        }
+    }
+
+    /**
+     * Réserve, note et retire un lot de la file ; renvoie le nombre de candidatures notées.
+     */
+    int traiterLot() {
+        List<Tache> reservees = new ArrayList<>();
+        try {
+            Integer notees = transactionTemplate.execute(status -> {
+                reservees.addAll(jdbcTemplate.query(
+                        "SELECT f.candidature_id, f.cree_le, o.id AS offre_id, o.niveau_experience, o.type_contrat, " +
+                                "o.competences_requises, p.id AS candidat_id, p.niveau_etude, p.formation, p.competences " +
+                                "FROM file_scoring f JOIN candidatures c ON c.id = f.candidature_id " +
+                                "JOIN offres o ON o.id = c.offre_id JOIN candidats p ON p.id = c.candidat_id " +
+                                "WHERE f.disponible_a <= LOCALTIMESTAMP AND f.tentatives < ? " +
+                                "ORDER BY f.disponible_a LIMIT ? FOR UPDATE OF f SKIP LOCKED",
+                        (rs, i) -> new Tache(rs.getLong("candidature_id"), rs.getTimestamp("cree_le"),
+                                rs.getLong("offre_id"), rs.getString("niveau_experience"), rs.getString("type_contrat"),
+                                rs.getString("competences_requises"), rs.getLong("candidat_id"),
+                                rs.getString("niveau_etude"), rs.getString("formation"), rs.getString("competences")),
+                        tentativesMax, tailleLot));
+                if (reservees.isEmpty()) return 0;
+                noter(reservees);
+                return reservees.size();
+            });
+            return notees != null ? notees : 0;
+        } catch (RuntimeException e) {
+            if (reservees.isEmpty()) throw e;
+            lotsEnEchec.increment();
+            log.error("Échec du scoring d'un lot de {} candidatures (à partir de {}), reprise ligne par ligne",
+                    reservees.size(), reservees.get(0).candidatureId(), e);
+            traiterUneParUne(reservees);
+            return reservees.size();
+        }
+    }
+
+    // Chaque ligne dans sa propre transaction : une candidature fautive ne retarde plus le reste du lot
+    private void traiterUneParUne(List<Tache> lot) {
+        for (Tache tache : lot) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // Verrou repris : le lot a été annulé, un autre worker a pu prendre la ligne entre-temps
+                    List<Long> reservee = jdbcTemplate.queryForList("SELECT candidature_id FROM file_scoring " +
+                                    "WHERE candidature_id = ? AND tentatives < ? FOR UPDATE SKIP LOCKED",
+                            Long.class, tache.candidatureId(), tentativesMax);
+                    if (!reservee.isEmpty()) noter(List.of(tache));
+                });
+            } catch (RuntimeException e) {
+                reporter(tache, e);
+            }
+        }
+    }
+
+    private void noter(List<Tache> lot) {
+        String version = scoringEngineRegistry.versionActive();
+        Map<Long, OffreFeatures> offres = new HashMap<>();
+        List<Object[]> scores = new ArrayList<>(lot.size());
+        List<Object[]> ids = new ArrayList<>(lot.size());
+        for (Tache t : lot) {
+            OffreFeatures offre = offres.computeIfAbsent(t.offreId(), id -> OffreFeatures.of(id, t.niveauExperience(),
+                    t.typeContrat(), t.competencesRequises(), skillVocabulary));
+            CandidatFeatures candidat = CandidatFeatures.of(t.candidatId(), t.niveauEtude(), t.formation(),
+                    t.competences(), skillVocabulary);
+            scores.add(new Object[]{scoringEngineRegistry.score(offre, candidat), version, t.candidatureId()});
+            ids.add(new Object[]{t.candidatureId()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE candidatures SET score_matching = ?, version_scoring = ?, " +
+                "version = version + 1 WHERE id = ?", scores);
+        jdbcTemplate.batchUpdate("DELETE FROM file_scoring WHERE candidature_id = ?", ids);
+
+        LocalDateTime maintenant = LocalDateTime.now();
+        lot.forEach(t -> attente.record(Duration.between(t.creeLe().toLocalDateTime(), maintenant)));
+        candidaturesNotees.increment(lot.size());
+    }
+
+    // La candidature retourne en file plus tard (1 s, 2 s, 4 s...) ; au-delà de tentatives-max elle n'est plus reprise
+    private void reporter(Tache tache, RuntimeException cause) {
+        log.warn("Échec du scoring de la candidature {} : {}", tache.candidatureId(), cause.toString());
+        try {
+            Integer tentatives = transactionTemplate.execute(status -> jdbcTemplate.query(
+                    "UPDATE file_scoring SET tentatives = tentatives + 1, derniere_erreur = ?, " +
+                            "disponible_a = LOCALTIMESTAMP + interval '1 second' * power(2, tentatives) " +
+                            "WHERE candidature_id = ? RETURNING tentatives",
+                    rs -> rs.next() ? rs.getInt(1) : null, String.valueOf(cause.getMessage()), tache.candidatureId()));
+            if (tentatives != null && tentatives >= tentativesMax) {
+                abandonnees.increment();
+                log.error("Candidature {} abandonnée par le scoring après {} tentatives", tache.candidatureId(), tentatives);
+            }
+        } catch (DataAccessException e) {
+            log.error("Impossible de reporter la candidature {} en échec", tache.candidatureId(), e);
+        }
+    }
+
+    /**
+     * Remet en file les candidatures abandonnées après tentatives-max échecs (une fois la cause corrigée).
+     *
+     * @return le nombre de candidatures remises en file
+     */
+    public int relancerAbandonnees() {
+        int relancees = jdbcTemplate.update("UPDATE file_scoring SET tentatives = 0, disponible_a = LOCALTIMESTAMP " +
+                "WHERE tentatives >= ?", tentativesMax);
+        if (relancees > 0) declencher();
+        return relancees;
+    }
+
+    private void mesurerTaille() {
+        long maintenant = System.nanoTime();
+        if (maintenant - prochaineMesure < 0) return;
+        prochaineMesure = maintenant + intervalleMesureNanos;
+        try {
+            Long compte = jdbcTemplate.queryForObject("SELECT count(*) FROM file_scoring", Long.class);
+            taille = compte != null ? compte : 0;
+        } catch (DataAccessException e) {
+            taille = Double.NaN;
+        }
+    }
+
+    private record Tache(long candidatureId, Timestamp creeLe, long offreId, String niveauExperience,
+                         String typeContrat, String competencesRequises, long candidatId, String niveauEtude,
+                         String formation, String competences) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.pfa.backend.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom extensible sur des identifiants long : "absent" est certain, "présent" ne l'est
+ * qu'à un taux de faux positifs près. Pas de suppression possible.
+ *
+ * Quand une tranche atteint sa capacité, une nouvelle tranche deux fois plus grande lui est ajoutée
+ * (et au taux de faux positifs divisé par deux) : le taux global reste borné sans jamais relire les
+ * éléments déjà insérés. Lectures et insertions sans verrou (bits posés par CAS).
+ */
+final class FiltreBloom {
+
+    private final double tauxFauxPositifs;
+    private volatile Tranche[] tranches;
+
+    FiltreBloom(int capaciteInitiale, double tauxFauxPositifs) {
+        this.tauxFauxPositifs = tauxFauxPositifs;
+        // La série des taux (p/2, p/4, ...) somme à p
+        this.tranches = new Tranche[]{new Tranche(Math.max(capaciteInitiale, 1), tauxFauxPositifs / 2)};
+    }
+
+    void ajouter(long valeur) {
+        long hachage = melanger(valeur);
+        Tranche[] courantes = tranches;
+        Tranche derniere = courantes[courantes.length - 1];
+        if (derniere.elements.get() >= derniere.capacite) {
+            derniere = etendre(courantes);
+        }
+        derniere.poser(hachage);
+    }
+
+    boolean peutContenir(long valeur) {
+        long hachage = melanger(valeur);
+        for (Tranche tranche : tranches) {
+            if (tranche.contient(hachage)) return true;
+        }
+        return false;
+    }
+
+    int tailleOctets() {
+        int octets = 0;
+        for (Tranche tranche : tranches) octets += tranche.bits.length() * Long.BYTES;
+        return octets;
+    }
+
+    private synchronized Tranche etendre(Tranche[] vues) {
+        Tranche[] courantes = tranches;
+        if (courantes != vues) return courantes[courantes.length - 1];
+        Tranche derniere = courantes[courantes.length - 1];
+        Tranche[] etendues = Arrays.copyOf(courantes, courantes.length + 1);
+        etendues[courantes.length] = new Tranche(derniere.capacite * 2,
+                tauxFauxPositifs / (1L << Math.min(etendues.length, 62)));
+        tranches = etendues;
+        return etendues[courantes.length];
+    }
+
+    // Finaliseur de MurmurHash3 : deux hachages de 32 bits pour le double hachage de Kirsch-Mitzenmacher
+    private static long melanger(long valeur) {
+        long z = valeur * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static final class Tranche {
+
+        private final int capacite;
+        private final int nombreBits;
+        private final int nombreHachages;
+        private final AtomicLongArray bits;
+        private final AtomicInteger elements = new AtomicInteger();
+
+        Tranche(int capacite, double tauxFauxPositifs) {
+            double ln2 = Math.log(2);
+            long optimal = (long) Math.ceil(-capacite * Math.log(tauxFauxPositifs) / (ln2 * ln2));
+            this.capacite = capacite;
+            this.nombreBits = (int) Math.min(Math.max(optimal, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+            this.nombreHachages = Math.max(1, (int) Math.round((double) nombreBits / capacite * ln2));
+            this.bits = new AtomicLongArray((nombreBits + Long.SIZE - 1) / Long.SIZE);
+        }
+
+        void poser(long hachage) {
+            for (int i = 0; i < nombreHachages; i++) {
+                int index = index(hachage, i);
+                long masque = 1L << index;
+                bits.getAndAccumulate(index >>> 6, masque, (mot, m) -> mot | m);
+            }
+            elements.incrementAndGet();
+        }
+
+        boolean contient(long hachage) {
+            for (int i = 0; i < nombreHachages; i++) {
+                int index = index(hachage, i);
+                if ((bits.get(index >>> 6) & (1L << index)) == 0) return false;
+            }
+            return true;
+        }
+
+        private int index(long hachage, int i) {
+            int combine = (int) hachage + i * (int) (hachage >>> 32);
+            return (combine & Integer.MAX_VALUE) % nombreBits;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.pfa.backend.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pfa.backend.dto.FormatFichier;
+import com.pfa.backend.dto.RapportImportDTO;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.event.CandidatEnregistreEvent;
+import com.pfa.backend.repository.CandidatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * Import de candidats en masse (CSV avec en-tête, ou NDJSON : un objet JSON par ligne).
+ *
+ * Le flux est lu ligne à ligne et écrit par lots de taille fixe, chacun dans sa propre transaction :
+ * la mémoire ne dépend que de la taille du lot, pas de celle du fichier. La lecture est suspendue pendant
+ * l'écriture d'un lot, ce qui ralentit l'émetteur (contre-pression TCP) si la base ne suit pas.
+ * Un lot déjà validé n'est pas annulé si une ligne suivante est invalide. Un lot refusé par la base est
+ * repris ligne par ligne : les lignes valides sont importées, chaque ligne refusée est rapportée.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportCandidatsService {
+
+    // Colonnes varchar(255) de la table candidats (competences est en TEXT)
+    private static final int TAILLE_CHAMP_MAX = 255;
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final List<String> CHAMPS = List.of(
+            "nom", "prenom", "email", "telephone", "competences", "niveauetude", "formation", "cvurl");
+
+    private final CandidatRepository candidatRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${import.candidats.taille-lot:500}")
+    private int tailleLot;
+
+    @Value("${import.candidats.erreurs-max:1000}")
+    private int erreursMax;
+
+    public RapportImportDTO importer(InputStream flux, FormatFichier format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(flux, StandardCharsets.UTF_8));
+        Import enCours = new Import();
+        if (format == FormatFichier.CSV) {
+            lireCsv(new LecteurCsv(reader), enCours);
+        } else {
+            lireNdjson(reader, enCours);
+        }
+        enCours.ecrireLot();
+
+        double duree = (System.nanoTime() - enCours.debut) / 1e9;
+        log.info("Import de candidats : {} lignes lues, {} importées, {} rejetées en {} s",
+                enCours.lues, enCours.importees, enCours.rejetees, String.format(Locale.ROOT, "%.1f", duree));
+        return new RapportImportDTO(enCours.lues, enCours.importees, enCours.rejetees, enCours.erreurs,
+                enCours.erreursTronquees, duree, duree > 0 ? enCours.importees / duree : 0);
+    }
+
+    private void lireCsv(LecteurCsv lecteur, Import enCours) throws IOException {
+        List<String> entete = lecteur.lireEntete();
+        if (entete == null) {
+            throw new IllegalArgumentException("Fichier vide");
+        }
+        List<String> colonnes = entete.stream().map(ImportCandidatsService::normaliser).toList();
+        if (!colonnes.contains("nom") || !colonnes.contains("email")) {
+            throw new IllegalArgumentException("En-tête CSV invalide : colonnes nom et email obligatoires");
+        }
+
+        while (true) {
+            List<String> valeurs;
+            try {
+                valeurs = lecteur.lireEnregistrement();
+            } catch (LecteurCsv.EnregistrementInvalideException e) {
+                enCours.rejeter(lecteur.getLigne(), e.getMessage());
+                continue;
+            }
+            if (valeurs == null) return;
+            if (valeurs.size() > colonnes.size()) {
+                enCours.rejeter(lecteur.getLigne(), "Trop de colonnes (" + valeurs.size() + ")");
+                continue;
+            }
+            Map<String, String> champs = new HashMap<>();
+            for (int i = 0; i < valeurs.size(); i++) {
+                champs.put(colonnes.get(i), valeurs.get(i));
+            }
+            enCours.ajouter(lecteur.getLigne(), champs);
+        }
+    }
+
+    private void lireNdjson(BufferedReader reader, Import enCours) throws IOException {
+        long numero = 0;
+        String texte;
+        while ((texte = reader.readLine()) != null) {
+            numero++;
+            if (texte.isBlank()) continue;
+            JsonNode objet;
+            try {
+                objet = objectMapper.readTree(texte);
+            } catch (JsonProcessingException e) {
+                enCours.rejeter(numero, "JSON invalide : " + e.getOriginalMessage());
+                continue;
+            }
+            if (!objet.isObject()) {
+                enCours.rejeter(numero, "Objet JSON attendu");
+                continue;
+            }
+            Map<String, String> champs = new HashMap<>();
+            objet.fields().forEachRemaining(e -> champs.put(normaliser(e.getKey()), texte(e.getValue())));
+            enCours.ajouter(numero, champs);
+        }
+    }
+
+    // "niveau_etude", "Niveau Étude" et "niveauEtude" désignent la même colonne
+    private static String normaliser(String nom) {
+        return Normalizer.normalize(nom.trim().toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replaceAll("[\\p{M}\\s_-]", "");
+    }
+
+    // Les compétences peuvent être données sous forme de tableau JSON
+    private static String texte(JsonNode valeur) {
+        if (valeur.isNull()) return null;
+        if (!valeur.isArray()) return valeur.asText();
+        StringJoiner liste = new StringJoiner(", ");
+        valeur.forEach(v -> liste.add(v.asText()));
+        return liste.toString();
+    }
+
+    private static String valeur(Map<String, String> champs, String nom) {
+        String v = champs.get(nom);
+        return v == null || v.isBlank() ? null : v.trim();
+    }
+
+    /**
+     * Message d'erreur de validation, ou null si la ligne est acceptable.
+     */
+    private static String valider(Map<String, String> champs) {
+        String email = valeur(champs, "email");
+        if (valeur(champs, "nom") == null) return "Nom manquant";
+        if (email == null) return "Email manquant";
+        if (!EMAIL.matcher(email).matches()) return "Email invalide : " + email;
+        for (String nom : CHAMPS) {
+            String v = valeur(champs, nom);
+            if (!"competences".equals(nom) && v != null && v.length() > TAILLE_CHAMP_MAX) {
+                return "Champ " + nom + " trop long (" + v.length() + " > " + TAILLE_CHAMP_MAX + ")";
+            }
+        }
+        return null;
+    }
+
+    private static CandidateProfile versCandidat(Map<String, String> champs) {
+        CandidateProfile candidat = new CandidateProfile();
+        candidat.setNom(valeur(champs, "nom"));
+        candidat.setPrenom(valeur(champs, "prenom"));
+        candidat.setEmail(valeur(champs, "email"));
+        candidat.setTelephone(valeur(champs, "telephone"));
+        candidat.setCompetences(valeur(champs, "competences"));
+        candidat.setNiveauEtude(valeur(champs, "niveauetude"));
+        candidat.setFormation(valeur(champs, "formation"));
+        candidat.setCvUrl(valeur(champs, "cvurl"));
+        return candidat;
+    }
+
+    /**
+     * État d'un import : le lot en attente d'écriture et les compteurs du rapport.
+     */
+    private final class Import {
+
+        private final long debut = System.nanoTime();
+        private final List<CandidateProfile> lot = new ArrayList<>(tailleLot);
+        private final List<Long> lignesDuLot = new ArrayList<>(tailleLot);
+        private final List<RapportImportDTO.ErreurLigne> erreurs = new ArrayList<>();
+        private long lues;
+        private long importees;
+        private long rejetees;
+        private boolean erreursTronquees;
+
+        void ajouter(long ligne, Map<String, String> champs) {
+            lues++;
+            String erreur = valider(champs);
+            if (erreur != null) {
+                rejetees++;
+                noterErreur(ligne, erreur);
+                return;
+            }
+            lot.add(versCandidat(champs));
+            lignesDuLot.add(ligne);
+            if (lot.size() >= tailleLot) {
+                ecrireLot();
+            }
+        }
+
+        void rejeter(long ligne, String message) {
+            lues++;
+            rejetees++;
+            noterErreur(ligne, message);
+        }
+
+        void ecrireLot() {
+            if (lot.isEmpty()) return;
+            try {
+                // Ids par séquence pooled : les INSERT partent en batch JDBC (hibernate.jdbc.batch_size)
+                transactionTemplate.executeWithoutResult(status -> {
+                    candidatRepository.saveAll(lot);
+                    // Index des compétences mis à jour après le commit du lot
+                    lot.forEach(c -> eventPublisher.publishEvent(new CandidatEnregistreEvent(c, true)));
+                });
+                importees += lot.size();
+            } catch (DataAccessException e) {
+                log.warn("Lot d'import rejeté à partir de la ligne {}, reprise ligne par ligne", lignesDuLot.get(0), e);
+                ecrireUneParUne();
+            }
+            // Les entités sont détachées à la fin de la transaction : rien n'est retenu d'un lot à l'autre
+            lot.clear();
+            lignesDuLot.clear();
+        }
+
+        // Une transaction par ligne : seule la ligne fautive est rejetée, avec son numéro et la cause
+        private void ecrireUneParUne() {
+            for (int i = 0; i < lot.size(); i++) {
+                CandidateProfile candidat = lot.get(i);
+                // Id attribué pendant le lot annulé : la ligne doit être insérée, pas fusionnée
+                candidat.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        candidatRepository.saveAndFlush(candidat);
+                        eventPublisher.publishEvent(new CandidatEnregistreEvent(candidat, true));
+                    });
+                    importees++;
+                } catch (DataAccessException e) {
+                    rejetees++;
+                    noterErreur(lignesDuLot.get(i), "Rejetée par la base : " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        private void noterErreur(long ligne, String message) {
+            if (erreurs.size() < erreursMax) {
+                erreurs.add(new RapportImportDTO.ErreurLigne(ligne, message));
+            } else {
+                erreursTronquees = true;
+            }
+        }
+    }
+}
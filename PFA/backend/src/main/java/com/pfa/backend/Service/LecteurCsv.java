@@ -0,0 +1,111 @@
+package com.pfa.backend.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture incrémentale d'un CSV (RFC 4180) : un enregistrement à la fois, sans charger le fichier.
+ * Le séparateur (',' ou ';', export Excel français) est déduit de la ligne d'en-tête.
+ */
+final class LecteurCsv {
+
+    // Borne la mémoire si un guillemet n'est jamais refermé
+    static final int TAILLE_ENREGISTREMENT_MAX = 64 * 1024;
+
+    private final BufferedReader reader;
+    private char separateur = ',';
+    // Numéro de la dernière ligne physique lue (un champ entre guillemets peut en couvrir plusieurs)
+    private long ligne;
+
+    LecteurCsv(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Lit l'en-tête et fixe le séparateur ; null si le fichier est vide.
+     */
+    List<String> lireEntete() throws IOException {
+        String texte = reader.readLine();
+        if (texte == null) return null;
+        ligne++;
+        if (!texte.isEmpty() && texte.charAt(0) == '\uFEFF') {
+            texte = texte.substring(1);
+        }
+        if (texte.indexOf(';') >= 0 && texte.indexOf(',') < 0) {
+            separateur = ';';
+        }
+        return decouper(texte);
+    }
+
+    /**
+     * Enregistrement suivant (lignes vides ignorées) ; null en fin de fichier.
+     * Un enregistrement illisible lève EnregistrementInvalideException, la lecture reprend à la ligne suivante.
+     */
+    List<String> lireEnregistrement() throws IOException {
+        String texte;
+        do {
+            texte = reader.readLine();
+            if (texte == null) return null;
+            ligne++;
+        } while (texte.isBlank());
+        return decouper(texte);
+    }
+
+    long getLigne() {
+        return ligne;
+    }
+
+    private List<String> decouper(String texte) throws IOException {
+        List<String> champs = new ArrayList<>();
+        StringBuilder champ = new StringBuilder();
+        boolean entreGuillemets = false;
+        int longueur = texte.length();
+        int i = 0;
+        while (true) {
+            if (i == texte.length()) {
+                if (!entreGuillemets) break;
+                String suite = reader.readLine();
+                if (suite == null) {
+                    throw new EnregistrementInvalideException("Guillemet non refermé en fin de fichier");
+                }
+                ligne++;
+                longueur += suite.length() + 1;
+                if (longueur > TAILLE_ENREGISTREMENT_MAX) {
+                    throw new EnregistrementInvalideException("Enregistrement trop long (guillemet non refermé ?)");
+                }
+                champ.append('\n');
+                texte = suite;
+                i = 0;
+                continue;
+            }
+            char c = texte.charAt(i++);
+            if (entreGuillemets) {
+                if (c != '"') {
+                    champ.append(c);
+                } else if (i < texte.length() && texte.charAt(i) == '"') {
+                    champ.append('"');
+                    i++;
+                } else {
+                    entreGuillemets = false;
+                }
+            } else if (c == '"') {
+                entreGuillemets = true;
+            } else if (c == separateur) {
+                champs.add(champ.toString());
+                champ.setLength(0);
+            } else {
+                champ.append(c);
+            }
+        }
+        champs.add(champ.toString());
+        return champs;
+    }
+
+    static final class EnregistrementInvalideException extends RuntimeException {
+        EnregistrementInvalideException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.entities.StatutOffre;
+import com.pfa.backend.scoring.CandidatFeatures;
+import com.pfa.backend.scoring.OffreFeatures;
+import com.pfa.backend.scoring.ScoringEngine;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import com.pfa.backend.scoring.TopK;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Campagne hebdomadaire "suggested matches" : score de chaque offre ACTIVE contre chaque
+ * profil candidat.
+ *
+ * Les offres actives (features seulement) restent en mémoire ; les candidats sont lus par
+ * morceaux en keyset et chaque morceau est scoré en parallèle sur un pool fork-join. Chaque
+ * thread réutilise ses propres tas bornés : seuls les top-K par offre et par candidat sont
+ * conservés, puis écrits par insertions JDBC en batch dans suggestions_matching.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MatchMatrixJob {
+
+    private static final int TAILLE_BATCH_INSERT = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SkillVocabulary skillVocabulary;
+    private final ScoringEngineRegistry scoringEngineRegistry;
+
+    @Value("${matching.matrix.top-k:20}")
+    private int k;
+
+    @Value("${matching.matrix.chunk-size:2000}")
+    private int tailleMorceau;
+
+    @Value("${matching.matrix.parallelism:0}")
+    private int parallelisme;
+
+    private final AtomicBoolean enCours = new AtomicBoolean();
+
+    @Scheduled(cron = "${matching.matrix.cron:0 0 2 * * MON}")
+    public void executerPlanifie() {
+        executer();
+    }
+
+    public RapportMatrice executer() {
+        if (!enCours.compareAndSet(false, true)) {
+            throw new IllegalStateException("Une campagne de matching est déjà en cours");
+        }
+        try {
+            return calculer();
+        } finally {
+            enCours.set(false);
+        }
+    }
+
+    private RapportMatrice calculer() {
+        long debut = System.nanoTime();
+        long campagne = System.currentTimeMillis();
+        ScoringEngine moteur = scoringEngineRegistry.actif();
+
+        OffreFeatures[] offres = chargerOffresActives();
+        int nbOffres = offres.length;
+        ConcurrentLinkedQueue<Tampon> tousLesTampons = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Tampon> tamponParThread = ThreadLocal.withInitial(() -> {
+            Tampon tampon = new Tampon(nbOffres, k);
+            tousLesTampons.add(tampon);
+            return tampon;
+        });
+
+        // Résultats par candidat d'un morceau : chaque case n'est écrite que par une tâche
+        long[][] idsCandidat = new long[tailleMorceau][k];
+        double[][] scoresCandidat = new double[tailleMorceau][k];
+        int[] taillesCandidat = new int[tailleMorceau];
+
+        ForkJoinPool pool = parallelisme > 0 ? new ForkJoinPool(parallelisme) : new ForkJoinPool();
+        long paires = 0;
+        long candidats = 0;
+        try {
+            long dernierId = 0;
+            while (nbOffres > 0) {
+                List<CandidatFeatures> morceau = chargerCandidats(dernierId);
+                if (morceau.isEmpty()) break;
+
+                pool.submit(() -> IntStream.range(0, morceau.size()).parallel().forEach(i -> {
+                    Tampon tampon = tamponParThread.get();
+                    CandidatFeatures candidat = morceau.get(i);
+                    TopK offresDuCandidat = tampon.offresDuCandidat;
+                    offresDuCandidat.vider();
+
+                    for (int o = 0; o < nbOffres; o++) {
+                        double score = moteur.score(offres[o], candidat);
+                        offresDuCandidat.offrir(offres[o].getOffreId(), score);
+                        tampon.candidatsParOffre[o].offrir(candidat.getCandidatId(), score);
+                    }
+                    taillesCandidat[i] = offresDuCandidat.extraireTries(idsCandidat[i], scoresCandidat[i]);
+                })).get();
+
+                ecrireSuggestionsCandidats(campagne, morceau, idsCandidat, scoresCandidat, taillesCandidat);
+
+                paires += (long) morceau.size() * nbOffres;
+                candidats += morceau.size();
+                dernierId = morceau.get(morceau.size() - 1).getCandidatId();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Campagne de matching interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Échec de la campagne de matching", e.getCause());
+        } finally {
+            pool.shutdown();
+            tamponParThread.remove(); // si le thread appelant a aidé le pool
+        }
+
+        ecrireSuggestionsOffres(campagne, offres, new ArrayList<>(tousLesTampons));
+
+        // La campagne précédente n'est retirée qu'une fois la nouvelle complète
+        jdbcTemplate.update("DELETE FROM suggestions_matching WHERE campagne <> ?", campagne);
+
+        double secondes = Math.max((System.nanoTime() - debut) / 1e9, 1e-9);
+        RapportMatrice rapport = new RapportMatrice(campagne, nbOffres, candidats, paires, secondes, paires / secondes);
+        log.info("Campagne de matching {} : {} offres x {} candidats = {} paires en {} s ({} paires/s)",
+                campagne, nbOffres, candidats, paires, String.format("%.1f", secondes),
+                String.format("%.0f", rapport.getPairesParSeconde()));
+        return rapport;
+    }
+
+    private OffreFeatures[] chargerOffresActives() {
+        List<OffreFeatures> offres = new ArrayList<>();
+        long dernierId = 0;
+        while (true) {
+            List<OffreFeatures> morceau = jdbcTemplate.query(
+                    "SELECT id, niveau_experience, type_contrat, competences_requises FROM offres " +
+                            "WHERE statut = ? AND id > ? ORDER BY id LIMIT ?",
+                    (rs, i) -> OffreFeatures.of(rs.getLong("id"), rs.getString("niveau_experience"),
+                            rs.getString("type_contrat"), rs.getString("competences_requises"), skillVocabulary),
+                    StatutOffre.ACTIVE.getCode(), dernierId, tailleMorceau);
+            if (morceau.isEmpty()) break;
+            offres.addAll(morceau);
+            dernierId = morceau.get(morceau.size() - 1).getOffreId();
+        }
+        return offres.toArray(new OffreFeatures[0]);
+    }
+
+    private List<CandidatFeatures> chargerCandidats(long dernierId) {
+        return jdbcTemplate.query(
+                "SELECT id, niveau_etude, formation, competences FROM candidats WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, i) -> CandidatFeatures.of(rs.getLong("id"), rs.getString("niveau_etude"),
+                        rs.getString("formation"), rs.getString("competences"), skillVocabulary),
+                dernierId, tailleMorceau);
+    }
+
+    private void ecrireSuggestionsCandidats(long campagne, List<CandidatFeatures> morceau,
+                                            long[][] ids, double[][] scores, int[] tailles) {
+        List<Object[]> lignes = new ArrayList<>();
+        for (int i = 0; i < morceau.size(); i++) {
+            long candidatId = morceau.get(i).getCandidatId();
+            for (int r = 0; r < tailles[i]; r++) {
+                lignes.add(ligne(campagne, "CANDIDAT", ids[i][r], candidatId, scores[i][r], r + 1));
+            }
+        }
+        inserer(lignes);
+    }
+
+    private void ecrireSuggestionsOffres(long campagne, OffreFeatures[] offres, List<Tampon> tampons) {
+        TopK fusion = new TopK(k);
+        long[] ids = new long[k];
+        double[] scores = new double[k];
+        List<Object[]> lignes = new ArrayList<>();
+
+        for (int o = 0; o < offres.length; o++) {
+            fusion.vider();
+            for (Tampon tampon : tampons) {
+                fusion.fusionner(tampon.candidatsParOffre[o]);
+            }
+            int n = fusion.extraireTries(ids, scores);
+            for (int r = 0; r < n; r++) {
+                lignes.add(ligne(campagne, "OFFRE", offres[o].getOffreId(), ids[r], scores[r], r + 1));
+            }
+            if (lignes.size() >= TAILLE_BATCH_INSERT) {
+                inserer(lignes);
+                lignes.clear();
+            }
+        }
+        inserer(lignes);
+    }
+
+    private Object[] ligne(long campagne, String sens, long offreId, long candidatId, double score, int rang) {
+        return new Object[]{campagne, sens, offreId, candidatId, score, rang, Timestamp.valueOf(LocalDateTime.now())};
+    }
+
+    private void inserer(List<Object[]> lignes) {
+        if (lignes.isEmpty()) return;
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "INSERT INTO suggestions_matching (campagne, sens, offre_id, candidat_id, score, rang, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                lignes, TAILLE_BATCH_INSERT, (ps, ligne) -> {
+                    for (int i = 0; i < ligne.length; i++) {
+                        ps.setObject(i + 1, ligne[i]);
+                    }
+                }));
+    }
+
+    /**
+     * Tampons réutilisés par un thread du pool pendant toute la campagne.
+     */
+    private static final class Tampon {
+        final TopK[] candidatsParOffre;
+        final TopK offresDuCandidat;
+
+        Tampon(int nbOffres, int k) {
+            this.candidatsParOffre = new TopK[nbOffres];
+            for (int o = 0; o < nbOffres; o++) {
+                candidatsParOffre[o] = new TopK(k);
+            }
+            this.offresDuCandidat = new TopK(k);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class RapportMatrice {
+        private final long campagne;
+        private final int offres;
+        private final long candidats;
+        private final long paires;
+        private final double dureeSecondes;
+        private final double pairesParSeconde;
+    }
+}
@@ -1,23 +1,58 @@
 package com.pfa.backend.Service;
 
+import com.pfa.backend.config.LectureSurPrimaire;
+import com.pfa.backend.dto.EtatRessource;
 import com.pfa.backend.dto.OffreDTO;
+import com.pfa.backend.dto.PageCurseur;
+import com.pfa.backend.dto.RessourceVersionnee;
 import com.pfa.backend.entities.Offre;
 import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.entities.StatutOffre;
+import com.pfa.backend.event.OffreFermeeEvent;
+import com.pfa.backend.event.OffreModifieeEvent;
 import com.pfa.backend.repository.OffreRepository;
 import com.pfa.backend.repository.RecruteurRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class OffreService {
+public class OffreService implements SmartInitializingSingleton {
 
     private final OffreRepository offreRepository;
     private final RecruteurRepository recruteurRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${offres.compteur.recalcul-au-demarrage:false}")
+    private boolean recalculCompteursAuDemarrage;
+
+    /**
+     * Remet d'aplomb les compteurs de candidatures (une seule requête ensembliste). Étape d'exploitation
+     * explicite (offres.compteur.recalcul-au-demarrage=true) : la migration V1_1 a compté l'existant, et
+     * le compteur est tenu ensuite dans la transaction de chaque candidature.
+     *
+     * Lancée avant l'ouverture du serveur web, sous un verrou SHARE sur candidatures : les candidatures
+     * reçues entre-temps par les autres instances attendent le recomptage au lieu d'être écrasées par lui.
+     */
+    @Override
+    @Transactional
+    public void afterSingletonsInstantiated() {
+        if (!recalculCompteursAuDemarrage) return;
+        offreRepository.verrouillerCandidatures();
+        int corriges = offreRepository.recalculerCompteursCandidatures();
+        log.info("Compteurs de candidatures recalculés pour {} offres", corriges);
+    }
 
     // Fonction 1: CRÉER OFFRE
     @Transactional
@@ -59,8 +94,28 @@ public class OffreService {
         // Note: Assumes findByRecruteurIdOrderByCreatedAtDesc exists in OffreRepository
         List<Offre> offres = offreRepository.findByRecruteurIdOrderByCreatedAtDesc(recruteurId);
         return offres.stream()
-                .map(this::convertToDTO)
+                .map(OffreService::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Même liste, par pages : tri (createdAt, id) décroissants, reprise par curseur
+    @Transactional(readOnly = true)
+    public PageCurseur<OffreDTO> getPageOffresParRecruteur(Long recruteurId, String curseur, int taille) {
+        Curseur.verifierTaille(taille);
+        Curseur.DateEtId apres = Curseur.lireDate(curseur);
+        List<Offre> offres = offreRepository.findPageByRecruteurId(
+                recruteurId, apres.date(), apres.id(), Limit.of(taille + 1));
+
+        String suivant = null;
+        if (offres.size() > taille) {
+            offres = offres.subList(0, taille);
+            Offre derniere = offres.get(taille - 1);
+            suivant = Curseur.encoderDate(derniere.getCreatedAt(), derniere.getId());
+        }
+        List<OffreDTO> dtos = offres.stream()
+                .map(OffreService::convertToDTO)
                 .collect(Collectors.toList());
+        return new PageCurseur<>(dtos, suivant);
     }
 
     @Transactional(readOnly = true)
@@ -70,11 +125,40 @@ public class OffreService {
         return convertToDTO(offre);
     }
 
+    // Offre et validateurs de l'entité lue : celle-ci peut venir du cache, l'ETag suit ce qui est renvoyé
+    @LectureSurPrimaire
+    @Transactional(readOnly = true)
+    public RessourceVersionnee<OffreDTO> getOffreVersionnee(Long id) {
+        Offre offre = offreRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Offre non trouvée"));
+        return new RessourceVersionnee<>(convertToDTO(offre), etatDe(offre));
+    }
+
+    // Même forme que OffreRepository.findEtatById
+    public static EtatRessource etatDe(Offre offre) {
+        return new EtatRessource("o" + offre.getVersion() + "-" + offre.getNombreCandidatures(), offre.getUpdatedAt());
+    }
+
+    // Validateurs HTTP de l'offre, sans la charger (GET conditionnels) ; sur le primaire, comme l'offre :
+    // l'ETag relu après une modification sert au If-Match suivant
+    @LectureSurPrimaire
+    @Transactional(readOnly = true)
+    public EtatRessource getEtatOffre(Long id) {
+        return offreRepository.findEtatById(id)
+                .orElseThrow(() -> new RuntimeException("Offre non trouvée"));
+    }
+
     @Transactional
     public OffreDTO modifierOffre(Long id, OffreDTO offreDTO) {
         Offre offre = offreRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Offre non trouvée"));
 
+        // Les scores des candidatures ne dépendent que de ces trois critères
+        boolean critereScoreModifie =
+                !Objects.equals(offre.getCompetencesRequises(), offreDTO.getCompetencesRequises())
+                        || !Objects.equals(offre.getNiveauExperience(), offreDTO.getNiveauExperience())
+                        || !Objects.equals(offre.getTypeContrat(), offreDTO.getTypeContrat());
+
         offre.setTitre(offreDTO.getTitre());
         offre.setDescription(offreDTO.getDescription());
         offre.setTypeContrat(offreDTO.getTypeContrat());
@@ -83,11 +167,19 @@ public class OffreService {
         offre.setCompetencesRequises(offreDTO.getCompetencesRequises());
         offre.setSalaireMin(offreDTO.getSalaireMin());
         offre.setSalaireMax(offreDTO.getSalaireMax());
-        offre.setStatut(offreDTO.getStatut());
+        if (offreDTO.getStatut() != null) {
+            signalerFermeture(offre, offreDTO.getStatut());
+            offre.setStatut(offreDTO.getStatut());
+        }
         offre.setDateExpiration(offreDTO.getDateExpiration());
         // updatedAt is handled by @PreUpdate
 
         Offre updatedOffre = offreRepository.save(offre);
+
+        // Re-scoring des candidatures en tâche de fond, après le commit
+        if (critereScoreModifie) {
+            eventPublisher.publishEvent(new OffreModifieeEvent(id));
+        }
         return convertToDTO(updatedOffre);
     }
 
@@ -96,17 +188,19 @@ public class OffreService {
         Offre offre = offreRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Offre non trouvée"));
         offreRepository.delete(offre);
+        eventPublisher.publishEvent(new OffreFermeeEvent(id));
     }
 
     @Transactional
-    public OffreDTO changerStatutOffre(Long id, String nouveauStatut) {
+    public OffreDTO changerStatutOffre(Long id, StatutOffre nouveauStatut) {
         Offre offre = offreRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Offre non trouvée"));
 
+        signalerFermeture(offre, nouveauStatut);
         offre.setStatut(nouveauStatut);
 
         // Ensure datePublication is set if the offer moves from BROUILLON to ACTIVE
-        if ("ACTIVE".equals(nouveauStatut) && offre.getDatePublication() == null) {
+        if (nouveauStatut == StatutOffre.ACTIVE && offre.getDatePublication() == null) {
             offre.setDatePublication(LocalDateTime.now());
         }
         // updatedAt is handled by @PreUpdate
@@ -115,17 +209,24 @@ public class OffreService {
         return convertToDTO(updatedOffre);
     }
 
+    // Traité après le commit (pré-contrôle des candidatures : le filtre de l'offre est libéré)
+    private void signalerFermeture(Offre offre, StatutOffre nouveauStatut) {
+        if (nouveauStatut == StatutOffre.FERMEE && offre.getStatut() != StatutOffre.FERMEE) {
+            eventPublisher.publishEvent(new OffreFermeeEvent(offre.getId()));
+        }
+    }
+
     @Transactional(readOnly = true)
-    public List<OffreDTO> getOffresParStatut(Long recruteurId, String statut) {
+    public List<OffreDTO> getOffresParStatut(Long recruteurId, StatutOffre statut) {
         // Note: Assumes findByRecruteurIdAndStatut exists in OffreRepository
         List<Offre> offres = offreRepository.findByRecruteurIdAndStatut(recruteurId, statut);
         return offres.stream()
-                .map(this::convertToDTO)
+                .map(OffreService::convertToDTO)
                 .collect(Collectors.toList());
     }
 
-    // Helper method (no changes needed)
-    private OffreDTO convertToDTO(Offre offre) {
+    // Helper method (visibilité package : mesuré par les benchmarks JMH)
+    static OffreDTO convertToDTO(Offre offre) {
         OffreDTO dto = new OffreDTO();
         dto.setId(offre.getId());
         dto.setTitre(offre.getTitre());
@@ -141,8 +242,9 @@ public class OffreService {
         dto.setDateExpiration(offre.getDateExpiration());
         dto.setRecruteurId(offre.getRecruteur().getId());
         dto.setEntreprise(offre.getRecruteur().getEntreprise());
-        dto.setNombreCandidatures(offre.getCandidatures() != null ?
-                offre.getCandidatures().size() : 0);
+        // Compteur persistant : la collection candidatures n'est jamais initialisée ici
+        dto.setNombreCandidatures(offre.getNombreCandidatures() != null ?
+                offre.getNombreCandidatures() : 0);
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.pfa.backend.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pfa.backend.event.EvenementOutbox;
+import com.pfa.backend.event.PuitsEvenements;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Vide l'outbox vers les puits d'événements, par lots.
+ *
+ * Un lot est réservé (FOR UPDATE SKIP LOCKED : plusieurs instances se partagent la table sans doublon),
+ * remis à chaque puits puis supprimé, dans la même transaction. Si un puits échoue, rien n'est supprimé :
+ * le lot revient après une attente croissante (plafonnée), jamais abandonné.
+ *
+ * L'ordre des id ne vaut que pour une tentative : un lot reporté est dépassé par les événements
+ * suivants, et plusieurs instances livrent en parallèle. Un puits qui a besoin d'un ordre le rétablit
+ * par agrégat (agregat_id, cree_le).
+ *
+ * Les jauges outbox.taille et outbox.retard lisent des valeurs mesurées par la boucle de distribution,
+ * au plus une fois par outbox.mesure-intervalle-ms : un scrape ne touche jamais la base.
+ */
+@Slf4j
+@Service
+public class OutboxDispatcher {
+
+    private static final int ATTENTE_MAX_SECONDES = 300;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final List<PuitsEvenements> puits;
+    private final MeterRegistry meterRegistry;
+    private final int tailleLot;
+    private final long intervalleMesureNanos;
+
+    private final AtomicBoolean enCours = new AtomicBoolean();
+    private final Timer delaiLivraison;
+
+    // Dernière mesure de la file (NaN tant qu'elle n'a pas réussi) ; prochaineMesure n'est lue que
+    // par la passe en cours
+    private volatile double taille = Double.NaN;
+    private volatile LocalDateTime plusAncien;
+    private long prochaineMesure;
+
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ObjectMapper objectMapper,
+                            List<PuitsEvenements> puits,
+                            MeterRegistry meterRegistry,
+                            @Value("${outbox.taille-lot:500}") int tailleLot,
+                            @Value("${outbox.mesure-intervalle-ms:10000}") long intervalleMesureMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.puits = puits;
+        this.meterRegistry = meterRegistry;
+        this.tailleLot = tailleLot;
+        this.intervalleMesureNanos = TimeUnit.MILLISECONDS.toNanos(intervalleMesureMs);
+        this.prochaineMesure = System.nanoTime();
+
+        Gauge.builder("outbox.taille", this, d -> d.taille).register(meterRegistry);
+        // Âge du plus ancien événement non livré : le retard vu par les consommateurs
+        Gauge.builder("outbox.retard", this, OutboxDispatcher::retard)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.delaiLivraison = meterRegistry.timer("outbox.delai");
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.intervalle-ms:500}")
+    public void relever() {
+        // Une passe à la fois par instance
+        if (!enCours.compareAndSet(false, true)) return;
+        try {
+            while (distribuer() == tailleLot) {
+                // Lot complet : il en reste peut-être
+            }
+            mesurerFile();
+        } catch (Exception e) {
+            log.error("Échec de la distribution de l'outbox", e);
+        } finally {
+            enCours.set(false);
+        }
+    }
+
+    /**
+     * Livre un lot d'événements disponibles ; renvoie leur nombre (0 si la file est vide ou en attente).
+     */
+    int distribuer() {
+        List<EvenementOutbox> lot = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                lot.addAll(jdbcTemplate.query(
+                        "SELECT id, type, agregat_id, charge, cree_le, tentatives FROM outbox " +
+                                "WHERE disponible_a <= LOCALTIMESTAMP ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                        (rs, i) -> new EvenementOutbox(rs.getLong("id"), rs.getString("type"),
+                                rs.getLong("agregat_id"), lireCharge(rs.getString("charge")),
+                                rs.getTimestamp("cree_le").toLocalDateTime(), rs.getInt("tentatives")),
+                        tailleLot));
+                if (lot.isEmpty()) return;
+                for (PuitsEvenements p : puits) {
+                    envoyer(p, lot);
+                }
+                jdbcTemplate.batchUpdate("DELETE FROM outbox WHERE id = ?",
+                        lot.stream().map(e -> new Object[]{e.getId()}).toList());
+            });
+        } catch (RuntimeException e) {
+            if (lot.isEmpty()) throw e;
+            reporter(lot, e);
+            return 0;
+        }
+        LocalDateTime maintenant = LocalDateTime.now();
+        lot.forEach(e -> delaiLivraison.record(Duration.between(e.getCreeLe(), maintenant)));
+        return lot.size();
+    }
+
+    private void envoyer(PuitsEvenements p, List<EvenementOutbox> lot) {
+        try {
+            p.envoyer(lot);
+        } catch (Exception e) {
+            meterRegistry.counter("outbox.echecs", "puits", p.nom()).increment();
+            throw new IllegalStateException("Puits " + p.nom() + " : " + e.getMessage(), e);
+        }
+        meterRegistry.counter("outbox.envoyes", "puits", p.nom()).increment(lot.size());
+    }
+
+    private void reporter(List<EvenementOutbox> lot, RuntimeException cause) {
+        log.warn("Lot de {} événements non livré (à partir de l'id {}), nouvel essai plus tard",
+                lot.size(), lot.get(0).getId(), cause);
+        String message = String.valueOf(cause.getMessage());
+        List<Object[]> lignes = lot.stream().map(e -> new Object[]{message, e.getId()}).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "UPDATE outbox SET tentatives = tentatives + 1, derniere_erreur = ?, disponible_a = " +
+                            "LOCALTIMESTAMP + interval '1 second' * least(power(2, tentatives), " +
+                            ATTENTE_MAX_SECONDES + ") WHERE id = ?", lignes));
+        } catch (DataAccessException e) {
+            log.error("Impossible de reporter le lot non livré", e);
+        }
+    }
+
+    private JsonNode lireCharge(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Charge d'événement illisible", e);
+        }
+    }
+
+    // Un seul parcours de la table pour les deux jauges, à intervalle borné quel que soit le rythme des scrapes
+    private void mesurerFile() {
+        long maintenant = System.nanoTime();
+        if (maintenant - prochaineMesure < 0) return;
+        prochaineMesure = maintenant + intervalleMesureNanos;
+        try {
+            jdbcTemplate.query("SELECT count(*), min(cree_le) FROM outbox", rs -> {
+                plusAncien = rs.getTimestamp(2) != null ? rs.getTimestamp(2).toLocalDateTime() : null;
+                taille = rs.getLong(1);
+            });
+        } catch (DataAccessException e) {
+            taille = Double.NaN;
+        }
+    }
+
+    // Calculé à la lecture depuis le plus ancien cree_le mesuré : le retard continue de croître entre deux mesures
+    private double retard() {
+        if (Double.isNaN(taille)) return Double.NaN;
+        LocalDateTime ancien = plusAncien;
+        return ancien == null ? 0 : Duration.between(ancien, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
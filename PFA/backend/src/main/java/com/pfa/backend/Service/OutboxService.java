@@ -0,0 +1,52 @@
+package com.pfa.backend.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pfa.backend.event.TypeEvenement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Écriture dans l'outbox, toujours dans la transaction de la modification décrite (MANDATORY) :
+ * un événement n'est jamais publié pour une modification annulée, ni perdu pour une modification validée.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String INSERTION = "INSERT INTO outbox (type, agregat_id, charge) VALUES (?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publier(TypeEvenement type, Long candidatureId, Map<String, Object> charge) {
+        jdbcTemplate.update(INSERTION, type.name(), candidatureId, json(charge));
+    }
+
+    /**
+     * Un événement par candidature, en un batch JDBC.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publierTous(TypeEvenement type, Map<Long, Map<String, Object>> charges) {
+        if (charges.isEmpty()) return;
+        List<Object[]> lignes = new ArrayList<>(charges.size());
+        charges.forEach((id, charge) -> lignes.add(new Object[]{type.name(), id, json(charge)}));
+        jdbcTemplate.batchUpdate(INSERTION, lignes);
+    }
+
+    private String json(Map<String, Object> charge) {
+        try {
+            return objectMapper.writeValueAsString(charge);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Charge d'événement non sérialisable", e);
+        }
+    }
+}
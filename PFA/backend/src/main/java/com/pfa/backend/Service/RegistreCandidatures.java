@@ -0,0 +1,180 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.entities.StatutOffre;
+import com.pfa.backend.event.OffreFermeeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pré-contrôle "déjà postulé" en mémoire : un filtre de Bloom des candidats par offre. Le cas courant
+ * (première candidature) est écarté sans requête ; seul un "peut-être" est vérifié en base.
+ *
+ * Construit au démarrage depuis les candidatures des offres non fermées, puis tenu à jour à chaque dépôt.
+ * Le filtre d'une offre fermée ou supprimée est libéré après le commit : la mémoire suit le nombre
+ * d'offres ouvertes, pas l'historique. Une candidature retirée reste dans le filtre (faux positif, donc
+ * une requête de plus). Un dépôt fait par une autre instance, ou sur une offre fermée puis rouverte,
+ * n'y figure pas : la contrainte unique (offre_id, candidat_id) reste le garde-fou.
+ */
+@Slf4j
+@Component
+public class RegistreCandidatures {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int capaciteInitiale;
+    private final double tauxFauxPositifs;
+
+    private volatile Map<Long, FiltreBloom> filtres = new ConcurrentHashMap<>();
+    // Dépôts faits pendant la construction, rejoués dans les filtres construits
+    private final Queue<long[]> depotsPendantConstruction = new ConcurrentLinkedQueue<>();
+    // Offres fermées pendant la construction, retirées des filtres construits
+    private final Set<Long> fermeesPendantConstruction = ConcurrentHashMap.newKeySet();
+    private final ReadWriteLock verrou = new ReentrantReadWriteLock();
+    private volatile boolean construit;
+
+    private final Counter absents;
+    private final Counter confirmes;
+    private final Counter fauxPositifs;
+
+    public RegistreCandidatures(JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${candidatures.bloom.capacite-initiale:256}") int capaciteInitiale,
+                                @Value("${candidatures.bloom.taux-faux-positifs:0.01}") double tauxFauxPositifs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capaciteInitiale = capaciteInitiale;
+        this.tauxFauxPositifs = tauxFauxPositifs;
+
+        this.absents = meterRegistry.counter("candidatures.precontrole", "resultat", "absent");
+        this.confirmes = meterRegistry.counter("candidatures.precontrole", "resultat", "doublon");
+        this.fauxPositifs = meterRegistry.counter("candidatures.precontrole", "resultat", "faux_positif");
+        Gauge.builder("candidatures.precontrole.memoire", this, RegistreCandidatures::tailleOctets)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("candidatures.precontrole.offres", this, r -> r.filtres.size()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construire() {
+        long debut = System.currentTimeMillis();
+        Map<Long, FiltreBloom> construits = new ConcurrentHashMap<>();
+        List<Long> candidats = new ArrayList<>();
+        long[] offreCourante = {-1};
+
+        // Parcours unique trié par offre : chaque filtre est dimensionné sur son offre
+        jdbcTemplate.query("SELECT c.offre_id, c.candidat_id FROM candidatures c JOIN offres o ON o.id = c.offre_id " +
+                "WHERE o.statut <> " + StatutOffre.FERMEE.getCode() + " ORDER BY c.offre_id", (RowCallbackHandler) rs -> {
+            long offreId = rs.getLong(1);
+            if (offreId != offreCourante[0]) {
+                installer(construits, offreCourante[0], candidats);
+                offreCourante[0] = offreId;
+            }
+            candidats.add(rs.getLong(2));
+        });
+        installer(construits, offreCourante[0], candidats);
+
+        verrou.writeLock().lock();
+        try {
+            for (long[] depot; (depot = depotsPendantConstruction.poll()) != null; ) {
+                filtre(construits, depot[0]).ajouter(depot[1]);
+            }
+            fermeesPendantConstruction.forEach(construits::remove);
+            fermeesPendantConstruction.clear();
+            filtres = construits;
+            construit = true;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+        log.info("Pré-contrôle des candidatures construit : {} offres, {} Ko en {} ms",
+                construits.size(), tailleOctets() / 1024, System.currentTimeMillis() - debut);
+    }
+
+    private void installer(Map<Long, FiltreBloom> construits, long offreId, Collection<Long> candidats) {
+        if (candidats.isEmpty()) return;
+        FiltreBloom filtre = new FiltreBloom(Math.max(capaciteInitiale, 2 * candidats.size()), tauxFauxPositifs);
+        candidats.forEach(filtre::ajouter);
+        construits.put(offreId, filtre);
+        candidats.clear();
+    }
+
+    /**
+     * Le candidat a-t-il déjà postulé à l'offre ? La vérification en base n'est faite que si le filtre
+     * ne peut pas l'exclure (ou s'il n'est pas encore construit).
+     */
+    public boolean aDejaPostule(Long offreId, Long candidatId, BooleanSupplier verificationEnBase) {
+        if (construit) {
+            FiltreBloom filtre = filtres.get(offreId);
+            if (filtre == null || !filtre.peutContenir(candidatId)) {
+                absents.increment();
+                return false;
+            }
+        }
+        boolean doublon = verificationEnBase.getAsBoolean();
+        if (doublon) {
+            confirmes.increment();
+        } else if (construit) {
+            fauxPositifs.increment();
+        }
+        return doublon;
+    }
+
+    /**
+     * Enregistre un dépôt. Appelé avant le commit : un dépôt annulé ne coûte qu'un faux positif.
+     */
+    public void ajouter(Long offreId, Long candidatId) {
+        verrou.readLock().lock();
+        try {
+            filtre(filtres, offreId).ajouter(candidatId);
+            if (!construit) {
+                depotsPendantConstruction.add(new long[]{offreId, candidatId});
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Libère le filtre d'une offre fermée ou supprimée. Un dépôt ultérieur en recrée un, incomplet :
+     * ses faux négatifs sont rattrapés par la contrainte unique.
+     */
+    @TransactionalEventListener
+    public void onOffreFermee(OffreFermeeEvent event) {
+        verrou.readLock().lock();
+        try {
+            filtres.remove(event.getOffreId());
+            if (!construit) {
+                fermeesPendantConstruction.add(event.getOffreId());
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private FiltreBloom filtre(Map<Long, FiltreBloom> filtres, Long offreId) {
+        return filtres.computeIfAbsent(offreId, id -> new FiltreBloom(capaciteInitiale, tauxFauxPositifs));
+    }
+
+    private double tailleOctets() {
+        long octets = 0;
+        for (FiltreBloom filtre : filtres.values()) octets += filtre.tailleOctets();
+        return octets;
+    }
+}
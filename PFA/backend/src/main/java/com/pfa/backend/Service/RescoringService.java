@@ -0,0 +1,254 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.event.CandidatEnregistreEvent;
+import com.pfa.backend.event.OffreModifieeEvent;
+import com.pfa.backend.scoring.CandidatFeatures;
+import com.pfa.backend.scoring.OffreFeatures;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-scoring incrémental des candidatures quand une offre ou un profil candidat change.
+ *
+ * Les changements sont coalescés par identifiant (dix modifications d'une offre = un seul
+ * re-scoring), puis traités par morceaux bornés sur un pool dédié : la requête HTTP qui a
+ * modifié l'offre n'attend jamais. Les scores sont réécrits par batch JDBC.
+ */
+@Slf4j
+@Service
+public class RescoringService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final SkillVocabulary skillVocabulary;
+    private final ScoringEngineRegistry scoringEngineRegistry;
+    private final int workers;
+    private final int tailleMorceau;
+
+    // Identifiant -> instant (ms) de la plus ancienne demande non traitée
+    private final Map<Long, Long> offresEnAttente = new ConcurrentHashMap<>();
+    private final Map<Long, Long> candidatsEnAttente = new ConcurrentHashMap<>();
+    private final AtomicInteger workersActifs = new AtomicInteger();
+
+    private final Counter candidaturesRescorees;
+    private final Counter scoresModifies;
+    private final Timer dureeJob;
+    private final Timer retardJob;
+
+    public RescoringService(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            @Qualifier("rescoringExecutor") ThreadPoolTaskExecutor executor,
+                            SkillVocabulary skillVocabulary,
+                            ScoringEngineRegistry scoringEngineRegistry,
+                            MeterRegistry meterRegistry,
+                            @Value("${rescoring.workers:2}") int workers,
+                            @Value("${rescoring.chunk-size:500}") int tailleMorceau) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.skillVocabulary = skillVocabulary;
+        this.scoringEngineRegistry = scoringEngineRegistry;
+        this.workers = workers;
+        this.tailleMorceau = tailleMorceau;
+
+        Gauge.builder("rescoring.en_attente", offresEnAttente, Map::size).tag("type", "offre").register(meterRegistry);
+        Gauge.builder("rescoring.en_attente", candidatsEnAttente, Map::size).tag("type", "candidat").register(meterRegistry);
+        Gauge.builder("rescoring.retard.secondes", this, RescoringService::retardSecondes).register(meterRegistry);
+        this.candidaturesRescorees = meterRegistry.counter("rescoring.candidatures");
+        this.scoresModifies = meterRegistry.counter("rescoring.scores_modifies");
+        this.dureeJob = meterRegistry.timer("rescoring.job.duree");
+        this.retardJob = meterRegistry.timer("rescoring.job.retard");
+    }
+
+    // --- DÉCLENCHEURS (après commit de la modification) ---
+
+    @TransactionalEventListener
+    public void onOffreModifiee(OffreModifieeEvent event) {
+        planifierOffre(event.getOffreId());
+    }
+
+    /**
+     * Demande le re-scoring de toutes les candidatures d'une offre (idempotent tant qu'il est en attente).
+     */
+    public void planifierOffre(Long offreId) {
+        offresEnAttente.putIfAbsent(offreId, System.currentTimeMillis());
+        declencher();
+    }
+
+    @TransactionalEventListener
+    public void onCandidatEnregistre(CandidatEnregistreEvent event) {
+        if (event.isCreation()) return; // Un nouveau profil n'a encore aucune candidature
+        candidatsEnAttente.putIfAbsent(event.getCandidat().getId(), System.currentTimeMillis());
+        declencher();
+    }
+
+    private void declencher() {
+        while (true) {
+            int actifs = workersActifs.get();
+            if (actifs >= workers) return;
+            if (workersActifs.compareAndSet(actifs, actifs + 1)) {
+                executor.execute(this::vider);
+                return;
+            }
+        }
+    }
+
+    private void vider() {
+        try {
+            while (traiterProchain(offresEnAttente, true) || traiterProchain(candidatsEnAttente, false)) {
+                // Les offres passent en priorité : elles concernent le plus de candidatures
+            }
+        } finally {
+            workersActifs.decrementAndGet();
+        }
+        // Une demande arrivée entre la dernière lecture et la décrémentation ne doit pas être perdue
+        if (!offresEnAttente.isEmpty() || !candidatsEnAttente.isEmpty()) {
+            declencher();
+        }
+    }
+
+    private boolean traiterProchain(Map<Long, Long> enAttente, boolean offre) {
+        Iterator<Map.Entry<Long, Long>> it = enAttente.entrySet().iterator();
+        if (!it.hasNext()) return false;
+
+        Map.Entry<Long, Long> entree = it.next();
+        Long id = entree.getKey();
+        Long depuis = entree.getValue();
+        if (!enAttente.remove(id, depuis)) return true; // pris par un autre worker entre-temps
+
+        long debut = System.nanoTime();
+        try {
+            int traitees = offre ? rescorerOffre(id) : rescorerCandidat(id);
+            log.debug("Re-scoring {} {} : {} candidatures", offre ? "offre" : "candidat", id, traitees);
+        } catch (Exception e) {
+            log.error("Échec du re-scoring {} {}", offre ? "offre" : "candidat", id, e);
+        } finally {
+            dureeJob.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+            retardJob.record(System.currentTimeMillis() - depuis, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    private double retardSecondes() {
+        long plusAncien = Math.min(
+                offresEnAttente.values().stream().mapToLong(Long::longValue).min().orElse(Long.MAX_VALUE),
+                candidatsEnAttente.values().stream().mapToLong(Long::longValue).min().orElse(Long.MAX_VALUE));
+        return plusAncien == Long.MAX_VALUE ? 0.0 : (System.currentTimeMillis() - plusAncien) / 1000.0;
+    }
+
+    // --- JOBS ---
+
+    /**
+     * Re-score toutes les candidatures d'une offre, par morceaux parcourus en keyset sur l'id.
+     */
+    int rescorerOffre(Long offreId) {
+        List<OffreFeatures> offres = jdbcTemplate.query(
+                "SELECT id, niveau_experience, type_contrat, competences_requises FROM offres WHERE id = ?",
+                (rs, i) -> OffreFeatures.of(rs.getLong("id"), rs.getString("niveau_experience"),
+                        rs.getString("type_contrat"), rs.getString("competences_requises"), skillVocabulary),
+                offreId);
+        if (offres.isEmpty()) return 0;
+        OffreFeatures offre = offres.get(0);
+
+        int total = 0;
+        long dernierId = 0;
+        while (true) {
+            List<LigneScore> morceau = jdbcTemplate.query(
+                    "SELECT c.id, c.score_matching, c.version_scoring, p.id AS candidat_id, p.niveau_etude, p.formation, p.competences " +
+                            "FROM candidatures c JOIN candidats p ON p.id = c.candidat_id " +
+                            "WHERE c.offre_id = ? AND c.id > ? ORDER BY c.id LIMIT ?",
+                    (rs, i) -> {
+                        CandidatFeatures candidat = CandidatFeatures.of(rs.getLong("candidat_id"),
+                                rs.getString("niveau_etude"), rs.getString("formation"),
+                                rs.getString("competences"), skillVocabulary);
+                        return new LigneScore(rs.getLong("id"), (Double) rs.getObject("score_matching"),
+                                rs.getString("version_scoring"), scoringEngineRegistry.score(offre, candidat));
+                    },
+                    offreId, dernierId, tailleMorceau);
+            if (morceau.isEmpty()) break;
+
+            ecrire(morceau);
+            total += morceau.size();
+            dernierId = morceau.get(morceau.size() - 1).candidatureId;
+        }
+        return total;
+    }
+
+    /**
+     * Re-score les candidatures d'un candidat (une par offre : un seul morceau suffit).
+     */
+    int rescorerCandidat(Long candidatId) {
+        List<LigneScore> lignes = jdbcTemplate.query(
+                "SELECT c.id, c.score_matching, c.version_scoring, o.id AS offre_id, o.niveau_experience, o.type_contrat, o.competences_requises, " +
+                        "p.niveau_etude, p.formation, p.competences " +
+                        "FROM candidatures c JOIN offres o ON o.id = c.offre_id JOIN candidats p ON p.id = c.candidat_id " +
+                        "WHERE c.candidat_id = ?",
+                (rs, i) -> {
+                    OffreFeatures offre = OffreFeatures.of(rs.getLong("offre_id"), rs.getString("niveau_experience"),
+                            rs.getString("type_contrat"), rs.getString("competences_requises"), skillVocabulary);
+                    CandidatFeatures candidat = CandidatFeatures.of(candidatId, rs.getString("niveau_etude"),
+                            rs.getString("formation"), rs.getString("competences"), skillVocabulary);
+                    return new LigneScore(rs.getLong("id"), (Double) rs.getObject("score_matching"),
+                            rs.getString("version_scoring"), scoringEngineRegistry.score(offre, candidat));
+                },
+                candidatId);
+
+        for (int i = 0; i < lignes.size(); i += tailleMorceau) {
+            ecrire(lignes.subList(i, Math.min(lignes.size(), i + tailleMorceau)));
+        }
+        return lignes.size();
+    }
+
+    private void ecrire(List<LigneScore> morceau) {
+        String version = scoringEngineRegistry.versionActive();
+        List<Object[]> modifications = new ArrayList<>();
+        for (LigneScore ligne : morceau) {
+            if (ligne.ancienScore == null || ligne.ancienScore != ligne.nouveauScore
+                    || !version.equals(ligne.ancienneVersion)) {
+                modifications.add(new Object[]{ligne.nouveauScore, version, ligne.candidatureId});
+            }
+        }
+        if (!modifications.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "UPDATE candidatures SET score_matching = ?, version_scoring = ?, version = version + 1 " +
+                            "WHERE id = ?", modifications));
+        }
+        candidaturesRescorees.increment(morceau.size());
+        scoresModifies.increment(modifications.size());
+    }
+
+    private static final class LigneScore {
+        final long candidatureId;
+        final Double ancienScore;
+        final String ancienneVersion;
+        final double nouveauScore;
+
+        LigneScore(long candidatureId, Double ancienScore, String ancienneVersion, double nouveauScore) {
+            this.candidatureId = candidatureId;
+            this.ancienScore = ancienScore;
+            this.ancienneVersion = ancienneVersion;
+            this.nouveauScore = nouveauScore;
+        }
+    }
+}
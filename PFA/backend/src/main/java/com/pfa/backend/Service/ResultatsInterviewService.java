@@ -0,0 +1,131 @@
+package com.pfa.backend.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pfa.backend.dto.ClassementCandidatureDTO;
+import com.pfa.backend.dto.StatistiquesInterviewDTO;
+import com.pfa.backend.entities.StatutCandidature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Résultats d'interview par compétence (table resultats_interview, cf. V9) : écriture à chaque
+ * notation, agrégats et classement calculés par la base.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResultatsInterviewService {
+
+    static final int CLASSEMENT_MAX = 500;
+    private static final int TAILLE_COMPETENCE_MAX = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Remplace les résultats de la candidature par ceux de la notation : checklist au format
+     * "Compétence:true;Autre:false" et commentaires JSON indexés par rang ({"0": "..."}), tels
+     * qu'envoyés par l'interface. Une compétence répétée n'est comptée qu'une fois.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enregistrer(Long candidatureId, Long offreId, String checklistResults, String skillComments) {
+        jdbcTemplate.update("DELETE FROM resultats_interview WHERE candidature_id = ?", candidatureId);
+        if (checklistResults == null || checklistResults.isBlank()) return;
+
+        JsonNode commentaires = lireCommentaires(skillComments);
+        Set<String> vues = new LinkedHashSet<>();
+        List<Object[]> lignes = new ArrayList<>();
+        String[] elements = checklistResults.split(";");
+        for (int rang = 0; rang < elements.length; rang++) {
+            String element = elements[rang];
+            int separateur = element.lastIndexOf(':');
+            if (separateur < 0) continue;
+            String competence = element.substring(0, separateur).trim();
+            if (competence.length() > TAILLE_COMPETENCE_MAX) {
+                competence = competence.substring(0, TAILLE_COMPETENCE_MAX);
+            }
+            if (competence.isEmpty() || !vues.add(competence)) continue;
+
+            boolean reussi = "true".equalsIgnoreCase(element.substring(separateur + 1).trim());
+            JsonNode commentaire = commentaires.path(String.valueOf(rang));
+            lignes.add(new Object[]{candidatureId, competence, offreId, rang, reussi,
+                    commentaire.isTextual() && !commentaire.asText().isBlank() ? commentaire.asText() : null});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO resultats_interview " +
+                "(candidature_id, competence, offre_id, rang, reussi, commentaire) VALUES (?, ?, ?, ?, ?, ?)", lignes);
+    }
+
+    // Commentaires illisibles : ignorés, comme le fait l'interface
+    private JsonNode lireCommentaires(String skillComments) {
+        if (skillComments == null || skillComments.isBlank()) return objectMapper.createObjectNode();
+        try {
+            return objectMapper.readTree(skillComments);
+        } catch (JsonProcessingException e) {
+            return objectMapper.createObjectNode();
+        }
+    }
+
+    /**
+     * Taux de réussite par compétence et score d'interview moyen, sur les candidatures notées de l'offre.
+     */
+    @Transactional(readOnly = true)
+    public StatistiquesInterviewDTO getStatistiques(Long offreId) {
+        List<StatistiquesInterviewDTO.TauxCompetence> competences = jdbcTemplate.query(
+                "SELECT competence, count(*) AS evaluations, count(*) FILTER (WHERE reussi) AS reussites " +
+                        "FROM resultats_interview WHERE offre_id = ? GROUP BY competence ORDER BY competence",
+                (rs, i) -> {
+                    long evaluations = rs.getLong("evaluations");
+                    long reussites = rs.getLong("reussites");
+                    return new StatistiquesInterviewDTO.TauxCompetence(rs.getString("competence"),
+                            evaluations, reussites, 100.0 * reussites / evaluations);
+                },
+                offreId);
+
+        StatistiquesInterviewDTO statistiques = jdbcTemplate.queryForObject(
+                "SELECT count(*), avg(score)::float8 FROM (" + SCORES_INTERVIEW + ") s",
+                (rs, i) -> new StatistiquesInterviewDTO(offreId, rs.getLong(1),
+                        (Double) rs.getObject(2, Double.class), null),
+                offreId);
+        statistiques.setCompetences(competences);
+        return statistiques;
+    }
+
+    // Score d'interview d'une candidature : part des compétences validées, sur 100
+    private static final String SCORES_INTERVIEW =
+            "SELECT candidature_id, 100.0 * count(*) FILTER (WHERE reussi) / count(*)::float8 AS score " +
+                    "FROM resultats_interview WHERE offre_id = ? GROUP BY candidature_id";
+
+    /**
+     * Candidatures notées de l'offre, classées par score combiné :
+     * (1 - poidsInterview) × matching + poidsInterview × interview. Un score de matching absent compte 0.
+     */
+    @Transactional(readOnly = true)
+    public List<ClassementCandidatureDTO> getClassement(Long offreId, double poidsInterview, int limite) {
+        if (poidsInterview < 0 || poidsInterview > 1) {
+            throw new IllegalArgumentException("poidsInterview doit être compris entre 0 et 1");
+        }
+        if (limite < 1 || limite > CLASSEMENT_MAX) {
+            throw new IllegalArgumentException("limite doit être comprise entre 1 et " + CLASSEMENT_MAX);
+        }
+        return jdbcTemplate.query(
+                "SELECT c.id, p.id AS candidat_id, p.nom, p.prenom, c.statut, c.score_matching, s.score, " +
+                        "(1 - ?) * coalesce(c.score_matching, 0) + ? * s.score AS combine " +
+                        "FROM (" + SCORES_INTERVIEW + ") s " +
+                        "JOIN candidatures c ON c.id = s.candidature_id JOIN candidats p ON p.id = c.candidat_id " +
+                        "ORDER BY combine DESC, c.id DESC LIMIT ?",
+                (rs, i) -> new ClassementCandidatureDTO(rs.getLong("id"), rs.getLong("candidat_id"),
+                        rs.getString("nom"), rs.getString("prenom"), StatutCandidature.depuisCode(rs.getShort("statut")),
+                        (Double) rs.getObject("score_matching", Double.class), rs.getDouble("score"),
+                        rs.getDouble("combine")),
+                poidsInterview, poidsInterview, offreId, limite);
+    }
+}
@@ -0,0 +1,65 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.dto.CandidatSuggereDTO;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.repository.OffreRepository;
+import com.pfa.backend.scoring.CandidatSkillIndex;
+import com.pfa.backend.scoring.CandidatSkillIndex.CandidatClasse;
+import com.pfa.backend.scoring.OffreFeatures;
+import com.pfa.backend.scoring.SkillVocabulary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SourcingService {
+
+    private final OffreRepository offreRepository;
+    private final CandidatRepository candidatRepository;
+    private final CandidatSkillIndex candidatSkillIndex;
+    private final SkillVocabulary skillVocabulary;
+
+    /**
+     * Les meilleurs candidats de tout le vivier pour une offre, qu'ils aient postulé ou non.
+     */
+    @Transactional(readOnly = true)
+    public List<CandidatSuggereDTO> meilleursCandidats(Long offreId, int k) {
+        Offre offre = offreRepository.findById(offreId)
+                .orElseThrow(() -> new RuntimeException("Offre non trouvée"));
+
+        List<CandidatClasse> classement = candidatSkillIndex
+                .meilleursCandidats(OffreFeatures.of(offre, skillVocabulary), k);
+
+        // Seuls les k profils retenus sont chargés
+        Map<Long, CandidateProfile> profils = candidatRepository
+                .findAllById(classement.stream().map(CandidatClasse::getCandidatId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(CandidateProfile::getId, Function.identity()));
+
+        return classement.stream()
+                .filter(c -> profils.containsKey(c.getCandidatId()))
+                .map(c -> convertToDTO(profils.get(c.getCandidatId()), c.getScore()))
+                .collect(Collectors.toList());
+    }
+
+    private CandidatSuggereDTO convertToDTO(CandidateProfile candidat, double score) {
+        CandidatSuggereDTO dto = new CandidatSuggereDTO();
+        dto.setCandidatId(candidat.getId());
+        dto.setNom(candidat.getNom());
+        dto.setPrenom(candidat.getPrenom());
+        dto.setEmail(candidat.getEmail());
+        dto.setCompetences(candidat.getCompetences());
+        dto.setNiveauEtude(candidat.getNiveauEtude());
+        dto.setFormation(candidat.getFormation());
+        dto.setScoreMatching(score);
+        return dto;
+    }
+}
@@ -0,0 +1,46 @@
+package com.pfa.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Contrôle d'admission devant les endpoints publics d'écriture (dépôt de candidature, inscription),
+ * cf. FiltreAdmission : un robot est limité à son propre débit et, quand la latence monte, les
+ * requêtes en trop sont refusées au lieu de s'empiler devant le pool JDBC.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "admission", name = "enabled", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public FilterRegistrationBean<FiltreAdmission> filtreAdmission(
+            ObjectMapper objectMapper,
+            @Value("${admission.debit.par-seconde:5}") double parSeconde,
+            @Value("${admission.debit.rafale:20}") int rafale,
+            @Value("${admission.debit.cles-max:100000}") long clesMax,
+            @Value("${admission.debit.inactivite:10m}") Duration inactivite,
+            @Value("${admission.concurrence.initiale:20}") int initiale,
+            @Value("${admission.concurrence.min:4}") int minimum,
+            @Value("${admission.concurrence.max:200}") int maximum,
+            @Value("${admission.concurrence.tolerance:2.0}") double tolerance) {
+        FiltreAdmission filtre = new FiltreAdmission(
+                new LimiteurDebit(parSeconde, rafale, clesMax, inactivite, System::nanoTime),
+                new LimiteConcurrence(initiale, minimum, maximum, tolerance, System::nanoTime),
+                objectMapper);
+        FilterRegistrationBean<FiltreAdmission> enregistrement = new FilterRegistrationBean<>(filtre);
+        enregistrement.addUrlPatterns("/api/recruteur/candidatures/postuler", "/api/candidats");
+        return enregistrement;
+    }
+
+    @Bean
+    public MeterBinder metriquesAdmission(FilterRegistrationBean<FiltreAdmission> filtreAdmission) {
+        return registry -> filtreAdmission.getFilter().bindTo(registry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.pfa.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bulkhead devant chaque pool Hikari (primaire, réplique), dimensionné sur maximum-pool-size.
+ *
+ * Indispensable avec spring.threads.virtual.enabled : chaque requête HTTP a alors son propre thread
+ * et plus rien ne borne le nombre d'appelants qui attendent une connexion.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.bulkhead", name = "enabled", matchIfMissing = true)
+public class BulkheadConfig {
+
+    // static : le post-processeur est créé avant les autres beans, sans initialiser la configuration
+    @Bean
+    public static BulkheadPostProcessor bulkheadPostProcessor(Environment environment) {
+        return new BulkheadPostProcessor(
+                environment.getProperty("datasource.bulkhead.attente-max", Duration.class, Duration.ofSeconds(2)),
+                environment.getProperty("datasource.bulkhead.file-max", Integer.class, 500));
+    }
+
+    /**
+     * datasource.bulkhead.actifs, .file, .attente et .rejets (cause = delai | file), par pool.
+     */
+    @Bean
+    public MeterBinder metriquesBulkhead(BulkheadPostProcessor bulkheadPostProcessor) {
+        return registry -> bulkheadPostProcessor.bulkheads.forEach(b -> b.bindTo(registry));
+    }
+
+    static class BulkheadPostProcessor implements BeanPostProcessor {
+
+        private static final int TAILLE_POOL_HIKARI_DEFAUT = 10;
+
+        private final Duration attenteMax;
+        private final int fileMax;
+        private final List<BulkheadDataSource> bulkheads = new CopyOnWriteArrayList<>();
+
+        BulkheadPostProcessor(Duration attenteMax, int fileMax) {
+            this.attenteMax = attenteMax;
+            this.fileMax = fileMax;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            // Les propriétés spring.datasource.hikari.* sont déjà appliquées à ce stade
+            if (!(bean instanceof HikariDataSource hikari)) return bean;
+            String pool = hikari.getPoolName() != null ? hikari.getPoolName() : beanName;
+            // -1 tant que maximum-pool-size n'est pas renseigné : Hikari prendra sa valeur par défaut au démarrage
+            int taille = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : TAILLE_POOL_HIKARI_DEFAUT;
+            BulkheadDataSource bulkhead = new BulkheadDataSource(hikari, pool, taille, attenteMax, fileMax);
+            bulkheads.add(bulkhead);
+            return bulkhead;
+        }
+    }
+}
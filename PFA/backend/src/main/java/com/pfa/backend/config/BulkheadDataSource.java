@@ -0,0 +1,146 @@
+package com.pfa.backend.config;
+
+import com.pfa.backend.exception.BaseSatureeException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite le nombre de connexions empruntées en même temps à la taille du pool : au-delà, les appelants
+ * attendent dans une file FIFO bornée, avec un délai plus court que celui de Hikari. Une rafale de
+ * requêtes est ainsi refusée vite (BaseSatureeException) au lieu d'occuper des threads pendant
+ * connectionTimeout. Le jeton est pris à l'ouverture de la connexion et rendu à sa fermeture.
+ */
+class BulkheadDataSource extends DelegatingDataSource {
+
+    private final String pool;
+    private final Semaphore jetons;
+    private final int permis;
+    private final long attenteMaxNanos;
+    private final int fileMax;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder attenteTotaleNanos = new LongAdder();
+    private final LongAdder rejetsDelai = new LongAdder();
+    private final LongAdder rejetsFile = new LongAdder();
+
+    BulkheadDataSource(DataSource cible, String pool, int permis, Duration attenteMax, int fileMax) {
+        super(cible);
+        this.pool = pool;
+        this.permis = permis;
+        this.jetons = new Semaphore(permis, true);
+        this.attenteMaxNanos = attenteMax.toNanos();
+        this.fileMax = fileMax;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquerir();
+        try {
+            return liberantALaFermeture(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            jetons.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquerir();
+        try {
+            return liberantALaFermeture(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            jetons.release();
+            throw e;
+        }
+    }
+
+    private void acquerir() throws SQLException {
+        long debut = System.nanoTime();
+        if (!jetons.tryAcquire()) {
+            // Longueur de file approximative : suffit pour borner la mémoire et la latence
+            if (jetons.getQueueLength() >= fileMax) {
+                rejetsFile.increment();
+                throw new BaseSatureeException("Pool " + pool + " saturé : " + fileMax + " requêtes déjà en attente");
+            }
+            try {
+                if (!jetons.tryAcquire(attenteMaxNanos, TimeUnit.NANOSECONDS)) {
+                    rejetsDelai.increment();
+                    throw new BaseSatureeException("Pool " + pool + " saturé : aucune connexion libérée en "
+                            + TimeUnit.NANOSECONDS.toMillis(attenteMaxNanos) + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Attente de connexion interrompue", e);
+            }
+        }
+        acquisitions.increment();
+        attenteTotaleNanos.add(System.nanoTime() - debut);
+    }
+
+    private Connection liberantALaFermeture(Connection connexion) {
+        AtomicBoolean rendu = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, methode, args) -> {
+                    switch (methode.getName()) {
+                        case "close" -> {
+                            try {
+                                connexion.close();
+                            } finally {
+                                // Un second close() ne rend pas un jeton de plus
+                                if (rendu.compareAndSet(false, true)) jetons.release();
+                            }
+                            return null;
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                            try {
+                                return methode.invoke(connexion, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                        }
+                    }
+                });
+    }
+
+    void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("pool", pool);
+        Gauge.builder("datasource.bulkhead.actifs", this, b -> b.permis - b.jetons.availablePermits())
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("datasource.bulkhead.file", jetons, Semaphore::getQueueLength)
+                .description("Appelants en attente d'une connexion")
+                .tags(tags)
+                .register(registry);
+        FunctionTimer.builder("datasource.bulkhead.attente", this,
+                        b -> b.acquisitions.sum(), b -> b.attenteTotaleNanos.sum(), TimeUnit.NANOSECONDS)
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("datasource.bulkhead.rejets", rejetsDelai, LongAdder::sum)
+                .tags(tags.and("cause", "delai"))
+                .register(registry);
+        FunctionCounter.builder("datasource.bulkhead.rejets", rejetsFile, LongAdder::sum)
+                .tags(tags.and("cause", "file"))
+                .register(registry);
+    }
+}
@@ -0,0 +1,91 @@
+package com.pfa.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.SharedCacheMode;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Cache de second niveau Hibernate (JCache implémenté par Caffeine) pour les entités lues bien plus
+ * souvent qu'écrites. Chaque région est bornée en nombre d'entrées et en durée de vie ; une région
+ * non déclarée ici fait échouer le démarrage au lieu de créer un cache sans limite.
+ *
+ * Les save/delete passent par Hibernate et tiennent les régions à jour (READ_WRITE) ; les UPDATE SQL
+ * directs sur ces tables doivent évincer eux-mêmes les lignes touchées.
+ *
+ * Le cache est propre à chaque instance : rien n'invalide les autres nœuds quand l'un d'eux écrit.
+ * La durée de vie borne donc la fenêtre pendant laquelle une autre instance sert une entité périmée.
+ * Elle est de quelques secondes pour les offres et les candidats, modifiés par les recruteurs et les
+ * candidats en cours d'utilisation ; les recruteurs ne changent qu'à l'édition du profil.
+ * Les corps servis depuis le cache portent l'ETag de l'entité servie (ReponseConditionnelle).
+ */
+@Configuration
+public class CacheConfig {
+
+    private static final String REGION_OFFRES = "offres";
+    private static final String REGION_RECRUTEURS = "recruteurs";
+    private static final String REGION_CANDIDATS = "candidats";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheSecondNiveau(@Value("${cache.entites.offres.ttl:5s}") Duration ttlOffres,
+                                          @Value("${cache.entites.offres.taille-max:10000}") long offres,
+                                          @Value("${cache.entites.recruteurs.ttl:10m}") Duration ttlRecruteurs,
+                                          @Value("${cache.entites.recruteurs.taille-max:2000}") long recruteurs,
+                                          @Value("${cache.entites.candidats.ttl:5s}") Duration ttlCandidats,
+                                          @Value("${cache.entites.candidats.taille-max:50000}") long candidats) {
+        // URI propre à chaque contexte Spring : deux contextes (tests) ne partagent pas leurs régions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("pfa-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        creerRegion(cacheManager, REGION_OFFRES, offres, ttlOffres);
+        creerRegion(cacheManager, REGION_RECRUTEURS, recruteurs, ttlRecruteurs);
+        creerRegion(cacheManager, REGION_CANDIDATS, candidats, ttlCandidats);
+        return cacheManager;
+    }
+
+    private static void creerRegion(CacheManager cacheManager, String region, long tailleMax, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(tailleMax));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer activerCacheSecondNiveau(CacheManager cacheSecondNiveau) {
+        return proprietes -> {
+            proprietes.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            proprietes.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            proprietes.put(AvailableSettings.JAKARTA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+            proprietes.put(ConfigSettings.CACHE_MANAGER, cacheSecondNiveau);
+            proprietes.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    /**
+     * cache.gets (hit / miss), cache.puts, cache.removals et cache.evictions par région.
+     */
+    @Bean
+    public MeterBinder metriquesCacheSecondNiveau(CacheManager cacheSecondNiveau) {
+        return registry -> {
+            for (String region : cacheSecondNiveau.getCacheNames()) {
+                JCacheMetrics.monitor(registry, cacheSecondNiveau.getCache(region), Tags.of("niveau", "l2"));
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.pfa.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pfa.backend.exception.ErrorResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contrôle d'admission des POST publics : débit par client (429), puis concurrence adaptative (503).
+ * Une requête refusée ne touche ni au contrôleur ni au pool JDBC.
+ *
+ * Le client est identifié par son adresse (request.getRemoteAddr() : derrière un proxy, activer
+ * server.forward-headers-strategy) ; l'API n'a pas d'authentification, l'identifiant du candidat
+ * envoyé dans le corps n'est pas digne de confiance.
+ */
+class FiltreAdmission extends OncePerRequestFilter {
+
+    private final LimiteurDebit limiteurDebit;
+    private final LimiteConcurrence limiteConcurrence;
+    private final ObjectMapper objectMapper;
+
+    private final LongAdder admises = new LongAdder();
+    private final LongAdder rejetsDebit = new LongAdder();
+    private final LongAdder rejetsConcurrence = new LongAdder();
+
+    FiltreAdmission(LimiteurDebit limiteurDebit, LimiteConcurrence limiteConcurrence, ObjectMapper objectMapper) {
+        this.limiteurDebit = limiteurDebit;
+        this.limiteConcurrence = limiteConcurrence;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long attente = limiteurDebit.acquerir(request.getRemoteAddr());
+        if (attente > 0) {
+            rejetsDebit.increment();
+            refuser(response, HttpStatus.TOO_MANY_REQUESTS, Math.max(1, (attente + 999_999_999) / 1_000_000_000),
+                    "Trop de requêtes : réessayer plus tard");
+            return;
+        }
+
+        LimiteConcurrence.Admission admission = limiteConcurrence.essayer();
+        if (admission == null) {
+            rejetsConcurrence.increment();
+            refuser(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Service surchargé : réessayer plus tard");
+            return;
+        }
+        admises.increment();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            admission.terminer(response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+
+    private void refuser(HttpServletResponse response, HttpStatus statut, long retryAfterSecondes, String message)
+            throws IOException {
+        response.setStatus(statut.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSecondes));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(statut.value(), message, LocalDateTime.now()));
+    }
+
+    /**
+     * admission.requetes (resultat = admise | debit | concurrence), admission.debit.cles,
+     * admission.concurrence.limite, .en_cours et .latence_reference.
+     */
+    void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("admission.requetes", admises, LongAdder::sum)
+                .tag("resultat", "admise")
+                .register(registry);
+        FunctionCounter.builder("admission.requetes", rejetsDebit, LongAdder::sum)
+                .tag("resultat", "debit")
+                .register(registry);
+        FunctionCounter.builder("admission.requetes", rejetsConcurrence, LongAdder::sum)
+                .tag("resultat", "concurrence")
+                .register(registry);
+        Gauge.builder("admission.debit.cles", limiteurDebit, LimiteurDebit::nombreCles)
+                .description("Clients suivis par le limiteur de débit")
+                .register(registry);
+        Gauge.builder("admission.concurrence.limite", limiteConcurrence, LimiteConcurrence::limite)
+                .register(registry);
+        Gauge.builder("admission.concurrence.en_cours", limiteConcurrence, LimiteConcurrence::enCours)
+                .register(registry);
+        Gauge.builder("admission.concurrence.latence_reference", limiteConcurrence,
+                        l -> l.referenceNanos() / TimeUnit.SECONDS.toNanos(1))
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
@@ -0,0 +1,18 @@
+package com.pfa.backend.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lecture servie par le primaire même en transaction readOnly : lue juste après une écriture du même
+ * client (Location d'un 202, GET suivant un PATCH), une ressource ne doit pas revenir absente ou avec
+ * l'ETag d'avant depuis une réplique en retard. Sans réplique configurée, l'annotation ne change rien.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LectureSurPrimaire {
+}
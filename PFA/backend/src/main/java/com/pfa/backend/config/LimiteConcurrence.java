@@ -0,0 +1,126 @@
+package com.pfa.backend.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * Nombre de requêtes simultanées admises, ajusté à la latence observée (AIMD) : tant que les réponses
+ * restent proches de la latence de référence, la limite monte d'environ un par "tour" de requêtes ;
+ * dès qu'une réponse dépasse référence × tolérance (ou que la base est saturée), elle baisse de 10 %,
+ * au plus une fois par fenêtre de latence. Au-delà de la limite, la requête est refusée tout de suite.
+ *
+ * La référence est une moyenne mobile des latences jugées normales : elle ne suit pas une dégradation.
+ */
+class LimiteConcurrence {
+
+    private static final double FACTEUR_BAISSE = 0.9;
+    private static final double POIDS_REFERENCE = 0.05;
+
+    private final int minimum;
+    private final int maximum;
+    private final double tolerance;
+    private final LongSupplier horloge;
+
+    private final AtomicInteger enCours = new AtomicInteger();
+    // double stockés en bits pour être mis à jour par CAS
+    private final AtomicLong limite;
+    private final AtomicLong referenceNanos = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicLong derniereBaisse = new AtomicLong();
+
+    LimiteConcurrence(int initiale, int minimum, int maximum, double tolerance, LongSupplier horloge) {
+        if (minimum < 1 || minimum > initiale || initiale > maximum || tolerance <= 1) {
+            throw new IllegalArgumentException("Limites de concurrence incohérentes");
+        }
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.tolerance = tolerance;
+        this.horloge = horloge;
+        this.limite = new AtomicLong(Double.doubleToLongBits(initiale));
+        this.derniereBaisse.set(horloge.getAsLong());
+    }
+
+    /**
+     * @return la requête admise, ou null si la limite est atteinte
+     */
+    Admission essayer() {
+        while (true) {
+            int n = enCours.get();
+            if (n >= (int) limite()) return null;
+            if (enCours.compareAndSet(n, n + 1)) return new Admission(horloge.getAsLong(), n + 1);
+        }
+    }
+
+    int enCours() {
+        return enCours.get();
+    }
+
+    double limite() {
+        return Double.longBitsToDouble(limite.get());
+    }
+
+    double referenceNanos() {
+        return Double.longBitsToDouble(referenceNanos.get());
+    }
+
+    private void baisser(long maintenant) {
+        long derniere = derniereBaisse.get();
+        // Les réponses lentes d'une même rafale ne comptent qu'une fois
+        if (maintenant - derniere < referenceNanos() * tolerance || !derniereBaisse.compareAndSet(derniere, maintenant)) {
+            return;
+        }
+        modifierLimite(l -> Math.max(minimum, l * FACTEUR_BAISSE));
+    }
+
+    private void modifierLimite(DoubleUnaryOperator calcul) {
+        long bits;
+        do {
+            bits = limite.get();
+        } while (!limite.compareAndSet(bits, Double.doubleToLongBits(calcul.applyAsDouble(Double.longBitsToDouble(bits)))));
+    }
+
+    private void suivreReference(long latence) {
+        long bits;
+        double nouvelle;
+        do {
+            bits = referenceNanos.get();
+            double reference = Double.longBitsToDouble(bits);
+            nouvelle = reference == 0 ? latence : reference + POIDS_REFERENCE * (latence - reference);
+        } while (!referenceNanos.compareAndSet(bits, Double.doubleToLongBits(nouvelle)));
+    }
+
+    final class Admission {
+
+        private final long debut;
+        private final int enCoursALAdmission;
+        private boolean terminee;
+
+        private Admission(long debut, int enCoursALAdmission) {
+            this.debut = debut;
+            this.enCoursALAdmission = enCoursALAdmission;
+        }
+
+        /**
+         * @param surcharge la requête a échoué faute de ressources (503) : compte comme une réponse lente
+         */
+        void terminer(boolean surcharge) {
+            if (terminee) return;
+            terminee = true;
+            enCours.decrementAndGet();
+
+            long maintenant = horloge.getAsLong();
+            long latence = maintenant - debut;
+            double reference = referenceNanos();
+            if (surcharge || reference > 0 && latence > reference * tolerance) {
+                baisser(maintenant);
+                return;
+            }
+            suivreReference(latence);
+            // N'augmente que si la limite a réellement servi (au moins à moitié occupée)
+            if (enCoursALAdmission * 2 >= limite()) {
+                modifierLimite(l -> Math.min(maximum, l + 1 / l));
+            }
+        }
+    }
+}
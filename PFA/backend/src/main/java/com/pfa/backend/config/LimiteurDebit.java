@@ -0,0 +1,61 @@
+package com.pfa.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Seau à jetons par client : débit soutenu de {@code parSeconde} requêtes, rafale de {@code rafale}.
+ *
+ * Chaque seau tient en un seul long mis à jour par CAS (GCRA : instant théorique où le seau sera de
+ * nouveau plein), donc sans verrou. Les seaux sont dans un cache Caffeine (segmenté, borné en nombre
+ * de clés, un seau inactif est évincé) : un client évincé repart simplement avec un seau plein.
+ */
+class LimiteurDebit {
+
+    private final long intervalleNanos;
+    private final long toleranceNanos;
+    private final LongSupplier horloge;
+    private final Cache<String, AtomicLong> seaux;
+
+    LimiteurDebit(double parSeconde, int rafale, long clesMax, Duration inactivite, LongSupplier horloge) {
+        if (parSeconde <= 0 || rafale < 1) {
+            throw new IllegalArgumentException("Débit et rafale doivent être positifs");
+        }
+        this.intervalleNanos = (long) (TimeUnit.SECONDS.toNanos(1) / parSeconde);
+        this.toleranceNanos = intervalleNanos * (rafale - 1);
+        this.horloge = horloge;
+        this.seaux = Caffeine.newBuilder()
+                .maximumSize(clesMax)
+                // Au-delà, le seau est de toute façon plein de nouveau
+                .expireAfterAccess(inactivite.compareTo(Duration.ofNanos(toleranceNanos + intervalleNanos)) > 0
+                        ? inactivite : Duration.ofNanos(toleranceNanos + intervalleNanos))
+                .build();
+    }
+
+    /**
+     * Prend un jeton pour ce client.
+     *
+     * @return 0 si la requête est admise, sinon l'attente en nanosecondes avant le prochain jeton
+     */
+    long acquerir(String cle) {
+        AtomicLong seau = seaux.get(cle, c -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long maintenant = horloge.getAsLong();
+            long theorique = seau.get();
+            // Long.MIN_VALUE : seau neuf, donc plein
+            long depart = theorique == Long.MIN_VALUE || theorique - maintenant < 0 ? maintenant : theorique;
+            long attente = depart - maintenant - toleranceNanos;
+            if (attente > 0) return attente;
+            if (seau.compareAndSet(theorique, depart + intervalleNanos)) return 0;
+        }
+    }
+
+    long nombreCles() {
+        return seaux.estimatedSize();
+    }
+}
@@ -0,0 +1,37 @@
+package com.pfa.backend.config;
+
+import com.pfa.backend.exception.BaseSatureeError;
+import com.pfa.backend.exception.BaseSatureeException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Une saturation du bulkhead ne doit pas finir en 404 ou 500 dans les catch génériques des contrôleurs.
+ *
+ * À la sortie des services et des repositories (à l'extérieur de la transaction, d'où la priorité
+ * maximale), une exception dont une cause est BaseSatureeException devient BaseSatureeError, que ces
+ * catch ne voient pas ; le GlobalExceptionHandler la retrouve parmi les causes et répond 503.
+ * Seulement sur un thread de requête : les workers de fond ont leur propre reprise sur erreur.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RemonteeSaturation {
+
+    @Around("@within(org.springframework.stereotype.Service) || execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object remonter(ProceedingJoinPoint appel) throws Throwable {
+        try {
+            return appel.proceed();
+        } catch (RuntimeException e) {
+            if (RequestContextHolder.getRequestAttributes() != null && BaseSatureeException.parmiLesCauses(e) != null) {
+                throw new BaseSatureeError(e);
+            }
+            throw e;
+        }
+    }
+}
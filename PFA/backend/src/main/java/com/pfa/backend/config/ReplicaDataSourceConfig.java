@@ -0,0 +1,76 @@
+package com.pfa.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Lectures sur réplique : les transactions readOnly sont servies par le pool de la réplique, les autres
+ * par le primaire. Inactif tant que datasource.replica.url n'est pas renseignée (une seule base).
+ *
+ * La connexion n'est réellement ouverte qu'à la première requête SQL (LazyConnectionDataSourceProxy) ;
+ * Spring l'a alors déjà marquée en lecture seule, ce qui décide du pool. Flyway et les accès hors
+ * transaction passent par le primaire, comme les lectures {@link LectureSurPrimaire} (relues juste après une
+ * écriture, elles ne supportent pas le retard de la réplique).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimaire(DataSourceProperties proprietes) {
+        HikariDataSource dataSource = proprietes.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primaire");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource dataSourceReplica(
+            @Value("${datasource.replica.url}") String url,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}") String utilisateur,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}") String motDePasse) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(utilisateur).password(motDePasse).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public SurveillanceReplica surveillanceReplica(
+            @Qualifier("dataSourceReplica") DataSource replica,
+            @Value("${datasource.replica.retard-max:5s}") Duration retardMax,
+            @Value("${datasource.replica.requete-retard:}") String requeteRetard) {
+        return new SurveillanceReplica(replica, retardMax, requeteRetard);
+    }
+
+    @Bean
+    public RoutageLectureSurPrimaire routageLectureSurPrimaire() {
+        return new RoutageLectureSurPrimaire();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimaire") DataSource primaire,
+                                 @Qualifier("dataSourceReplica") DataSource replica,
+                                 SurveillanceReplica surveillanceReplica) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaire);
+        proxy.setReadOnlyDataSource(new RoutageLectureDataSource(primaire, replica, surveillanceReplica));
+        return proxy;
+    }
+}
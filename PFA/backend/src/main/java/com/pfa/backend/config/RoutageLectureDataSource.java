@@ -0,0 +1,59 @@
+package com.pfa.backend.config;
+
+import com.pfa.backend.exception.BaseSatureeException;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Source des connexions en lecture seule : la réplique si elle est à jour et que la méthode en cours n'est
+ * pas {@link LectureSurPrimaire}, le primaire sinon.
+ */
+class RoutageLectureDataSource extends AbstractDataSource {
+
+    // Renseigné par RoutageLectureSurPrimaire le temps d'une méthode LectureSurPrimaire
+    static final ThreadLocal<Boolean> SUR_PRIMAIRE = new ThreadLocal<>();
+
+    private final DataSource primaire;
+    private final DataSource replica;
+    private final SurveillanceReplica surveillance;
+
+    RoutageLectureDataSource(DataSource primaire, DataSource replica, SurveillanceReplica surveillance) {
+        this.primaire = primaire;
+        this.replica = replica;
+        this.surveillance = surveillance;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return router(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return router(source -> source.getConnection(username, password));
+    }
+
+    private Connection router(Ouverture ouverture) throws SQLException {
+        if (SUR_PRIMAIRE.get() == null && surveillance.estDisponible()) {
+            try {
+                Connection connexion = ouverture.ouvrir(replica);
+                surveillance.noterLecture(true);
+                return connexion;
+            } catch (BaseSatureeException e) {
+                // Réplique joignable mais pleine : lecture sur le primaire sans l'écarter
+            } catch (SQLException e) {
+                surveillance.signalerEchec();
+            }
+        }
+        surveillance.noterLecture(false);
+        return ouverture.ouvrir(primaire);
+    }
+
+    @FunctionalInterface
+    private interface Ouverture {
+        Connection ouvrir(DataSource source) throws SQLException;
+    }
+}
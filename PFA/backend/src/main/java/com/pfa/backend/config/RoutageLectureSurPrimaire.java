@@ -0,0 +1,30 @@
+package com.pfa.backend.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Pendant une méthode {@link LectureSurPrimaire}, RoutageLectureDataSource ouvre les connexions en lecture
+ * seule sur le primaire. Placé à l'extérieur de la transaction, comme la connexion n'est ouverte qu'à la
+ * première requête SQL.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+class RoutageLectureSurPrimaire {
+
+    @Around("@annotation(com.pfa.backend.config.LectureSurPrimaire)")
+    public Object surPrimaire(ProceedingJoinPoint appel) throws Throwable {
+        if (RoutageLectureDataSource.SUR_PRIMAIRE.get() != null) {
+            return appel.proceed();
+        }
+        RoutageLectureDataSource.SUR_PRIMAIRE.set(Boolean.TRUE);
+        try {
+            return appel.proceed();
+        } finally {
+            RoutageLectureDataSource.SUR_PRIMAIRE.remove();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.pfa.backend.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesure périodiquement le retard de réplication : au-delà du seuil, ou si la réplique ne répond pas,
+ * les lectures repartent sur le primaire jusqu'au prochain contrôle réussi.
+ */
+@Slf4j
+public class SurveillanceReplica implements MeterBinder {
+
+    // Retard en secondes ; 0 si la réplique a rejoué tout ce qu'elle a reçu (un primaire inactif
+    // ne fait pas vieillir pg_last_xact_replay_timestamp pour rien), ou si ce n'est pas une réplique
+    static final String REQUETE_RETARD = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final JdbcTemplate replica;
+    private final String requeteRetard;
+    private final double retardMaxSecondes;
+
+    // Pas de lecture sur la réplique avant le premier contrôle réussi
+    private volatile boolean disponible;
+    private volatile double retardSecondes = Double.NaN;
+
+    private final LongAdder lecturesReplica = new LongAdder();
+    private final LongAdder lecturesPrimaire = new LongAdder();
+    private final LongAdder echecsConnexion = new LongAdder();
+
+    public SurveillanceReplica(DataSource replica, Duration retardMax, String requeteRetard) {
+        this.replica = new JdbcTemplate(replica);
+        this.retardMaxSecondes = retardMax.toMillis() / 1000.0;
+        this.requeteRetard = requeteRetard == null || requeteRetard.isBlank() ? REQUETE_RETARD : requeteRetard;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.verification-ms:2000}")
+    public void verifier() {
+        boolean avant = disponible;
+        try {
+            Double retard = replica.queryForObject(requeteRetard, Double.class);
+            retardSecondes = retard != null ? retard : 0;
+            disponible = retardSecondes <= retardMaxSecondes;
+        } catch (DataAccessException e) {
+            retardSecondes = Double.NaN;
+            disponible = false;
+        }
+        if (avant != disponible) {
+            log.warn("Réplique {} (retard : {} s)", disponible ? "réintégrée pour les lectures" :
+                    "écartée, lectures sur le primaire", retardSecondes);
+        }
+    }
+
+    public boolean estDisponible() {
+        return disponible;
+    }
+
+    void noterLecture(boolean surReplica) {
+        (surReplica ? lecturesReplica : lecturesPrimaire).increment();
+    }
+
+    // Connexion refusée entre deux contrôles : la réplique est écartée sans attendre le suivant
+    void signalerEchec() {
+        echecsConnexion.increment();
+        disponible = false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replica.retard", this, s -> s.retardSecondes)
+                .baseUnit("seconds")
+                .description("Retard de réplication mesuré au dernier contrôle")
+                .register(registry);
+        Gauge.builder("datasource.replica.disponible", this, s -> s.disponible ? 1 : 0)
+                .register(registry);
+        FunctionCounter.builder("datasource.lectures", lecturesReplica, LongAdder::sum)
+                .description("Transactions en lecture seule, par pool servi")
+                .tag("pool", "replica")
+                .register(registry);
+        FunctionCounter.builder("datasource.lectures", lecturesPrimaire, LongAdder::sum)
+                .description("Transactions en lecture seule, par pool servi")
+                .tag("pool", "primaire")
+                .register(registry);
+        FunctionCounter.builder("datasource.replica.echecs", echecsConnexion, LongAdder::sum)
+                .register(registry);
+    }
+}
@@ -1,11 +1,22 @@
 package com.pfa.backend.controller;
 
 import com.pfa.backend.Service.CandidatService;
+import com.pfa.backend.Service.ImportCandidatsService;
+import com.pfa.backend.dto.FormatFichier;
+import com.pfa.backend.dto.RapportImportDTO;
 import com.pfa.backend.entities.CandidateProfile;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/candidats")
@@ -14,6 +25,10 @@ import org.springframework.web.bind.annotation.*;
 public class CandidatController {
 
     private final CandidatService candidatService;
+    private final ImportCandidatsService importCandidatsService;
+
+    @Value("${import.candidats.taille-max-corps:100MB}")
+    private DataSize tailleMaxCorps;
 
     /**
      * Crée un nouveau Candidat (pour l'inscription ou les tests).
@@ -40,5 +55,65 @@ public class CandidatController {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+    @PutMapping("/{id}")
+    public ResponseEntity<CandidateProfile> updateCandidat(@PathVariable Long id, @RequestBody CandidateProfile candidat) {
+        try {
+            CandidateProfile updatedCandidat = candidatService.updateCandidat(id, candidat);
+            return new ResponseEntity<>(updatedCandidat, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Import en masse depuis un formulaire (champ "fichier").
+     * Format déduit de l'extension (.ndjson / .jsonl, sinon CSV) si le paramètre format est absent.
+     * @return Le rapport d'import (lignes importées, erreurs par ligne, débit).
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<RapportImportDTO> importerCandidats(
+            @RequestParam("fichier") MultipartFile fichier,
+            @RequestParam(required = false) FormatFichier format) {
+        if (format == null) {
+            String nom = fichier.getOriginalFilename() != null ? fichier.getOriginalFilename().toLowerCase() : "";
+            format = nom.endsWith(".ndjson") || nom.endsWith(".jsonl") ?
+                    FormatFichier.NDJSON : FormatFichier.CSV;
+        }
+        try (InputStream flux = fichier.getInputStream()) {
+            return new ResponseEntity<>(importCandidatsService.importer(flux, format), HttpStatus.OK);
+        } catch (IllegalArgumentException | IOException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Import en masse depuis le corps brut de la requête (text/csv ou application/x-ndjson),
+     * lu au fil de l'envoi sans fichier temporaire. Borné à import.candidats.taille-max-corps : 413 d'emblée
+     * si Content-Length dépasse, sinon dès que la lecture dépasse (les lots déjà écrits restent importés).
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<RapportImportDTO> importerCandidatsFlux(HttpServletRequest request) {
+        FormatFichier format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("application/x-ndjson")) ?
+                FormatFichier.NDJSON : FormatFichier.CSV;
+        long maximum = tailleMaxCorps.toBytes();
+        if (request.getContentLengthLong() > maximum) {
+            return new ResponseEntity<>(null, HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        try {
+            return new ResponseEntity<>(importCandidatsService.importer(
+                    new FluxBorne(request.getInputStream(), maximum), format), HttpStatus.OK);
+        } catch (FluxBorne.TailleDepassee e) {
+            return new ResponseEntity<>(null, HttpStatus.PAYLOAD_TOO_LARGE);
+        } catch (IllegalArgumentException | IOException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
     // Vous pouvez ajouter un GET pour récupérer un candidat par ID ici pour les tests
 }
\ No newline at end of file
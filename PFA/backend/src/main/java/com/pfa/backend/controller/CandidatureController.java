@@ -1,13 +1,35 @@
 package com.pfa.backend.controller;
 
 import com.pfa.backend.dto.CandidatureDTO;
+import com.pfa.backend.dto.FormatFichier;
+import com.pfa.backend.dto.PageCurseur;
+import com.pfa.backend.dto.ResultatStatutDTO;
+import com.pfa.backend.entities.StatutCandidature;
+import com.pfa.backend.exception.DuplicateResourceException;
+import com.pfa.backend.exception.TransitionStatutInvalideException;
 import com.pfa.backend.Service.CandidatureService;
+import com.pfa.backend.Service.FileScoringService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/recruteur/candidatures")
@@ -15,7 +37,15 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:3000")
 public class CandidatureController {
 
+    private static final int TAILLE_LOT_MAX = 1_000;
+
     private final CandidatureService candidatureService;
+    private final RequetesIdempotentes requetesIdempotentes;
+    private final FileScoringService fileScoringService;
+
+    // Délai propre à l'export en flux ; les autres requêtes asynchrones gardent celui par défaut
+    @Value("${candidatures.export.delai-max:30m}")
+    private Duration delaiExport;
 
     // CONSULTER CANDIDATURES - Par offre
     @GetMapping("/offre/{offreId}")
@@ -30,6 +60,23 @@ public class CandidatureController {
         }
     }
 
+    // CONSULTER CANDIDATURES - Par offre, par pages (curseur)
+    @GetMapping("/offre/{offreId}/page")
+    public ResponseEntity<PageCurseur<CandidatureDTO>> getPageCandidaturesParOffre(
+            @PathVariable Long offreId,
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "50") int taille) {
+        try {
+            PageCurseur<CandidatureDTO> page = candidatureService
+                    .getPageCandidaturesParOffre(offreId, curseur, taille);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // CONSULTER CANDIDATURES - Par recruteur
     @GetMapping("/recruteur/{recruteurId}")
     public ResponseEntity<List<CandidatureDTO>> getCandidaturesParRecruteur(
@@ -43,20 +90,88 @@ public class CandidatureController {
         }
     }
 
+    // EXPORTER CANDIDATURES - Par recruteur, écrit au fil de la lecture (CSV ou NDJSON)
+    @GetMapping("/recruteur/{recruteurId}/export")
+    public ResponseEntity<StreamingResponseBody> exporterCandidaturesParRecruteur(
+            @PathVariable Long recruteurId,
+            @RequestParam(defaultValue = "CSV") FormatFichier format,
+            HttpServletRequest request) {
+        appliquerDelai(request, delaiExport);
+        StreamingResponseBody corps = sortie ->
+                candidatureService.exporterCandidaturesParRecruteur(recruteurId, format, sortie);
+        boolean csv = format == FormatFichier.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) :
+                        MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"candidatures-recruteur-"
+                        + recruteurId + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(corps);
+    }
+
+    /**
+     * Délai de la prochaine requête asynchrone de cette requête (le StreamingResponseBody), appliqué juste
+     * avant son démarrage : il remplace le délai par défaut posé par Spring MVC.
+     */
+    private static void appliquerDelai(HttpServletRequest request, Duration delai) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(Duration.class,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest requete, Callable<T> tache) {
+                        ((AsyncWebRequest) requete).setTimeout(delai.toMillis());
+                    }
+                });
+    }
+
+    // CONSULTER CANDIDATURES - Par recruteur, par pages (curseur)
+    @GetMapping("/recruteur/{recruteurId}/page")
+    public ResponseEntity<PageCurseur<CandidatureDTO>> getPageCandidaturesParRecruteur(
+            @PathVariable Long recruteurId,
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "50") int taille) {
+        try {
+            PageCurseur<CandidatureDTO> page = candidatureService
+                    .getPageCandidaturesParRecruteur(recruteurId, curseur, taille);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // POSTULER
+    // async=true (ou Prefer: respond-async) : 202 tout de suite, le score est calculé en file
+    // Idempotency-Key : un réessai avec la même clé renvoie la réponse du premier dépôt ; 409 si déjà postulé
     @PostMapping("/postuler")
-    public ResponseEntity<CandidatureDTO> postuler(@RequestBody Map<String, Object> body) {
+    public ResponseEntity<CandidatureDTO> postuler(
+            @RequestBody Map<String, Object> body,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @RequestHeader(value = RequetesIdempotentes.EN_TETE, required = false) String cleIdempotence) {
         try {
             Long offreId = Long.valueOf(body.get("offreId").toString());
             Long candidatId = Long.valueOf(body.get("candidatId").toString());
             String lettreMotivation = (String) body.getOrDefault("lettreMotivation", "");
             String cvUrl = (String) body.getOrDefault("cvUrl", "");
+            boolean differe = async || (prefer != null && prefer.contains("respond-async"));
 
-            CandidatureDTO createdCandidature = candidatureService.postuler(
-                    offreId, candidatId, lettreMotivation, cvUrl);
-            return new ResponseEntity<>(createdCandidature, HttpStatus.CREATED);
+            return requetesIdempotentes.executer("postuler", cleIdempotence,
+                    offreId + "/" + candidatId + "/" + differe, () -> {
+                        if (differe) {
+                            CandidatureDTO deposee = candidatureService.postulerEnDiffere(
+                                    offreId, candidatId, lettreMotivation, cvUrl);
+                            return ResponseEntity.accepted()
+                                    .location(URI.create("/api/recruteur/candidatures/" + deposee.getId()))
+                                    .body(deposee);
+                        }
+                        CandidatureDTO createdCandidature = candidatureService.postuler(
+                                offreId, candidatId, lettreMotivation, cvUrl);
+                        return new ResponseEntity<>(createdCandidature, HttpStatus.CREATED);
+                    });
         } catch (NumberFormatException e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (DuplicateResourceException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -65,34 +180,88 @@ public class CandidatureController {
         }
     }
 
+    // SCORING DIFFÉRÉ - Remettre en file les candidatures abandonnées après trop d'échecs
+    @PostMapping("/scoring/relancer")
+    public ResponseEntity<Map<String, Integer>> relancerScoring() {
+        try {
+            return new ResponseEntity<>(Map.of("relancees", fileScoringService.relancerAbandonnees()), HttpStatus.OK);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // CONSULTER CANDIDATURES - Détails d'une candidature
     @GetMapping("/{id}")
-    public ResponseEntity<CandidatureDTO> getCandidatureById(@PathVariable Long id) {
+    public ResponseEntity<CandidatureDTO> getCandidatureById(@PathVariable Long id, NativeWebRequest request) {
         try {
-            CandidatureDTO candidature = candidatureService.getCandidatureById(id);
-            return new ResponseEntity<>(candidature, HttpStatus.OK);
+            return ReponseConditionnelle.repondre(request, candidatureService.getEtatCandidature(id),
+                    () -> candidatureService.getCandidatureById(id));
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
     }
 
+    // RETIRER UNE CANDIDATURE
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> supprimerCandidature(@PathVariable Long id) {
+        try {
+            candidatureService.supprimerCandidature(id);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
     // CONSULTER CANDIDATURES - Changer statut
     @PatchMapping("/{id}/statut")
     public ResponseEntity<CandidatureDTO> changerStatutCandidature(
             @PathVariable Long id,
             @RequestBody Map<String, String> body) {
         try {
-            String statut = body.get("statut");
+            StatutCandidature statut = StatutCandidature.valueOf(body.get("statut"));
             String commentaire = body.getOrDefault("commentaire", "");
 
             CandidatureDTO updatedCandidature = candidatureService
                     .changerStatutCandidature(id, statut, commentaire);
             return new ResponseEntity<>(updatedCandidature, HttpStatus.OK);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (TransitionStatutInvalideException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
     }
 
+    // CONSULTER CANDIDATURES - Changer le statut d'un lot (ex: refuser 300 candidatures d'un coup)
+    @PostMapping("/statut-groupe")
+    public ResponseEntity<List<ResultatStatutDTO>> changerStatutEnMasse(@RequestBody Map<String, Object> body) {
+        try {
+            List<Long> ids = ((List<?>) body.get("ids")).stream()
+                    .map(id -> Long.valueOf(id.toString()))
+                    .collect(Collectors.toList());
+            if (ids.isEmpty() || ids.size() > TAILLE_LOT_MAX) {
+                return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+            }
+            StatutCandidature statut = StatutCandidature.valueOf((String) body.get("statut"));
+            String commentaire = (String) body.getOrDefault("commentaire", "");
+
+            List<ResultatStatutDTO> resultats = candidatureService
+                    .changerStatutEnMasse(ids, statut, commentaire);
+            return new ResponseEntity<>(resultats, HttpStatus.OK);
+        } catch (IllegalArgumentException | NullPointerException | ClassCastException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // CONSULTER CANDIDATURES - Accepter
     @PostMapping("/{id}/accepter")
     public ResponseEntity<CandidatureDTO> accepterCandidature(
@@ -102,6 +271,10 @@ public class CandidatureController {
             String commentaire = body != null ? body.getOrDefault("commentaire", "") : "";
             CandidatureDTO candidature = candidatureService.accepterCandidature(id, commentaire);
             return new ResponseEntity<>(candidature, HttpStatus.OK);
+        } catch (TransitionStatutInvalideException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
@@ -116,6 +289,10 @@ public class CandidatureController {
             String commentaire = body != null ? body.getOrDefault("commentaire", "") : "";
             CandidatureDTO candidature = candidatureService.refuserCandidature(id, commentaire);
             return new ResponseEntity<>(candidature, HttpStatus.OK);
+        } catch (TransitionStatutInvalideException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
@@ -130,6 +307,10 @@ public class CandidatureController {
             String commentaire = body != null ? body.getOrDefault("commentaire", "") : "";
             CandidatureDTO candidature = candidatureService.mettreEnCours(id, commentaire);
             return new ResponseEntity<>(candidature, HttpStatus.OK);
+        } catch (TransitionStatutInvalideException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
@@ -146,6 +327,10 @@ public class CandidatureController {
             String commentaire = body != null ? body.getOrDefault("commentaire", "") : "";
             CandidatureDTO candidature = candidatureService.mettreEnInterview(id, commentaire);
             return new ResponseEntity<>(candidature, HttpStatus.OK);
+        } catch (TransitionStatutInvalideException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         }
@@ -165,6 +350,16 @@ public class CandidatureController {
                     id, checklistResults, skillComments, commentaire);
 
             return new ResponseEntity<>(candidature, HttpStatus.OK);
+        } catch (TransitionStatutInvalideException e) {
+            return new ResponseEntity<>(
+                    Map.of("message", e.getMessage()),
+                    HttpStatus.CONFLICT
+            );
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(
+                    Map.of("message", "Candidature modifiée entre-temps, rechargez-la"),
+                    HttpStatus.CONFLICT
+            );
         } catch (RuntimeException e) {
             return new ResponseEntity<>(
                     Map.of("message", e.getMessage()),
@@ -185,7 +380,7 @@ public class CandidatureController {
     @GetMapping("/recruteur/{recruteurId}/statut/{statut}")
     public ResponseEntity<List<CandidatureDTO>> getCandidaturesParStatut(
             @PathVariable Long recruteurId,
-            @PathVariable String statut) {
+            @PathVariable StatutCandidature statut) {
         try {
             List<CandidatureDTO> candidatures = candidatureService
                     .getCandidaturesParStatut(recruteurId, statut);
@@ -194,4 +389,22 @@ public class CandidatureController {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
-}
\ No newline at end of file
+
+    // CONSULTER CANDIDATURES - Filtrer par statut, par pages (curseur)
+    @GetMapping("/recruteur/{recruteurId}/statut/{statut}/page")
+    public ResponseEntity<PageCurseur<CandidatureDTO>> getPageCandidaturesParStatut(
+            @PathVariable Long recruteurId,
+            @PathVariable StatutCandidature statut,
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "50") int taille) {
+        try {
+            PageCurseur<CandidatureDTO> page = candidatureService
+                    .getPageCandidaturesParStatut(recruteurId, statut, curseur, taille);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.pfa.backend.controller;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Corps de requête lu au fil de l'eau, borné en octets : au-delà, la lecture échoue avec
+ * {@link TailleDepassee}. Couvre les envois sans Content-Length (chunked).
+ */
+final class FluxBorne extends FilterInputStream {
+
+    private final long maximum;
+    private long lus;
+
+    FluxBorne(InputStream flux, long maximum) {
+        super(flux);
+        this.maximum = maximum;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int octet = super.read();
+        if (octet >= 0) compter(1);
+        return octet;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) compter(n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long sautes = super.skip(n);
+        compter(sautes);
+        return sautes;
+    }
+
+    private void compter(long n) throws TailleDepassee {
+        lus += n;
+        if (lus > maximum) throw new TailleDepassee(maximum);
+    }
+
+    /**
+     * Corps plus grand que la limite autorisée.
+     */
+    static final class TailleDepassee extends IOException {
+
+        TailleDepassee(long maximum) {
+            super("Corps de requête supérieur à " + maximum + " octets");
+        }
+    }
+}
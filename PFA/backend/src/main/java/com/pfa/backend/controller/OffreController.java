@@ -1,11 +1,17 @@
 package com.pfa.backend.controller;
 
+import com.pfa.backend.dto.CandidatSuggereDTO;
 import com.pfa.backend.dto.OffreDTO;
+import com.pfa.backend.dto.PageCurseur;
+import com.pfa.backend.entities.StatutOffre;
 import com.pfa.backend.Service.OffreService;
+import com.pfa.backend.Service.SourcingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 import java.util.List;
 
 @RestController
@@ -15,6 +21,7 @@ import java.util.List;
 public class OffreController {
 
     private final OffreService offreService;
+    private final SourcingService sourcingService;
 
     // CREATE - Créer une nouvelle offre
     @PostMapping
@@ -35,11 +42,31 @@ public class OffreController {
     }
 
     // READ - Obtenir une offre par ID
+    // (GET conditionnel : 304 sans lecture de l'offre si l'ETag du client est à jour ; sinon ETag de l'offre renvoyée)
     @GetMapping("/{id}")
-    public ResponseEntity<OffreDTO> getOffreById(@PathVariable Long id) {
+    public ResponseEntity<OffreDTO> getOffreById(@PathVariable Long id, NativeWebRequest request) {
         try {
-            OffreDTO offre = offreService.getOffreById(id);
-            return new ResponseEntity<>(offre, HttpStatus.OK);
+            return ReponseConditionnelle.repondreVersionnee(request, offreService.getEtatOffre(id),
+                    () -> offreService.getOffreVersionnee(id));
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // SOURCING - Meilleurs candidats du vivier pour une offre
+    @GetMapping("/{id}/meilleurs-candidats")
+    public ResponseEntity<List<CandidatSuggereDTO>> getMeilleursCandidats(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "20") int k) {
+        if (k < 1 || k > 200) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+        try {
+            List<CandidatSuggereDTO> candidats = sourcingService.meilleursCandidats(id, k);
+            return new ResponseEntity<>(candidats, HttpStatus.OK);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -61,11 +88,28 @@ public class OffreController {
         }
     }
 
+    // READ - Offres d'un recruteur, par pages (curseur opaque renvoyé par la page précédente)
+    @GetMapping("/recruteur/{recruteurId}/page")
+    public ResponseEntity<PageCurseur<OffreDTO>> getPageOffresParRecruteur(
+            @PathVariable Long recruteurId,
+            @RequestParam(required = false) String curseur,
+            @RequestParam(defaultValue = "50") int taille) {
+        try {
+            PageCurseur<OffreDTO> page = offreService.getPageOffresParRecruteur(recruteurId, curseur, taille);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // READ - Lister les offres par recruteur et statut
     @GetMapping("/recruteur/{recruteurId}/statut/{statut}")
     public ResponseEntity<List<OffreDTO>> getOffresParStatut(
             @PathVariable Long recruteurId,
-            @PathVariable String statut) {
+            @PathVariable StatutOffre statut) {
         try {
             List<OffreDTO> offres = offreService.getOffresParStatut(recruteurId, statut);
             return new ResponseEntity<>(offres, HttpStatus.OK);
@@ -83,6 +127,8 @@ public class OffreController {
         try {
             OffreDTO updatedOffre = offreService.modifierOffre(id, offreDTO);
             return new ResponseEntity<>(updatedOffre, HttpStatus.OK);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             if (e.getMessage() != null && e.getMessage().contains("Offre non trouvée")) {
                 return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
@@ -99,11 +145,13 @@ public class OffreController {
     @PatchMapping("/{id}/statut")
     public ResponseEntity<OffreDTO> changerStatutOffre(
             @PathVariable Long id,
-            @RequestParam String statut) {
+            @RequestParam StatutOffre statut) {
         try {
             System.out.println("Changing status for offre " + id + " to: " + statut);
             OffreDTO updatedOffre = offreService.changerStatutOffre(id, statut);
             return new ResponseEntity<>(updatedOffre, HttpStatus.OK);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             if (e.getMessage() != null && e.getMessage().contains("Offre non trouvée")) {
                 return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
@@ -123,6 +171,8 @@ public class OffreController {
             System.out.println("Attempting to delete offre with ID: " + id);
             offreService.supprimerOffre(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             if (e.getMessage() != null && e.getMessage().contains("Offre non trouvée")) {
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -1,25 +1,46 @@
 package com.pfa.backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pfa.backend.config.LectureSurPrimaire;
+import com.pfa.backend.dto.ClassementCandidatureDTO;
+import com.pfa.backend.dto.DashboardRecruteurDTO;
+import com.pfa.backend.dto.EtatRessource;
 import com.pfa.backend.dto.RecruteurDTO;
+import com.pfa.backend.dto.RessourceVersionnee;
+import com.pfa.backend.dto.StatistiquesInterviewDTO;
+import com.pfa.backend.Service.ChecklistService;
+import com.pfa.backend.Service.DashboardService;
+import com.pfa.backend.Service.OffreService;
 import com.pfa.backend.Service.RecruteurService;
+import com.pfa.backend.Service.ResultatsInterviewService;
 import com.pfa.backend.entities.Offre;
+import com.pfa.backend.exception.ConflitModificationException;
+import com.pfa.backend.exception.ResourceNotFoundException;
 import com.pfa.backend.repository.OffreRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/recruteur")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = HttpHeaders.ETAG)
 public class RecruteurController {
 
     private final RecruteurService recruteurService;
+    private final DashboardService dashboardService;
+    private final ResultatsInterviewService resultatsInterviewService;
+    private final ChecklistService checklistService;
 
     @Autowired
     private OffreRepository offreRepository;
@@ -43,6 +64,20 @@ public class RecruteurController {
         }
     }
 
+    /**
+     * Recruiter dashboard: per-offer counts by status, score distribution and conversion funnel
+     * GET /api/recruteur/{id}/dashboard
+     */
+    @GetMapping("/{id}/dashboard")
+    public ResponseEntity<DashboardRecruteurDTO> getDashboard(@PathVariable Long id) {
+        try {
+            return new ResponseEntity<>(dashboardService.getDashboard(id), HttpStatus.OK);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // ============================================
     // INTERVIEW CHECKLIST ENDPOINTS
     // ============================================
@@ -52,14 +87,19 @@ public class RecruteurController {
      * GET /api/recruteur/offres/{id}/checklist
      */
     @GetMapping("/offres/{id}/checklist")
-    public ResponseEntity<?> getChecklist(@PathVariable Long id) {
+    @LectureSurPrimaire
+    public ResponseEntity<?> getChecklist(@PathVariable Long id, NativeWebRequest request) {
         try {
-            return offreRepository.findById(id)
-                    .map(offre -> {
+            // Conditional GET: a matching ETag gets a 304 without loading the offer.
+            // Otherwise the ETag is the one of the offer actually read, which may come from the L2 cache.
+            // Read from the primary: a client re-reads the checklist right after its PATCH
+            return offreRepository.findEtatById(id)
+                    .map(etat -> ReponseConditionnelle.repondreVersionnee(request, etat, () -> {
+                        Optional<Offre> offre = offreRepository.findById(id);
                         Map<String, Object> response = new HashMap<>();
-                        response.put("interviewChecklist", offre.getInterviewChecklist());
-                        return ResponseEntity.ok(response);
-                    })
+                        response.put("interviewChecklist", offre.map(Offre::getInterviewChecklist).orElse(null));
+                        return new RessourceVersionnee<>(response, offre.map(OffreService::etatDe).orElse(etat));
+                    }))
                     .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             e.printStackTrace();
@@ -68,42 +108,49 @@ public class RecruteurController {
     }
 
     /**
-     * Save/Update interview checklist for a specific job offer
+     * Save/Update interview checklist for a specific job offer (full replacement)
      * PATCH /api/recruteur/offres/{id}/checklist
+     * Optional If-Match (ETag from the GET): 409 if the checklist changed in the meantime
      */
     @PatchMapping("/offres/{id}/checklist")
     public ResponseEntity<?> updateChecklist(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, Object> payload) {
 
+        // If-Match is checked before anything else: 400 if malformed, 412 if weak
+        Long versionAttendue;
         try {
-            return offreRepository.findById(id)
-                    .map(offre -> {
-                        // Get the interviewChecklist from the payload
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> checklistData = (Map<String, Object>) payload.get("interviewChecklist");
+            versionAttendue = ReponseConditionnelle.versionAttendue(ifMatch);
+        } catch (ReponseConditionnelle.IfMatchRefuse e) {
+            return ifMatchRefuse(e);
+        }
 
-                        // Save it directly to the offre
-                        offre.setInterviewChecklist(checklistData);
+        try {
+            // Get the interviewChecklist from the payload
+            @SuppressWarnings("unchecked")
+            Map<String, Object> checklistData = (Map<String, Object>) payload.get("interviewChecklist");
 
-                        // Save to database
-                        Offre updatedOffre = offreRepository.save(offre);
+            // Single UPDATE, the offer itself is not loaded
+            EtatRessource etat = checklistService.remplacer(id, versionAttendue, checklistData);
 
-                        // Return success response
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "Checklist saved successfully");
-                        response.put("interviewChecklist", updatedOffre.getInterviewChecklist());
-
-                        return ResponseEntity.ok(response);
-                    })
-                    .orElseGet(() -> {
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", "Offre not found");
-                        errorResponse.put("message", "No job offer found with ID: " + id);
-                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
-                    });
-
-        } catch (ClassCastException e) {
+            // Return success response
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Checklist saved successfully");
+            response.put("interviewChecklist", checklistData);
+
+            return ResponseEntity.ok().eTag(etat.getEtag()).body(response);
+
+        } catch (ResourceNotFoundException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Offre not found");
+            errorResponse.put("message", "No job offer found with ID: " + id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+
+        } catch (ConflitModificationException e) {
+            return conflit(e);
+
+        } catch (ClassCastException | IllegalArgumentException e) {
             e.printStackTrace();
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Invalid data format");
@@ -119,27 +166,106 @@ public class RecruteurController {
         }
     }
 
+    /**
+     * Partial update with a JSON Merge Patch (RFC 7396): only the changed keys are sent, null removes a key
+     * PATCH /api/recruteur/offres/{id}/checklist  (Content-Type: application/merge-patch+json)
+     */
+    @PatchMapping(value = "/offres/{id}/checklist", consumes = "application/merge-patch+json")
+    public ResponseEntity<?> mergePatchChecklist(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        return patcherChecklist(id, ifMatch, versionAttendue -> checklistService.fusionner(id, versionAttendue, patch));
+    }
+
+    /**
+     * Partial update with a JSON Patch (RFC 6902): add/remove/replace/move/copy/test, all or nothing.
+     * A failed "test" operation is reported as a conflict
+     * PATCH /api/recruteur/offres/{id}/checklist  (Content-Type: application/json-patch+json)
+     */
+    @PatchMapping(value = "/offres/{id}/checklist", consumes = "application/json-patch+json")
+    public ResponseEntity<?> jsonPatchChecklist(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode operations) {
+        return patcherChecklist(id, ifMatch,
+                versionAttendue -> checklistService.appliquer(id, versionAttendue, operations));
+    }
+
+    // Patches answer 204 with the new ETag: the client already holds the delta it sent
+    private ResponseEntity<?> patcherChecklist(Long id, String ifMatch, Function<Long, EtatRessource> modification) {
+        Long versionAttendue;
+        try {
+            versionAttendue = ReponseConditionnelle.versionAttendue(ifMatch);
+        } catch (ReponseConditionnelle.IfMatchRefuse e) {
+            return ifMatchRefuse(e);
+        }
+
+        try {
+            EtatRessource etat = modification.apply(versionAttendue);
+            return ResponseEntity.noContent().eTag(etat.getEtag()).build();
+        } catch (ResourceNotFoundException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Offre not found");
+            errorResponse.put("message", "No job offer found with ID: " + id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        } catch (ConflitModificationException e) {
+            return conflit(e);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Invalid patch");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(errorResponse);
+        } catch (Exception e) {
+            e.printStackTrace();
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Failed to save checklist");
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    private static ResponseEntity<?> ifMatchRefuse(ReponseConditionnelle.IfMatchRefuse e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Invalid If-Match");
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(e.getStatut()).body(errorResponse);
+    }
+
+    private static ResponseEntity<?> conflit(ConflitModificationException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Checklist modified concurrently");
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     /**
      * Delete interview checklist for a specific job offer
      * DELETE /api/recruteur/offres/{id}/checklist
      */
     @DeleteMapping("/offres/{id}/checklist")
-    public ResponseEntity<?> deleteChecklist(@PathVariable Long id) {
+    public ResponseEntity<?> deleteChecklist(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versionAttendue;
         try {
-            return offreRepository.findById(id)
-                    .map(offre -> {
-                        offre.setInterviewChecklist(null);
-                        offreRepository.save(offre);
+            versionAttendue = ReponseConditionnelle.versionAttendue(ifMatch);
+        } catch (ReponseConditionnelle.IfMatchRefuse e) {
+            return ifMatchRefuse(e);
+        }
 
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("message", "Checklist deleted successfully");
-                        return ResponseEntity.ok(response);
-                    })
-                    .orElseGet(() -> {
-                        Map<String, Object> errorResponse = new HashMap<>();
-                        errorResponse.put("error", "Offre not found");
-                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
-                    });
+        try {
+            checklistService.remplacer(id, versionAttendue, null);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Checklist deleted successfully");
+            return ResponseEntity.ok(response);
+        } catch (ResourceNotFoundException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Offre not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        } catch (ConflitModificationException e) {
+            return conflit(e);
         } catch (Exception e) {
             e.printStackTrace();
             Map<String, Object> errorResponse = new HashMap<>();
@@ -148,4 +274,47 @@ public class RecruteurController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
-}
\ No newline at end of file
+
+    // ============================================
+    // INTERVIEW RESULTS ENDPOINTS
+    // ============================================
+
+    /**
+     * Per-skill pass rates and average interview score over the graded applications of an offer
+     * GET /api/recruteur/offres/{id}/interviews/statistiques
+     */
+    @GetMapping("/offres/{id}/interviews/statistiques")
+    public ResponseEntity<StatistiquesInterviewDTO> getStatistiquesInterviews(@PathVariable Long id) {
+        try {
+            if (!offreRepository.existsById(id)) {
+                return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+            }
+            return new ResponseEntity<>(resultatsInterviewService.getStatistiques(id), HttpStatus.OK);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Graded applications of an offer ranked by combined matching and interview score
+     * GET /api/recruteur/offres/{id}/interviews/classement?poidsInterview=0.5&limite=50
+     */
+    @GetMapping("/offres/{id}/interviews/classement")
+    public ResponseEntity<List<ClassementCandidatureDTO>> getClassementInterviews(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0.5") double poidsInterview,
+            @RequestParam(defaultValue = "50") int limite) {
+        try {
+            if (!offreRepository.existsById(id)) {
+                return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+            }
+            return new ResponseEntity<>(resultatsInterviewService.getClassement(id, poidsInterview, limite), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.pfa.backend.controller;
+
+import com.pfa.backend.dto.EtatRessource;
+import com.pfa.backend.dto.RessourceVersionnee;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.time.ZoneId;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * GET conditionnels : si le client présente l'ETag (If-None-Match) ou la date (If-Modified-Since)
+ * de l'état courant, la réponse est un 304 sans corps et la ressource n'est jamais chargée.
+ * Écritures conditionnelles : If-Match donne la version attendue de l'offre.
+ */
+final class ReponseConditionnelle {
+
+    // Le client revalide à chaque fois mais réutilise sa copie tant que rien n'a changé
+    private static final CacheControl REVALIDER = CacheControl.noCache().cachePrivate();
+
+    // ETag d'offre "o<version>-<nombre de candidatures>", éventuellement faible (W/)
+    private static final Pattern ETAG_OFFRE = Pattern.compile("^(W/)?\"o(\\d+)-\\d+\"$");
+
+    private ReponseConditionnelle() {
+    }
+
+    /**
+     * Version d'offre exigée par If-Match ; null si l'en-tête est absent ou vaut "*". Seule la version
+     * compte : une candidature de plus ne fait pas échouer la modification de l'offre.
+     *
+     * À lire avant d'appeler le service : un en-tête mal formé donne 400, un ETag faible 412
+     * (If-Match exige une comparaison forte, RFC 9110 §13.1.1, un ETag faible ne correspond jamais).
+     */
+    static Long versionAttendue(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) return null;
+        Matcher matcher = ETAG_OFFRE.matcher(ifMatch.trim());
+        if (!matcher.matches()) {
+            throw new IfMatchRefuse(HttpStatus.BAD_REQUEST, "If-Match invalide : " + ifMatch);
+        }
+        if (matcher.group(1) != null) {
+            throw new IfMatchRefuse(HttpStatus.PRECONDITION_FAILED, "If-Match n'accepte pas d'ETag faible : " + ifMatch);
+        }
+        return Long.parseLong(matcher.group(2));
+    }
+
+    /**
+     * En-tête If-Match inutilisable, avec le statut à renvoyer.
+     */
+    static final class IfMatchRefuse extends RuntimeException {
+
+        private final HttpStatus statut;
+
+        IfMatchRefuse(HttpStatus statut, String message) {
+            super(message);
+            this.statut = statut;
+        }
+
+        HttpStatus getStatut() {
+            return statut;
+        }
+    }
+
+    /**
+     * checkNotModified pose lui-même ETag et Last-Modified sur la réponse, 304 ou non. Corps lu par une
+     * requête (jamais par le cache) : une écriture entre la lecture de l'état et celle du corps donne au
+     * client un corps plus récent que son ETag, donc au pire une réponse complète de plus.
+     */
+    static <T> ResponseEntity<T> repondre(NativeWebRequest request, EtatRessource etat, Supplier<T> corps) {
+        return repondreVersionnee(request, etat, () -> new RessourceVersionnee<>(corps.get(), etat));
+    }
+
+    /**
+     * Variante pour un corps tiré d'une entité que le cache de second niveau peut servir en retard sur la
+     * base : sur un 200, les validateurs posés sont remplacés par ceux de l'entité réellement sérialisée.
+     * Le 304 reste décidé sur l'état lu en base, sans charger l'entité.
+     */
+    static <T> ResponseEntity<T> repondreVersionnee(NativeWebRequest request, EtatRessource etat,
+                                                    Supplier<RessourceVersionnee<T>> ressource) {
+        if (request.checkNotModified(etat.getEtag(), epochMillis(etat))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDER).build();
+        }
+        RessourceVersionnee<T> lue = ressource.get();
+        HttpServletResponse reponse = request.getNativeResponse(HttpServletResponse.class);
+        if (reponse != null && !lue.getEtat().equals(etat)) {
+            // setHeader remplace ce que checkNotModified vient d'écrire
+            reponse.setHeader(HttpHeaders.ETAG, "\"" + lue.getEtat().getEtag() + "\"");
+            long derniereModification = epochMillis(lue.getEtat());
+            if (derniereModification >= 0) reponse.setDateHeader(HttpHeaders.LAST_MODIFIED, derniereModification);
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDER).body(lue.getCorps());
+    }
+
+    private static long epochMillis(EtatRessource etat) {
+        return etat.getDerniereModification() == null ? -1 :
+                etat.getDerniereModification().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
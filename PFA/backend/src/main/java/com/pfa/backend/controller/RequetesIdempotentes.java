@@ -0,0 +1,106 @@
+package com.pfa.backend.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * En-tête Idempotency-Key : une requête rejouée avec la même clé (réessai après un délai dépassé)
+ * reçoit la réponse de la première exécution au lieu d'être exécutée à nouveau.
+ *
+ * Les réponses réussies sont gardées dans un cache borné en taille et en durée, propre à l'instance ;
+ * une erreur n'est pas gardée, le réessai est alors exécuté. La même clé pendant l'exécution donne 409,
+ * la même clé pour une autre requête (empreinte différente) 422.
+ */
+@Component
+class RequetesIdempotentes {
+
+    static final String EN_TETE = "Idempotency-Key";
+    static final String EN_TETE_REJEU = "Idempotent-Replayed";
+    private static final int TAILLE_CLE_MAX = 255;
+
+    private final Cache<String, CompletableFuture<Execution>> executions;
+    private final Counter rejeux;
+    private final Counter enCours;
+    private final Counter empreintesDifferentes;
+
+    RequetesIdempotentes(MeterRegistry meterRegistry,
+                         @Value("${idempotence.ttl:24h}") Duration ttl,
+                         @Value("${idempotence.taille-max:100000}") long tailleMax) {
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, executions, "idempotence");
+        this.rejeux = meterRegistry.counter("idempotence.requetes", "resultat", "rejouee");
+        this.enCours = meterRegistry.counter("idempotence.requetes", "resultat", "en_cours");
+        this.empreintesDifferentes = meterRegistry.counter("idempotence.requetes", "resultat", "empreinte_differente");
+    }
+
+    /**
+     * Exécute la requête, ou rejoue la réponse déjà obtenue pour cette clé. Sans clé, la requête
+     * est simplement exécutée.
+     *
+     * @param empreinte ce qui identifie la requête (paramètres métier), comparé lors d'un rejeu
+     */
+    <T> ResponseEntity<T> executer(String portee, String cle, String empreinte, Supplier<ResponseEntity<T>> requete) {
+        if (cle == null) return requete.get();
+        if (cle.isBlank() || cle.length() > TAILLE_CLE_MAX) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+
+        String cleComplete = portee + ':' + cle;
+        CompletableFuture<Execution> nouvelle = new CompletableFuture<>();
+        CompletableFuture<Execution> existante = executions.asMap().putIfAbsent(cleComplete, nouvelle);
+        if (existante != null) {
+            return rejouer(existante, empreinte);
+        }
+
+        try {
+            ResponseEntity<T> reponse = requete.get();
+            if (!reponse.getStatusCode().is2xxSuccessful()) {
+                executions.asMap().remove(cleComplete, nouvelle);
+            }
+            nouvelle.complete(new Execution(empreinte, reponse));
+            return reponse;
+        } catch (RuntimeException e) {
+            executions.asMap().remove(cleComplete, nouvelle);
+            nouvelle.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> rejouer(CompletableFuture<Execution> existante, String empreinte) {
+        // Pas d'attente : le client réessaiera une fois la première exécution terminée
+        Execution execution = existante.isDone() && !existante.isCompletedExceptionally() ? existante.join() : null;
+        if (execution == null) {
+            enCours.increment();
+            return new ResponseEntity<>(null, HttpStatus.CONFLICT);
+        }
+        if (!execution.empreinte().equals(empreinte)) {
+            empreintesDifferentes.increment();
+            return new ResponseEntity<>(null, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        rejeux.increment();
+        ResponseEntity<T> reponse = (ResponseEntity<T>) execution.reponse();
+        return ResponseEntity.status(reponse.getStatusCode())
+                .headers(reponse.getHeaders())
+                .header(EN_TETE_REJEU, "true")
+                .body(reponse.getBody());
+    }
+
+    private record Execution(String empreinte, ResponseEntity<?> reponse) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.pfa.backend.dto;
+
+import com.pfa.backend.entities.StatutCandidature;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Agrégats de candidatures (une offre ou tout un recruteur) : répartition par statut,
+ * distribution des scores et entonnoir EN_ATTENTE -> EN_COURS -> INTERVIEW -> ACCEPTEE.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgregatsCandidaturesDTO {
+    private long nombreCandidatures;
+    private Map<StatutCandidature, Long> parStatut;
+    private Double scoreMoyen;
+    private Double scoreMedian;
+    private Double scoreP90;
+    // Candidatures entrées au moins une fois dans chaque étape
+    private Map<StatutCandidature, Long> entonnoir;
+    // Part des candidatures de l'étape précédente ayant atteint l'étape
+    private Map<StatutCandidature, Double> tauxConversion;
+}
@@ -0,0 +1,22 @@
+package com.pfa.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Candidat du vivier proposé au recruteur pour une offre (sourcing proactif).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandidatSuggereDTO {
+    private Long candidatId;
+    private String nom;
+    private String prenom;
+    private String email;
+    private String competences;
+    private String niveauEtude;
+    private String formation;
+    private Double scoreMatching;
+}
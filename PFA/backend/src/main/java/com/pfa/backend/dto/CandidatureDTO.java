@@ -1,12 +1,19 @@
 package com.pfa.backend.dto;
 
+import com.pfa.backend.entities.StatutCandidature;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 /**
  * Data Transfer Object pour les données de Candidature affichées au Recruteur.
+ * L'ordre des champs est celui du constructeur utilisé par les projections JPQL
+ * de CandidatureRepository.
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class CandidatureDTO {
     private Long id;
 
@@ -26,9 +33,10 @@ public class CandidatureDTO {
     private String cvUrl;
 
     // Détails de la Candidature
-    private String statut;
+    private StatutCandidature statut;
     private String lettreMotivation;
     private Double scoreMatching;
+    private String versionScoring;
     private String commentaireRecruteur;
 
     // Nouveaux champs pour l'interview
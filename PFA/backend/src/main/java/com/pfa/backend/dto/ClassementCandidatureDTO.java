@@ -0,0 +1,23 @@
+package com.pfa.backend.dto;
+
+import com.pfa.backend.entities.StatutCandidature;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Candidature interviewée classée sur le score combiné (matching et interview, sur 100).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassementCandidatureDTO {
+    private Long candidatureId;
+    private Long candidatId;
+    private String nomCandidat;
+    private String prenomCandidat;
+    private StatutCandidature statut;
+    private Double scoreMatching;
+    private double scoreInterview;
+    private double scoreCombine;
+}
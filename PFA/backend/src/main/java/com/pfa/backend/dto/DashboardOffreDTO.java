@@ -0,0 +1,16 @@
+package com.pfa.backend.dto;
+
+import com.pfa.backend.entities.StatutOffre;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardOffreDTO {
+    private Long offreId;
+    private String titre;
+    private StatutOffre statut;
+    private AgregatsCandidaturesDTO agregats;
+}
@@ -0,0 +1,16 @@
+package com.pfa.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardRecruteurDTO {
+    private Long recruteurId;
+    private AgregatsCandidaturesDTO global;
+    private List<DashboardOffreDTO> offres;
+}
@@ -0,0 +1,24 @@
+package com.pfa.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validateurs HTTP d'une ressource (ETag, Last-Modified), lus sans charger l'entité.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EtatRessource {
+
+    private String etag;
+    // null si la ressource n'a pas de date de modification fiable
+    private LocalDateTime derniereModification;
+
+    public EtatRessource(String etag) {
+        this(etag, null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.pfa.backend.dto;
+
+/**
+ * Formats d'échange en masse : CSV avec en-tête, ou NDJSON (un objet JSON par ligne).
+ */
+public enum FormatFichier {
+    CSV, NDJSON
+}
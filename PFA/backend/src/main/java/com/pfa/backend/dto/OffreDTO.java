@@ -1,5 +1,6 @@
 package com.pfa.backend.dto;
 
+import com.pfa.backend.entities.StatutOffre;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,7 +23,7 @@ public class OffreDTO {
     private String competencesRequises;
     private Double salaireMin;
     private Double salaireMax;
-    private String statut;
+    private StatutOffre statut;
     private LocalDateTime datePublication;
     private LocalDateTime dateExpiration;
     private Long recruteurId;
@@ -0,0 +1,19 @@
+package com.pfa.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'une liste parcourue par curseur (keyset) : le client renvoie curseurSuivant
+ * tel quel pour obtenir la page suivante ; null quand la liste est épuisée.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageCurseur<T> {
+    private List<T> elements;
+    private String curseurSuivant;
+}
@@ -0,0 +1,33 @@
+package com.pfa.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Bilan d'un import de candidats en masse.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RapportImportDTO {
+
+    private long lignesLues;
+    private long lignesImportees;
+    private long lignesRejetees;
+    // Plafonnée : au-delà, seules les premières erreurs sont rapportées
+    private List<ErreurLigne> erreurs;
+    private boolean erreursTronquees;
+    private double dureeSecondes;
+    private double lignesParSeconde;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErreurLigne {
+        private long ligne;
+        private String message;
+    }
+}
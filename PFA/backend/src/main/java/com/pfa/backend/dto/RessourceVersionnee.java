@@ -0,0 +1,16 @@
+package com.pfa.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Corps d'une réponse et validateurs HTTP tirés de la même lecture : l'ETag décrit exactement ce qui
+ * est sérialisé, même si l'entité vient du cache de second niveau.
+ */
+@Getter
+@AllArgsConstructor
+public class RessourceVersionnee<T> {
+
+    private final T corps;
+    private final EtatRessource etat;
+}
@@ -0,0 +1,22 @@
+package com.pfa.backend.dto;
+
+import com.pfa.backend.entities.StatutCandidature;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Issue d'un changement de statut groupé, pour une candidature.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultatStatutDTO {
+
+    public enum Resultat { MODIFIEE, INTROUVABLE, TRANSITION_REFUSEE }
+
+    private Long candidatureId;
+    private Resultat resultat;
+    // Statut après l'opération (statut inchangé si la transition a été refusée)
+    private StatutCandidature statut;
+}
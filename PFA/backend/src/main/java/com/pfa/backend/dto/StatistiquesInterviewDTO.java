@@ -0,0 +1,32 @@
+package com.pfa.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Résultats d'interview agrégés sur les candidatures notées d'une offre.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatistiquesInterviewDTO {
+    private Long offreId;
+    private long candidaturesNotees;
+    // Moyenne des scores d'interview (part des compétences validées, sur 100) ; null sans notation
+    private Double scoreInterviewMoyen;
+    private List<TauxCompetence> competences;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TauxCompetence {
+        private String competence;
+        private long evaluations;
+        private long reussites;
+        // Sur 100
+        private double tauxReussite;
+    }
+}
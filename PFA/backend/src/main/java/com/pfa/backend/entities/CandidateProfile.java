@@ -4,17 +4,22 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "candidats")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "candidats")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class CandidateProfile {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "candidats_seq")
+    @SequenceGenerator(name = "candidats_seq", sequenceName = "candidats_id_seq", allocationSize = 50)
     private Long id;
 
     // Informations de base
@@ -7,27 +7,29 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "candidatures")
+@Table(name = "candidatures", uniqueConstraints = @UniqueConstraint(
+        name = "uk_candidatures_offre_candidat", columnNames = {"offre_id", "candidat_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Candidature {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "candidatures_seq")
+    @SequenceGenerator(name = "candidatures_seq", sequenceName = "candidatures_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "offre_id", nullable = false)
     private Offre offre;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "candidat_id", nullable = false)
     private CandidateProfile candidat;
 
-    // Statut: EN_ATTENTE, EN_COURS, INTERVIEW, ACCEPTEE, REFUSEE
+    // Statut: EN_ATTENTE, EN_COURS, INTERVIEW, ACCEPTEE, REFUSEE (smallint, cf. StatutCandidatureConverter)
     @Column(nullable = false)
-    private String statut;
+    private StatutCandidature statut;
 
     @Column(columnDefinition = "TEXT")
     private String lettreMotivation;
@@ -37,6 +39,10 @@ public class Candidature {
     @Column(name = "score_matching")
     private Double scoreMatching;
 
+    // Version du moteur de score ayant calculé scoreMatching (ex: "v1")
+    @Column(name = "version_scoring", length = 16)
+    private String versionScoring;
+
     @Column(columnDefinition = "TEXT")
     private String commentaireRecruteur;
 
@@ -57,6 +63,11 @@ public class Candidature {
     @Column(name = "date_reponse")
     private LocalDateTime dateReponse;
 
+    // Verrou optimiste ; incrémenté aussi par trigger pour les mises à jour SQL directes (cf. V6)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         dateCandidature = LocalDateTime.now();
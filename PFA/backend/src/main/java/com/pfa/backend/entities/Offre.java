@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
@@ -18,11 +20,14 @@ import io.hypersistence.utils.hibernate.type.json.JsonType;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "offres")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "offres")
 // @EntityListeners(Offre.class) <-- REMOVED THIS LINE
 public class Offre {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "offres_seq")
+    @SequenceGenerator(name = "offres_seq", sequenceName = "offres_id_seq", allocationSize = 50)
     private Long id;
 
     // Core Offer Fields
@@ -36,7 +41,18 @@ public class Offre {
     private String competencesRequises;
     private Double salaireMin;
     private Double salaireMax;
-    private String statut;
+    @Column(nullable = false)
+    private StatutOffre statut;
+
+    // Compteur maintenu par SQL (postuler / retrait) : jamais écrit par le merge de l'entité
+    @Column(name = "nombre_candidatures", nullable = false, updatable = false,
+            columnDefinition = "integer default 0")
+    private Integer nombreCandidatures = 0;
+
+    // Verrou optimiste ; sert aussi d'ETag (avec le compteur, qui ne l'incrémente pas)
+    @Version
+    @Column(nullable = false)
+    private Long version;
 
     // Date Fields
     @Column(nullable = false)
@@ -68,7 +84,7 @@ public class Offre {
 
         // Ensure mandatory status and publication date are set if not provided
         if (this.statut == null) {
-            this.statut = "BROUILLON";
+            this.statut = StatutOffre.BROUILLON;
         }
         // Set datePublication only if status is ACTIVE or if it's explicitly null
         if (this.datePublication == null) {
@@ -0,0 +1,65 @@
+package com.pfa.backend.entities;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cycle de vie d'une candidature, stocké en smallint (code stable, indépendant de l'ordre des constantes).
+ */
+public enum StatutCandidature {
+
+    EN_ATTENTE((short) 0),
+    EN_COURS((short) 1),
+    INTERVIEW((short) 2),
+    ACCEPTEE((short) 3),
+    REFUSEE((short) 4);
+
+    // Table des transitions autorisées : ACCEPTEE et REFUSEE sont terminaux.
+    // INTERVIEW -> INTERVIEW : la notation d'interview peut être reprise.
+    private static final Map<StatutCandidature, Set<StatutCandidature>> TRANSITIONS = new EnumMap<>(StatutCandidature.class);
+    private static final Map<StatutCandidature, Set<StatutCandidature>> PREDECESSEURS = new EnumMap<>(StatutCandidature.class);
+
+    static {
+        TRANSITIONS.put(EN_ATTENTE, EnumSet.of(EN_COURS, INTERVIEW, ACCEPTEE, REFUSEE));
+        TRANSITIONS.put(EN_COURS, EnumSet.of(INTERVIEW, ACCEPTEE, REFUSEE));
+        TRANSITIONS.put(INTERVIEW, EnumSet.of(INTERVIEW, ACCEPTEE, REFUSEE));
+        TRANSITIONS.put(ACCEPTEE, EnumSet.noneOf(StatutCandidature.class));
+        TRANSITIONS.put(REFUSEE, EnumSet.noneOf(StatutCandidature.class));
+
+        for (StatutCandidature statut : values()) {
+            PREDECESSEURS.put(statut, EnumSet.noneOf(StatutCandidature.class));
+        }
+        TRANSITIONS.forEach((de, vers) -> vers.forEach(v -> PREDECESSEURS.get(v).add(de)));
+    }
+
+    private final short code;
+
+    StatutCandidature(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public boolean peutPasserA(StatutCandidature cible) {
+        return TRANSITIONS.get(this).contains(cible);
+    }
+
+    /**
+     * Statuts depuis lesquels on peut atteindre celui-ci (clause WHERE des mises à jour conditionnelles).
+     */
+    public Set<StatutCandidature> predecesseurs() {
+        return Collections.unmodifiableSet(PREDECESSEURS.get(this));
+    }
+
+    public static StatutCandidature depuisCode(short code) {
+        for (StatutCandidature statut : values()) {
+            if (statut.code == code) return statut;
+        }
+        throw new IllegalArgumentException("Code de statut de candidature inconnu : " + code);
+    }
+}
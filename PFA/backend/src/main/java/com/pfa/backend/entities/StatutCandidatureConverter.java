@@ -0,0 +1,18 @@
+package com.pfa.backend.entities;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class StatutCandidatureConverter implements AttributeConverter<StatutCandidature, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(StatutCandidature statut) {
+        return statut != null ? statut.getCode() : null;
+    }
+
+    @Override
+    public StatutCandidature convertToEntityAttribute(Short code) {
+        return code != null ? StatutCandidature.depuisCode(code) : null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.pfa.backend.entities;
+
+/**
+ * Statut d'une offre, stocké en smallint.
+ */
+public enum StatutOffre {
+
+    BROUILLON((short) 0),
+    ACTIVE((short) 1),
+    FERMEE((short) 2);
+
+    private final short code;
+
+    StatutOffre(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static StatutOffre depuisCode(short code) {
+        for (StatutOffre statut : values()) {
+            if (statut.code == code) return statut;
+        }
+        throw new IllegalArgumentException("Code de statut d'offre inconnu : " + code);
+    }
+}
@@ -0,0 +1,18 @@
+package com.pfa.backend.entities;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class StatutOffreConverter implements AttributeConverter<StatutOffre, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(StatutOffre statut) {
+        return statut != null ? statut.getCode() : null;
+    }
+
+    @Override
+    public StatutOffre convertToEntityAttribute(Short code) {
+        return code != null ? StatutOffre.depuisCode(code) : null;
+    }
+}
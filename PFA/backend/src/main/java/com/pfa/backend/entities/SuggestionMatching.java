@@ -0,0 +1,49 @@
+package com.pfa.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Résultat de la campagne hebdomadaire "suggested matches" : les meilleurs candidats de
+ * chaque offre active (sens OFFRE) et les meilleures offres de chaque candidat (sens CANDIDAT).
+ * Alimentée uniquement par insertions JDBC en batch (MatchMatrixJob).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "suggestions_matching", indexes = {
+        @Index(name = "idx_suggestions_offre", columnList = "campagne, sens, offre_id, rang"),
+        @Index(name = "idx_suggestions_candidat", columnList = "campagne, sens, candidat_id, rang")
+})
+public class SuggestionMatching {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Identifiant de la campagne (instant de lancement, en ms)
+    @Column(nullable = false)
+    private Long campagne;
+
+    // OFFRE : top-K candidats d'une offre ; CANDIDAT : top-K offres d'un candidat
+    @Column(nullable = false, length = 10)
+    private String sens;
+
+    @Column(name = "offre_id", nullable = false)
+    private Long offreId;
+
+    @Column(name = "candidat_id", nullable = false)
+    private Long candidatId;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(nullable = false)
+    private Integer rang;
+
+    private LocalDateTime createdAt;
+}
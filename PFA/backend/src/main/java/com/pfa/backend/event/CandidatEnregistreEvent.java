@@ -0,0 +1,18 @@
+package com.pfa.backend.event;
+
+import com.pfa.backend.entities.CandidateProfile;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publié lorsqu'un profil candidat est créé ou modifié.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CandidatEnregistreEvent {
+
+    private final CandidateProfile candidat;
+
+    // false : le profil existait déjà (ses candidatures doivent être re-scorées)
+    private final boolean creation;
+}
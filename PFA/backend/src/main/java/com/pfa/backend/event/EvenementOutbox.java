@@ -0,0 +1,27 @@
+package com.pfa.backend.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement lu dans l'outbox et remis aux puits. La livraison est « au moins une fois » : un
+ * consommateur doit ignorer un id déjà traité.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvenementOutbox {
+
+    private Long id;
+    private String type;
+    // Id de la candidature concernée
+    private Long agregatId;
+    private JsonNode charge;
+    private LocalDateTime creeLe;
+    // Livraisons déjà tentées (0 à la première)
+    private int tentatives;
+}
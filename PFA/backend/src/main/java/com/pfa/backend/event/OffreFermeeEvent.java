@@ -0,0 +1,14 @@
+package com.pfa.backend.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publié lorsqu'une offre est fermée ou supprimée : elle ne reçoit plus, en principe, de candidatures.
+ */
+@Getter
+@RequiredArgsConstructor
+public class OffreFermeeEvent {
+
+    private final Long offreId;
+}
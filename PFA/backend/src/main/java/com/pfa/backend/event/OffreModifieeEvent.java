@@ -0,0 +1,14 @@
+package com.pfa.backend.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publié lorsqu'une offre change sur un critère utilisé par le score de matching.
+ */
+@Getter
+@RequiredArgsConstructor
+public class OffreModifieeEvent {
+
+    private final Long offreId;
+}
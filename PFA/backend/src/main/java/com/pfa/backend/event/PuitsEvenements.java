@@ -0,0 +1,17 @@
+package com.pfa.backend.event;
+
+import java.util.List;
+
+/**
+ * Destination des événements de l'outbox (notifications, synchronisation ATS, analytique...).
+ *
+ * Chaque bean de ce type reçoit tous les lots. Une exception fait rejouer le lot plus tard, pour tous
+ * les puits : un puits doit donc accepter de recevoir deux fois le même événement, et après un tel
+ * report les événements suivants peuvent arriver avant lui (l'ordre des id ne vaut que par tentative).
+ */
+public interface PuitsEvenements {
+
+    String nom();
+
+    void envoyer(List<EvenementOutbox> lot) throws Exception;
+}
@@ -0,0 +1,28 @@
+package com.pfa.backend.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Puits en mémoire : republie chaque événement comme événement Spring, pour les abonnés du même
+ * processus (@EventListener EvenementOutbox) et les tests.
+ */
+@Component
+@RequiredArgsConstructor
+public class PuitsLocal implements PuitsEvenements {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String nom() {
+        return "local";
+    }
+
+    @Override
+    public void envoyer(List<EvenementOutbox> lot) {
+        lot.forEach(eventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,11 @@
+package com.pfa.backend.event;
+
+/**
+ * Types des événements publiés dans l'outbox (colonne outbox.type, lue par les consommateurs).
+ */
+public enum TypeEvenement {
+    CANDIDATURE_DEPOSEE,
+    CANDIDATURE_STATUT_MODIFIE,
+    INTERVIEW_NOTEE,
+    CANDIDATURE_SUPPRIMEE
+}
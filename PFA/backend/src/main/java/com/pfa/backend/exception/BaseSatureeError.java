@@ -0,0 +1,14 @@
+package com.pfa.backend.exception;
+
+/**
+ * Saturation du bulkhead pendant une requête HTTP, hors de portée des catch (RuntimeException) et
+ * catch (Exception) des contrôleurs : une saturation n'est ni un 404 ni un 500, elle doit atteindre le
+ * GlobalExceptionHandler (503 + Retry-After). Sa cause est l'exception remontée par Spring.
+ *
+ * Levée uniquement par RemonteeSaturation ; les traitements de fond gardent l'exception d'origine.
+ */
+public class BaseSatureeError extends Error {
+    public BaseSatureeError(RuntimeException cause) {
+        super(cause.getMessage(), cause);
+    }
+}
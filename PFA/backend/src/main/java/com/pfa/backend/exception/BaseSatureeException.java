@@ -0,0 +1,28 @@
+package com.pfa.backend.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Plus de connexion disponible dans le délai d'attente du bulkhead : la requête est refusée (503)
+ * plutôt que d'allonger la file devant le pool.
+ *
+ * Levée à l'ouverture de la connexion, elle remonte enveloppée par Spring (CannotCreateTransactionException,
+ * DataAccessResourceFailureException...) : pendant une requête HTTP, RemonteeSaturation la convertit en
+ * BaseSatureeError à la sortie du service ou du repository, pour qu'elle passe les catch des contrôleurs.
+ */
+public class BaseSatureeException extends SQLTransientConnectionException {
+    public BaseSatureeException(String message) {
+        super(message);
+    }
+
+    /**
+     * La saturation à l'origine de l'exception, ou null.
+     */
+    public static BaseSatureeException parmiLesCauses(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BaseSatureeException saturee) return saturee;
+            if (cause.getCause() == cause) break;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.pfa.backend.exception;
+
+/**
+ * Modification refusée parce que la ressource a changé depuis la version connue du client
+ * (If-Match périmé, opération test d'un JSON Patch non vérifiée).
+ */
+public class ConflitModificationException extends RuntimeException {
+    public ConflitModificationException(String message) {
+        super(message);
+    }
+}
@@ -2,12 +2,15 @@ package com.pfa.backend.exception;
 
 
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -36,6 +39,50 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(error, HttpStatus.CONFLICT);
   }
 
+  @ExceptionHandler(TransitionStatutInvalideException.class)
+  public ResponseEntity<ErrorResponse> handleTransitionStatutInvalideException(TransitionStatutInvalideException ex) {
+    ErrorResponse error = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            ex.getMessage(),
+            LocalDateTime.now()
+    );
+    return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(ConflitModificationException.class)
+  public ResponseEntity<ErrorResponse> handleConflitModificationException(ConflitModificationException ex) {
+    ErrorResponse error = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            ex.getMessage(),
+            LocalDateTime.now()
+    );
+    return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+  }
+
+  // @Version d'Offre / Candidature : écriture concurrente perdue, le client doit recharger
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+    ErrorResponse error = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            "Resource was modified concurrently, reload it and retry",
+            LocalDateTime.now()
+    );
+    return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+  }
+
+  // Levée sous la couche JPA : Spring la trouve parmi les causes de l'exception remontée, sauf quand
+  // le handler générique ci-dessous correspond déjà à l'enveloppe (cf. handleGlobalException), comme
+  // pour la ServletException dont DispatcherServlet enveloppe BaseSatureeError
+  @ExceptionHandler(BaseSatureeException.class)
+  public ResponseEntity<ErrorResponse> handleBaseSatureeException(BaseSatureeException ex) {
+    ErrorResponse error = new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            ex.getMessage(),
+            LocalDateTime.now()
+    );
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
     Map<String, String> errors = new HashMap<>();
@@ -47,8 +94,23 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
   }
 
+  // Statut inconnu dans l'URL (?statut=FOO, /statut/FOO...) : erreur du client, pas 500
+  @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+  public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+    ErrorResponse error = new ErrorResponse(
+            HttpStatus.BAD_REQUEST.value(),
+            "Invalid value for parameter '" + ex.getName() + "': " + ex.getValue(),
+            LocalDateTime.now()
+    );
+    return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex) {
+    BaseSatureeException saturee = BaseSatureeException.parmiLesCauses(ex);
+    if (saturee != null) {
+      return handleBaseSatureeException(saturee);
+    }
     ErrorResponse error = new ErrorResponse(
             HttpStatus.INTERNAL_SERVER_ERROR.value(),
             "An unexpected error occurred: " + ex.getMessage(),
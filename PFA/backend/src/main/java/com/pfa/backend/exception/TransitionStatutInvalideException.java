@@ -0,0 +1,7 @@
+package com.pfa.backend.exception;
+
+public class TransitionStatutInvalideException extends RuntimeException {
+    public TransitionStatutInvalideException(String message) {
+        super(message);
+    }
+}
@@ -1,11 +1,25 @@
 package com.pfa.backend.repository;
 
+import com.pfa.backend.dto.CandidatureDTO;
+import com.pfa.backend.dto.EtatRessource;
 import com.pfa.backend.entities.Candidature;
+import com.pfa.backend.entities.StatutCandidature;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CandidatureRepository extends JpaRepository<Candidature, Long> {
 
+    // Couvert par la contrainte unique (offre_id, candidat_id)
+    boolean existsByOffreIdAndCandidatId(Long offreId, Long candidatId);
+
     // Trier par score IA
     List<Candidature> findByOffreIdOrderByScoreMatchingDesc(Long offreId);
 
@@ -16,5 +30,86 @@ public interface CandidatureRepository extends JpaRepository<Candidature, Long>
     List<Candidature> findByOffreRecruteurId(Long recruteurId);
 
     // Filtrer par Recruteur ID et Statut
-    List<Candidature> findByOffreRecruteurIdAndStatut(Long recruteurId, String statut);
-}
\ No newline at end of file
+    List<Candidature> findByOffreRecruteurIdAndStatut(Long recruteurId, StatutCandidature statut);
+
+    // --- LECTURE PAR PROJECTION (une seule requête SQL, aucune entité chargée) ---
+
+    String PROJECTION_DTO = "select new com.pfa.backend.dto.CandidatureDTO(" +
+            "c.id, o.id, o.titre, " +
+            "p.id, p.nom, p.prenom, p.email, p.telephone, p.formation, p.niveauEtude, p.competences, p.cvUrl, " +
+            "c.statut, c.lettreMotivation, c.scoreMatching, c.versionScoring, c.commentaireRecruteur, " +
+            "c.interviewChecklistResults, c.interviewSkillComments, c.interviewCommentaire, " +
+            "c.dateCandidature, c.dateReponse) " +
+            "from Candidature c join c.offre o join c.candidat p ";
+
+    // Même ordre que les pages : non scorées en dernier (index idx_candidatures_offre_score)
+    String PAR_SCORE = "order by coalesce(c.scoreMatching, -1) desc, c.id desc";
+
+    @Query(PROJECTION_DTO + "where o.id = :offreId " + PAR_SCORE)
+    List<CandidatureDTO> findDTOByOffreId(@Param("offreId") Long offreId);
+
+    @Query(PROJECTION_DTO + "where o.recruteur.id = :recruteurId " + PAR_SCORE)
+    List<CandidatureDTO> findDTOByRecruteurId(@Param("recruteurId") Long recruteurId);
+
+    @Query(PROJECTION_DTO + "where o.recruteur.id = :recruteurId and c.statut = :statut")
+    List<CandidatureDTO> findDTOByRecruteurIdAndStatut(@Param("recruteurId") Long recruteurId,
+                                                       @Param("statut") StatutCandidature statut);
+
+    @Query(PROJECTION_DTO + "where c.id = :id")
+    Optional<CandidatureDTO> findDTOById(@Param("id") Long id);
+
+    // ETag : versions de la candidature et de l'offre, dernière modification du profil (champs du DTO)
+    @Query("select new com.pfa.backend.dto.EtatRessource(concat('c', str(c.version), '-', str(o.version), '-', " +
+            "coalesce(str(p.updatedAt), ''))) " +
+            "from Candidature c join c.offre o join c.candidat p where c.id = :id")
+    Optional<EtatRessource> findEtatById(@Param("id") Long id);
+
+    // --- PAGINATION PAR CURSEUR : on reprend après (score, id), sans OFFSET ---
+    // coalesce(score, -1) : les candidatures non scorées ferment la marche
+
+    String APRES_SCORE = "and (coalesce(c.scoreMatching, -1), c.id) < (:score, :id) " +
+            PAR_SCORE;
+
+    @Query(PROJECTION_DTO + "where o.id = :offreId " + APRES_SCORE)
+    List<CandidatureDTO> findPageDTOByOffreId(@Param("offreId") Long offreId,
+                                              @Param("score") double score,
+                                              @Param("id") long id,
+                                              Limit limit);
+
+    @Query(PROJECTION_DTO + "where o.recruteur.id = :recruteurId " + APRES_SCORE)
+    List<CandidatureDTO> findPageDTOByRecruteurId(@Param("recruteurId") Long recruteurId,
+                                                  @Param("score") double score,
+                                                  @Param("id") long id,
+                                                  Limit limit);
+
+    @Query(PROJECTION_DTO + "where o.recruteur.id = :recruteurId and c.statut = :statut " + APRES_SCORE)
+    List<CandidatureDTO> findPageDTOByRecruteurIdAndStatut(@Param("recruteurId") Long recruteurId,
+                                                           @Param("statut") StatutCandidature statut,
+                                                           @Param("score") double score,
+                                                           @Param("id") long id,
+                                                           Limit limit);
+
+    // --- CHANGEMENT DE STATUT CONDITIONNEL (une requête, aucune entité chargée) ---
+
+    /**
+     * Applique la transition seulement si le statut courant est l'un de ceux autorisés ;
+     * 0 ligne modifiée = candidature absente ou transition refusée (éventuellement concurrente).
+     */
+    @Modifying
+    @Query("update versioned Candidature c set c.statut = :vers, c.commentaireRecruteur = :commentaire, " +
+            "c.dateReponse = :dateReponse where c.id = :id and c.statut in :depuis")
+    int changerStatut(@Param("id") Long id,
+                      @Param("depuis") Collection<StatutCandidature> depuis,
+                      @Param("vers") StatutCandidature vers,
+                      @Param("commentaire") String commentaire,
+                      @Param("dateReponse") LocalDateTime dateReponse);
+
+    @Query("select c.statut from Candidature c where c.id = :id")
+    Optional<StatutCandidature> findStatutById(@Param("id") Long id);
+
+    @Query("select c.id, c.statut from Candidature c where c.id in :ids")
+    List<Object[]> findStatutsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select c.id, c.offre.id, c.candidat.id from Candidature c where c.id in :ids")
+    List<Object[]> findOffreEtCandidatByIds(@Param("ids") Collection<Long> ids);
+}
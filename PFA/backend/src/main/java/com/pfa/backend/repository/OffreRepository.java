@@ -1,10 +1,72 @@
 package com.pfa.backend.repository;
 
+import com.pfa.backend.dto.EtatRessource;
 import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.StatutOffre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface OffreRepository extends JpaRepository<Offre, Long> {
     List<Offre> findByRecruteurIdOrderByCreatedAtDesc(Long recruteurId);
-    List<Offre> findByRecruteurIdAndStatut(Long recruteurId, String statut);
+    List<Offre> findByRecruteurIdAndStatut(Long recruteurId, StatutOffre statut);
+
+    // Pagination par curseur : reprise après (createdAt, id), sans OFFSET
+    @Query("select o from Offre o where o.recruteur.id = :recruteurId " +
+            "and (o.createdAt, o.id) < (:createdAt, :id) order by o.createdAt desc, o.id desc")
+    List<Offre> findPageByRecruteurId(@Param("recruteurId") Long recruteurId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") long id,
+                                      Limit limit);
+
+    // Export : identifiants seuls, plus récentes d'abord (index idx_offres_recruteur_creation)
+    @Query("select o.id from Offre o where o.recruteur.id = :recruteurId order by o.createdAt desc, o.id desc")
+    List<Long> findIdsByRecruteurId(@Param("recruteurId") Long recruteurId);
+
+    // ETag (version + compteur) et date de modification, sans charger l'entité
+    @Query("select new com.pfa.backend.dto.EtatRessource(" +
+            "concat('o', str(o.version), '-', str(o.nombreCandidatures)), o.updatedAt) " +
+            "from Offre o where o.id = :id")
+    Optional<EtatRessource> findEtatById(@Param("id") Long id);
+
+    // --- COMPTEUR DE CANDIDATURES (mis à jour en SQL, sans lire la ligne) ---
+    // Sans espace de synchronisation, un UPDATE natif vide tout le cache de second niveau. Celui-ci ne
+    // correspond à aucune table d'entité : rien n'est invalidé, l'appelant évince l'offre concernée.
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "compteur_candidatures"))
+    @Query(value = "UPDATE offres SET nombre_candidatures = nombre_candidatures + 1, " +
+            "updated_at = LOCALTIMESTAMP WHERE id = :id",
+            nativeQuery = true)
+    int incrementerCandidatures(@Param("id") Long offreId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "compteur_candidatures"))
+    @Query(value = "UPDATE offres SET nombre_candidatures = nombre_candidatures - 1, updated_at = LOCALTIMESTAMP " +
+            "WHERE id = :id AND nombre_candidatures > 0", nativeQuery = true)
+    int decrementerCandidatures(@Param("id") Long offreId);
+
+    // Bloque les INSERT/DELETE de candidatures jusqu'à la fin de la transaction (recomptage)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "compteur_candidatures"))
+    @Query(value = "LOCK TABLE candidatures IN SHARE MODE", nativeQuery = true)
+    void verrouillerCandidatures();
+
+    // Recalcule les compteurs qui ont divergé ; purge la région des offres. À lancer sous verrouillerCandidatures
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "offres"))
+    @Query(value = "UPDATE offres o SET nombre_candidatures = c.total FROM (" +
+            "SELECT o2.id AS offre_id, COUNT(ca.id) AS total FROM offres o2 " +
+            "LEFT JOIN candidatures ca ON ca.offre_id = o2.id GROUP BY o2.id) c " +
+            "WHERE o.id = c.offre_id AND o.nombre_candidatures IS DISTINCT FROM c.total",
+            nativeQuery = true)
+    int recalculerCompteursCandidatures();
 }
\ No newline at end of file
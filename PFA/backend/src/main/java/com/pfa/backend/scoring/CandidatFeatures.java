@@ -0,0 +1,41 @@
+package com.pfa.backend.scoring;
+
+import com.pfa.backend.entities.CandidateProfile;
+import lombok.Getter;
+
+/**
+ * Données d'un candidat utiles au score, pré-normalisées (minuscules, compétences encodées).
+ */
+@Getter
+public final class CandidatFeatures {
+
+    private final Long candidatId;
+    private final String niveauEtude;
+    private final String formation;
+    private final int[] competences;
+
+    // Empreinte du contenu (hors identifiant) : deux profils identiques partagent leurs scores mémoïsés
+    private final long empreinte;
+
+    public CandidatFeatures(Long candidatId, String niveauEtude, String formation, int[] competences) {
+        this.candidatId = candidatId;
+        this.niveauEtude = niveauEtude;
+        this.formation = formation;
+        this.competences = competences;
+        this.empreinte = Empreintes.de(niveauEtude, formation, competences);
+    }
+
+    public static CandidatFeatures of(CandidateProfile candidat, SkillVocabulary vocabulary) {
+        return of(candidat.getId(), candidat.getNiveauEtude(), candidat.getFormation(),
+                candidat.getCompetences(), vocabulary);
+    }
+
+    public static CandidatFeatures of(Long candidatId, String niveauEtude, String formation,
+                                      String competences, SkillVocabulary vocabulary) {
+        return new CandidatFeatures(
+                candidatId,
+                niveauEtude != null ? niveauEtude.toLowerCase() : "",
+                formation != null ? formation.toLowerCase() : "",
+                vocabulary.encoder(competences));
+    }
+}
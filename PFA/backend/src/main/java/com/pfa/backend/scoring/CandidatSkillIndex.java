@@ -0,0 +1,159 @@
+package com.pfa.backend.scoring;
+
+import com.pfa.backend.event.CandidatEnregistreEvent;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé compétence -> candidats (roaring bitmaps), pour le sourcing proactif.
+ *
+ * Construit au démarrage depuis la table candidats puis tenu à jour à chaque enregistrement
+ * de profil. Une recherche ne touche que les candidats dont les postings croisent les
+ * compétences requises de l'offre. Les candidats qui ont un mot hors vocabulaire (voir SkillVocabulary)
+ * sont tenus à part et toujours scorés : ce mot peut couvrir une compétence requise sans posting commun.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CandidatSkillIndex {
+
+    private static final int TAILLE_LOT = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SkillVocabulary skillVocabulary;
+    private final ScoringEngineRegistry scoringEngineRegistry;
+
+    private final ReadWriteLock verrou = new ReentrantReadWriteLock();
+    private final Map<Integer, RoaringBitmap> postings = new HashMap<>();
+    private final Map<Integer, CandidatFeatures> candidats = new HashMap<>();
+    private final RoaringBitmap avecMotsHorsVocabulaire = new RoaringBitmap();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construire() {
+        long debut = System.currentTimeMillis();
+        long dernierId = 0;
+        int total = 0;
+
+        while (true) {
+            List<CandidatFeatures> lot = jdbcTemplate.query(
+                    "SELECT id, niveau_etude, formation, competences FROM candidats " +
+                            "WHERE id > ? ORDER BY id LIMIT ?",
+                    (rs, i) -> CandidatFeatures.of(rs.getLong("id"), rs.getString("niveau_etude"),
+                            rs.getString("formation"), rs.getString("competences"), skillVocabulary),
+                    dernierId, TAILLE_LOT);
+            if (lot.isEmpty()) break;
+
+            lot.forEach(this::indexer);
+            total += lot.size();
+            dernierId = lot.get(lot.size() - 1).getCandidatId();
+        }
+        log.info("Index des compétences construit : {} candidats en {} ms", total, System.currentTimeMillis() - debut);
+    }
+
+    @TransactionalEventListener
+    public void onCandidatEnregistre(CandidatEnregistreEvent event) {
+        indexer(CandidatFeatures.of(event.getCandidat(), skillVocabulary));
+    }
+
+    public void indexer(CandidatFeatures features) {
+        int id = Math.toIntExact(features.getCandidatId());
+
+        verrou.writeLock().lock();
+        try {
+            CandidatFeatures ancien = candidats.put(id, features);
+            if (ancien != null) {
+                for (int skill : ancien.getCompetences()) {
+                    RoaringBitmap posting = postings.get(skill);
+                    if (posting != null) posting.remove(id);
+                }
+                avecMotsHorsVocabulaire.remove(id);
+            }
+            for (int skill : features.getCompetences()) {
+                if (SkillVocabulary.horsVocabulaire(skill)) {
+                    avecMotsHorsVocabulaire.add(id);
+                } else {
+                    postings.computeIfAbsent(skill, s -> new RoaringBitmap()).add(id);
+                }
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Les k meilleurs candidats du vivier pour une offre, selon le moteur de score actif.
+     * Une offre sans compétence requise ne permet pas de sourcing (liste vide).
+     */
+    public List<CandidatClasse> meilleursCandidats(OffreFeatures offre, int k) {
+        int[] requises = offre.getCompetencesRequises();
+        if (requises.length == 0 || k <= 0) return List.of();
+
+        PriorityQueue<CandidatClasse> tas = new PriorityQueue<>(k + 1, ORDRE_CROISSANT);
+
+        verrou.readLock().lock();
+        try {
+            List<RoaringBitmap> concernes = new ArrayList<>();
+            for (int i = 0; i < requises.length; i++) {
+                int req = requises[i];
+                if (i > 0 && req == requises[i - 1]) continue;
+                for (int skill : skillVocabulary.apparentes(req)) {
+                    RoaringBitmap posting = postings.get(skill);
+                    if (posting != null) concernes.add(posting);
+                }
+            }
+            if (!avecMotsHorsVocabulaire.isEmpty()) concernes.add(avecMotsHorsVocabulaire);
+            if (concernes.isEmpty()) return List.of();
+
+            // Pas de mémoïsation ici : chaque paire n'est vue qu'une fois par recherche
+            ScoringEngine moteur = scoringEngineRegistry.actif();
+            RoaringBitmap touches = FastAggregation.or(concernes.iterator());
+            IntIterator it = touches.getIntIterator();
+            while (it.hasNext()) {
+                CandidatFeatures candidat = candidats.get(it.next());
+                double score = moteur.score(offre, candidat);
+
+                if (tas.size() < k) {
+                    tas.add(new CandidatClasse(candidat.getCandidatId(), score));
+                } else if (score > tas.peek().getScore()) {
+                    tas.poll();
+                    tas.add(new CandidatClasse(candidat.getCandidatId(), score));
+                }
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+
+        List<CandidatClasse> resultat = new ArrayList<>(tas);
+        resultat.sort(ORDRE_CROISSANT.reversed());
+        return resultat;
+    }
+
+    private static final Comparator<CandidatClasse> ORDRE_CROISSANT = Comparator
+            .comparingDouble(CandidatClasse::getScore)
+            .thenComparing(CandidatClasse::getCandidatId, Comparator.reverseOrder());
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class CandidatClasse {
+        private final Long candidatId;
+        private final double score;
+    }
+}
@@ -0,0 +1,31 @@
+package com.pfa.backend.scoring;
+
+/**
+ * Empreinte 64 bits (FNV-1a) du contenu utile au score, clé de la mémoïsation.
+ */
+final class Empreintes {
+
+    private static final long OFFSET = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private Empreintes() {
+    }
+
+    static long de(String a, String b, int[] ids) {
+        long h = OFFSET;
+        h = melanger(h, a);
+        h = melanger(h, b);
+        for (int id : ids) {
+            h = (h ^ id) * PRIME;
+        }
+        return h;
+    }
+
+    private static long melanger(long h, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * PRIME;
+        }
+        // Séparateur : ("ab", "c") et ("a", "bc") ne doivent pas se confondre
+        return (h ^ 0xff) * PRIME;
+    }
+}
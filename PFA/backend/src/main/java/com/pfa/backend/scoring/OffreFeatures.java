@@ -0,0 +1,41 @@
+package com.pfa.backend.scoring;
+
+import com.pfa.backend.entities.Offre;
+import lombok.Getter;
+
+/**
+ * Données d'une offre utiles au score, pré-normalisées (minuscules, compétences encodées).
+ */
+@Getter
+public final class OffreFeatures {
+
+    private final Long offreId;
+    private final String niveauExperience;
+    private final String typeContrat;
+    private final int[] competencesRequises;
+
+    // Empreinte du contenu (hors identifiant) : deux offres identiques partagent leurs scores mémoïsés
+    private final long empreinte;
+
+    public OffreFeatures(Long offreId, String niveauExperience, String typeContrat, int[] competencesRequises) {
+        this.offreId = offreId;
+        this.niveauExperience = niveauExperience;
+        this.typeContrat = typeContrat;
+        this.competencesRequises = competencesRequises;
+        this.empreinte = Empreintes.de(niveauExperience, typeContrat, competencesRequises);
+    }
+
+    public static OffreFeatures of(Offre offre, SkillVocabulary vocabulary) {
+        return of(offre.getId(), offre.getNiveauExperience(), offre.getTypeContrat(),
+                offre.getCompetencesRequises(), vocabulary);
+    }
+
+    public static OffreFeatures of(Long offreId, String niveauExperience, String typeContrat,
+                                   String competencesRequises, SkillVocabulary vocabulary) {
+        return new OffreFeatures(
+                offreId,
+                niveauExperience != null ? niveauExperience.toLowerCase() : "",
+                typeContrat != null ? typeContrat.toLowerCase() : "",
+                vocabulary.encoder(competencesRequises));
+    }
+}
@@ -0,0 +1,16 @@
+package com.pfa.backend.scoring;
+
+/**
+ * Algorithme de score de matching offre / candidat (0 à 100).
+ *
+ * Chaque implémentation porte une version : elle est enregistrée à côté du score de chaque
+ * candidature, ce qui permet de déployer un nouvel algorithme et de re-scorer à la lecture
+ * les candidatures calculées par une ancienne version. Une implémentation doit être pure
+ * (même entrée, même score) : les résultats sont mémoïsés par {@link ScoringEngineRegistry}.
+ */
+public interface ScoringEngine {
+
+    String getVersion();
+
+    double score(OffreFeatures offre, CandidatFeatures candidat);
+}
@@ -0,0 +1,71 @@
+package com.pfa.backend.scoring;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registre des moteurs de score disponibles ; la version active est choisie par
+ * la propriété {@code scoring.engine.version}.
+ *
+ * Les scores sont mémoïsés par (empreinte offre, empreinte candidat, version) : une même paire
+ * de contenus n'est jamais scorée deux fois par le même moteur.
+ */
+@Component
+public class ScoringEngineRegistry {
+
+    private final ScoringEngine actif;
+    private final Cache<CleScore, Double> memo;
+
+    public ScoringEngineRegistry(List<ScoringEngine> moteurs,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${scoring.engine.version:" + ScoringEngineV1.VERSION + "}") String versionActive,
+                                 @Value("${scoring.memo.max-size:200000}") long tailleMemo) {
+        Map<String, ScoringEngine> parVersion = moteurs.stream()
+                .collect(Collectors.toMap(ScoringEngine::getVersion, Function.identity()));
+        this.actif = parVersion.get(versionActive);
+        if (this.actif == null) {
+            throw new IllegalStateException("Moteur de score inconnu : " + versionActive
+                    + " (disponibles : " + parVersion.keySet() + ")");
+        }
+        this.memo = Caffeine.newBuilder()
+                .maximumSize(tailleMemo)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memo, "scoring.memo");
+    }
+
+    public ScoringEngine actif() {
+        return actif;
+    }
+
+    public String versionActive() {
+        return actif.getVersion();
+    }
+
+    /**
+     * Vrai si un score calculé par cette version doit être recalculé.
+     */
+    public boolean estPerime(String version) {
+        return !actif.getVersion().equals(version);
+    }
+
+    /**
+     * Score mémoïsé de la paire, par le moteur actif.
+     */
+    public double score(OffreFeatures offre, CandidatFeatures candidat) {
+        CleScore cle = new CleScore(offre.getEmpreinte(), candidat.getEmpreinte(), actif.getVersion());
+        return memo.get(cle, c -> actif.score(offre, candidat));
+    }
+
+    private record CleScore(long offre, long candidat, String version) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.pfa.backend.scoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Première version du score de matching (proxy IA) : mots-clés, expérience, études et contrat.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScoringEngineV1 implements ScoringEngine {
+
+    public static final String VERSION = "v1";
+
+    private static final double WEIGHT_KEYWORDS = 0.50;
+    private static final double WEIGHT_EXPERIENCE = 0.20;
+    private static final double WEIGHT_EDUCATION = 0.20;
+    private static final double WEIGHT_CONTRAT = 0.10;
+
+    private final SkillVocabulary skillVocabulary;
+
+    @Override
+    public String getVersion() {
+        return VERSION;
+    }
+
+    /**
+     * Calcule le score de matching entre un candidat et une offre.
+     */
+    @Override
+    public double score(OffreFeatures offre, CandidatFeatures candidat) {
+        if (offre == null || candidat == null) return 0.0;
+
+        double totalScore = 0.0;
+
+        totalScore += skillVocabulary.tauxCouverture(offre.getCompetencesRequises(), candidat.getCompetences()) * WEIGHT_KEYWORDS;
+        totalScore += matchingExperience(offre.getNiveauExperience(), candidat.getNiveauEtude()) * WEIGHT_EXPERIENCE;
+        totalScore += matchingEducation(offre.getNiveauExperience(), candidat.getNiveauEtude()) * WEIGHT_EDUCATION;
+        totalScore += matchingContrat(offre.getTypeContrat(), candidat.getFormation()) * WEIGHT_CONTRAT;
+
+        double finalScore = Math.max(0.0, Math.min(100.0, totalScore * 100.0));
+
+        return Math.round(finalScore);
+    }
+
+    // Les champs sont déjà en minuscules (voir OffreFeatures / CandidatFeatures)
+    private double matchingExperience(String expLower, String eduLower) {
+        if (expLower.contains("junior")) {
+            if (eduLower.contains("licence") || eduLower.contains("master") || eduLower.contains("ingénieur")) return 1.0;
+            return 0.5;
+        } else if (expLower.contains("intermédiaire") || expLower.contains("confirmé")) {
+            if (eduLower.contains("master") || eduLower.contains("ingénieur")) return 1.0;
+            return 0.7;
+        } else if (expLower.contains("senior")) {
+            if (eduLower.contains("master") || eduLower.contains("ingénieur")) return 0.8;
+            return 0.1;
+        }
+        return 0.5;
+    }
+
+    private double matchingEducation(String expLower, String eduLower) {
+        return matchingExperience(expLower, eduLower);
+    }
+
+    private double matchingContrat(String contratLower, String formLower) {
+        if (contratLower.contains("stage") && formLower.contains("informatique")) {
+            return 1.0;
+        }
+
+        if (contratLower.contains("cdi") && !formLower.contains("stage")) {
+            return 1.0;
+        }
+
+        return 0.5;
+    }
+}
@@ -0,0 +1,271 @@
+package com.pfa.backend.scoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Vocabulaire des compétences utilisé par le moteur de score.
+ *
+ * Chaque compétence normalisée (minuscules, découpée sur " ,;") est internée une seule fois
+ * en un identifiant entier. Pour conserver la règle historique de matching
+ * ("cand.contains(req) || req.contains(cand)"), chaque identifiant connaît la liste triée des
+ * identifiants qui lui sont apparentés (sous-chaîne dans un sens ou dans l'autre) : cette liste
+ * est calculée une fois, à l'internement du mot, et non plus à chaque candidature.
+ *
+ * Le vocabulaire est borné (scoring.vocabulaire.taille-max) : chaque nouveau mot est comparé à tous
+ * les mots connus, le coût total croît donc avec le carré de la taille. Une fois la limite atteinte,
+ * un mot nouveau reçoit un identifiant négatif ({@link #horsVocabulaire(int)}) sans liste d'apparentés :
+ * il est comparé par sous-chaîne au moment du score, comme avant le vocabulaire. La limite ne change
+ * donc jamais un score, seulement le coût des mots qui la dépassent.
+ */
+@Slf4j
+@Component
+public class SkillVocabulary {
+
+    private static final int[] VIDE = new int[0];
+
+    private final int tailleMax;
+
+    private final Map<String, Integer> identifiants = new ConcurrentHashMap<>();
+
+    // Tableaux à capacité doublée, remplis jusqu'à etat.taille : un nouveau mot coûte la comparaison aux
+    // mots connus, pas une copie du vocabulaire. Les listes d'apparentés sont remplacées élément par
+    // élément (écriture volatile), un lecteur ne voit jamais une liste à moitié construite.
+    private volatile Etat etat = new Etat(new String[16], new AtomicReferenceArray<>(16), 0);
+
+    // Mots arrivés après la limite, l'identifiant -1 - i désignant motsHorsVocabulaire[i]. Écrits sous le
+    // verrou de interner avant la publication de l'identifiant dans la map.
+    private volatile String[] motsHorsVocabulaire = new String[16];
+    private int nbHorsVocabulaire;
+
+    // Compétences déjà encodées, indexées par texte source (offres et candidats partagent le cache).
+    private final Map<String, int[]> encodages = new ConcurrentHashMap<>();
+
+    private static final int TAILLE_MAX_CACHE = 100_000;
+
+    // Accédé sous le verrou de interner
+    private boolean plein;
+
+    public SkillVocabulary(@Value("${scoring.vocabulaire.taille-max:20000}") int tailleMax) {
+        if (tailleMax < 1) throw new IllegalArgumentException("scoring.vocabulaire.taille-max doit être positif");
+        this.tailleMax = tailleMax;
+    }
+
+    /**
+     * Encode un texte de compétences en tableau trié d'identifiants.
+     * Les doublons sont conservés pour garder la pondération historique côté offre.
+     */
+    public int[] encoder(String competences) {
+        if (competences == null || competences.isEmpty()) return VIDE;
+
+        int[] cached = encodages.get(competences);
+        if (cached != null) return cached;
+
+        int[] ids = tokeniser(competences);
+        if (encodages.size() >= TAILLE_MAX_CACHE) {
+            encodages.clear();
+        }
+        encodages.put(competences, ids);
+        return ids;
+    }
+
+    /**
+     * Proportion des compétences requises couvertes par le candidat (0.0 à 1.0).
+     * Aucune allocation : intersection de tableaux triés, plus une comparaison de chaînes pour les mots
+     * hors vocabulaire.
+     */
+    public double tauxCouverture(int[] requises, int[] candidat) {
+        if (requises.length == 0) return 1.0;
+        if (candidat.length == 0) return 0.0;
+
+        Etat courant = etat;
+        int couvertes = 0;
+        boolean resultatPrecedent = false;
+
+        for (int i = 0; i < requises.length; i++) {
+            int req = requises[i];
+            if (i == 0 || req != requises[i - 1]) {
+                resultatPrecedent = couvre(req, candidat, courant);
+            }
+            if (resultatPrecedent) couvertes++;
+        }
+        return (double) couvertes / requises.length;
+    }
+
+    /**
+     * Identifiants du vocabulaire apparentés à une compétence (elle-même incluse), triés.
+     * Pour un mot hors vocabulaire, la liste est calculée à l'appel et ne contient pas les autres mots
+     * hors vocabulaire.
+     */
+    public int[] apparentes(int id) {
+        if (!horsVocabulaire(id)) return etat.apparentes.get(id);
+
+        Etat courant = etat;
+        String mot = mot(id, courant);
+        int[] liees = VIDE;
+        int nLiees = 0;
+        for (int j = 0; j < courant.taille; j++) {
+            String autre = courant.mots[j];
+            if (autre.contains(mot) || mot.contains(autre)) {
+                if (nLiees == liees.length) liees = Arrays.copyOf(liees, Math.max(4, nLiees * 2));
+                liees[nLiees++] = j;
+            }
+        }
+        return Arrays.copyOf(liees, nLiees);
+    }
+
+    /**
+     * Vrai pour un mot arrivé une fois le vocabulaire plein : il n'a pas de liste d'apparentés.
+     * Ces identifiants sont négatifs, donc en tête d'un tableau encodé.
+     */
+    public static boolean horsVocabulaire(int id) {
+        return id < 0;
+    }
+
+    public int taille() {
+        return etat.taille;
+    }
+
+    private int[] tokeniser(String texte) {
+        int[] ids = new int[8];
+        int n = 0;
+        int debut = -1;
+        int longueur = texte.length();
+
+        for (int i = 0; i <= longueur; i++) {
+            boolean separateur = i == longueur || estSeparateur(texte.charAt(i));
+            if (!separateur) {
+                if (debut < 0) debut = i;
+                continue;
+            }
+            if (debut >= 0) {
+                if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+                ids[n++] = interner(texte.substring(debut, i).toLowerCase());
+                debut = -1;
+            }
+        }
+
+        int[] resultat = Arrays.copyOf(ids, n);
+        Arrays.sort(resultat);
+        return resultat;
+    }
+
+    private static boolean estSeparateur(char c) {
+        return c == ' ' || c == ',' || c == ';';
+    }
+
+    int interner(String mot) {
+        Integer id = identifiants.get(mot);
+        if (id != null) return id;
+
+        synchronized (this) {
+            id = identifiants.get(mot);
+            if (id != null) return id;
+
+            Etat courant = etat;
+            int nouvelId = courant.taille;
+            if (nouvelId >= tailleMax) {
+                if (!plein) {
+                    plein = true;
+                    log.warn("Vocabulaire des compétences plein ({} mots) : les nouveaux mots seront comparés " +
+                            "par sous-chaîne au calcul du score", tailleMax);
+                }
+                return ajouterHorsVocabulaire(mot);
+            }
+
+            String[] mots = courant.mots;
+            AtomicReferenceArray<int[]> apparentes = courant.apparentes;
+            if (nouvelId == mots.length) {
+                int capacite = Math.min(tailleMax, nouvelId * 2);
+                mots = Arrays.copyOf(mots, capacite);
+                AtomicReferenceArray<int[]> agrandies = new AtomicReferenceArray<>(capacite);
+                for (int j = 0; j < nouvelId; j++) agrandies.set(j, apparentes.get(j));
+                apparentes = agrandies;
+            }
+            mots[nouvelId] = mot;
+
+            int[] liees = new int[4];
+            int nLiees = 0;
+
+            for (int j = 0; j < nouvelId; j++) {
+                String autre = mots[j];
+                if (autre.contains(mot) || mot.contains(autre)) {
+                    // Les identifiants croissent : ajouter en fin garde la liste triée.
+                    int[] anciennes = apparentes.get(j);
+                    int[] etendues = Arrays.copyOf(anciennes, anciennes.length + 1);
+                    etendues[anciennes.length] = nouvelId;
+                    apparentes.set(j, etendues);
+
+                    if (nLiees == liees.length) liees = Arrays.copyOf(liees, nLiees * 2);
+                    liees[nLiees++] = j;
+                }
+            }
+            if (nLiees == liees.length) liees = Arrays.copyOf(liees, nLiees + 1);
+            liees[nLiees++] = nouvelId;
+            apparentes.set(nouvelId, Arrays.copyOf(liees, nLiees));
+
+            // Publier l'état avant l'identifiant : un lecteur qui voit l'id (ou relit etat) voit ses apparentés.
+            etat = new Etat(mots, apparentes, nouvelId + 1);
+            identifiants.put(mot, nouvelId);
+            return nouvelId;
+        }
+    }
+
+    private int ajouterHorsVocabulaire(String mot) {
+        String[] mots = motsHorsVocabulaire;
+        if (nbHorsVocabulaire == mots.length) mots = Arrays.copyOf(mots, mots.length * 2);
+        mots[nbHorsVocabulaire] = mot;
+        motsHorsVocabulaire = mots;
+        int id = -1 - nbHorsVocabulaire++;
+        identifiants.put(mot, id);
+        return id;
+    }
+
+    private boolean couvre(int req, int[] candidat, Etat courant) {
+        if (!horsVocabulaire(req) && intersecte(courant.apparentes.get(req), candidat)) return true;
+
+        // Règle historique pour les paires où au moins un mot est hors vocabulaire : ceux du candidat
+        // sont en tête du tableau, et une compétence requise hors vocabulaire se compare à tous.
+        String motReq = null;
+        for (int cand : candidat) {
+            if (!horsVocabulaire(req) && !horsVocabulaire(cand)) break;
+            if (motReq == null) motReq = mot(req, courant);
+            String motCand = mot(cand, courant);
+            if (motCand.contains(motReq) || motReq.contains(motCand)) return true;
+        }
+        return false;
+    }
+
+    private String mot(int id, Etat courant) {
+        return horsVocabulaire(id) ? motsHorsVocabulaire[-1 - id] : courant.mots[id];
+    }
+
+    private static boolean intersecte(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) return true;
+            if (a[i] < b[j]) i++;
+            else j++;
+        }
+        return false;
+    }
+
+    private static final class Etat {
+        final String[] mots;
+        final AtomicReferenceArray<int[]> apparentes;
+        final int taille;
+
+        Etat(String[] mots, AtomicReferenceArray<int[]> apparentes, int taille) {
+            this.mots = mots;
+            this.apparentes = apparentes;
+            this.taille = taille;
+        }
+    }
+}
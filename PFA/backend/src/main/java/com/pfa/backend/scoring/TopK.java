@@ -0,0 +1,99 @@
+package com.pfa.backend.scoring;
+
+/**
+ * Tas minimum borné (k éléments) sur tableaux primitifs : garde les k meilleurs scores
+ * sans allocation après construction. Non thread-safe, destiné à être réutilisé par un thread.
+ * À score égal, le plus petit identifiant est conservé.
+ */
+public final class TopK {
+
+    private final long[] ids;
+    private final double[] scores;
+    private int taille;
+
+    public TopK(int k) {
+        this.ids = new long[k];
+        this.scores = new double[k];
+    }
+
+    public void offrir(long id, double score) {
+        if (ids.length == 0) return;
+        if (taille < ids.length) {
+            ids[taille] = id;
+            scores[taille] = score;
+            monter(taille++);
+        } else if (meilleur(score, id, scores[0], ids[0])) {
+            ids[0] = id;
+            scores[0] = score;
+            descendre(0);
+        }
+    }
+
+    public void fusionner(TopK autre) {
+        for (int i = 0; i < autre.taille; i++) {
+            offrir(autre.ids[i], autre.scores[i]);
+        }
+    }
+
+    public void vider() {
+        taille = 0;
+    }
+
+    public int taille() {
+        return taille;
+    }
+
+    /**
+     * Vide le tas dans les tableaux fournis, du meilleur au moins bon ; renvoie le nombre d'éléments.
+     */
+    public int extraireTries(long[] idsTries, double[] scoresTries) {
+        int n = taille;
+        for (int j = n - 1; j >= 0; j--) {
+            // La racine est le moins bon des éléments restants
+            idsTries[j] = ids[0];
+            scoresTries[j] = scores[0];
+            taille--;
+            ids[0] = ids[taille];
+            scores[0] = scores[taille];
+            descendre(0);
+        }
+        return n;
+    }
+
+    private static boolean meilleur(double scoreA, long idA, double scoreB, long idB) {
+        return scoreA > scoreB || (scoreA == scoreB && idA < idB);
+    }
+
+    private void monter(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!meilleur(scores[parent], ids[parent], scores[i], ids[i])) break;
+            echanger(i, parent);
+            i = parent;
+        }
+    }
+
+    private void descendre(int i) {
+        while (true) {
+            int gauche = 2 * i + 1;
+            if (gauche >= taille) return;
+            int pire = gauche;
+            int droite = gauche + 1;
+            if (droite < taille && meilleur(scores[gauche], ids[gauche], scores[droite], ids[droite])) {
+                pire = droite;
+            }
+            if (!meilleur(scores[i], ids[i], scores[pire], ids[pire])) return;
+            echanger(i, pire);
+            i = pire;
+        }
+    }
+
+    private void echanger(int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
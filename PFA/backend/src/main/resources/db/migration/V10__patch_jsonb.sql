@@ -0,0 +1,123 @@
+-- Modification partielle de colonnes jsonb dans la base, en une seule instruction UPDATE :
+-- jsonb_merge_patch (RFC 7396) et jsonb_patch (RFC 6902). Le document n'est ni relu ni renvoyé en entier.
+--
+-- Erreurs levées par jsonb_patch (SQLSTATE propres, traduits par l'application) :
+--   PJ409  opération test non vérifiée (l'état a changé : conflit)
+--   PJ422  chemin absent ou invalide pour le document courant
+
+-- Fusion RFC 7396 : un objet est fusionné clé par clé (récursivement), null supprime la clé,
+-- toute autre valeur remplace
+CREATE FUNCTION jsonb_merge_patch(document JSONB, patch JSONB) RETURNS JSONB
+    LANGUAGE plpgsql IMMUTABLE AS $$
+BEGIN
+    IF jsonb_typeof(patch) IS DISTINCT FROM 'object' THEN
+        RETURN patch;
+    END IF;
+    RETURN (
+        SELECT coalesce(jsonb_object_agg(coalesce(p.key, d.key),
+                                         CASE WHEN p.key IS NULL THEN d.value
+                                              ELSE jsonb_merge_patch(d.value, p.value) END),
+                        '{}'::jsonb)
+        FROM jsonb_each(CASE WHEN jsonb_typeof(document) = 'object' THEN document ELSE '{}'::jsonb END) d
+        FULL JOIN jsonb_each(patch) p ON p.key = d.key
+        WHERE p.key IS NULL OR jsonb_typeof(p.value) <> 'null'
+    );
+END;
+$$;
+
+-- Valeur désignée par un chemin (pointeur JSON déjà découpé), NULL si absente. Contrairement à #>,
+-- un indice de tableau négatif ou non canonique ("01") ne désigne rien.
+CREATE FUNCTION jsonb_patch_lire(document JSONB, chemin TEXT[]) RETURNS JSONB
+    LANGUAGE plpgsql IMMUTABLE AS $$
+DECLARE
+    segment TEXT;
+BEGIN
+    FOREACH segment IN ARRAY coalesce(chemin, '{}') LOOP
+        IF jsonb_typeof(document) = 'object' THEN
+            document := document -> segment;
+        ELSIF jsonb_typeof(document) = 'array' AND segment ~ '^(0|[1-9][0-9]{0,8})$' THEN
+            document := document -> segment::int;
+        ELSE
+            RETURN NULL;
+        END IF;
+        IF document IS NULL THEN
+            RETURN NULL;
+        END IF;
+    END LOOP;
+    RETURN document;
+END;
+$$;
+
+-- Opération add : crée ou remplace une clé d'objet, insère dans un tableau ("-" : à la fin)
+CREATE FUNCTION jsonb_patch_ajouter(document JSONB, chemin TEXT[], valeur JSONB) RETURNS JSONB
+    LANGUAGE plpgsql IMMUTABLE AS $$
+DECLARE
+    n INT := cardinality(chemin);
+    parent JSONB;
+    dernier TEXT;
+BEGIN
+    IF n = 0 THEN
+        RETURN valeur;
+    END IF;
+    parent := jsonb_patch_lire(document, chemin[1:n - 1]);
+    dernier := chemin[n];
+    IF jsonb_typeof(parent) = 'object' THEN
+        RETURN jsonb_set(document, chemin, valeur, true);
+    ELSIF jsonb_typeof(parent) = 'array' THEN
+        IF dernier = '-' OR dernier = jsonb_array_length(parent)::text THEN
+            parent := parent || jsonb_build_array(valeur);
+            RETURN CASE WHEN n = 1 THEN parent ELSE jsonb_set(document, chemin[1:n - 1], parent) END;
+        ELSIF dernier ~ '^(0|[1-9][0-9]{0,8})$' AND dernier::int < jsonb_array_length(parent) THEN
+            RETURN jsonb_insert(document, chemin, valeur);
+        END IF;
+    END IF;
+    RAISE EXCEPTION 'Chemin invalide : %', chemin USING ERRCODE = 'PJ422';
+END;
+$$;
+
+-- Application d'une suite d'opérations RFC 6902, tout ou rien. Chaque opération est un objet
+-- {op, path, from, value} où path et from sont des tableaux de segments (pointeurs déjà décodés).
+CREATE FUNCTION jsonb_patch(document JSONB, operations JSONB) RETURNS JSONB
+    LANGUAGE plpgsql IMMUTABLE AS $$
+DECLARE
+    operation JSONB;
+    chemin TEXT[];
+    origine TEXT[];
+    valeur JSONB;
+BEGIN
+    FOR operation IN SELECT jsonb_array_elements(operations) LOOP
+        chemin := ARRAY(SELECT jsonb_array_elements_text(operation -> 'path'));
+        origine := ARRAY(SELECT jsonb_array_elements_text(coalesce(operation -> 'from', '[]')));
+        CASE operation ->> 'op'
+            WHEN 'add' THEN
+                document := jsonb_patch_ajouter(document, chemin, operation -> 'value');
+            WHEN 'remove', 'replace' THEN
+                IF jsonb_patch_lire(document, chemin) IS NULL OR cardinality(chemin) = 0 AND operation ->> 'op' = 'remove' THEN
+                    RAISE EXCEPTION 'Chemin absent : %', chemin USING ERRCODE = 'PJ422';
+                END IF;
+                document := CASE WHEN operation ->> 'op' = 'remove' THEN document #- chemin
+                                 WHEN cardinality(chemin) = 0 THEN operation -> 'value'
+                                 ELSE jsonb_set(document, chemin, operation -> 'value', false) END;
+            WHEN 'move', 'copy' THEN
+                valeur := jsonb_patch_lire(document, origine);
+                IF valeur IS NULL THEN
+                    RAISE EXCEPTION 'Chemin absent : %', origine USING ERRCODE = 'PJ422';
+                END IF;
+                IF operation ->> 'op' = 'move' THEN
+                    IF cardinality(chemin) > cardinality(origine) AND chemin[1:cardinality(origine)] = origine THEN
+                        RAISE EXCEPTION 'Déplacement dans son propre contenu : %', origine USING ERRCODE = 'PJ422';
+                    END IF;
+                    document := document #- origine;
+                END IF;
+                document := jsonb_patch_ajouter(document, chemin, valeur);
+            WHEN 'test' THEN
+                IF jsonb_patch_lire(document, chemin) IS DISTINCT FROM operation -> 'value' THEN
+                    RAISE EXCEPTION 'Test non vérifié : %', chemin USING ERRCODE = 'PJ409';
+                END IF;
+            ELSE
+                RAISE EXCEPTION 'Opération inconnue : %', operation ->> 'op' USING ERRCODE = 'PJ422';
+        END CASE;
+    END LOOP;
+    RETURN document;
+END;
+$$;
@@ -0,0 +1,40 @@
+-- Une seule candidature par (offre, candidat) : les réessais du client ne créent plus de doublon.
+--
+-- Doublons existants : on garde la candidature la plus avancée (notée en interview, puis sortie
+-- d'EN_ATTENTE), à défaut la première déposée. Les perdantes et leurs résultats d'interview sont
+-- d'abord copiés dans candidatures_doublons et resultats_interview_doublons (sans contrainte, avec
+-- l'id de la candidature gardée) pour rester consultables et réintégrables à la main ; la suppression
+-- passe ensuite par le trigger des rollups, file_scoring et resultats_interview suivent par
+-- ON DELETE CASCADE.
+
+CREATE TEMPORARY TABLE candidatures_en_double ON COMMIT DROP AS
+SELECT id, offre_id, candidature_gardee_id
+FROM (
+    SELECT id, offre_id,
+           row_number() OVER meme_couple AS rang,
+           first_value(id) OVER meme_couple AS candidature_gardee_id
+    FROM candidatures
+    WINDOW meme_couple AS (PARTITION BY offre_id, candidat_id
+                           ORDER BY interview_checklist_results IS NOT NULL DESC, statut <> 0 DESC, id)
+) c
+WHERE rang > 1;
+
+CREATE TABLE candidatures_doublons AS
+SELECT d.candidature_gardee_id, now() AS archivee_le, c.*
+FROM candidatures c
+JOIN candidatures_en_double d ON d.id = c.id;
+
+CREATE TABLE resultats_interview_doublons AS
+SELECT r.*
+FROM resultats_interview r
+WHERE r.candidature_id IN (SELECT id FROM candidatures_en_double);
+
+DELETE FROM candidatures WHERE id IN (SELECT id FROM candidatures_en_double);
+
+UPDATE offres o
+SET nombre_candidatures = (SELECT count(*) FROM candidatures c WHERE c.offre_id = o.id)
+WHERE o.id IN (SELECT DISTINCT offre_id FROM candidatures_en_double);
+
+-- L'index unique sert aussi la vérification "déjà postulé" (offre_id, candidat_id)
+ALTER TABLE candidatures
+    ADD CONSTRAINT uk_candidatures_offre_candidat UNIQUE (offre_id, candidat_id);
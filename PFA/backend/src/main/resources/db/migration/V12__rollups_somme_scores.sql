@@ -0,0 +1,48 @@
+-- Moyenne des scores exacte : les cases de l'histogramme (dimension 2) portent aussi la somme des
+-- scores non arrondis qu'elles contiennent, en NUMERIC pour que les ajouts et retraits se compensent
+-- exactement. Médiane et p90 restent à la résolution de la case (score arrondi à l'entier).
+
+ALTER TABLE rollups_candidatures ADD COLUMN somme NUMERIC NOT NULL DEFAULT 0;
+
+CREATE FUNCTION rollup_ajouter_score(p_offre BIGINT, p_score DOUBLE PRECISION, p_delta BIGINT)
+    RETURNS VOID LANGUAGE sql AS $$
+    INSERT INTO rollups_candidatures (offre_id, dimension, cle, nombre, somme)
+    VALUES (p_offre, 2, rollup_case_score(p_score), p_delta, p_delta * p_score::NUMERIC)
+    ON CONFLICT (offre_id, dimension, cle)
+        DO UPDATE SET nombre = rollups_candidatures.nombre + EXCLUDED.nombre,
+                      somme = rollups_candidatures.somme + EXCLUDED.somme;
+$$;
+
+-- Tout changement de score compte désormais, même sans changement de case
+CREATE OR REPLACE FUNCTION rollups_candidatures_maj() RETURNS TRIGGER LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        IF TG_OP = 'DELETE' OR NEW.statut IS DISTINCT FROM OLD.statut THEN
+            PERFORM rollup_ajouter(OLD.offre_id, 0::SMALLINT, OLD.statut, -1);
+        END IF;
+        IF OLD.score_matching IS NOT NULL
+                AND (TG_OP = 'DELETE' OR NEW.score_matching IS DISTINCT FROM OLD.score_matching) THEN
+            PERFORM rollup_ajouter_score(OLD.offre_id, OLD.score_matching, -1);
+        END IF;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        IF TG_OP = 'INSERT' OR NEW.statut IS DISTINCT FROM OLD.statut THEN
+            PERFORM rollup_ajouter(NEW.offre_id, 0::SMALLINT, NEW.statut, 1);
+            PERFORM rollup_ajouter(NEW.offre_id, 1::SMALLINT, NEW.statut, 1);
+        END IF;
+        IF NEW.score_matching IS NOT NULL
+                AND (TG_OP = 'INSERT' OR NEW.score_matching IS DISTINCT FROM OLD.score_matching) THEN
+            PERFORM rollup_ajouter_score(NEW.offre_id, NEW.score_matching, 1);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+UPDATE rollups_candidatures r
+SET somme = s.somme
+FROM (SELECT offre_id, rollup_case_score(score_matching) AS cle, sum(score_matching::NUMERIC) AS somme
+      FROM candidatures WHERE score_matching IS NOT NULL
+      GROUP BY offre_id, rollup_case_score(score_matching)) s
+WHERE r.offre_id = s.offre_id AND r.dimension = 2 AND r.cle = s.cle;
@@ -0,0 +1,30 @@
+-- Une seule forme d'identifiant : colonne BIGINT alimentée par une séquence ordinaire <table>_id_seq,
+-- comme les BIGSERIAL de V1. Les bases baselinées en V1 ont encore les colonnes IDENTITY créées par
+-- Hibernate (ddl-auto) : leur séquence interne n'est pas visible de la validation du schéma
+-- (@SequenceGenerator, V5). Elles passent à une séquence ordinaire du même nom, même pas, même position.
+-- Sans effet sur une base créée par V1.
+
+DO $$
+DECLARE
+    t         TEXT;
+    sequence  TEXT;
+    pas       BIGINT;
+    valeur    BIGINT;
+    appelee   BOOLEAN;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['recruteurs', 'offres', 'candidats', 'candidatures', 'suggestions_matching'] LOOP
+        CONTINUE WHEN (SELECT attidentity FROM pg_attribute
+                       WHERE attrelid = t::regclass AND attname = 'id') = '';
+
+        sequence := pg_get_serial_sequence(t, 'id');
+        SELECT increment_by INTO pas FROM pg_sequences
+        WHERE format('%I.%I', schemaname, sequencename)::regclass = sequence::regclass;
+        EXECUTE format('SELECT last_value, is_called FROM %s', sequence) INTO valeur, appelee;
+
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', t);
+        EXECUTE format('CREATE SEQUENCE %I INCREMENT BY %s OWNED BY %I.id', t || '_id_seq', pas, t);
+        PERFORM setval(format('%I', t || '_id_seq'), valeur, appelee);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t, t || '_id_seq');
+    END LOOP;
+END;
+$$;
@@ -0,0 +1,60 @@
+-- Entonnoir (dimension 1) : une candidature qui saute des étapes (EN_ATTENTE -> ACCEPTEE) les a
+-- franchies. Le trigger compte désormais toutes les étapes que le nouveau statut implique et que
+-- l'ancien n'impliquait pas encore, comme la reprise de V4 le fait à partir du statut actuel :
+--   EN_ATTENTE -> EN_COURS -> INTERVIEW -> ACCEPTEE, et REFUSEE n'implique qu'EN_ATTENTE.
+-- Les transitions n'allant que vers l'avant (StatutCandidature), chaque étape compte au plus une fois.
+
+CREATE FUNCTION rollup_etapes_atteintes(p_statut SMALLINT)
+    RETURNS SMALLINT[] LANGUAGE sql IMMUTABLE AS $$
+    SELECT CASE p_statut
+               WHEN 0 THEN '{0}'::SMALLINT[]
+               WHEN 1 THEN '{0,1}'::SMALLINT[]
+               WHEN 2 THEN '{0,1,2}'::SMALLINT[]
+               WHEN 3 THEN '{0,1,2,3}'::SMALLINT[]
+               ELSE ARRAY[0, p_statut]::SMALLINT[]
+           END;
+$$;
+
+CREATE OR REPLACE FUNCTION rollups_candidatures_maj() RETURNS TRIGGER LANGUAGE plpgsql AS $$
+DECLARE
+    deja_atteintes SMALLINT[] := '{}';
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        IF TG_OP = 'DELETE' OR NEW.statut IS DISTINCT FROM OLD.statut THEN
+            PERFORM rollup_ajouter(OLD.offre_id, 0::SMALLINT, OLD.statut, -1);
+        END IF;
+        IF OLD.score_matching IS NOT NULL
+                AND (TG_OP = 'DELETE' OR NEW.score_matching IS DISTINCT FROM OLD.score_matching) THEN
+            PERFORM rollup_ajouter_score(OLD.offre_id, OLD.score_matching, -1);
+        END IF;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        IF TG_OP = 'INSERT' OR NEW.statut IS DISTINCT FROM OLD.statut THEN
+            PERFORM rollup_ajouter(NEW.offre_id, 0::SMALLINT, NEW.statut, 1);
+            IF TG_OP = 'UPDATE' THEN
+                deja_atteintes := rollup_etapes_atteintes(OLD.statut);
+            END IF;
+            PERFORM rollup_ajouter(NEW.offre_id, 1::SMALLINT, e.etape, 1)
+            FROM unnest(rollup_etapes_atteintes(NEW.statut)) AS e (etape)
+            WHERE e.etape <> ALL (deja_atteintes);
+        END IF;
+        IF NEW.score_matching IS NOT NULL
+                AND (TG_OP = 'INSERT' OR NEW.score_matching IS DISTINCT FROM OLD.score_matching) THEN
+            PERFORM rollup_ajouter_score(NEW.offre_id, NEW.score_matching, 1);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Existant : l'ancien trigger n'a compté que les statuts réellement pris, la reprise ne voit que le
+-- statut actuel (un refus après interview n'y compte pas l'interview). Chacun est un minorant du nombre
+-- de candidatures ayant atteint l'étape : on garde le plus grand des deux.
+INSERT INTO rollups_candidatures (offre_id, dimension, cle, nombre)
+SELECT c.offre_id, 1, e.etape, count(*)
+FROM candidatures c
+CROSS JOIN LATERAL unnest(rollup_etapes_atteintes(c.statut)) AS e (etape)
+GROUP BY c.offre_id, e.etape
+ON CONFLICT (offre_id, dimension, cle)
+    DO UPDATE SET nombre = greatest(rollups_candidatures.nombre, EXCLUDED.nombre);
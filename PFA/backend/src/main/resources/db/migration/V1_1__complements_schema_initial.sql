@@ -0,0 +1,25 @@
+-- Objets ajoutés au modèle avant le passage à Flyway, absents des bases baselinées en V1.
+-- Idempotent : une base déjà créée avec ces objets (ou mise à jour par ddl-auto) n'est pas modifiée.
+
+-- Compteur dénormalisé des candidatures, initialisé depuis la table (tenu à jour en SQL ensuite)
+ALTER TABLE offres ADD COLUMN IF NOT EXISTS nombre_candidatures INTEGER NOT NULL DEFAULT 0;
+UPDATE offres o
+SET nombre_candidatures = (SELECT count(*) FROM candidatures c WHERE c.offre_id = o.id);
+
+-- Version du moteur ayant calculé score_matching (NULL : calculé avant le versionnage des moteurs)
+ALTER TABLE candidatures ADD COLUMN IF NOT EXISTS version_scoring VARCHAR(16);
+
+-- Matrice de suggestions précalculée (MatchMatrixJob), une campagne à la fois
+CREATE TABLE IF NOT EXISTS suggestions_matching (
+    id          BIGSERIAL   PRIMARY KEY,
+    campagne    BIGINT      NOT NULL,
+    sens        VARCHAR(10) NOT NULL,
+    offre_id    BIGINT      NOT NULL,
+    candidat_id BIGINT      NOT NULL,
+    score       FLOAT(53)   NOT NULL,
+    rang        INTEGER     NOT NULL,
+    created_at  TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_suggestions_offre ON suggestions_matching (campagne, sens, offre_id, rang);
+CREATE INDEX IF NOT EXISTS idx_suggestions_candidat ON suggestions_matching (campagne, sens, candidat_id, rang);
@@ -0,0 +1,70 @@
+-- Schéma initial, tel que produit jusqu'ici par spring.jpa.hibernate.ddl-auto=update.
+-- Les bases existantes sont baselinées à cette version (spring.flyway.baseline-on-migrate) : ce fichier
+-- ne doit contenir que ce qu'elles ont déjà. Tout ajout va dans une migration suivante (V1_1 et après).
+-- Seule différence admise : les id en BIGSERIAL, forme retenue (les colonnes IDENTITY créées par
+-- Hibernate sont converties par V13).
+
+CREATE TABLE recruteurs (
+    id           BIGSERIAL    PRIMARY KEY,
+    nom          VARCHAR(255) NOT NULL,
+    prenom       VARCHAR(255) NOT NULL,
+    email        VARCHAR(255) NOT NULL UNIQUE,
+    mot_de_passe VARCHAR(255) NOT NULL,
+    entreprise   VARCHAR(255) NOT NULL,
+    poste        VARCHAR(255),
+    telephone    VARCHAR(255),
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE TABLE offres (
+    id                   BIGSERIAL    PRIMARY KEY,
+    titre                VARCHAR(255),
+    description          VARCHAR(255),
+    type_contrat         VARCHAR(255) NOT NULL,
+    localisation         VARCHAR(255) NOT NULL,
+    niveau_experience    VARCHAR(255),
+    competences_requises VARCHAR(255),
+    salaire_min          FLOAT(53),
+    salaire_max          FLOAT(53),
+    statut               VARCHAR(255),
+    date_publication     TIMESTAMP(6) NOT NULL,
+    date_expiration      TIMESTAMP(6),
+    created_at           TIMESTAMP(6) NOT NULL,
+    updated_at           TIMESTAMP(6) NOT NULL,
+    recruteur_id         BIGINT       NOT NULL,
+    interview_checklist  JSONB,
+    CONSTRAINT fk_offres_recruteur FOREIGN KEY (recruteur_id) REFERENCES recruteurs (id)
+);
+
+CREATE TABLE candidats (
+    id           BIGSERIAL    PRIMARY KEY,
+    nom          VARCHAR(255),
+    prenom       VARCHAR(255),
+    email        VARCHAR(255),
+    telephone    VARCHAR(255),
+    competences  TEXT,
+    niveau_etude VARCHAR(255),
+    formation    VARCHAR(255),
+    cv_url       VARCHAR(255),
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE TABLE candidatures (
+    id                          BIGSERIAL    PRIMARY KEY,
+    offre_id                    BIGINT       NOT NULL,
+    candidat_id                 BIGINT       NOT NULL,
+    statut                      VARCHAR(255) NOT NULL,
+    lettre_motivation           TEXT,
+    cv_url                      VARCHAR(255),
+    score_matching              FLOAT(53),
+    commentaire_recruteur       TEXT,
+    interview_checklist_results TEXT,
+    interview_skill_comments    TEXT,
+    interview_commentaire       TEXT,
+    date_candidature            TIMESTAMP(6),
+    date_reponse                TIMESTAMP(6),
+    CONSTRAINT fk_candidatures_offre FOREIGN KEY (offre_id) REFERENCES offres (id),
+    CONSTRAINT fk_candidatures_candidat FOREIGN KEY (candidat_id) REFERENCES candidats (id)
+);
@@ -0,0 +1,22 @@
+-- Index composites alignés sur les requêtes chaudes (vérifiés par IndexPlanTests).
+
+-- Candidatures d'une offre triées par score : listes, pages par curseur et re-scoring.
+-- coalesce(score, -1) range les candidatures non scorées en dernier, comme le tri applicatif.
+CREATE INDEX IF NOT EXISTS idx_candidatures_offre_score
+    ON candidatures (offre_id, (coalesce(score_matching, -1)) DESC, id DESC);
+
+-- Candidatures d'un recruteur filtrées par statut (jointure offres -> candidatures)
+CREATE INDEX IF NOT EXISTS idx_candidatures_offre_statut
+    ON candidatures (offre_id, statut);
+
+-- Re-scoring à la modification d'un profil
+CREATE INDEX IF NOT EXISTS idx_candidatures_candidat
+    ON candidatures (candidat_id);
+
+-- Offres d'un recruteur, plus récentes d'abord (liste et pages par curseur)
+CREATE INDEX IF NOT EXISTS idx_offres_recruteur_creation
+    ON offres (recruteur_id, created_at DESC, id DESC);
+
+-- Offres d'un recruteur par statut
+CREATE INDEX IF NOT EXISTS idx_offres_recruteur_statut
+    ON offres (recruteur_id, statut);
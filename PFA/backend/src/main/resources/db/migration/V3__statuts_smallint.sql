@@ -0,0 +1,56 @@
+-- Statuts stockés en smallint (codes de StatutCandidature / StatutOffre).
+
+-- Un statut de candidature inconnu deviendrait NULL (colonne NOT NULL) : la migration s'arrête avant,
+-- en listant les valeurs à corriger
+DO $$
+DECLARE
+    inconnus TEXT;
+BEGIN
+    SELECT string_agg(format('%L (%s)', statut, n), ', ') INTO inconnus
+    FROM (SELECT statut, count(*) AS n FROM candidatures
+          WHERE statut NOT IN ('EN_ATTENTE', 'EN_COURS', 'INTERVIEW', 'ACCEPTEE', 'REFUSEE')
+          GROUP BY statut) s;
+    IF inconnus IS NOT NULL THEN
+        RAISE EXCEPTION 'Statuts de candidature inconnus, à corriger avant migration : %', inconnus;
+    END IF;
+END;
+$$;
+
+ALTER TABLE candidatures
+    ALTER COLUMN statut TYPE SMALLINT USING CASE statut
+        WHEN 'EN_ATTENTE' THEN 0
+        WHEN 'EN_COURS'   THEN 1
+        WHEN 'INTERVIEW'  THEN 2
+        WHEN 'ACCEPTEE'   THEN 3
+        WHEN 'REFUSEE'    THEN 4
+    END;
+
+ALTER TABLE candidatures
+    ADD CONSTRAINT chk_candidatures_statut CHECK (statut BETWEEN 0 AND 4);
+
+-- Les offres sans statut étaient traitées comme brouillons
+ALTER TABLE offres
+    ALTER COLUMN statut TYPE SMALLINT USING CASE statut
+        WHEN 'ACTIVE' THEN 1
+        WHEN 'FERMEE' THEN 2
+        ELSE 0
+    END;
+
+ALTER TABLE offres
+    ALTER COLUMN statut SET NOT NULL,
+    ADD CONSTRAINT chk_offres_statut CHECK (statut BETWEEN 0 AND 2);
+
+-- Index partiels sur les statuts chauds : file des nouvelles candidatures et des interviews
+-- à traiter, par offre et par score (petits, car ces statuts sont transitoires).
+CREATE INDEX idx_candidatures_en_attente
+    ON candidatures (offre_id, (coalesce(score_matching, -1)) DESC, id DESC)
+    WHERE statut = 0;
+
+CREATE INDEX idx_candidatures_interview
+    ON candidatures (offre_id, (coalesce(score_matching, -1)) DESC, id DESC)
+    WHERE statut = 2;
+
+-- Offres actives : campagne de matching (parcours keyset par id)
+CREATE INDEX idx_offres_actives
+    ON offres (id)
+    WHERE statut = 1;
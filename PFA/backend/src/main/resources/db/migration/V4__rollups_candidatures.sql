@@ -0,0 +1,79 @@
+-- Agrégats par offre pour le tableau de bord recruteur, tenus à jour par trigger dans la
+-- transaction de chaque écriture sur candidatures (postuler, transitions, re-scoring, suppression).
+--
+--   dimension 0 = STATUT     : candidatures actuellement dans le statut <cle>
+--   dimension 1 = ENTONNOIR  : candidatures entrées au moins une fois dans le statut <cle>
+--   dimension 2 = SCORE      : histogramme des scores, <cle> = score arrondi (0..100)
+
+CREATE TABLE rollups_candidatures (
+    offre_id  BIGINT   NOT NULL REFERENCES offres (id) ON DELETE CASCADE,
+    dimension SMALLINT NOT NULL,
+    cle       SMALLINT NOT NULL,
+    nombre    BIGINT   NOT NULL,
+    PRIMARY KEY (offre_id, dimension, cle)
+);
+
+CREATE FUNCTION rollup_ajouter(p_offre BIGINT, p_dimension SMALLINT, p_cle SMALLINT, p_delta BIGINT)
+    RETURNS VOID LANGUAGE sql AS $$
+    INSERT INTO rollups_candidatures (offre_id, dimension, cle, nombre)
+    VALUES (p_offre, p_dimension, p_cle, p_delta)
+    ON CONFLICT (offre_id, dimension, cle)
+        DO UPDATE SET nombre = rollups_candidatures.nombre + EXCLUDED.nombre;
+$$;
+
+CREATE FUNCTION rollup_case_score(p_score DOUBLE PRECISION)
+    RETURNS SMALLINT LANGUAGE sql IMMUTABLE AS $$
+    SELECT least(greatest(round(p_score), 0), 100)::SMALLINT;
+$$;
+
+CREATE FUNCTION rollups_candidatures_maj() RETURNS TRIGGER LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        IF TG_OP = 'DELETE' OR NEW.statut IS DISTINCT FROM OLD.statut THEN
+            PERFORM rollup_ajouter(OLD.offre_id, 0::SMALLINT, OLD.statut, -1);
+        END IF;
+        IF OLD.score_matching IS NOT NULL AND (TG_OP = 'DELETE'
+                OR NEW.score_matching IS NULL
+                OR rollup_case_score(NEW.score_matching) <> rollup_case_score(OLD.score_matching)) THEN
+            PERFORM rollup_ajouter(OLD.offre_id, 2::SMALLINT, rollup_case_score(OLD.score_matching), -1);
+        END IF;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        IF TG_OP = 'INSERT' OR NEW.statut IS DISTINCT FROM OLD.statut THEN
+            PERFORM rollup_ajouter(NEW.offre_id, 0::SMALLINT, NEW.statut, 1);
+            PERFORM rollup_ajouter(NEW.offre_id, 1::SMALLINT, NEW.statut, 1);
+        END IF;
+        IF NEW.score_matching IS NOT NULL AND (TG_OP = 'INSERT'
+                OR OLD.score_matching IS NULL
+                OR rollup_case_score(NEW.score_matching) <> rollup_case_score(OLD.score_matching)) THEN
+            PERFORM rollup_ajouter(NEW.offre_id, 2::SMALLINT, rollup_case_score(NEW.score_matching), 1);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_rollups_candidatures
+    AFTER INSERT OR DELETE OR UPDATE OF statut, score_matching ON candidatures
+    FOR EACH ROW EXECUTE FUNCTION rollups_candidatures_maj();
+
+-- Reprise de l'existant. L'historique des transitions n'étant pas conservé, l'entonnoir des
+-- candidatures antérieures est déduit de leur statut actuel (EN_ATTENTE -> EN_COURS -> INTERVIEW -> ACCEPTEE).
+INSERT INTO rollups_candidatures (offre_id, dimension, cle, nombre)
+SELECT offre_id, 0, statut, count(*) FROM candidatures GROUP BY offre_id, statut;
+
+INSERT INTO rollups_candidatures (offre_id, dimension, cle, nombre)
+SELECT c.offre_id, 1, e.etape, count(*)
+FROM candidatures c
+JOIN (VALUES (0::SMALLINT), (1::SMALLINT), (2::SMALLINT), (3::SMALLINT), (4::SMALLINT)) AS e (etape)
+  ON e.etape = 0
+  OR (e.etape = 1 AND c.statut IN (1, 2, 3))
+  OR (e.etape = 2 AND c.statut IN (2, 3))
+  OR (e.etape = c.statut AND c.statut IN (3, 4))
+GROUP BY c.offre_id, e.etape;
+
+INSERT INTO rollups_candidatures (offre_id, dimension, cle, nombre)
+SELECT offre_id, 2, rollup_case_score(score_matching), count(*)
+FROM candidatures WHERE score_matching IS NOT NULL
+GROUP BY offre_id, rollup_case_score(score_matching);
@@ -0,0 +1,15 @@
+-- Identifiants par séquence "pooled" (allocationSize = 50) : Hibernate réserve 50 ids par appel
+-- à nextval, ce qui permet de regrouper les INSERT en batch (impossible avec IDENTITY).
+-- Les INSERT SQL qui s'appuient sur le DEFAULT nextval restent compatibles : chaque valeur de
+-- la séquence est la borne haute d'une plage que Hibernate seul peut utiliser.
+
+ALTER SEQUENCE recruteurs_id_seq INCREMENT BY 50;
+ALTER SEQUENCE offres_id_seq INCREMENT BY 50;
+ALTER SEQUENCE candidats_id_seq INCREMENT BY 50;
+ALTER SEQUENCE candidatures_id_seq INCREMENT BY 50;
+
+-- Repartir au-dessus des ids existants (la première plage commence à valeur - 49)
+SELECT setval('recruteurs_id_seq', (SELECT coalesce(max(id), 0) + 50 FROM recruteurs));
+SELECT setval('offres_id_seq', (SELECT coalesce(max(id), 0) + 50 FROM offres));
+SELECT setval('candidats_id_seq', (SELECT coalesce(max(id), 0) + 50 FROM candidats));
+SELECT setval('candidatures_id_seq', (SELECT coalesce(max(id), 0) + 50 FROM candidatures));
@@ -0,0 +1,22 @@
+-- Numéros de version (verrou optimiste Hibernate, @Version) servant aussi d'ETag aux GET conditionnels.
+--
+-- offres : toutes les écritures passent par Hibernate, sauf le compteur de candidatures qui ne
+-- touche pas la version (l'ETag d'une offre combine version et compteur).
+-- candidatures : modifiées aussi en SQL direct (transitions groupées, re-scoring) ; le trigger
+-- incrémente la version quand l'écrivain ne l'a pas fait lui-même.
+
+ALTER TABLE offres ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE candidatures ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE FUNCTION candidatures_version_maj() RETURNS TRIGGER LANGUAGE plpgsql AS $$
+BEGIN
+    IF NEW.version = OLD.version THEN
+        NEW.version := OLD.version + 1;
+    END IF;
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER trg_candidatures_version
+    BEFORE UPDATE ON candidatures
+    FOR EACH ROW EXECUTE FUNCTION candidatures_version_maj();
@@ -0,0 +1,15 @@
+-- File de scoring des candidatures déposées en mode asynchrone (POST /postuler?async=true).
+--
+-- Une ligne par candidature en attente de score ; les workers la réservent avec
+-- SELECT ... FOR UPDATE SKIP LOCKED, écrivent le score et la suppriment dans la même transaction.
+-- Un lot en échec est remis à plus tard (disponible_a, attente doublée à chaque tentative).
+
+CREATE TABLE file_scoring (
+    candidature_id  BIGINT    PRIMARY KEY REFERENCES candidatures (id) ON DELETE CASCADE,
+    cree_le         TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    disponible_a    TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    tentatives      INTEGER   NOT NULL DEFAULT 0,
+    derniere_erreur TEXT
+);
+
+CREATE INDEX idx_file_scoring_disponible ON file_scoring (disponible_a);
@@ -0,0 +1,18 @@
+-- Outbox des événements du cycle de vie des candidatures (dépôt, changement de statut, interview).
+--
+-- Chaque événement est inséré dans la transaction de la modification qu'il décrit : il existe si et
+-- seulement si la modification est validée. OutboxDispatcher le lit par lots (FOR UPDATE SKIP LOCKED),
+-- le remet aux puits puis le supprime ; livraison au moins une fois, dans l'ordre des id par instance.
+
+CREATE TABLE outbox (
+    id              BIGSERIAL   PRIMARY KEY,
+    type            VARCHAR(64) NOT NULL,
+    agregat_id      BIGINT      NOT NULL,
+    charge          JSONB       NOT NULL,
+    cree_le         TIMESTAMP   NOT NULL DEFAULT LOCALTIMESTAMP,
+    disponible_a    TIMESTAMP   NOT NULL DEFAULT LOCALTIMESTAMP,
+    tentatives      INTEGER     NOT NULL DEFAULT 0,
+    derniere_erreur TEXT
+);
+
+CREATE INDEX idx_outbox_disponible ON outbox (disponible_a, id);
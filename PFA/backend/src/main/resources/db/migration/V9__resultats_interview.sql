@@ -0,0 +1,49 @@
+-- Résultats d'interview par compétence, une ligne par (candidature, compétence).
+--
+-- candidatures.interview_checklist_results ("Java:true;SQL:false") et interview_skill_comments
+-- ({"0": "...", "1": "..."}, par rang) restent la forme renvoyée à l'interface ; cette table en est la
+-- version typée, réécrite à chaque notation, sur laquelle portent agrégats et classements.
+-- offre_id est recopié de la candidature (qui ne change jamais d'offre) : l'agrégat par offre se lit
+-- dans l'index, sans jointure.
+
+CREATE TABLE resultats_interview (
+    candidature_id BIGINT       NOT NULL REFERENCES candidatures (id) ON DELETE CASCADE,
+    competence     VARCHAR(255) NOT NULL,
+    offre_id       BIGINT       NOT NULL REFERENCES offres (id),
+    rang           SMALLINT     NOT NULL,
+    reussi         BOOLEAN      NOT NULL,
+    commentaire    TEXT,
+    PRIMARY KEY (candidature_id, competence)
+);
+
+-- Taux de réussite par compétence d'une offre, score d'interview par candidature
+CREATE INDEX idx_resultats_interview_offre ON resultats_interview (offre_id, competence, reussi);
+CREATE INDEX idx_resultats_interview_offre_candidature ON resultats_interview (offre_id, candidature_id, reussi);
+
+-- Reprise des notations existantes ; un commentaire illisible est ignoré, pas bloquant
+CREATE FUNCTION jsonb_ou_null(texte TEXT) RETURNS JSONB LANGUAGE plpgsql IMMUTABLE AS $$
+BEGIN
+    RETURN texte::jsonb;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END;
+$$;
+
+INSERT INTO resultats_interview (candidature_id, competence, offre_id, rang, reussi, commentaire)
+SELECT DISTINCT ON (c.id, e.competence)
+       c.id, e.competence, c.offre_id, e.rang,
+       lower(btrim(substring(e.element FROM '[^:]*$'))) = 'true',
+       CASE WHEN jsonb_typeof(jsonb_ou_null(c.interview_skill_comments)) = 'object'
+            THEN nullif(jsonb_ou_null(c.interview_skill_comments) ->> e.rang::text, '') END
+FROM candidatures c
+CROSS JOIN LATERAL (
+    SELECT t.element, (t.ordre - 1)::smallint AS rang,
+           left(btrim(regexp_replace(t.element, ':[^:]*$', '')), 255) AS competence
+    FROM regexp_split_to_table(c.interview_checklist_results, ';') WITH ORDINALITY AS t(element, ordre)
+) e
+WHERE c.interview_checklist_results IS NOT NULL
+  AND position(':' IN e.element) > 0
+  AND e.competence <> ''
+ORDER BY c.id, e.competence, e.rang;
+
+DROP FUNCTION jsonb_ou_null(TEXT);
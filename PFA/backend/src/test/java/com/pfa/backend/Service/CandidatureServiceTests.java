@@ -0,0 +1,320 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.dto.CandidatureDTO;
+import com.pfa.backend.dto.FormatFichier;
+import com.pfa.backend.dto.PageCurseur;
+import com.pfa.backend.dto.ResultatStatutDTO;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Candidature;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.entities.StatutCandidature;
+import com.pfa.backend.exception.DuplicateResourceException;
+import com.pfa.backend.exception.TransitionStatutInvalideException;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import com.pfa.backend.support.CollaborateursSimules;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie que les listes de candidatures sont lues en une seule requête SQL,
+ * quel que soit le nombre de lignes.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CandidatureService.class, JacksonAutoConfiguration.class, CollaborateursSimules.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:candidatures;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "candidatures.export.taille-page=64"
+})
+class CandidatureServiceTests {
+
+    private static final int NB_CANDIDATURES = 1_000;
+
+    @Autowired
+    private CandidatureService candidatureService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SkillVocabulary skillVocabulary;
+
+    @Autowired
+    private ScoringEngineRegistry scoringEngineRegistry;
+
+    @Autowired
+    private RescoringService rescoringService;
+
+    @MockBean
+    private RegistreCandidatures registreCandidatures;
+
+    private Statistics statistics;
+    private Long recruteurId;
+    private Long offreId;
+
+    @BeforeEach
+    void setUp() {
+        when(scoringEngineRegistry.estPerime(any())).thenReturn(false);
+
+        Recruteur recruteur = new Recruteur();
+        recruteur.setNom("Alaoui");
+        recruteur.setPrenom("Sara");
+        recruteur.setEmail("sara@entreprise.ma");
+        recruteur.setMotDePasse("secret");
+        recruteur.setEntreprise("Entreprise");
+        entityManager.persist(recruteur);
+
+        Offre[] offres = new Offre[5];
+        for (int o = 0; o < offres.length; o++) {
+            Offre offre = new Offre();
+            offre.setTitre("Offre " + o);
+            offre.setTypeContrat("CDI");
+            offre.setLocalisation("Rabat");
+            offre.setCompetencesRequises("Java, Spring");
+            offre.setRecruteur(recruteur);
+            entityManager.persist(offre);
+            offres[o] = offre;
+        }
+
+        for (int i = 0; i < NB_CANDIDATURES; i++) {
+            CandidateProfile candidat = new CandidateProfile();
+            candidat.setNom("Nom" + i);
+            candidat.setPrenom("Prenom" + i);
+            candidat.setEmail("candidat" + i + "@mail.ma");
+            candidat.setCompetences("Java, SQL");
+            entityManager.persist(candidat);
+
+            Candidature candidature = new Candidature();
+            candidature.setOffre(offres[i % offres.length]);
+            candidature.setCandidat(candidat);
+            candidature.setStatut(i % 2 == 0 ? StatutCandidature.EN_ATTENTE : StatutCandidature.EN_COURS);
+            candidature.setScoreMatching((double) (i % 101));
+            candidature.setVersionScoring("v1");
+            entityManager.persist(candidature);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        recruteurId = recruteur.getId();
+        offreId = offres[0].getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void candidaturesParRecruteurEnUneSeuleRequete() {
+        List<CandidatureDTO> candidatures = candidatureService.getCandidaturesParRecruteur(recruteurId);
+
+        assertEquals(NB_CANDIDATURES, candidatures.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(100.0, candidatures.get(0).getScoreMatching());
+    }
+
+    @Test
+    void candidaturesParOffreEnUneSeuleRequete() {
+        List<CandidatureDTO> candidatures = candidatureService.getCandidaturesParOffre(offreId);
+
+        assertEquals(NB_CANDIDATURES / 5, candidatures.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void scoresPerimesRecalculesALaLectureEtOffresMisesEnFile() {
+        // Les candidatures de l'offre 0 ont été scorées par v1, le moteur actif est v2
+        when(scoringEngineRegistry.estPerime("v1")).thenReturn(true);
+        when(scoringEngineRegistry.versionActive()).thenReturn("v2");
+        when(scoringEngineRegistry.score(any(), any())).thenReturn(42.0);
+        when(skillVocabulary.encoder(any())).thenReturn(new int[0]);
+
+        List<CandidatureDTO> candidatures = candidatureService.getCandidaturesParOffre(offreId);
+
+        assertEquals(NB_CANDIDATURES / 5, candidatures.size());
+        assertTrue(candidatures.stream().allMatch(c -> c.getScoreMatching() == 42.0 && "v2".equals(c.getVersionScoring())));
+        // Une requête pour les candidatures, une pour l'offre ; l'écriture est laissée au re-scoring de fond
+        assertEquals(2, statistics.getPrepareStatementCount());
+        verify(rescoringService).planifierOffre(offreId);
+        verifyNoMoreInteractions(rescoringService);
+    }
+
+    @Test
+    void scoresAJourNiRecalculesNiMisEnFile() {
+        candidatureService.getCandidaturesParOffre(offreId);
+
+        verify(scoringEngineRegistry, never()).score(any(), any());
+        verifyNoInteractions(rescoringService);
+    }
+
+    @Test
+    void candidaturesParStatutEnUneSeuleRequete() {
+        List<CandidatureDTO> candidatures = candidatureService.getCandidaturesParStatut(recruteurId, StatutCandidature.EN_COURS);
+
+        assertEquals(NB_CANDIDATURES / 2, candidatures.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void pagesParCurseurCouvrentToutesLesCandidaturesSansDoublon() {
+        Set<Long> vues = new HashSet<>();
+        double scorePrecedent = Double.MAX_VALUE;
+        String curseur = null;
+        do {
+            statistics.clear();
+            PageCurseur<CandidatureDTO> page = candidatureService
+                    .getPageCandidaturesParRecruteur(recruteurId, curseur, 64);
+            assertEquals(1, statistics.getPrepareStatementCount());
+
+            for (CandidatureDTO dto : page.getElements()) {
+                assertTrue(vues.add(dto.getId()));
+                assertTrue(dto.getScoreMatching() <= scorePrecedent);
+                scorePrecedent = dto.getScoreMatching();
+            }
+            curseur = page.getCurseurSuivant();
+        } while (curseur != null);
+
+        assertEquals(NB_CANDIDATURES, vues.size());
+    }
+
+    @Test
+    void transitionDeStatutConditionnelle() {
+        Long id = candidatureService.getPageCandidaturesParOffre(offreId, null, 1).getElements().get(0).getId();
+        String etag = candidatureService.getEtatCandidature(id).getEtag();
+
+        statistics.clear();
+        CandidatureDTO acceptee = candidatureService.accepterCandidature(id, "Profil retenu");
+        assertEquals(StatutCandidature.ACCEPTEE, acceptee.getStatut());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        assertNotEquals(etag, candidatureService.getEtatCandidature(id).getEtag());
+
+        // ACCEPTEE est terminal : la seconde action ne modifie rien
+        assertThrows(TransitionStatutInvalideException.class,
+                () -> candidatureService.refuserCandidature(id, "Trop tard"));
+        assertEquals(StatutCandidature.ACCEPTEE, candidatureService.getCandidatureById(id).getStatut());
+
+        assertThrows(RuntimeException.class,
+                () -> candidatureService.mettreEnCours(-1L, ""));
+    }
+
+    @Test
+    void changementDeStatutGroupeAvecIssueParCandidature() {
+        List<Long> ids = candidatureService.getPageCandidaturesParOffre(offreId, null, 200).getElements().stream()
+                .map(CandidatureDTO::getId)
+                .collect(Collectors.toList());
+        candidatureService.accepterCandidature(ids.get(0), "");
+        ids.add(-1L);
+
+        List<ResultatStatutDTO> resultats = candidatureService.changerStatutEnMasse(ids, StatutCandidature.REFUSEE, "Poste pourvu");
+
+        assertEquals(ids.size(), resultats.size());
+        assertEquals(ResultatStatutDTO.Resultat.TRANSITION_REFUSEE, resultats.get(0).getResultat());
+        assertEquals(StatutCandidature.ACCEPTEE, resultats.get(0).getStatut());
+        assertEquals(ResultatStatutDTO.Resultat.INTROUVABLE, resultats.get(ids.size() - 1).getResultat());
+        assertEquals(ids.size() - 2, resultats.stream()
+                .filter(r -> r.getResultat() == ResultatStatutDTO.Resultat.MODIFIEE).count());
+        assertEquals(ids.size() - 2, candidatureService
+                .getCandidaturesParStatut(recruteurId, StatutCandidature.REFUSEE).size());
+    }
+
+    @Test
+    void secondeCandidatureALaMemeOffreRefusee() {
+        when(skillVocabulary.encoder(any())).thenReturn(new int[0]);
+        Long candidatId = candidatureService.getPageCandidaturesParOffre(offreId, null, 1)
+                .getElements().get(0).getCandidatId();
+
+        // Pré-contrôle positif : doublon confirmé par la base, avant tout chargement
+        when(registreCandidatures.aDejaPostule(any(), any(), any()))
+                .thenAnswer(i -> i.<BooleanSupplier>getArgument(2).getAsBoolean());
+        statistics.clear();
+        assertThrows(DuplicateResourceException.class,
+                () -> candidatureService.postulerEnDiffere(offreId, candidatId, "Encore", null));
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // Pré-contrôle négatif à tort (dépôt d'une autre instance) : la contrainte unique tranche
+        doReturn(false).when(registreCandidatures).aDejaPostule(any(), any(), any());
+        assertThrows(DuplicateResourceException.class,
+                () -> candidatureService.postuler(offreId, candidatId, "Encore", null));
+    }
+
+    @Test
+    void exportPageParPageSansChargerDEntites() throws Exception {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        candidatureService.exporterCandidaturesParRecruteur(recruteurId, FormatFichier.CSV, csv);
+
+        String[] lignes = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(NB_CANDIDATURES + 1, lignes.length);
+        assertTrue(lignes[0].startsWith("id,offreId,titreOffre"));
+        // Identifiants des offres, puis 200 candidatures par offre en pages de 64 : 4 requêtes chacune
+        assertEquals(1 + 5 * 4, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // Chaque ligne une seule fois, offre par offre (plus récente d'abord), score décroissant dans l'offre
+        Set<String> ids = new HashSet<>();
+        String offrePrecedente = null;
+        double scorePrecedent = Double.MAX_VALUE;
+        List<String> offresVues = new ArrayList<>();
+        for (int i = 1; i < lignes.length; i++) {
+            // Les compétences contiennent une virgule : le score se lit depuis la fin de la ligne
+            String[] champs = lignes[i].split(",", -1);
+            assertTrue(ids.add(champs[0]), "ligne en double : " + champs[0]);
+            double score = Double.parseDouble(champs[champs.length - 5]);
+            if (!champs[1].equals(offrePrecedente)) {
+                offresVues.add(champs[1]);
+                offrePrecedente = champs[1];
+            } else {
+                assertTrue(score <= scorePrecedent);
+            }
+            scorePrecedent = score;
+        }
+        assertEquals(offresVues.stream().map(Long::valueOf).sorted(Comparator.reverseOrder()).toList(),
+                offresVues.stream().map(Long::valueOf).toList());
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        candidatureService.exporterCandidaturesParRecruteur(recruteurId, FormatFichier.NDJSON, ndjson);
+        assertEquals(NB_CANDIDATURES, ndjson.toString(StandardCharsets.UTF_8).lines()
+                .filter(l -> l.startsWith("{") && l.endsWith("}")).count());
+    }
+}
@@ -0,0 +1,153 @@
+package com.pfa.backend.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pfa.backend.config.CacheConfig;
+import com.pfa.backend.dto.EtatRessource;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.exception.ConflitModificationException;
+import com.pfa.backend.exception.ResourceNotFoundException;
+import com.pfa.backend.repository.OffreRepository;
+import com.pfa.backend.repository.RecruteurRepository;
+import com.pfa.backend.support.PostgresEmbarque;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checklist modifiée en place (jsonb_merge_patch / jsonb_patch), sous verrou optimiste.
+ */
+@PostgresEmbarque
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ChecklistService.class, CacheConfig.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChecklistServiceTests {
+
+    @Autowired
+    private ChecklistService checklistService;
+
+    @Autowired
+    private OffreRepository offreRepository;
+
+    @Autowired
+    private RecruteurRepository recruteurRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long offreId;
+
+    @BeforeEach
+    void creerOffre() {
+        Recruteur recruteur = new Recruteur();
+        recruteur.setNom("Alaoui");
+        recruteur.setPrenom("Sara");
+        recruteur.setEmail("sara" + System.nanoTime() + "@entreprise.ma");
+        recruteur.setMotDePasse("secret");
+        recruteur.setEntreprise("Entreprise");
+        recruteurRepository.save(recruteur);
+
+        Offre offre = new Offre();
+        offre.setTitre("Développeur Java");
+        offre.setTypeContrat("CDI");
+        offre.setLocalisation("Rabat");
+        offre.setRecruteur(recruteur);
+        offre.setInterviewChecklist(Map.of(
+                "checkedItems", Map.of("0", true, "1", false),
+                "comments", Map.of("0", "Solide"),
+                "globalNotes", "RAS"));
+        offreId = offreRepository.save(offre).getId();
+    }
+
+    @Test
+    void fusionSansEcraserLesAutresCles() throws Exception {
+        long version = version();
+        EtatRessource etat = checklistService.fusionner(offreId, version,
+                json("{\"checkedItems\": {\"1\": true, \"2\": false}, \"comments\": {\"0\": null}, \"globalNotes\": null}"));
+
+        assertEquals("o" + (version + 1) + "-0", etat.getEtag());
+        assertEquals(json("{\"checkedItems\": {\"0\": true, \"1\": true, \"2\": false}, \"comments\": {}}"), checklist());
+
+        // Un second éditeur resté sur l'ancienne version est refusé, rien n'est écrit
+        assertThrows(ConflitModificationException.class,
+                () -> checklistService.fusionner(offreId, version, json("{\"globalNotes\": \"écrasé\"}")));
+        assertFalse(checklist().has("globalNotes"));
+        assertEquals(version + 1, version());
+    }
+
+    @Test
+    void operationsAppliqueesToutOuRien() throws Exception {
+        checklistService.appliquer(offreId, null, json("[" +
+                "{\"op\": \"replace\", \"path\": \"/checkedItems/1\", \"value\": true}," +
+                "{\"op\": \"add\", \"path\": \"/tags\", \"value\": [\"java\"]}," +
+                "{\"op\": \"add\", \"path\": \"/tags/-\", \"value\": \"sql\"}," +
+                "{\"op\": \"add\", \"path\": \"/tags/0\", \"value\": \"api\"}," +
+                "{\"op\": \"move\", \"from\": \"/globalNotes\", \"path\": \"/comments/notes~1globales\"}," +
+                "{\"op\": \"remove\", \"path\": \"/comments/0\"}]"));
+
+        assertEquals(json("{\"checkedItems\": {\"0\": true, \"1\": true}, \"tags\": [\"api\", \"java\", \"sql\"], " +
+                "\"comments\": {\"notes/globales\": \"RAS\"}}"), checklist());
+
+        // test échoué : conflit, et la première opération du lot n'est pas appliquée non plus
+        long version = version();
+        assertThrows(ConflitModificationException.class, () -> checklistService.appliquer(offreId, null, json("[" +
+                "{\"op\": \"remove\", \"path\": \"/tags\"}," +
+                "{\"op\": \"test\", \"path\": \"/checkedItems/0\", \"value\": false}]")));
+        assertThrows(IllegalArgumentException.class, () -> checklistService.appliquer(offreId, null,
+                json("[{\"op\": \"remove\", \"path\": \"/tags/-1\"}]")));
+        assertThrows(IllegalArgumentException.class, () -> checklistService.appliquer(offreId, null,
+                json("[{\"op\": \"replace\", \"path\": \"absent\", \"value\": 1}]")));
+        assertEquals(version, version());
+        assertTrue(checklist().has("tags"));
+    }
+
+    @Test
+    void offreEvinceeDuCacheEtIntrouvable() throws Exception {
+        offreRepository.findById(offreId).orElseThrow();
+        assertTrue(entityManagerFactory.getCache().contains(Offre.class, offreId));
+
+        checklistService.remplacer(offreId, version(), Map.of("globalNotes", "Nouveau"));
+
+        assertFalse(entityManagerFactory.getCache().contains(Offre.class, offreId));
+        assertEquals(Map.of("globalNotes", "Nouveau"),
+                offreRepository.findById(offreId).orElseThrow().getInterviewChecklist());
+        assertThrows(ResourceNotFoundException.class,
+                () -> checklistService.fusionner(-1L, null, json("{\"a\": 1}")));
+    }
+
+    private long version() {
+        return jdbcTemplate.queryForObject("SELECT version FROM offres WHERE id = ?", Long.class, offreId);
+    }
+
+    private JsonNode checklist() throws Exception {
+        return json(jdbcTemplate.queryForObject(
+                "SELECT interview_checklist::text FROM offres WHERE id = ?", String.class, offreId));
+    }
+
+    private JsonNode json(String texte) throws Exception {
+        return objectMapper.readTree(texte);
+    }
+}
@@ -0,0 +1,180 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.config.ExecutorConfig;
+import com.pfa.backend.dto.CandidatureDTO;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.entities.StatutCandidature;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.repository.OffreRepository;
+import com.pfa.backend.repository.RecruteurRepository;
+import com.pfa.backend.scoring.CandidatFeatures;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import com.pfa.backend.support.CollaborateursSimules;
+import com.pfa.backend.support.PostgresEmbarque;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+/**
+ * Postuler en différé : la candidature est enregistrée sans score, puis notée par les workers de la
+ * file (FOR UPDATE SKIP LOCKED, d'où PostgreSQL embarqué plutôt que H2).
+ */
+@PostgresEmbarque
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CandidatureService.class, FileScoringService.class, ExecutorConfig.class,
+        JacksonAutoConfiguration.class, SimpleMeterRegistry.class, CollaborateursSimules.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FileScoringTests {
+
+    @Autowired
+    private CandidatureService candidatureService;
+
+    @Autowired
+    private OffreRepository offreRepository;
+
+    @Autowired
+    private RecruteurRepository recruteurRepository;
+
+    @Autowired
+    private CandidatRepository candidatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FileScoringService fileScoringService;
+
+    @Autowired
+    private SkillVocabulary skillVocabulary;
+
+    @Autowired
+    private ScoringEngineRegistry scoringEngineRegistry;
+
+    private Long offreId;
+
+    @BeforeEach
+    void creerOffre() {
+        when(skillVocabulary.encoder(any())).thenReturn(new int[0]);
+        when(scoringEngineRegistry.versionActive()).thenReturn("v1");
+
+        Recruteur recruteur = new Recruteur();
+        recruteur.setNom("Alaoui");
+        recruteur.setPrenom("Sara");
+        recruteur.setEmail("sara" + System.nanoTime() + "@entreprise.ma");
+        recruteur.setMotDePasse("secret");
+        recruteur.setEntreprise("Entreprise");
+        recruteurRepository.save(recruteur);
+
+        Offre offre = new Offre();
+        offre.setTitre("Développeur Java");
+        offre.setTypeContrat("CDI");
+        offre.setLocalisation("Rabat");
+        offre.setRecruteur(recruteur);
+        offreId = offreRepository.save(offre).getId();
+    }
+
+    @Test
+    void candidatureNoteeApresLeCommit() throws Exception {
+        when(scoringEngineRegistry.score(any(), any())).thenReturn(87.0);
+
+        CandidatureDTO deposee = candidatureService.postulerEnDiffere(offreId, nouveauCandidat(), "Motivé", null);
+
+        assertEquals(StatutCandidature.EN_ATTENTE, deposee.getStatut());
+        assertNull(deposee.getScoreMatching());
+        attendre(() -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM file_scoring WHERE candidature_id = ?", Integer.class, deposee.getId()) == 0);
+
+        Map<String, Object> ligne = jdbcTemplate.queryForMap(
+                "SELECT score_matching, version_scoring FROM candidatures WHERE id = ?", deposee.getId());
+        assertEquals(87.0, ligne.get("score_matching"));
+        assertEquals("v1", ligne.get("version_scoring"));
+        assertEquals(1, offreRepository.findById(offreId).orElseThrow().getNombreCandidatures());
+    }
+
+    @Test
+    void lotEnEchecRemisPlusTard() throws Exception {
+        when(scoringEngineRegistry.score(any(), any())).thenThrow(new IllegalStateException("moteur indisponible"));
+
+        CandidatureDTO deposee = candidatureService.postulerEnDiffere(offreId, nouveauCandidat(), "Motivé", null);
+
+        attendre(() -> jdbcTemplate.queryForObject(
+                "SELECT tentatives FROM file_scoring WHERE candidature_id = ?", Integer.class, deposee.getId()) == 1);
+        Map<String, Object> tache = jdbcTemplate.queryForMap(
+                "SELECT disponible_a > LOCALTIMESTAMP AS reportee, derniere_erreur FROM file_scoring " +
+                        "WHERE candidature_id = ?", deposee.getId());
+        assertTrue((Boolean) tache.get("reportee"));
+        assertNotNull(tache.get("derniere_erreur"));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT score_matching FROM candidatures WHERE id = ?", Double.class, deposee.getId()));
+    }
+
+    @Test
+    void seuleLaCandidatureFautiveEstReportee() throws Exception {
+        when(scoringEngineRegistry.score(any(), any())).thenReturn(50.0);
+        Long fautif = nouveauCandidat();
+        Long saineId = candidatureService.postuler(offreId, nouveauCandidat(), "Motivé", null).getId();
+        Long fautiveId = candidatureService.postuler(offreId, fautif, "Motivé", null).getId();
+        jdbcTemplate.update("UPDATE candidatures SET score_matching = NULL WHERE id IN (?, ?)", saineId, fautiveId);
+        // Même lot : insérées directement, sans réveiller les workers
+        jdbcTemplate.update("INSERT INTO file_scoring (candidature_id) VALUES (?), (?)", saineId, fautiveId);
+        when(scoringEngineRegistry.score(any(), any())).thenAnswer(i -> {
+            if (fautif.equals(i.<CandidatFeatures>getArgument(1).getCandidatId())) {
+                throw new IllegalStateException("profil illisible");
+            }
+            return 70.0;
+        });
+
+        fileScoringService.traiterLot();
+
+        assertEquals(70.0, jdbcTemplate.queryForObject(
+                "SELECT score_matching FROM candidatures WHERE id = ?", Double.class, saineId));
+        assertEquals(List.of(1), jdbcTemplate.queryForList(
+                "SELECT tentatives FROM file_scoring WHERE candidature_id IN (?, ?)", Integer.class, saineId, fautiveId));
+
+        // Abandonnée après tentatives-max échecs, puis relancée à la demande
+        jdbcTemplate.update("UPDATE file_scoring SET tentatives = 5 WHERE candidature_id = ?", fautiveId);
+        doReturn(70.0).when(scoringEngineRegistry).score(any(), any());
+        assertEquals(1, fileScoringService.relancerAbandonnees());
+        attendre(() -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM file_scoring WHERE candidature_id = ?", Integer.class, fautiveId) == 0);
+    }
+
+    private Long nouveauCandidat() {
+        CandidateProfile candidat = new CandidateProfile();
+        candidat.setNom("Bennani");
+        candidat.setEmail("omar" + System.nanoTime() + "@mail.ma");
+        return candidatRepository.save(candidat).getId();
+    }
+
+    private static void attendre(BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "Délai dépassé");
+            Thread.sleep(50);
+        }
+    }
+}
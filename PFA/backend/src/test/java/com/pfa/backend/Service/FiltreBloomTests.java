@@ -0,0 +1,29 @@
+package com.pfa.backend.Service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Aucun faux négatif, et un taux de faux positifs tenu même bien au-delà de la capacité initiale.
+ */
+class FiltreBloomTests {
+
+    @Test
+    void pasDeFauxNegatifEtTauxBorneApresExtension() {
+        FiltreBloom filtre = new FiltreBloom(256, 0.01);
+        for (long id = 1; id <= 20_000; id++) {
+            filtre.ajouter(id * 7);
+        }
+        for (long id = 1; id <= 20_000; id++) {
+            assertTrue(filtre.peutContenir(id * 7));
+        }
+
+        int fauxPositifs = 0;
+        int essais = 100_000;
+        for (long id = 1; id <= essais; id++) {
+            if (filtre.peutContenir(id * 7 + 3)) fauxPositifs++;
+        }
+        assertTrue(fauxPositifs < essais * 0.02, "faux positifs : " + fauxPositifs);
+    }
+}
@@ -0,0 +1,181 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.dto.FormatFichier;
+import com.pfa.backend.dto.RapportImportDTO;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.scoring.CandidatSkillIndex;
+import com.pfa.backend.scoring.CandidatSkillIndex.CandidatClasse;
+import com.pfa.backend.scoring.OffreFeatures;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.ScoringEngineV1;
+import com.pfa.backend.scoring.SkillVocabulary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Import en masse : lots validés un par un, erreurs rapportées par numéro de ligne.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ImportCandidatsService.class, JacksonAutoConfiguration.class, CandidatSkillIndex.class, SkillVocabulary.class,
+        ScoringEngineV1.class, ScoringEngineRegistry.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "import.candidats.taille-lot=3",
+        "import.candidats.erreurs-max=2"
+})
+class ImportCandidatsServiceTests {
+
+    @Autowired
+    private ImportCandidatsService importCandidatsService;
+
+    @Autowired
+    private CandidatRepository candidatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CandidatSkillIndex candidatSkillIndex;
+
+    @Autowired
+    private SkillVocabulary skillVocabulary;
+
+    @BeforeEach
+    void viderTable() {
+        candidatRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void csvImporteParLotsEtRapporteLesLignesInvalides() throws Exception {
+        String csv = "\uFEFFNom;Prénom;Email;Niveau_Etude;Competences\n"
+                + "Alami;Sara;sara@exemple.ma;Master;\"Java; Spring\"\n"
+                + "Bennani;Omar;pas-un-email;Licence;SQL\n"
+                + "\n"
+                + "Chraibi;Nadia;nadia@exemple.ma;Ingénieur;\"Python\n\"\"ML\"\"\"\n"
+                + "Daoudi;Yassine;yassine@exemple.ma;Master;React\n"
+                + ";Sans;nom@exemple.ma;Master;Go\n"
+                + "El Idrissi;Hind;hind@exemple.ma;Doctorat;Rust\n";
+
+        RapportImportDTO rapport = importer(csv, FormatFichier.CSV);
+
+        assertEquals(6, rapport.getLignesLues());
+        assertEquals(4, rapport.getLignesImportees());
+        assertEquals(2, rapport.getLignesRejetees());
+        assertEquals(List.of(3L, 8L), rapport.getErreurs().stream().map(RapportImportDTO.ErreurLigne::getLigne).toList());
+        assertEquals(4, candidatRepository.count());
+
+        CandidateProfile nadia = candidatRepository.findAll().stream()
+                .filter(c -> "Chraibi".equals(c.getNom())).findFirst().orElseThrow();
+        assertEquals("Python\n\"ML\"", nadia.getCompetences());
+        assertEquals("Nadia", nadia.getPrenom());
+        assertEquals("Ingénieur", nadia.getNiveauEtude());
+    }
+
+    @Test
+    void ndjsonAccepteLesTableauxEtPlafonneLesErreurs() throws Exception {
+        String ndjson = "{\"nom\":\"Alami\",\"email\":\"sara@exemple.ma\",\"competences\":[\"Java\",\"SQL\"]}\n"
+                + "{pas du json\n"
+                + "[1, 2]\n"
+                + "{\"nom\":\"Bennani\"}\n"
+                + "{\"nom\":\"Chraibi\",\"email\":\"nadia@exemple.ma\",\"cv_url\":\"http://cv/1\"}\n";
+
+        RapportImportDTO rapport = importer(ndjson, FormatFichier.NDJSON);
+
+        assertEquals(5, rapport.getLignesLues());
+        assertEquals(2, rapport.getLignesImportees());
+        assertEquals(3, rapport.getLignesRejetees());
+        assertEquals(2, rapport.getErreurs().size());
+        assertEquals(true, rapport.isErreursTronquees());
+        assertEquals("Java, SQL", candidatRepository.findAll().stream()
+                .filter(c -> "Alami".equals(c.getNom())).findFirst().orElseThrow().getCompetences());
+    }
+
+    @Test
+    void lotRefuseParLaBaseEstReprisLigneParLigne() throws Exception {
+        // Ligne valide pour l'import mais refusée par la base, au milieu d'un lot de 3
+        jdbcTemplate.execute("ALTER TABLE candidats ADD CONSTRAINT chk_test_nom CHECK (nom <> 'Refuse')");
+        try {
+            String csv = "nom,email\n"
+                    + "Alami,sara@exemple.ma\n"
+                    + "Refuse,omar@exemple.ma\n"
+                    + "Chraibi,nadia@exemple.ma\n"
+                    + "Daoudi,yassine@exemple.ma\n";
+
+            RapportImportDTO rapport = importer(csv, FormatFichier.CSV);
+
+            assertEquals(3, rapport.getLignesImportees());
+            assertEquals(1, rapport.getLignesRejetees());
+            assertEquals(List.of(3L), rapport.getErreurs().stream().map(RapportImportDTO.ErreurLigne::getLigne).toList());
+            assertTrue(rapport.getErreurs().get(0).getMessage().toUpperCase().contains("CHK_TEST_NOM"));
+            assertEquals(3, candidatRepository.count());
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE candidats DROP CONSTRAINT chk_test_nom");
+        }
+    }
+
+    @Test
+    void lignesImporteesIndexeesApresLeCommitDeLeurLot() throws Exception {
+        jdbcTemplate.execute("ALTER TABLE candidats ADD CONSTRAINT chk_test_nom CHECK (nom <> 'Refuse')");
+        try {
+            // Deux lots de 3 : le premier passe d'un bloc, le second est repris ligne par ligne
+            String csv = "nom,email,competences\n"
+                    + "Alami,sara@exemple.ma,Fortran\n"
+                    + "Bennani,omar@exemple.ma,Fortran\n"
+                    + "Chraibi,nadia@exemple.ma,Fortran\n"
+                    + "Daoudi,yassine@exemple.ma,Fortran\n"
+                    + "Refuse,refuse@exemple.ma,Fortran\n"
+                    + "El Idrissi,hind@exemple.ma,Fortran\n";
+
+            importer(csv, FormatFichier.CSV);
+
+            Set<Long> indexes = candidatSkillIndex.meilleursCandidats(
+                            OffreFeatures.of(1L, "", "", "Fortran", skillVocabulary), 10).stream()
+                    .map(CandidatClasse::getCandidatId)
+                    .collect(Collectors.toSet());
+            // La ligne refusée n'a jamais été validée : elle n'est pas dans l'index
+            assertEquals(candidatRepository.findAll().stream().map(CandidateProfile::getId).collect(Collectors.toSet()),
+                    indexes);
+            assertEquals(5, indexes.size());
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE candidats DROP CONSTRAINT chk_test_nom");
+        }
+    }
+
+    @Test
+    void enteteSansEmailEstRefuse() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importer("nom,prenom\nAlami,Sara\n", FormatFichier.CSV));
+    }
+
+    private RapportImportDTO importer(String contenu, FormatFichier format) throws Exception {
+        return importCandidatsService.importer(
+                new ByteArrayInputStream(contenu.getBytes(StandardCharsets.UTF_8)), format);
+    }
+}
@@ -0,0 +1,210 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.Service.MatchMatrixJob.RapportMatrice;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.entities.StatutOffre;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.repository.OffreRepository;
+import com.pfa.backend.repository.RecruteurRepository;
+import com.pfa.backend.scoring.CandidatFeatures;
+import com.pfa.backend.scoring.OffreFeatures;
+import com.pfa.backend.scoring.ScoringEngine;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import com.pfa.backend.support.CollaborateursSimules;
+import com.pfa.backend.support.PostgresEmbarque;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Campagne de matching : top-k par offre active et par candidat, candidats lus par morceaux (3 ici)
+ * et scorés en parallèle ; la campagne précédente n'est retirée qu'une fois la nouvelle écrite.
+ */
+@PostgresEmbarque
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({MatchMatrixJob.class, CollaborateursSimules.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "matching.matrix.top-k=2",
+        "matching.matrix.chunk-size=3",
+        "matching.matrix.parallelism=2"
+})
+class MatchMatrixJobTests {
+
+    private static final int K = 2;
+
+    @Autowired
+    private MatchMatrixJob matchMatrixJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecruteurRepository recruteurRepository;
+
+    @Autowired
+    private OffreRepository offreRepository;
+
+    @Autowired
+    private CandidatRepository candidatRepository;
+
+    @Autowired
+    private SkillVocabulary skillVocabulary;
+
+    @Autowired
+    private ScoringEngineRegistry scoringEngineRegistry;
+
+    private final List<Long> offresActives = new ArrayList<>();
+    private final List<Long> candidats = new ArrayList<>();
+
+    @BeforeEach
+    void creerVivier() {
+        when(skillVocabulary.encoder(any())).thenReturn(new int[0]);
+        jdbcTemplate.update("DELETE FROM suggestions_matching");
+        jdbcTemplate.update("DELETE FROM candidats");
+        offresActives.clear();
+        candidats.clear();
+
+        Recruteur recruteur = new Recruteur();
+        recruteur.setNom("Alaoui");
+        recruteur.setPrenom("Sara");
+        recruteur.setEmail("sara" + System.nanoTime() + "@entreprise.ma");
+        recruteur.setMotDePasse("secret");
+        recruteur.setEntreprise("Entreprise");
+        recruteurRepository.save(recruteur);
+
+        jdbcTemplate.update("UPDATE offres SET statut = ?", StatutOffre.FERMEE.getCode());
+        for (int o = 0; o < 3; o++) {
+            offresActives.add(nouvelleOffre(recruteur, StatutOffre.ACTIVE));
+        }
+        nouvelleOffre(recruteur, StatutOffre.BROUILLON);
+        for (int c = 0; c < 7; c++) {
+            CandidateProfile candidat = new CandidateProfile();
+            candidat.setNom("Bennani");
+            candidat.setEmail("omar" + System.nanoTime() + "@mail.ma");
+            candidats.add(candidatRepository.save(candidat).getId());
+        }
+    }
+
+    @Test
+    void topKEcritsEtCampagnePrecedenteRemplacee() {
+        when(scoringEngineRegistry.actif()).thenReturn(moteur(null));
+        jdbcTemplate.update("INSERT INTO suggestions_matching (campagne, sens, offre_id, candidat_id, score, rang) "
+                + "VALUES (1, 'OFFRE', ?, ?, 1.0, 1)", offresActives.get(0), candidats.get(0));
+
+        RapportMatrice rapport = matchMatrixJob.executer();
+
+        assertEquals(3, rapport.getOffres());
+        assertEquals(7, rapport.getCandidats());
+        assertEquals(21, rapport.getPaires());
+        assertEquals(List.of(rapport.getCampagne()), jdbcTemplate.queryForList(
+                "SELECT DISTINCT campagne FROM suggestions_matching", Long.class));
+        assertSuggestionsAttendues();
+
+        // Relancée : la nouvelle campagne remplace l'ancienne, sans doublon
+        RapportMatrice suivante = matchMatrixJob.executer();
+        assertEquals(List.of(suivante.getCampagne()), jdbcTemplate.queryForList(
+                "SELECT DISTINCT campagne FROM suggestions_matching", Long.class));
+        assertSuggestionsAttendues();
+    }
+
+    @Test
+    void campagneEnEchecLaissePrecedenteEnPlace() {
+        when(scoringEngineRegistry.actif()).thenReturn(moteur(null));
+        long precedente = matchMatrixJob.executer().getCampagne();
+        int lignes = compter(precedente);
+
+        // Échec au deuxième morceau : le premier a déjà écrit ses suggestions par candidat
+        when(scoringEngineRegistry.actif()).thenReturn(moteur(candidats.get(4)));
+        assertThrows(IllegalStateException.class, () -> matchMatrixJob.executer());
+        assertEquals(lignes, compter(precedente));
+
+        // Les restes de la campagne avortée partent avec la suivante
+        when(scoringEngineRegistry.actif()).thenReturn(moteur(null));
+        long suivante = matchMatrixJob.executer().getCampagne();
+        assertEquals(List.of(suivante), jdbcTemplate.queryForList(
+                "SELECT DISTINCT campagne FROM suggestions_matching", Long.class));
+        assertSuggestionsAttendues();
+    }
+
+    private void assertSuggestionsAttendues() {
+        for (Long offreId : offresActives) {
+            assertEquals(meilleurs(candidats, c -> score(offreId, c)), jdbcTemplate.queryForList(
+                    "SELECT candidat_id FROM suggestions_matching WHERE sens = 'OFFRE' AND offre_id = ? ORDER BY rang",
+                    Long.class, offreId));
+        }
+        for (Long candidatId : candidats) {
+            assertEquals(meilleurs(offresActives, o -> score(o, candidatId)), jdbcTemplate.queryForList(
+                    "SELECT offre_id FROM suggestions_matching WHERE sens = 'CANDIDAT' AND candidat_id = ? ORDER BY rang",
+                    Long.class, candidatId));
+        }
+        assertEquals(List.of(1, 2), jdbcTemplate.queryForList(
+                "SELECT DISTINCT rang FROM suggestions_matching ORDER BY rang", Integer.class));
+    }
+
+    // Tri complet de référence : score décroissant, puis identifiant croissant
+    private static List<Long> meilleurs(List<Long> ids, ToDoubleFunction<Long> score) {
+        return ids.stream()
+                .sorted(Comparator.comparingDouble(score).reversed().thenComparing(Comparator.naturalOrder()))
+                .limit(K)
+                .toList();
+    }
+
+    // Quatre valeurs seulement : nombreuses égalités entre candidats d'une offre et offres d'un candidat
+    private static double score(long offreId, long candidatId) {
+        return ((offreId * 3 + candidatId) % 4) / 4.0;
+    }
+
+    private static ScoringEngine moteur(Long candidatEnEchec) {
+        return new ScoringEngine() {
+            @Override
+            public String getVersion() {
+                return "test";
+            }
+
+            @Override
+            public double score(OffreFeatures offre, CandidatFeatures candidat) {
+                if (candidat.getCandidatId().equals(candidatEnEchec)) {
+                    throw new IllegalStateException("profil illisible");
+                }
+                return MatchMatrixJobTests.score(offre.getOffreId(), candidat.getCandidatId());
+            }
+        };
+    }
+
+    private int compter(long campagne) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM suggestions_matching WHERE campagne = ?", Integer.class, campagne);
+    }
+
+    private Long nouvelleOffre(Recruteur recruteur, StatutOffre statut) {
+        Offre offre = new Offre();
+        offre.setTitre("Développeur Java");
+        offre.setTypeContrat("CDI");
+        offre.setLocalisation("Rabat");
+        offre.setStatut(statut);
+        offre.setRecruteur(recruteur);
+        return offreRepository.save(offre).getId();
+    }
+}
@@ -0,0 +1,191 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.event.EvenementOutbox;
+import com.pfa.backend.event.PuitsEvenements;
+import com.pfa.backend.exception.TransitionStatutInvalideException;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.repository.OffreRepository;
+import com.pfa.backend.repository.RecruteurRepository;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import com.pfa.backend.support.CollaborateursSimules;
+import com.pfa.backend.support.PostgresEmbarque;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Les événements sont écrits avec la modification, livrés dans l'ordre, et rejoués si un puits échoue.
+ * Les jauges de la file sont mesurées par la boucle de distribution, pas par leur lecture.
+ */
+@PostgresEmbarque
+@TestPropertySource(properties = "outbox.mesure-intervalle-ms=0")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CandidatureService.class, OutboxService.class, OutboxDispatcher.class, OutboxTests.Puits.class,
+        JacksonAutoConfiguration.class, SimpleMeterRegistry.class, CollaborateursSimules.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxTests {
+
+    @Autowired
+    private CandidatureService candidatureService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private PuitsDeTest puits;
+
+    @Autowired
+    private OffreRepository offreRepository;
+
+    @Autowired
+    private RecruteurRepository recruteurRepository;
+
+    @Autowired
+    private CandidatRepository candidatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SkillVocabulary skillVocabulary;
+
+    @Autowired
+    private ScoringEngineRegistry scoringEngineRegistry;
+
+    private Long offreId;
+    private Long candidatId;
+
+    @TestConfiguration
+    static class Puits {
+        @Bean
+        PuitsDeTest puitsDeTest() {
+            return new PuitsDeTest();
+        }
+    }
+
+    static class PuitsDeTest implements PuitsEvenements {
+        final List<EvenementOutbox> recus = new ArrayList<>();
+        boolean enPanne;
+
+        @Override
+        public String nom() {
+            return "test";
+        }
+
+        @Override
+        public void envoyer(List<EvenementOutbox> lot) {
+            if (enPanne) throw new IllegalStateException("puits indisponible");
+            recus.addAll(lot);
+        }
+    }
+
+    @BeforeEach
+    void preparer() {
+        when(skillVocabulary.encoder(any())).thenReturn(new int[0]);
+        when(scoringEngineRegistry.versionActive()).thenReturn("v1");
+        when(scoringEngineRegistry.score(any(), any())).thenReturn(50.0);
+        jdbcTemplate.update("DELETE FROM outbox");
+        puits.recus.clear();
+        puits.enPanne = false;
+
+        Recruteur recruteur = new Recruteur();
+        recruteur.setNom("Alaoui");
+        recruteur.setPrenom("Sara");
+        recruteur.setEmail("sara" + System.nanoTime() + "@entreprise.ma");
+        recruteur.setMotDePasse("secret");
+        recruteur.setEntreprise("Entreprise");
+        recruteurRepository.save(recruteur);
+
+        Offre offre = new Offre();
+        offre.setTitre("Développeur Java");
+        offre.setTypeContrat("CDI");
+        offre.setLocalisation("Rabat");
+        offre.setRecruteur(recruteur);
+        offreId = offreRepository.save(offre).getId();
+
+        CandidateProfile candidat = new CandidateProfile();
+        candidat.setNom("Bennani");
+        candidat.setEmail("omar" + System.nanoTime() + "@mail.ma");
+        candidatId = candidatRepository.save(candidat).getId();
+    }
+
+    @Test
+    void evenementsLivresDansLOrdreDesModifications() {
+        Long id = candidatureService.postuler(offreId, candidatId, "Motivé", null).getId();
+        candidatureService.mettreEnInterview(id, null);
+        candidatureService.accepterCandidature(id, "Bienvenue");
+        // Transition refusée : la transaction est annulée, son événement avec elle
+        assertThrows(TransitionStatutInvalideException.class, () -> candidatureService.refuserCandidature(id, null));
+
+        assertEquals(3, outboxDispatcher.distribuer());
+
+        assertEquals(List.of("CANDIDATURE_DEPOSEE", "CANDIDATURE_STATUT_MODIFIE", "CANDIDATURE_STATUT_MODIFIE"),
+                puits.recus.stream().map(EvenementOutbox::getType).toList());
+        EvenementOutbox acceptee = puits.recus.get(2);
+        assertEquals(id, acceptee.getAgregatId());
+        assertEquals("ACCEPTEE", acceptee.getCharge().get("statut").asText());
+        assertEquals(offreId, acceptee.getCharge().get("offreId").asLong());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox", Integer.class));
+    }
+
+    @Test
+    void lotRejoueApresUnEchecDuPuits() {
+        candidatureService.postuler(offreId, candidatId, "Motivé", null);
+        puits.enPanne = true;
+
+        assertEquals(0, outboxDispatcher.distribuer());
+
+        Map<String, Object> evenement = jdbcTemplate.queryForMap(
+                "SELECT tentatives, disponible_a > LOCALTIMESTAMP AS reporte FROM outbox");
+        assertEquals(1, evenement.get("tentatives"));
+        assertTrue((Boolean) evenement.get("reporte"));
+
+        // Jauges : valeur de la dernière passe, inchangée par une écriture tant qu'aucune passe ne remesure
+        outboxDispatcher.relever();
+        assertEquals(1.0, meterRegistry.get("outbox.taille").gauge().value());
+        assertTrue(meterRegistry.get("outbox.retard").gauge().value() >= 0);
+        jdbcTemplate.update("INSERT INTO outbox (type, agregat_id, charge, disponible_a) " +
+                "VALUES ('TEST', 0, '{}', LOCALTIMESTAMP + interval '1 hour')");
+        assertEquals(1.0, meterRegistry.get("outbox.taille").gauge().value());
+        outboxDispatcher.relever();
+        assertEquals(2.0, meterRegistry.get("outbox.taille").gauge().value());
+        jdbcTemplate.update("DELETE FROM outbox WHERE type = 'TEST'");
+
+        // Pas de nouvel essai avant l'échéance, puis livraison
+        puits.enPanne = false;
+        assertEquals(0, outboxDispatcher.distribuer());
+        jdbcTemplate.update("UPDATE outbox SET disponible_a = LOCALTIMESTAMP");
+        assertEquals(1, outboxDispatcher.distribuer());
+        assertEquals(1, puits.recus.size());
+    }
+}
@@ -0,0 +1,38 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.event.OffreFermeeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Le filtre d'une offre fermée est libéré : la mémoire ne suit que les offres ouvertes.
+ */
+class RegistreCandidaturesTests {
+
+    @Test
+    void filtreLibereALaFermetureDeLOffre() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RegistreCandidatures registre = new RegistreCandidatures(mock(JdbcTemplate.class), meterRegistry, 256, 0.01);
+        registre.construire();
+        registre.ajouter(1L, 10L);
+        registre.ajouter(2L, 20L);
+
+        assertTrue(registre.aDejaPostule(1L, 10L, () -> true));
+        assertEquals(2.0, meterRegistry.get("candidatures.precontrole.offres").gauge().value());
+
+        registre.onOffreFermee(new OffreFermeeEvent(1L));
+
+        assertEquals(1.0, meterRegistry.get("candidatures.precontrole.offres").gauge().value());
+        // Plus de filtre : absent sans requête, la contrainte unique tranche un éventuel doublon
+        assertFalse(registre.aDejaPostule(1L, 10L, () -> fail("pas de requête attendue")));
+        assertTrue(registre.aDejaPostule(2L, 20L, () -> true));
+    }
+}
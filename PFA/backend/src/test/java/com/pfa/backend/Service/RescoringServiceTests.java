@@ -0,0 +1,287 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.config.ExecutorConfig;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Candidature;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.entities.StatutCandidature;
+import com.pfa.backend.event.OffreModifieeEvent;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.repository.CandidatureRepository;
+import com.pfa.backend.repository.OffreRepository;
+import com.pfa.backend.repository.RecruteurRepository;
+import com.pfa.backend.scoring.CandidatFeatures;
+import com.pfa.backend.scoring.OffreFeatures;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import com.pfa.backend.support.CollaborateursSimules;
+import com.pfa.backend.support.PostgresEmbarque;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Re-scoring de fond : une offre ou un profil modifié re-score exactement ses candidatures, une fois,
+ * par un UPDATE JDBC en batch qui incrémente la version ; les triggers (version, rollups) voient ces
+ * écritures comme celles d'Hibernate. Un seul worker, pour rendre la coalescence observable.
+ */
+@PostgresEmbarque
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RescoringService.class, CandidatService.class, ExecutorConfig.class, SimpleMeterRegistry.class,
+        CollaborateursSimules.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "rescoring.workers=1")
+class RescoringServiceTests {
+
+    private static final String UPDATE_SCORES = "UPDATE candidatures SET score_matching = ?";
+
+    @Autowired
+    private RescoringService rescoringService;
+
+    @Autowired
+    private CandidatService candidatService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @SpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecruteurRepository recruteurRepository;
+
+    @Autowired
+    private OffreRepository offreRepository;
+
+    @Autowired
+    private CandidatRepository candidatRepository;
+
+    @Autowired
+    private CandidatureRepository candidatureRepository;
+
+    @Autowired
+    private SkillVocabulary skillVocabulary;
+
+    @Autowired
+    private ScoringEngineRegistry scoringEngineRegistry;
+
+    // Paires (offre, candidat) passées au moteur, dans l'ordre
+    private final ConcurrentLinkedQueue<List<Long>> scorees = new ConcurrentLinkedQueue<>();
+
+    private Long offreA;
+    private Long offreB;
+    private Long candidat1;
+    private Long candidat2;
+    private Long candidat3;
+
+    @BeforeEach
+    void creerCandidatures() {
+        when(skillVocabulary.encoder(any())).thenReturn(new int[0]);
+        when(scoringEngineRegistry.versionActive()).thenReturn("v1");
+        scorees.clear();
+
+        Recruteur recruteur = new Recruteur();
+        recruteur.setNom("Alaoui");
+        recruteur.setPrenom("Sara");
+        recruteur.setEmail("sara" + System.nanoTime() + "@entreprise.ma");
+        recruteur.setMotDePasse("secret");
+        recruteur.setEntreprise("Entreprise");
+        recruteurRepository.save(recruteur);
+
+        offreA = nouvelleOffre(recruteur);
+        offreB = nouvelleOffre(recruteur);
+        candidat1 = nouveauCandidat();
+        candidat2 = nouveauCandidat();
+        candidat3 = nouveauCandidat();
+        postuler(offreA, candidat1);
+        postuler(offreA, candidat2);
+        postuler(offreB, candidat1);
+        postuler(offreB, candidat3);
+    }
+
+    @Test
+    void offreModifieeRescoreSesSeulesCandidatures() throws Exception {
+        scorer(60.0);
+        Map<Long, Long> versionsAvant = versions();
+
+        transactionTemplate.executeWithoutResult(s -> eventPublisher.publishEvent(new OffreModifieeEvent(offreA)));
+
+        attendre(() -> scoresDe(offreA).equals(List.of(60.0, 60.0)));
+        assertEquals(List.of(List.of(offreA, candidat1), List.of(offreA, candidat2)), List.copyOf(scorees));
+        assertEquals(List.of(10.0, 10.0), scoresDe(offreB));
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith(UPDATE_SCORES), argThat((List<Object[]> l) -> l.size() == 2));
+        assertVersionsIncrementees(versionsAvant, offreA);
+
+        // Histogramme des scores (dimension 2) tenu par le trigger : les deux candidatures ont changé de case
+        assertEquals(Map.of(60, 2L), casesDe(offreA));
+        assertEquals(0, new BigDecimal("120").compareTo(jdbcTemplate.queryForObject(
+                "SELECT sum(somme) FROM rollups_candidatures WHERE offre_id = ? AND dimension = 2",
+                BigDecimal.class, offreA)));
+        assertEquals(Map.of(10, 2L), casesDe(offreB));
+    }
+
+    @Test
+    void profilModifieRescoreSesCandidaturesDansChaqueOffre() throws Exception {
+        scorer(40.0);
+        Map<Long, Long> versionsAvant = versions();
+
+        CandidateProfile donnees = candidatRepository.findById(candidat1).orElseThrow();
+        donnees.setCompetences("Java, Spring");
+        candidatService.updateCandidat(candidat1, donnees);
+
+        attendre(() -> scorees.size() == 2 && scoreDe(offreB, candidat1) == 40.0);
+        assertEquals(2, scorees.stream().distinct().count());
+        assertTrue(scorees.containsAll(List.of(List.of(offreA, candidat1), List.of(offreB, candidat1))));
+        assertEquals(40.0, scoreDe(offreA, candidat1));
+        assertEquals(10.0, scoreDe(offreA, candidat2));
+        assertEquals(10.0, scoreDe(offreB, candidat3));
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith(UPDATE_SCORES), anyList());
+        assertVersionsIncrementees(versionsAvant, null);
+    }
+
+    @Test
+    void demandesEnAttenteCoalesceesEtScoresInchangesNonReecrits() throws Exception {
+        CountDownLatch liberation = new CountDownLatch(1);
+        when(scoringEngineRegistry.score(any(), any())).thenAnswer(i -> {
+            Long offreId = i.<OffreFeatures>getArgument(0).getOffreId();
+            scorees.add(List.of(offreId, i.<CandidatFeatures>getArgument(1).getCandidatId()));
+            // Le seul worker reste sur l'offre B tant que le test n'a pas tout publié
+            if (offreId.equals(offreB)) liberation.await(10, TimeUnit.SECONDS);
+            return 60.0;
+        });
+        Map<Long, Long> versionsAvant = versions();
+
+        rescoringService.planifierOffre(offreB);
+        attendre(() -> !scorees.isEmpty());
+        for (int i = 0; i < 5; i++) {
+            transactionTemplate.executeWithoutResult(s -> eventPublisher.publishEvent(new OffreModifieeEvent(offreA)));
+        }
+        liberation.countDown();
+
+        attendre(() -> scoresDe(offreA).equals(List.of(60.0, 60.0)));
+        assertEquals(List.of(List.of(offreA, candidat1), List.of(offreA, candidat2)),
+                scorees.stream().filter(p -> p.get(0).equals(offreA)).toList());
+        Map<Long, Long> versionsApres = versions();
+        assertEquals(versionsAvant.keySet(), versionsApres.keySet());
+        versionsAvant.forEach((id, version) -> assertEquals(version + 1, versionsApres.get(id)));
+
+        // Même score, même version de moteur : rien à réécrire
+        assertEquals(2, rescoringService.rescorerOffre(offreA));
+        assertEquals(versionsApres, versions());
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith(UPDATE_SCORES), anyList());
+    }
+
+    private void scorer(double score) {
+        when(scoringEngineRegistry.score(any(), any())).thenAnswer(i -> {
+            scorees.add(List.of(i.<OffreFeatures>getArgument(0).getOffreId(),
+                    i.<CandidatFeatures>getArgument(1).getCandidatId()));
+            return score;
+        });
+    }
+
+    // Version +1 exactement (l'UPDATE l'incrémente, le trigger n'en rajoute pas) pour les candidatures
+    // de l'offre donnée, ou du candidat 1 si null ; inchangée pour les autres
+    private void assertVersionsIncrementees(Map<Long, Long> avant, Long offreId) {
+        List<Long> touchees = offreId != null
+                ? jdbcTemplate.queryForList("SELECT id FROM candidatures WHERE offre_id = ?", Long.class, offreId)
+                : jdbcTemplate.queryForList("SELECT id FROM candidatures WHERE candidat_id = ?", Long.class, candidat1);
+        Map<Long, Long> apres = versions();
+        avant.forEach((id, version) ->
+                assertEquals(touchees.contains(id) ? version + 1 : version, apres.get(id), "candidature " + id));
+    }
+
+    private Map<Long, Long> versions() {
+        Map<Long, Long> versions = new HashMap<>();
+        jdbcTemplate.query("SELECT id, version FROM candidatures WHERE offre_id IN (?, ?)",
+                rs -> { versions.put(rs.getLong("id"), rs.getLong("version")); }, offreA, offreB);
+        return versions;
+    }
+
+    private List<Double> scoresDe(Long offreId) {
+        return jdbcTemplate.queryForList(
+                "SELECT score_matching FROM candidatures WHERE offre_id = ? ORDER BY id", Double.class, offreId);
+    }
+
+    private double scoreDe(Long offreId, Long candidatId) {
+        return jdbcTemplate.queryForObject("SELECT score_matching FROM candidatures WHERE offre_id = ? AND candidat_id = ?",
+                Double.class, offreId, candidatId);
+    }
+
+    private Map<Integer, Long> casesDe(Long offreId) {
+        Map<Integer, Long> cases = new HashMap<>();
+        jdbcTemplate.query("SELECT cle, nombre FROM rollups_candidatures WHERE offre_id = ? AND dimension = 2 AND nombre <> 0",
+                rs -> { cases.put(rs.getInt("cle"), rs.getLong("nombre")); }, offreId);
+        return cases;
+    }
+
+    private Long nouvelleOffre(Recruteur recruteur) {
+        Offre offre = new Offre();
+        offre.setTitre("Développeur Java");
+        offre.setTypeContrat("CDI");
+        offre.setLocalisation("Rabat");
+        offre.setCompetencesRequises("Java");
+        offre.setRecruteur(recruteur);
+        return offreRepository.save(offre).getId();
+    }
+
+    private Long nouveauCandidat() {
+        CandidateProfile candidat = new CandidateProfile();
+        candidat.setNom("Bennani");
+        candidat.setEmail("omar" + System.nanoTime() + "@mail.ma");
+        candidat.setCompetences("Java");
+        return candidatRepository.save(candidat).getId();
+    }
+
+    private void postuler(Long offreId, Long candidatId) {
+        Candidature candidature = new Candidature();
+        candidature.setOffre(offreRepository.getReferenceById(offreId));
+        candidature.setCandidat(candidatRepository.getReferenceById(candidatId));
+        candidature.setStatut(StatutCandidature.EN_ATTENTE);
+        candidature.setScoreMatching(10.0);
+        candidature.setVersionScoring("v1");
+        candidatureRepository.save(candidature);
+    }
+
+    private static void attendre(BooleanSupplier condition) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "Délai dépassé");
+            Thread.sleep(50);
+        }
+    }
+}
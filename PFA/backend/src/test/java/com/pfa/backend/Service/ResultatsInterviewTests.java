@@ -0,0 +1,161 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.dto.ClassementCandidatureDTO;
+import com.pfa.backend.dto.StatistiquesInterviewDTO;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.repository.OffreRepository;
+import com.pfa.backend.repository.RecruteurRepository;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import com.pfa.backend.support.CollaborateursSimules;
+import com.pfa.backend.support.PostgresEmbarque;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Notation d'interview : une ligne par compétence, agrégats et classement par offre calculés en SQL.
+ */
+@PostgresEmbarque
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CandidatureService.class, ResultatsInterviewService.class,
+        JacksonAutoConfiguration.class, SimpleMeterRegistry.class, CollaborateursSimules.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ResultatsInterviewTests {
+
+    @Autowired
+    private CandidatureService candidatureService;
+
+    @Autowired
+    private ResultatsInterviewService resultatsInterviewService;
+
+    @Autowired
+    private OffreRepository offreRepository;
+
+    @Autowired
+    private RecruteurRepository recruteurRepository;
+
+    @Autowired
+    private CandidatRepository candidatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SkillVocabulary skillVocabulary;
+
+    @Autowired
+    private ScoringEngineRegistry scoringEngineRegistry;
+
+    private Long offreId;
+
+    @BeforeEach
+    void creerOffre() {
+        when(skillVocabulary.encoder(any())).thenReturn(new int[0]);
+        when(scoringEngineRegistry.versionActive()).thenReturn("v1");
+
+        Recruteur recruteur = new Recruteur();
+        recruteur.setNom("Alaoui");
+        recruteur.setPrenom("Sara");
+        recruteur.setEmail("sara" + System.nanoTime() + "@entreprise.ma");
+        recruteur.setMotDePasse("secret");
+        recruteur.setEntreprise("Entreprise");
+        recruteurRepository.save(recruteur);
+
+        Offre offre = new Offre();
+        offre.setTitre("Développeur Java");
+        offre.setTypeContrat("CDI");
+        offre.setLocalisation("Rabat");
+        offre.setRecruteur(recruteur);
+        offreId = offreRepository.save(offre).getId();
+    }
+
+    @Test
+    void notationEnregistreeParCompetenceEtRemplaceeALaRenotation() {
+        Long id = postuler("Bennani", 60.0);
+
+        candidatureService.noterInterview(id, "Java:true;SQL:false;Java:false;sans-valeur;Spring Boot: TRUE",
+                "{\"0\": \"Solide\", \"4\": \"  \"}", "RAS");
+
+        List<Map<String, Object>> lignes = jdbcTemplate.queryForList(
+                "SELECT competence, rang, reussi, commentaire FROM resultats_interview " +
+                        "WHERE candidature_id = ? ORDER BY rang", id);
+        assertEquals(3, lignes.size());
+        assertEquals(Map.of("competence", "Java", "rang", 0, "reussi", true, "commentaire", "Solide"),
+                new HashMap<>(lignes.get(0)));
+        assertEquals(false, lignes.get(1).get("reussi"));
+        assertEquals("Spring Boot", lignes.get(2).get("competence"));
+        assertEquals(true, lignes.get(2).get("reussi"));
+        assertNull(lignes.get(2).get("commentaire"));
+
+        // Commentaires illisibles ignorés, anciennes lignes remplacées
+        candidatureService.noterInterview(id, "Docker:false", "pas du json", null);
+        assertEquals(List.of("Docker"), jdbcTemplate.queryForList(
+                "SELECT competence FROM resultats_interview WHERE candidature_id = ?", String.class, id));
+    }
+
+    @Test
+    void statistiquesEtClassementParOffre() {
+        Long alami = postuler("Alami", 90.0);
+        Long bennani = postuler("Bennani", 40.0);
+        Long chraibi = postuler("Chraibi", 70.0);
+        postuler("Daoudi", 95.0);
+
+        candidatureService.noterInterview(alami, "Java:true;SQL:false", null, null);
+        candidatureService.noterInterview(bennani, "Java:true;SQL:true", null, null);
+        candidatureService.noterInterview(chraibi, "Java:false;SQL:false;Docker:true", null, null);
+
+        StatistiquesInterviewDTO statistiques = resultatsInterviewService.getStatistiques(offreId);
+        assertEquals(3, statistiques.getCandidaturesNotees());
+        assertEquals((50.0 + 100.0 + 100.0 / 3) / 3, statistiques.getScoreInterviewMoyen(), 1e-9);
+        assertEquals(List.of("Docker", "Java", "SQL"), statistiques.getCompetences().stream()
+                .map(StatistiquesInterviewDTO.TauxCompetence::getCompetence).toList());
+        StatistiquesInterviewDTO.TauxCompetence java = statistiques.getCompetences().get(1);
+        assertEquals(3, java.getEvaluations());
+        assertEquals(2, java.getReussites());
+        assertEquals(200.0 / 3, java.getTauxReussite(), 1e-9);
+
+        // Candidature non notée (Daoudi) absente ; 50/50 : Alami 70, Bennani 70, Chraibi ~51.7
+        List<ClassementCandidatureDTO> classement = resultatsInterviewService.getClassement(offreId, 0.5, 10);
+        assertEquals(List.of(bennani, alami, chraibi),
+                classement.stream().map(ClassementCandidatureDTO::getCandidatureId).toList());
+        assertEquals(70.0, classement.get(0).getScoreCombine(), 1e-9);
+        assertEquals("Bennani", classement.get(0).getNomCandidat());
+
+        // Matching seul
+        assertEquals(List.of(alami), resultatsInterviewService.getClassement(offreId, 0, 1).stream()
+                .map(ClassementCandidatureDTO::getCandidatureId).toList());
+        assertThrows(IllegalArgumentException.class, () -> resultatsInterviewService.getClassement(offreId, 1.5, 10));
+    }
+
+    private Long postuler(String nom, double score) {
+        when(scoringEngineRegistry.score(any(), any())).thenReturn(score);
+        CandidateProfile candidat = new CandidateProfile();
+        candidat.setNom(nom);
+        candidat.setEmail(nom.toLowerCase() + System.nanoTime() + "@mail.ma");
+        Long candidatId = candidatRepository.save(candidat).getId();
+        return candidatureService.postuler(offreId, candidatId, "Motivé", null).getId();
+    }
+}
@@ -0,0 +1,135 @@
+package com.pfa.backend.Service;
+
+import com.pfa.backend.dto.CandidatSuggereDTO;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.repository.OffreRepository;
+import com.pfa.backend.repository.RecruteurRepository;
+import com.pfa.backend.scoring.CandidatSkillIndex;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.ScoringEngineV1;
+import com.pfa.backend.scoring.SkillVocabulary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sourcing de bout en bout : les profils enregistrés entrent dans l'index après leur commit, le classement
+ * suit le score v1 et seuls les profils encore en base sont renvoyés.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SourcingService.class, CandidatService.class, CandidatSkillIndex.class, SkillVocabulary.class,
+        ScoringEngineV1.class, ScoringEngineRegistry.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sourcing;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class SourcingServiceTests {
+
+    @Autowired
+    private SourcingService sourcingService;
+
+    @Autowired
+    private CandidatService candidatService;
+
+    @Autowired
+    private CandidatRepository candidatRepository;
+
+    @Autowired
+    private OffreRepository offreRepository;
+
+    @Autowired
+    private RecruteurRepository recruteurRepository;
+
+    @Test
+    void profilsClassesParScorePuisIdentifiantEtMisAJourALEnregistrement() {
+        Long offreId = offre("Kotlin, Ktor");
+        Long complet = candidat("Kotlin, Ktor");
+        Long partiel = candidat("Kotlin");
+        Long jumeau = candidat("Ktor; kotlin");
+        Long autre = candidat("Cobol");
+
+        assertEquals(List.of(complet, jumeau, partiel), ids(sourcingService.meilleursCandidats(offreId, 10)));
+        assertEquals(List.of(complet, jumeau), ids(sourcingService.meilleursCandidats(offreId, 2)));
+
+        // Profil modifié : réindexé après le commit de la mise à jour
+        CandidateProfile donnees = candidatRepository.findById(autre).orElseThrow();
+        donnees.setCompetences("Kotlin, Ktor, Docker");
+        candidatService.updateCandidat(autre, donnees);
+        donnees = candidatRepository.findById(partiel).orElseThrow();
+        donnees.setCompetences("Cobol");
+        candidatService.updateCandidat(partiel, donnees);
+
+        List<CandidatSuggereDTO> suggestions = sourcingService.meilleursCandidats(offreId, 10);
+        assertEquals(List.of(complet, jumeau, autre), ids(suggestions));
+        assertEquals("Kotlin, Ktor, Docker", suggestions.get(2).getCompetences());
+        assertEquals(suggestions.get(0).getScoreMatching(), suggestions.get(2).getScoreMatching());
+    }
+
+    @Test
+    void profilSupprimeAbsentDesSuggestions() {
+        Long offreId = offre("Scala, Akka");
+        Long supprime = candidat("Scala, Akka");
+        Long garde = candidat("Scala");
+
+        // Suppression sans événement : l'index le classe encore, le chargement des profils l'écarte
+        candidatRepository.deleteById(supprime);
+
+        List<CandidatSuggereDTO> suggestions = sourcingService.meilleursCandidats(offreId, 10);
+        assertEquals(List.of(garde), ids(suggestions));
+        assertTrue(suggestions.get(0).getScoreMatching() > 0);
+        assertThrows(RuntimeException.class, () -> sourcingService.meilleursCandidats(-1L, 10));
+    }
+
+    private Long offre(String competences) {
+        Recruteur recruteur = new Recruteur();
+        recruteur.setNom("Alaoui");
+        recruteur.setPrenom("Sara");
+        recruteur.setEmail(competences.hashCode() + "@entreprise.ma");
+        recruteur.setMotDePasse("secret");
+        recruteur.setEntreprise("Entreprise");
+        recruteurRepository.save(recruteur);
+
+        Offre offre = new Offre();
+        offre.setTitre("Développeur");
+        offre.setTypeContrat("CDI");
+        offre.setNiveauExperience("Junior");
+        offre.setLocalisation("Rabat");
+        offre.setCompetencesRequises(competences);
+        offre.setRecruteur(recruteur);
+        return offreRepository.save(offre).getId();
+    }
+
+    private Long candidat(String competences) {
+        CandidateProfile candidat = new CandidateProfile();
+        candidat.setNom("Nom");
+        candidat.setPrenom("Prenom");
+        candidat.setEmail(System.nanoTime() + "@mail.ma");
+        candidat.setNiveauEtude("Licence");
+        candidat.setCompetences(competences);
+        return candidatService.createCandidat(candidat).getId();
+    }
+
+    private static List<Long> ids(List<CandidatSuggereDTO> suggestions) {
+        return suggestions.stream().map(CandidatSuggereDTO::getCandidatId).toList();
+    }
+}
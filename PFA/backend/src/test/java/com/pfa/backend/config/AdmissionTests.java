@@ -0,0 +1,55 @@
+package com.pfa.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seau à jetons (rafale puis débit soutenu, par client) et limite de concurrence qui baisse quand la
+ * latence dépasse sa référence.
+ */
+class AdmissionTests {
+
+    private final AtomicLong horloge = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void rafalePuisDebitParClient() {
+        LimiteurDebit limiteur = new LimiteurDebit(2, 3, 100, Duration.ofMinutes(1), horloge::get);
+        for (int i = 0; i < 3; i++) assertEquals(0, limiteur.acquerir("a"));
+        long attente = limiteur.acquerir("a");
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), attente);
+        assertEquals(0, limiteur.acquerir("b"));
+
+        horloge.addAndGet(attente);
+        assertEquals(0, limiteur.acquerir("a"));
+        assertTrue(limiteur.acquerir("a") > 0);
+    }
+
+    @Test
+    void limiteRefuseAuDelaEtBaisseQuandLaLatenceMonte() {
+        LimiteConcurrence limite = new LimiteConcurrence(2, 1, 10, 2.0, horloge::get);
+        LimiteConcurrence.Admission premiere = limite.essayer();
+        LimiteConcurrence.Admission seconde = limite.essayer();
+        assertNotNull(seconde);
+        assertNull(limite.essayer());
+
+        horloge.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        premiere.terminer(false);
+        seconde.terminer(false);
+        assertEquals(0, limite.enCours());
+        assertTrue(limite.limite() > 2);
+
+        double avant = limite.limite();
+        LimiteConcurrence.Admission lente = limite.essayer();
+        horloge.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        lente.terminer(false);
+        assertEquals(avant * 0.9, limite.limite(), 1e-9);
+    }
+}
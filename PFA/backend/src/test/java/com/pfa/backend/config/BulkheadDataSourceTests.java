@@ -0,0 +1,40 @@
+package com.pfa.backend.config;
+
+import com.pfa.backend.exception.BaseSatureeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Le jeton suit la connexion : pris à l'ouverture, rendu une seule fois à la fermeture.
+ */
+class BulkheadDataSourceTests {
+
+    @Test
+    void refuseAuDelaDuPoolEtRendLeJetonALaFermeture() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(i -> mock(Connection.class));
+        BulkheadDataSource bulkhead = new BulkheadDataSource(pool, "test", 1, Duration.ofMillis(50), 10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        bulkhead.bindTo(registry);
+
+        Connection premiere = bulkhead.getConnection();
+        assertEquals(1, registry.get("datasource.bulkhead.actifs").gauge().value());
+        assertThrows(BaseSatureeException.class, bulkhead::getConnection);
+        assertEquals(1, registry.get("datasource.bulkhead.rejets").tag("cause", "delai").functionCounter().count());
+
+        premiere.close();
+        premiere.close();
+        assertEquals(0, registry.get("datasource.bulkhead.actifs").gauge().value());
+        bulkhead.getConnection().close();
+        assertEquals(0, registry.get("datasource.bulkhead.actifs").gauge().value());
+    }
+}
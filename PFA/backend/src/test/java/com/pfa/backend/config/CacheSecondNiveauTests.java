@@ -0,0 +1,118 @@
+package com.pfa.backend.config;
+
+import com.pfa.backend.Service.CandidatureService;
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Offre;
+import com.pfa.backend.entities.Recruteur;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.repository.OffreRepository;
+import com.pfa.backend.repository.RecruteurRepository;
+import com.pfa.backend.scoring.SkillVocabulary;
+import com.pfa.backend.support.CollaborateursSimules;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Les offres relues viennent du cache de second niveau ; une candidature (compteur modifié en SQL)
+ * n'évince que l'offre concernée.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CacheConfig.class, CandidatureService.class, JacksonAutoConfiguration.class, CollaborateursSimules.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache;MODE=PostgreSQL;INIT=CREATE DOMAIN IF NOT EXISTS jsonb AS JSON",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        // Durée de vie de production (quelques secondes) : le test ne doit pas dépendre de sa vitesse
+        "cache.entites.offres.ttl=10m"
+})
+class CacheSecondNiveauTests {
+
+    @Autowired
+    private CandidatureService candidatureService;
+
+    @Autowired
+    private OffreRepository offreRepository;
+
+    @Autowired
+    private RecruteurRepository recruteurRepository;
+
+    @Autowired
+    private CandidatRepository candidatRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterBinder metriquesCacheSecondNiveau;
+
+    @Autowired
+    private SkillVocabulary skillVocabulary;
+
+    @Test
+    void offreRelueDepuisLeCacheEtEvinceeParLeCompteur() {
+        when(skillVocabulary.encoder(any())).thenReturn(new int[0]);
+
+        Recruteur recruteur = new Recruteur();
+        recruteur.setNom("Alaoui");
+        recruteur.setPrenom("Sara");
+        recruteur.setEmail("sara@entreprise.ma");
+        recruteur.setMotDePasse("secret");
+        recruteur.setEntreprise("Entreprise");
+        recruteurRepository.save(recruteur);
+
+        Offre offre = new Offre();
+        offre.setTitre("Développeur Java");
+        offre.setTypeContrat("CDI");
+        offre.setLocalisation("Rabat");
+        offre.setRecruteur(recruteur);
+        Long offreId = offreRepository.save(offre).getId();
+        Offre autre = new Offre();
+        autre.setTitre("Data engineer");
+        autre.setTypeContrat("CDI");
+        autre.setLocalisation("Casablanca");
+        autre.setRecruteur(recruteur);
+        Long autreId = offreRepository.save(autre).getId();
+
+        CandidateProfile candidat = new CandidateProfile();
+        candidat.setNom("Bennani");
+        candidat.setEmail("omar@mail.ma");
+        Long candidatId = candidatRepository.save(candidat).getId();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metriquesCacheSecondNiveau.bindTo(registry);
+        entityManagerFactory.getCache().evictAll();
+
+        offreRepository.findById(offreId).orElseThrow();
+        offreRepository.findById(autreId).orElseThrow();
+        offreRepository.findById(offreId).orElseThrow();
+        assertTrue(entityManagerFactory.getCache().contains(Offre.class, offreId));
+        assertTrue(registry.get("cache.gets").tags("cache", "offres", "result", "hit")
+                .functionCounter().count() >= 1);
+
+        candidatureService.postuler(offreId, candidatId, "Motivé", null);
+
+        assertFalse(entityManagerFactory.getCache().contains(Offre.class, offreId));
+        assertTrue(entityManagerFactory.getCache().contains(Offre.class, autreId));
+        assertEquals(1, offreRepository.findById(offreId).orElseThrow().getNombreCandidatures());
+    }
+}
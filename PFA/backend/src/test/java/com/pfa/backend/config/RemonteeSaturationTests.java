@@ -0,0 +1,89 @@
+package com.pfa.backend.config;
+
+import com.pfa.backend.Service.SourcingService;
+import com.pfa.backend.exception.BaseSatureeError;
+import com.pfa.backend.exception.BaseSatureeException;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.repository.OffreRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Services et repositories appelés pendant une requête : une saturation, même enveloppée, sort en
+ * BaseSatureeError ; hors requête ou pour toute autre exception, rien ne change.
+ */
+class RemonteeSaturationTests {
+
+    private final OffreRepository offreRepository = mock(OffreRepository.class);
+
+    @AfterEach
+    void finDeRequete() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void saturationEnRequeteSortEnErreur() {
+        DataAccessResourceFailureException saturation = saturation();
+        when(offreRepository.findById(1L)).thenThrow(saturation);
+        enRequete();
+
+        BaseSatureeError erreur = assertThrows(BaseSatureeError.class, () -> conseille(offreRepository).findById(1L));
+        assertSame(saturation, erreur.getCause());
+    }
+
+    @Test
+    void serviceConseilleCommeLesRepositories() {
+        // Saturation à l'ouverture de la transaction du service, avant tout appel de repository
+        CannotCreateTransactionException saturation = new CannotCreateTransactionException(
+                "Could not open JPA EntityManager for transaction", new BaseSatureeException("Pool primaire saturé"));
+        when(offreRepository.findById(1L)).thenThrow(saturation);
+        SourcingService service = conseille(new SourcingService(offreRepository, mock(CandidatRepository.class),
+                null, null));
+        enRequete();
+
+        assertSame(saturation, assertThrows(BaseSatureeError.class, () -> service.meilleursCandidats(1L, 10)).getCause());
+    }
+
+    @Test
+    void horsRequeteOuAutreErreurInchangee() {
+        DataAccessResourceFailureException saturation = saturation();
+        when(offreRepository.findById(1L)).thenThrow(saturation);
+        RuntimeException introuvable = new RuntimeException("Offre non trouvée");
+        when(offreRepository.findById(2L)).thenThrow(introuvable);
+
+        // Worker de fond : il garde sa propre reprise sur erreur
+        assertSame(saturation, assertThrows(DataAccessResourceFailureException.class,
+                () -> conseille(offreRepository).findById(1L)));
+
+        enRequete();
+        assertSame(introuvable, assertThrows(RuntimeException.class, () -> conseille(offreRepository).findById(2L)));
+    }
+
+    private static DataAccessResourceFailureException saturation() {
+        return new DataAccessResourceFailureException("Unable to acquire JDBC Connection",
+                new BaseSatureeException("Pool primaire saturé"));
+    }
+
+    private static void enRequete() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T conseille(T cible) {
+        AspectJProxyFactory fabrique = new AspectJProxyFactory(cible);
+        fabrique.setProxyTargetClass(!(cible instanceof OffreRepository));
+        fabrique.addAspect(RemonteeSaturation.class);
+        return (T) fabrique.getProxy();
+    }
+}
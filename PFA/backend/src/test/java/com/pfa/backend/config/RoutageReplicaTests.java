@@ -0,0 +1,144 @@
+package com.pfa.backend.config;
+
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.repository.CandidatRepository;
+import com.pfa.backend.support.BasesDeTest;
+import com.pfa.backend.support.PostgresEmbarque;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deux bases PostgreSQL embarquées, sans réplication entre elles : une ligne présente sur une seule des deux
+ * montre quel pool a servi la transaction. Le retard de la réplique est simulé par une table.
+ */
+@PostgresEmbarque
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({ReplicaDataSourceConfig.class, RoutageReplicaTests.Lecteur.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RoutageReplicaTests {
+
+    private static String urlReplica;
+    private static JdbcTemplate replica;
+
+    @Autowired
+    private CandidatRepository candidatRepository;
+
+    @Autowired
+    private SurveillanceReplica surveillanceReplica;
+
+    @Autowired
+    private Lecteur lecteur;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("dataSourcePrimaire")
+    private DataSource primaire;
+
+    @BeforeAll
+    static void demarrer() {
+        // Le primaire est créé et migré avec le contexte (@PostgresEmbarque, @FlywayDataSource), la réplique ici
+        urlReplica = BasesDeTest.nouvelleBase();
+        replica = new JdbcTemplate(BasesDeTest.migrer(urlReplica));
+        replica.execute("CREATE TABLE retard_simule (secondes double precision NOT NULL)");
+        replica.update("INSERT INTO retard_simule VALUES (0)");
+        replica.update("INSERT INTO candidats (id, nom) VALUES (1000000, 'Sur la réplique')");
+    }
+
+    @DynamicPropertySource
+    static void proprietes(DynamicPropertyRegistry registry) {
+        registry.add("datasource.replica.url", () -> urlReplica);
+        registry.add("datasource.replica.requete-retard", () -> "SELECT secondes FROM retard_simule");
+        registry.add("datasource.replica.retard-max", () -> "5s");
+    }
+
+    @BeforeEach
+    void repliqueAJour() {
+        replica.update("UPDATE retard_simule SET secondes = 0");
+        surveillanceReplica.verifier();
+    }
+
+    @Test
+    void lecturesSurLaRepliqueEcrituresSurLePrimaire() {
+        assertTrue(surveillanceReplica.estDisponible());
+        assertEquals(List.of("Sur la réplique"), lireNoms());
+
+        CandidateProfile candidat = new CandidateProfile();
+        candidat.setNom("Sur le primaire");
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> candidatRepository.save(candidat));
+
+        assertEquals(1, new JdbcTemplate(primaire).queryForObject(
+                "SELECT count(*) FROM candidats WHERE nom = 'Sur le primaire'", Integer.class));
+        assertEquals(List.of("Sur la réplique"), lireNoms());
+    }
+
+    @Test
+    void repliqueEnRetardEcarteeDesLectures() {
+        replica.update("UPDATE retard_simule SET secondes = 60");
+        surveillanceReplica.verifier();
+
+        assertFalse(surveillanceReplica.estDisponible());
+        assertFalse(lireNoms().contains("Sur la réplique"));
+    }
+
+    @Test
+    void lectureSurPrimaireMalgreRepliqueDisponible() {
+        CandidateProfile candidat = new CandidateProfile();
+        candidat.setNom("Tout juste écrit");
+        Long id = new TransactionTemplate(transactionManager).execute(s -> candidatRepository.save(candidat)).getId();
+
+        assertTrue(surveillanceReplica.estDisponible());
+        assertEquals(List.of("Tout juste écrit"), lecteur.surPrimaire(id));
+        // Hors de la méthode annotée, les lectures reviennent sur la réplique
+        assertEquals(List.of(), lecteur.surReplique(id));
+    }
+
+    private List<String> lireNoms() {
+        TransactionTemplate lecture = new TransactionTemplate(transactionManager);
+        lecture.setReadOnly(true);
+        return lecture.execute(s -> candidatRepository.findAll().stream().map(CandidateProfile::getNom).toList());
+    }
+
+    static class Lecteur {
+
+        // Pas de findById : le profil vient d'entrer dans le cache de second niveau
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @LectureSurPrimaire
+        @Transactional(readOnly = true)
+        public List<String> surPrimaire(Long id) {
+            return surReplique(id);
+        }
+
+        @Transactional(readOnly = true)
+        public List<String> surReplique(Long id) {
+            return jdbcTemplate.queryForList("SELECT nom FROM candidats WHERE id = ?", String.class, id);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.pfa.backend.controller;
+
+import com.pfa.backend.Service.CandidatureService;
+import com.pfa.backend.Service.FileScoringService;
+import com.pfa.backend.config.SecurityConfig;
+import com.pfa.backend.entities.Candidature;
+import com.pfa.backend.entities.StatutCandidature;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Écriture perdue face à une modification concurrente (@Version) : 409, pas 404.
+ */
+@WebMvcTest(CandidatureController.class)
+@Import(SecurityConfig.class)
+class ConflitVersionTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private CandidatureService candidatureService;
+
+    @MockBean
+    private RequetesIdempotentes requetesIdempotentes;
+
+    @MockBean
+    private FileScoringService fileScoringService;
+
+    @Test
+    void changementDeStatutConcurrentRenvoie409() throws Exception {
+        when(candidatureService.changerStatutCandidature(eq(1L), eq(StatutCandidature.EN_COURS), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Candidature.class, 1L));
+
+        mvc.perform(patch("/api/recruteur/candidatures/1/statut").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"statut\":\"EN_COURS\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void suppressionConcurrenteRenvoie409() throws Exception {
+        doThrow(new ObjectOptimisticLockingFailureException(Candidature.class, 2L))
+                .when(candidatureService).supprimerCandidature(2L);
+
+        mvc.perform(delete("/api/recruteur/candidatures/2")).andExpect(status().isConflict());
+    }
+}
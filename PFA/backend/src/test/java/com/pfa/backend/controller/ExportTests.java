@@ -0,0 +1,69 @@
+package com.pfa.backend.controller;
+
+import com.pfa.backend.Service.CandidatureService;
+import com.pfa.backend.Service.FileScoringService;
+import com.pfa.backend.config.SecurityConfig;
+import com.pfa.backend.dto.FormatFichier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Le délai asynchrone de l'export ne vaut que pour l'export : le délai par défaut de Spring MVC reste
+ * celui des autres requêtes asynchrones.
+ */
+@WebMvcTest(CandidatureController.class)
+@Import(SecurityConfig.class)
+@TestPropertySource(properties = {
+        "candidatures.export.delai-max=45m",
+        "spring.mvc.async.request-timeout=20s"
+})
+class ExportTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private CandidatureService candidatureService;
+
+    @MockBean
+    private RequetesIdempotentes requetesIdempotentes;
+
+    @MockBean
+    private FileScoringService fileScoringService;
+
+    @Test
+    void exportAvecSonPropreDelai() throws Exception {
+        doAnswer(i -> {
+            i.<OutputStream>getArgument(2).write("id\n1\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(candidatureService).exporterCandidaturesParRecruteur(eq(7L), eq(FormatFichier.CSV), any());
+
+        MvcResult resultat = mvc.perform(get("/api/recruteur/candidatures/recruteur/7/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(45 * 60 * 1000L, resultat.getRequest().getAsyncContext().getTimeout());
+
+        mvc.perform(asyncDispatch(resultat))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id\n1\n"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.pfa.backend.controller;
+
+import com.pfa.backend.Service.OffreService;
+import com.pfa.backend.Service.SourcingService;
+import com.pfa.backend.config.SecurityConfig;
+import com.pfa.backend.dto.EtatRessource;
+import com.pfa.backend.dto.OffreDTO;
+import com.pfa.backend.dto.RessourceVersionnee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET conditionnel d'une offre : le 304 se décide sur l'état lu en base, le 200 porte l'ETag de l'offre
+ * réellement renvoyée, même si le cache de second niveau la sert en retard.
+ */
+@WebMvcTest(OffreController.class)
+@Import(SecurityConfig.class)
+class GetConditionnelTests {
+
+    private static final LocalDateTime MODIFIEE = LocalDateTime.of(2026, 1, 5, 10, 0);
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private OffreService offreService;
+
+    @MockBean
+    private SourcingService sourcingService;
+
+    @Test
+    void etagAJourRenvoie304SansLireLOffre() throws Exception {
+        when(offreService.getEtatOffre(1L)).thenReturn(new EtatRessource("o2-3", MODIFIEE));
+
+        mvc.perform(get("/api/recruteur/offres/1").header(HttpHeaders.IF_NONE_MATCH, "\"o2-3\""))
+                .andExpect(status().isNotModified());
+        verify(offreService, never()).getOffreVersionnee(1L);
+    }
+
+    @Test
+    void corpsEnRetardSurLaBaseServiAvecSonPropreEtag() throws Exception {
+        // La base est en version 2, le cache rend encore la version 1
+        when(offreService.getEtatOffre(1L)).thenReturn(new EtatRessource("o2-3", MODIFIEE));
+        OffreDTO offre = new OffreDTO();
+        offre.setTitre("Titre v1");
+        when(offreService.getOffreVersionnee(1L)).thenReturn(
+                new RessourceVersionnee<>(offre, new EtatRessource("o1-3", MODIFIEE.minusHours(1))));
+
+        MvcResult resultat = mvc.perform(get("/api/recruteur/offres/1").header(HttpHeaders.IF_NONE_MATCH, "\"o0-1\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.titre").value("Titre v1"))
+                .andReturn();
+        assertEquals(List.of("\"o1-3\""), resultat.getResponse().getHeaders(HttpHeaders.ETAG));
+        assertEquals(1, resultat.getResponse().getHeaders(HttpHeaders.LAST_MODIFIED).size());
+
+        // Tant que le cache rend la version 1, le client qui la détient déjà n'a rien de plus à recevoir
+        mvc.perform(get("/api/recruteur/offres/1").header(HttpHeaders.IF_NONE_MATCH, "\"o1-3\""))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,89 @@
+package com.pfa.backend.controller;
+
+import com.pfa.backend.Service.ChecklistService;
+import com.pfa.backend.Service.DashboardService;
+import com.pfa.backend.Service.RecruteurService;
+import com.pfa.backend.Service.ResultatsInterviewService;
+import com.pfa.backend.config.SecurityConfig;
+import com.pfa.backend.dto.EtatRessource;
+import com.pfa.backend.repository.OffreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * If-Match est lu avant tout appel au service : mal formé 400, ETag faible 412 (comparaison forte).
+ */
+@WebMvcTest(RecruteurController.class)
+@Import(SecurityConfig.class)
+class IfMatchTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private RecruteurService recruteurService;
+
+    @MockBean
+    private DashboardService dashboardService;
+
+    @MockBean
+    private ResultatsInterviewService resultatsInterviewService;
+
+    @MockBean
+    private ChecklistService checklistService;
+
+    @MockBean
+    private OffreRepository offreRepository;
+
+    @Test
+    void ifMatchMalFormeRenvoie400() throws Exception {
+        mvc.perform(patch("/api/recruteur/offres/1/checklist").header(HttpHeaders.IF_MATCH, "n'importe quoi")
+                        .contentType("application/json").content("{\"interviewChecklist\":{}}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(patch("/api/recruteur/offres/1/checklist").header(HttpHeaders.IF_MATCH, "\"o3\"")
+                        .contentType("application/merge-patch+json").content("{}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(delete("/api/recruteur/offres/1/checklist").header(HttpHeaders.IF_MATCH, "o3-1"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(checklistService);
+    }
+
+    @Test
+    void ifMatchFaibleRenvoie412() throws Exception {
+        mvc.perform(patch("/api/recruteur/offres/1/checklist").header(HttpHeaders.IF_MATCH, "W/\"o3-1\"")
+                        .contentType("application/json-patch+json").content("[]"))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(delete("/api/recruteur/offres/1/checklist").header(HttpHeaders.IF_MATCH, "W/\"o3-1\""))
+                .andExpect(status().isPreconditionFailed());
+        verifyNoInteractions(checklistService);
+    }
+
+    @Test
+    void ifMatchFortDonneLaVersionAttendue() throws Exception {
+        when(checklistService.fusionner(eq(1L), eq(3L), any()))
+                .thenReturn(new EtatRessource("o4-1", LocalDateTime.now()));
+
+        mvc.perform(patch("/api/recruteur/offres/1/checklist").header(HttpHeaders.IF_MATCH, "\"o3-1\"")
+                        .contentType("application/merge-patch+json").content("{\"a\":1}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+        verify(checklistService).fusionner(eq(1L), eq(3L), any());
+    }
+}
@@ -0,0 +1,66 @@
+package com.pfa.backend.controller;
+
+import com.pfa.backend.Service.CandidatService;
+import com.pfa.backend.Service.ImportCandidatsService;
+import com.pfa.backend.config.SecurityConfig;
+import com.pfa.backend.dto.FormatFichier;
+import com.pfa.backend.dto.RapportImportDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Import en corps brut borné comme un envoi multipart.
+ */
+@WebMvcTest(CandidatController.class)
+@Import(SecurityConfig.class)
+@TestPropertySource(properties = "import.candidats.taille-max-corps=16B")
+class ImportFluxTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private CandidatService candidatService;
+
+    @MockBean
+    private ImportCandidatsService importCandidatsService;
+
+    @Test
+    void corpsTropGrandRenvoie413SansImporter() throws Exception {
+        mvc.perform(post("/api/candidats/import").contentType("text/csv")
+                        .content("nom,email\nAlami,sara@exemple.ma\n"))
+                .andExpect(status().isPayloadTooLarge());
+        verifyNoInteractions(importCandidatsService);
+    }
+
+    @Test
+    void corpsDansLaLimiteEstImporte() throws Exception {
+        when(importCandidatsService.importer(any(), eq(FormatFichier.NDJSON))).thenReturn(new RapportImportDTO());
+        mvc.perform(post("/api/candidats/import").contentType("application/x-ndjson").content("{\"nom\":\"A\"}\n"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void fluxSansLongueurEstCoupeALaLimite() throws Exception {
+        InputStream flux = new FluxBorne(new ByteArrayInputStream(new byte[17]), 16);
+        assertEquals(16, flux.readNBytes(16).length);
+        assertThrows(FluxBorne.TailleDepassee.class, flux::read);
+    }
+}
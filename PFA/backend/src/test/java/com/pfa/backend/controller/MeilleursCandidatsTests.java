@@ -0,0 +1,76 @@
+package com.pfa.backend.controller;
+
+import com.pfa.backend.Service.OffreService;
+import com.pfa.backend.Service.SourcingService;
+import com.pfa.backend.config.SecurityConfig;
+import com.pfa.backend.dto.CandidatSuggereDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sourcing : k borné à [1, 200] (20 par défaut), classement renvoyé tel quel, offre inconnue en 404.
+ */
+@WebMvcTest(OffreController.class)
+@Import(SecurityConfig.class)
+class MeilleursCandidatsTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private OffreService offreService;
+
+    @MockBean
+    private SourcingService sourcingService;
+
+    @Test
+    void classementRenvoyeDansLOrdreDuService() throws Exception {
+        when(sourcingService.meilleursCandidats(1L, 20)).thenReturn(List.of(
+                suggestion(7L, 0.9), suggestion(3L, 0.8), suggestion(5L, 0.8)));
+
+        mvc.perform(get("/api/recruteur/offres/1/meilleurs-candidats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].candidatId").value(contains(7, 3, 5)))
+                .andExpect(jsonPath("$[0].scoreMatching").value(0.9));
+    }
+
+    @Test
+    void kHorsBornesRenvoie400() throws Exception {
+        mvc.perform(get("/api/recruteur/offres/1/meilleurs-candidats").param("k", "0"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/recruteur/offres/1/meilleurs-candidats").param("k", "201"))
+                .andExpect(status().isBadRequest());
+        verify(sourcingService, never()).meilleursCandidats(anyLong(), anyInt());
+    }
+
+    @Test
+    void offreInconnueRenvoie404() throws Exception {
+        when(sourcingService.meilleursCandidats(9L, 200)).thenThrow(new RuntimeException("Offre non trouvée"));
+
+        mvc.perform(get("/api/recruteur/offres/9/meilleurs-candidats").param("k", "200"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static CandidatSuggereDTO suggestion(Long candidatId, double score) {
+        CandidatSuggereDTO dto = new CandidatSuggereDTO();
+        dto.setCandidatId(candidatId);
+        dto.setScoreMatching(score);
+        return dto;
+    }
+}
@@ -0,0 +1,39 @@
+package com.pfa.backend.controller;
+
+import com.pfa.backend.Service.OffreService;
+import com.pfa.backend.Service.SourcingService;
+import com.pfa.backend.config.SecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Un statut inconnu dans l'URL est une erreur du client : 400, pas 500.
+ */
+@WebMvcTest(OffreController.class)
+@Import(SecurityConfig.class)
+class ParametresInvalidesTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private OffreService offreService;
+
+    @MockBean
+    private SourcingService sourcingService;
+
+    @Test
+    void statutInconnuRenvoie400() throws Exception {
+        mvc.perform(get("/api/recruteur/offres/recruteur/1/statut/FOO"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid value for parameter 'statut': FOO"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.pfa.backend.controller;
+
+import com.pfa.backend.Service.OffreService;
+import com.pfa.backend.Service.SourcingService;
+import com.pfa.backend.config.SecurityConfig;
+import com.pfa.backend.exception.BaseSatureeError;
+import com.pfa.backend.exception.BaseSatureeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Une saturation du bulkhead, enveloppée comme le fait JpaTransactionManager puis convertie par
+ * RemonteeSaturation, traverse le catch (RuntimeException) du contrôleur : 503 + Retry-After, pas 404.
+ */
+@WebMvcTest(OffreController.class)
+@Import(SecurityConfig.class)
+class SaturationTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private OffreService offreService;
+
+    @MockBean
+    private SourcingService sourcingService;
+
+    @Test
+    void saturationRenvoie503EtRetryAfter() throws Exception {
+        when(offreService.getEtatOffre(1L)).thenThrow(new BaseSatureeError(new CannotCreateTransactionException(
+                "Could not open JPA EntityManager for transaction", new BaseSatureeException("Pool primaire saturé"))));
+
+        mvc.perform(get("/api/recruteur/offres/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void autreErreurResteUn404() throws Exception {
+        when(offreService.getEtatOffre(2L)).thenThrow(new RuntimeException("Offre non trouvée"));
+
+        mvc.perform(get("/api/recruteur/offres/2")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,199 @@
+package com.pfa.backend.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pfa.backend.support.BasesDeTest;
+import com.pfa.backend.support.PostgresEmbarque;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plans d'exécution des requêtes chaudes sur le schéma Flyway, dans un PostgreSQL embarqué.
+ *
+ * Chaque test vérifie, pour une table de la requête, le type du nœud d'accès et le nom exact de
+ * l'index (plan JSON). enable_seqscan = off : si aucun index ne couvre la requête, le planificateur
+ * n'a pas d'autre choix que le parcours séquentiel. Pour les requêtes triées, enable_sort = off en plus :
+ * sur des volumes de test, un bitmap scan suivi d'un tri resterait moins cher, alors que l'on vérifie
+ * ici que l'index fournit l'ordre demandé (Index Scan, sans tri).
+ * Les requêtes reprennent le SQL généré pour CandidatureRepository et OffreRepository.
+ */
+@PostgresEmbarque
+class IndexPlanTests {
+
+    // Accès par index, bitmap compris
+    private static final Set<String> INDEX = Set.of("Index Scan", "Index Only Scan", "Bitmap Index Scan");
+    // Accès qui rend les lignes dans l'ordre de l'index
+    private static final Set<String> ORDONNE = Set.of("Index Scan", "Index Only Scan");
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void demarrer() {
+        jdbc = new JdbcTemplate(BasesDeTest.nouvelleBaseMigree());
+
+        // Ids explicites : les séquences avancent par pas de 50 (V5)
+        jdbc.update("INSERT INTO recruteurs (id, nom, prenom, email, mot_de_passe, entreprise) " +
+                "SELECT g, 'Nom', 'Prenom', 'r' || g || '@mail.ma', 'x', 'Entreprise' FROM generate_series(1, 50) g");
+        jdbc.update("INSERT INTO offres (id, type_contrat, localisation, statut, date_publication, created_at, " +
+                "updated_at, recruteur_id) SELECT g, 'CDI', 'Rabat', CASE WHEN g % 3 = 0 THEN 1 ELSE 2 END, " +
+                "now(), now() - g * interval '1 hour', now(), 1 + g % 50 FROM generate_series(1, 2000) g");
+        jdbc.update("INSERT INTO candidats (id, nom, competences) SELECT g, 'Candidat' || g, 'Java, SQL' " +
+                "FROM generate_series(1, 5000) g");
+        // Couples (offre, candidat) distincts : contrainte unique de V11
+        jdbc.update("INSERT INTO candidatures (offre_id, candidat_id, statut, score_matching) " +
+                "SELECT 1 + g % 2000, 1 + g / 2000, CASE WHEN g % 4 = 0 THEN 1 ELSE 0 END, " +
+                "CASE WHEN g % 10 = 0 THEN NULL ELSE g % 101 END FROM generate_series(1, 50000) g");
+        jdbc.execute("ANALYZE");
+    }
+
+    @Test
+    void candidaturesParOffreTrieesParScore() {
+        assertAcces(expliquerTriee("SELECT c.id FROM candidatures c JOIN offres o ON o.id = c.offre_id " +
+                "JOIN candidats p ON p.id = c.candidat_id WHERE o.id = 42 " +
+                "ORDER BY coalesce(c.score_matching, -1) DESC, c.id DESC"),
+                "candidatures", ORDONNE, "idx_candidatures_offre_score");
+    }
+
+    @Test
+    void pageDeCandidaturesParOffre() {
+        String plan = expliquerTriee("SELECT c.id FROM candidatures c JOIN offres o ON o.id = c.offre_id " +
+                "JOIN candidats p ON p.id = c.candidat_id WHERE o.id = 42 " +
+                "AND (coalesce(c.score_matching, -1), c.id) < (50.0, 30000) " +
+                "ORDER BY coalesce(c.score_matching, -1) DESC, c.id DESC LIMIT 51");
+        assertAcces(plan, "candidatures", ORDONNE, "idx_candidatures_offre_score");
+        // Le curseur (score, id) doit être une condition d'index, pas un filtre après lecture
+        assertTrue(plan.contains("\"Index Cond\": \"((offre_id = 42) AND (ROW(COALESCE("), plan);
+    }
+
+    @Test
+    void candidaturesParOffreDeriveeTrieeParScore() {
+        // Tri sur score_matching brut : aucun index ne le fournit, seule l'égalité sur offre_id est indexée
+        assertAcces(expliquer("SELECT c.id FROM candidatures c WHERE c.offre_id = 42 " +
+                "ORDER BY c.score_matching DESC"), "candidatures", INDEX,
+                "uk_candidatures_offre_candidat", "idx_candidatures_offre_score", "idx_candidatures_offre_statut");
+    }
+
+    @Test
+    void candidaturesParRecruteurEtStatut() {
+        String plan = expliquer("SELECT c.id FROM candidatures c JOIN offres o ON o.id = c.offre_id " +
+                "JOIN candidats p ON p.id = c.candidat_id WHERE o.recruteur_id = 7 AND c.statut = 1");
+        assertAcces(plan, "offres", INDEX, "idx_offres_recruteur_creation", "idx_offres_recruteur_statut");
+        assertAcces(plan, "candidatures", INDEX, "idx_candidatures_offre_statut");
+    }
+
+    @Test
+    void nouvellesCandidaturesDUneOffre() {
+        assertAcces(expliquerTriee("SELECT c.id FROM candidatures c WHERE c.offre_id = 42 AND c.statut = 0 " +
+                "ORDER BY coalesce(c.score_matching, -1) DESC, c.id DESC LIMIT 51"),
+                "candidatures", ORDONNE, "idx_candidatures_en_attente");
+    }
+
+    @Test
+    void offresActivesDeLaCampagne() {
+        assertAcces(expliquerTriee("SELECT id FROM offres WHERE statut = 1 AND id > 100 ORDER BY id LIMIT 2000"),
+                "offres", ORDONNE, "idx_offres_actives");
+    }
+
+    @Test
+    void offresParRecruteurPlusRecentesDabord() {
+        assertAcces(expliquerTriee("SELECT o.id FROM offres o WHERE o.recruteur_id = 7 " +
+                "ORDER BY o.created_at DESC, o.id DESC"), "offres", ORDONNE, "idx_offres_recruteur_creation");
+    }
+
+    @Test
+    void pageDOffresParRecruteur() {
+        assertAcces(expliquerTriee("SELECT o.id FROM offres o WHERE o.recruteur_id = 7 " +
+                "AND (o.created_at, o.id) < (now() - interval '10 hours', 1000) " +
+                "ORDER BY o.created_at DESC, o.id DESC LIMIT 51"), "offres", ORDONNE, "idx_offres_recruteur_creation");
+    }
+
+    @Test
+    void offresParRecruteurEtStatut() {
+        assertAcces(expliquer("SELECT o.id FROM offres o WHERE o.recruteur_id = 7 AND o.statut = 1"),
+                "offres", INDEX, "idx_offres_recruteur_statut");
+    }
+
+    @Test
+    void tauxDeReussiteParCompetence() {
+        assertAcces(expliquer("SELECT competence, count(*), count(*) FILTER (WHERE reussi) " +
+                "FROM resultats_interview WHERE offre_id = 7 GROUP BY competence"),
+                "resultats_interview", INDEX, "idx_resultats_interview_offre");
+    }
+
+    @Test
+    void scoresDInterviewParCandidature() {
+        assertAcces(expliquer("SELECT candidature_id, count(*) FILTER (WHERE reussi) " +
+                "FROM resultats_interview WHERE offre_id = 7 GROUP BY candidature_id"),
+                "resultats_interview", INDEX, "idx_resultats_interview_offre_candidature");
+    }
+
+    private static String expliquer(String sql) {
+        return expliquer(sql, "SET enable_seqscan = off");
+    }
+
+    private static String expliquerTriee(String sql) {
+        return expliquer(sql, "SET enable_seqscan = off", "SET enable_sort = off");
+    }
+
+    private static String expliquer(String sql, String... reglages) {
+        return jdbc.execute((Connection connexion) -> {
+            try (Statement st = connexion.createStatement()) {
+                for (String reglage : reglages) st.execute(reglage);
+                try (ResultSet rs = st.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+                    rs.next();
+                    return rs.getString(1);
+                } finally {
+                    st.execute("RESET ALL");
+                }
+            }
+        });
+    }
+
+    /**
+     * Chaque accès à la table passe par un nœud de l'un des types donnés, sur l'un des index nommés.
+     */
+    private static void assertAcces(String plan, String table, Set<String> types, String... index) {
+        List<JsonNode> acces = new ArrayList<>();
+        try {
+            accesA(JSON.readTree(plan).get(0).get("Plan"), table, false, acces);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        assertTrue(!acces.isEmpty(), "aucun accès à " + table + " : " + plan);
+        for (JsonNode noeud : acces) {
+            String type = noeud.get("Node Type").asText();
+            String nom = noeud.path("Index Name").asText();
+            assertTrue(types.contains(type) && List.of(index).contains(nom),
+                    table + " lue par " + type + " " + nom + " : " + plan);
+        }
+    }
+
+    // Le Bitmap Heap Scan porte la table, ses Bitmap Index Scan (éventuellement sous BitmapAnd/Or) l'index
+    private static void accesA(JsonNode noeud, String table, boolean sousBitmapDeLaTable, List<JsonNode> acces) {
+        String type = noeud.get("Node Type").asText();
+        boolean surLaTable = table.equals(noeud.path("Relation Name").asText());
+        if (type.equals("Bitmap Index Scan")) {
+            if (sousBitmapDeLaTable) acces.add(noeud);
+        } else if (surLaTable && !type.equals("Bitmap Heap Scan")) {
+            acces.add(noeud);
+        }
+        boolean bitmap = surLaTable && type.equals("Bitmap Heap Scan")
+                || sousBitmapDeLaTable && type.startsWith("Bitmap");
+        for (JsonNode enfant : noeud.path("Plans")) {
+            accesA(enfant, table, bitmap, acces);
+        }
+    }
+}
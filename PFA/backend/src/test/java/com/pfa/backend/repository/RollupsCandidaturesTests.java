@@ -0,0 +1,153 @@
+package com.pfa.backend.repository;
+
+import com.pfa.backend.Service.DashboardService;
+import com.pfa.backend.dto.DashboardOffreDTO;
+import com.pfa.backend.support.BasesDeTest;
+import com.pfa.backend.support.PostgresEmbarque;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * rollups_candidatures (trigger V4/V12/V14) comparé à un GROUP BY sur candidatures après une suite
+ * aléatoire d'insertions, de changements de statut et de score, et de suppressions ; entonnoir des étapes sautées.
+ */
+@PostgresEmbarque
+class RollupsCandidaturesTests {
+
+    private static final int OFFRES = 5;
+    private static final int CANDIDATS = 400;
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void demarrer() {
+        jdbc = new JdbcTemplate(BasesDeTest.nouvelleBaseMigree());
+
+        jdbc.update("INSERT INTO recruteurs (id, nom, prenom, email, mot_de_passe, entreprise) " +
+                "VALUES (1, 'Nom', 'Prenom', 'r1@mail.ma', 'x', 'Entreprise')");
+        jdbc.update("INSERT INTO offres (id, titre, type_contrat, localisation, statut, date_publication, created_at, " +
+                "updated_at, recruteur_id) SELECT g, 'Offre ' || g, 'CDI', 'Rabat', 1, now(), now(), now(), 1 " +
+                "FROM generate_series(1, ?) g", OFFRES);
+        jdbc.update("INSERT INTO candidats (id, nom) SELECT g, 'Candidat' || g FROM generate_series(1, ?) g", CANDIDATS);
+    }
+
+    @Test
+    void rollupsEgauxAuxAgregatsDeLaTable() {
+        Random aleatoire = new Random(42);
+        // Entonnoir attendu : étapes franchies (statut pris ou sauté), l'historique n'étant pas dans la table
+        Map<String, Long> entonnoir = new HashMap<>();
+        long id = 0;
+        for (int i = 0; i < 800; i++) {
+            int operation = aleatoire.nextInt(10);
+            Long cible = id == 0 ? null : jdbc.query("SELECT id FROM candidatures WHERE id >= ? ORDER BY id LIMIT 1",
+                    rs -> rs.next() ? rs.getLong(1) : null, 1 + aleatoire.nextLong(id));
+            if (operation < 4 || cible == null) {
+                int offre = 1 + aleatoire.nextInt(OFFRES);
+                int statut = aleatoire.nextInt(5);
+                int insere = jdbc.update("INSERT INTO candidatures (id, offre_id, candidat_id, statut, score_matching) " +
+                                "VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING", ++id, offre,
+                        1 + aleatoire.nextInt(CANDIDATS), statut, score(aleatoire));
+                if (insere == 1) {
+                    for (int etape : etapesAtteintes(statut)) entonnoir.merge(offre + "/" + etape, 1L, Long::sum);
+                }
+            } else if (operation < 6) {
+                int statut = aleatoire.nextInt(5);
+                Map<String, Object> avant = jdbc.queryForMap("SELECT offre_id, statut FROM candidatures WHERE id = ?", cible);
+                jdbc.update("UPDATE candidatures SET statut = ? WHERE id = ?", statut, cible);
+                Set<Integer> dejaAtteintes = etapesAtteintes(((Number) avant.get("statut")).intValue());
+                for (int etape : etapesAtteintes(statut)) {
+                    if (!dejaAtteintes.contains(etape)) entonnoir.merge(avant.get("offre_id") + "/" + etape, 1L, Long::sum);
+                }
+            } else if (operation < 9) {
+                // Petits écarts compris : la somme doit suivre même sans changement de case
+                jdbc.update("UPDATE candidatures SET score_matching = ? WHERE id = ?",
+                        aleatoire.nextBoolean() ? score(aleatoire) : null, cible);
+            } else {
+                jdbc.update("DELETE FROM candidatures WHERE id = ?", cible);
+            }
+        }
+
+        assertEquals(lignes("SELECT offre_id || '/' || statut || '=' || count(*) FROM candidatures " +
+                        "GROUP BY offre_id, statut"),
+                lignes("SELECT offre_id || '/' || cle || '=' || nombre FROM rollups_candidatures " +
+                        "WHERE dimension = 0 AND nombre <> 0"));
+        assertEquals(new TreeSet<>(entonnoir.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).toList()),
+                lignes("SELECT offre_id || '/' || cle || '=' || nombre FROM rollups_candidatures " +
+                        "WHERE dimension = 1 AND nombre <> 0"));
+        // Sommes NUMERIC : égalité exacte (à l'échelle près), pas à un arrondi près
+        assertEquals(lignes("SELECT offre_id || '/' || rollup_case_score(score_matching) || '=' || count(*) || '/' || " +
+                        "trim_scale(sum(score_matching::NUMERIC)) FROM candidatures WHERE score_matching IS NOT NULL " +
+                        "GROUP BY offre_id, rollup_case_score(score_matching)"),
+                lignes("SELECT offre_id || '/' || cle || '=' || nombre || '/' || trim_scale(somme) FROM rollups_candidatures " +
+                        "WHERE dimension = 2 AND nombre <> 0"));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM rollups_candidatures " +
+                "WHERE dimension = 2 AND nombre = 0 AND somme <> 0", Long.class));
+
+        for (DashboardOffreDTO offre : new DashboardService(jdbc).getDashboard(1L).getOffres()) {
+            Double attendue = jdbc.queryForObject("SELECT avg(score_matching) FROM candidatures WHERE offre_id = ?",
+                    Double.class, offre.getOffreId());
+            assertEquals(attendue, offre.getAgregats().getScoreMoyen(), 1e-9);
+        }
+    }
+
+    @Test
+    void entonnoirCompteLesEtapesSautees() {
+        // Base à part : l'entonnoir du test aléatoire ne doit pas voir ces candidatures
+        JdbcTemplate base = new JdbcTemplate(BasesDeTest.nouvelleBaseMigree());
+        base.update("INSERT INTO recruteurs (id, nom, prenom, email, mot_de_passe, entreprise) " +
+                "VALUES (1, 'Nom', 'Prenom', 'r1@mail.ma', 'x', 'Entreprise')");
+        base.update("INSERT INTO offres (id, titre, type_contrat, localisation, statut, date_publication, created_at, " +
+                "updated_at, recruteur_id) VALUES (1, 'Offre', 'CDI', 'Rabat', 1, now(), now(), now(), 1)");
+        base.update("INSERT INTO candidats (id, nom) SELECT g, 'Candidat' || g FROM generate_series(1, 4) g");
+
+        // EN_ATTENTE -> ACCEPTEE, comme une candidature déposée directement acceptée (reprise de V4)
+        base.update("INSERT INTO candidatures (id, offre_id, candidat_id, statut) VALUES (1, 1, 1, 0)");
+        base.update("UPDATE candidatures SET statut = 3 WHERE id = 1");
+        base.update("INSERT INTO candidatures (id, offre_id, candidat_id, statut) VALUES (2, 1, 2, 3)");
+        // EN_COURS -> INTERVIEW -> REFUSEE : l'interview reste comptée
+        base.update("INSERT INTO candidatures (id, offre_id, candidat_id, statut) VALUES (3, 1, 3, 1)");
+        base.update("UPDATE candidatures SET statut = 2 WHERE id = 3");
+        base.update("UPDATE candidatures SET statut = 4 WHERE id = 3");
+        base.update("INSERT INTO candidatures (id, offre_id, candidat_id, statut) VALUES (4, 1, 4, 0)");
+
+        assertEquals(Map.of(0L, 4L, 1L, 3L, 2L, 3L, 3L, 2L, 4L, 1L), entonnoir(base));
+    }
+
+    // EN_ATTENTE -> EN_COURS -> INTERVIEW -> ACCEPTEE ; REFUSEE n'implique qu'EN_ATTENTE (V14)
+    private static Set<Integer> etapesAtteintes(int statut) {
+        return switch (statut) {
+            case 0 -> Set.of(0);
+            case 1 -> Set.of(0, 1);
+            case 2 -> Set.of(0, 1, 2);
+            case 3 -> Set.of(0, 1, 2, 3);
+            default -> Set.of(0, statut);
+        };
+    }
+
+    private static Map<Long, Long> entonnoir(JdbcTemplate base) {
+        Map<Long, Long> resultat = new HashMap<>();
+        base.query("SELECT cle, nombre FROM rollups_candidatures WHERE offre_id = 1 AND dimension = 1",
+                rs -> { resultat.put(rs.getLong(1), rs.getLong(2)); });
+        return resultat;
+    }
+
+    // Scores non entiers, comme ceux du scoring
+    private static double score(Random aleatoire) {
+        return aleatoire.nextDouble() * 100;
+    }
+
+    private static TreeSet<String> lignes(String sql) {
+        List<String> resultat = jdbc.queryForList(sql, String.class);
+        return new TreeSet<>(resultat);
+    }
+}
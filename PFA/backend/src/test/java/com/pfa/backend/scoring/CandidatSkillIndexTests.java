@@ -0,0 +1,165 @@
+package com.pfa.backend.scoring;
+
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.event.CandidatEnregistreEvent;
+import com.pfa.backend.scoring.CandidatSkillIndex.CandidatClasse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Index inversé du vivier : construction par pages depuis la table, mise à jour à l'enregistrement
+ * d'un profil, et classement des k meilleurs (score décroissant, puis identifiant croissant).
+ */
+class CandidatSkillIndexTests {
+
+    private final SkillVocabulary vocabulaire = new SkillVocabulary(1_000);
+    private final MoteurTable moteur = new MoteurTable();
+    private final ScoringEngineRegistry registre =
+            new ScoringEngineRegistry(List.of(moteur), new SimpleMeterRegistry(), MoteurTable.VERSION, 1_000);
+
+    @Test
+    void construitParPagesDepuisLaTable() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:index-competences;DB_CLOSE_DELAY=-1");
+        JdbcTemplate base = new JdbcTemplate(dataSource);
+        base.execute("CREATE TABLE candidats (id BIGINT PRIMARY KEY, niveau_etude VARCHAR(50), "
+                + "formation VARCHAR(100), competences VARCHAR(255))");
+        // 12 001 candidats aux identifiants espacés : trois pages de 5 000, la dernière incomplète
+        List<Object[]> lignes = new ArrayList<>();
+        for (int i = 0; i < 12_001; i++) {
+            lignes.add(new Object[]{2L * i + 1, "Master", "Informatique", i % 3 == 0 ? "Java, SQL" : "Python"});
+        }
+        base.batchUpdate("INSERT INTO candidats VALUES (?, ?, ?, ?)", lignes);
+
+        List<Object> curseurs = new ArrayList<>();
+        JdbcTemplate espion = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+                curseurs.add(args[0]);
+                return super.query(sql, rowMapper, args);
+            }
+        };
+        CandidatSkillIndex index = new CandidatSkillIndex(espion, vocabulaire, registre);
+        index.construire();
+
+        assertEquals(List.of(0L, 9_999L, 19_999L, 24_001L), curseurs);
+        assertEquals(4_001, index.meilleursCandidats(offre("Java"), 20_000).size());
+        assertEquals(8_000, index.meilleursCandidats(offre("Python"), 20_000).size());
+    }
+
+    @Test
+    void meilleursParScoreDecroissantPuisIdentifiantCroissant() {
+        CandidatSkillIndex index = indexVide();
+        double[] scores = {50, 80, 80, 20, 80, 90};
+        for (int i = 0; i < scores.length; i++) {
+            indexer(index, i + 1L, "Java", scores[i]);
+        }
+
+        assertEquals(List.of(6L, 2L, 3L, 5L, 1L, 4L), ids(index.meilleursCandidats(offre("Java"), 10)));
+        // Égalité à la limite : les plus petits identifiants sont gardés
+        assertEquals(List.of(6L, 2L), ids(index.meilleursCandidats(offre("Java"), 2)));
+        assertEquals(List.of(6L, 2L, 3L), ids(index.meilleursCandidats(offre("Java"), 3)));
+        assertEquals(List.of(90.0, 80.0, 80.0), index.meilleursCandidats(offre("Java"), 3).stream()
+                .map(CandidatClasse::getScore).toList());
+    }
+
+    @Test
+    void seulsLesCandidatsConcernesSontScores() {
+        CandidatSkillIndex index = indexVide();
+        indexer(index, 1L, "Java, SQL", 60);
+        indexer(index, 2L, "JavaScript", 40);
+        indexer(index, 3L, "Cobol", 99);
+
+        // "java" est contenu dans "javascript" : les postings apparentés sont parcourus
+        assertEquals(List.of(1L, 2L), ids(index.meilleursCandidats(offre("Java"), 10)));
+        assertEquals(Set.of(1L, 2L), moteur.scores);
+
+        assertEquals(List.of(), index.meilleursCandidats(offre(""), 10));
+        assertEquals(List.of(), index.meilleursCandidats(offre("Java"), 0));
+        assertEquals(List.of(), index.meilleursCandidats(offre("Rust"), 10));
+    }
+
+    @Test
+    void profilEnregistreRemplaceSesPostings() {
+        CandidatSkillIndex index = indexVide();
+        indexer(index, 1L, "Java", 60);
+        indexer(index, 2L, "Java", 50);
+
+        CandidateProfile modifie = new CandidateProfile();
+        modifie.setId(1L);
+        modifie.setCompetences("Python");
+        index.onCandidatEnregistre(new CandidatEnregistreEvent(modifie, false));
+
+        assertEquals(List.of(2L), ids(index.meilleursCandidats(offre("Java"), 10)));
+        assertEquals(List.of(1L), ids(index.meilleursCandidats(offre("Python"), 10)));
+    }
+
+    @Test
+    void motsHorsVocabulaireToujoursConsideres() {
+        SkillVocabulary borne = new SkillVocabulary(2);
+        borne.encoder("java sql");
+        CandidatSkillIndex index = new CandidatSkillIndex(null, borne, registre);
+        moteur.parCandidat.put(1L, 70.0);
+        index.indexer(CandidatFeatures.of(1L, "Master", "", "MySQL", borne));
+
+        // "mysql" est hors vocabulaire : aucun posting commun avec "sql", le candidat est pourtant scoré
+        assertTrue(SkillVocabulary.horsVocabulaire(borne.encoder("MySQL")[0]));
+        assertEquals(List.of(1L), ids(index.meilleursCandidats(OffreFeatures.of(1L, "", "", "SQL", borne), 10)));
+
+        // Réindexé sans mot hors vocabulaire, il n'est plus parcouru pour "sql"
+        moteur.scores.clear();
+        index.indexer(CandidatFeatures.of(1L, "Master", "", "Java", borne));
+        assertEquals(List.of(), ids(index.meilleursCandidats(OffreFeatures.of(1L, "", "", "SQL", borne), 10)));
+        assertEquals(Set.of(), moteur.scores);
+    }
+
+    private CandidatSkillIndex indexVide() {
+        return new CandidatSkillIndex(null, vocabulaire, registre);
+    }
+
+    private void indexer(CandidatSkillIndex index, Long id, String competences, double score) {
+        moteur.parCandidat.put(id, score);
+        index.indexer(CandidatFeatures.of(id, "Master", "Informatique", competences, vocabulaire));
+    }
+
+    private OffreFeatures offre(String competences) {
+        return OffreFeatures.of(1L, "Junior", "CDI", competences, vocabulaire);
+    }
+
+    private static List<Long> ids(List<CandidatClasse> classement) {
+        return classement.stream().map(CandidatClasse::getCandidatId).toList();
+    }
+
+    // Score fixé par candidat ; retient les candidats effectivement scorés
+    private static final class MoteurTable implements ScoringEngine {
+
+        static final String VERSION = "table";
+
+        private final Map<Long, Double> parCandidat = new HashMap<>();
+        private final Set<Long> scores = new HashSet<>();
+
+        @Override
+        public String getVersion() {
+            return VERSION;
+        }
+
+        @Override
+        public double score(OffreFeatures offre, CandidatFeatures candidat) {
+            scores.add(candidat.getCandidatId());
+            return parCandidat.getOrDefault(candidat.getCandidatId(), 0.0);
+        }
+    }
+}
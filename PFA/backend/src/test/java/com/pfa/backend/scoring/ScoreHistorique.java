@@ -0,0 +1,94 @@
+package com.pfa.backend.scoring;
+
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Offre;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Score de matching tel que CandidatureService le calculait avant les moteurs de score, recopié tel quel :
+ * référence des tests d'équivalence.
+ */
+final class ScoreHistorique {
+
+    private static final double WEIGHT_KEYWORDS = 0.50;
+    private static final double WEIGHT_EXPERIENCE = 0.20;
+    private static final double WEIGHT_EDUCATION = 0.20;
+    private static final double WEIGHT_CONTRAT = 0.10;
+
+    private ScoreHistorique() {
+    }
+
+    static double calculerScoreMatching(Offre offre, CandidateProfile candidat) {
+        if (offre == null || candidat == null) return 0.0;
+
+        double totalScore = 0.0;
+
+        totalScore += matchingKeywords(offre.getCompetencesRequises(), candidat.getCompetences()) * WEIGHT_KEYWORDS;
+        totalScore += matchingExperience(offre.getNiveauExperience(), candidat.getNiveauEtude()) * WEIGHT_EXPERIENCE;
+        totalScore += matchingEducation(offre.getNiveauExperience(), candidat.getNiveauEtude()) * WEIGHT_EDUCATION;
+        totalScore += matchingContrat(offre.getTypeContrat(), candidat.getFormation()) * WEIGHT_CONTRAT;
+
+        double finalScore = Math.max(0.0, Math.min(100.0, totalScore * 100.0));
+
+        return Math.round(finalScore);
+    }
+
+    static double matchingKeywords(String requiredSkills, String candidateSkills) {
+        if (requiredSkills == null || requiredSkills.isEmpty()) return 1.0;
+
+        List<String> required = Arrays.stream(requiredSkills.toLowerCase().split("[ ,;]+"))
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+
+        List<String> candidate = Arrays.stream(candidateSkills != null ? candidateSkills.toLowerCase().split("[ ,;]+") : new String[0])
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+
+        if (required.isEmpty()) return 1.0;
+
+        long matchedKeywords = required.stream()
+                .filter(req -> candidate.stream().anyMatch(cand -> cand.contains(req) || req.contains(cand)))
+                .count();
+
+        return (double) matchedKeywords / required.size();
+    }
+
+    private static double matchingExperience(String requiredExperience, String candidateEducation) {
+        String expLower = requiredExperience != null ? requiredExperience.toLowerCase() : "";
+        String eduLower = candidateEducation != null ? candidateEducation.toLowerCase() : "";
+
+        if (expLower.contains("junior")) {
+            if (eduLower.contains("licence") || eduLower.contains("master") || eduLower.contains("ingénieur")) return 1.0;
+            return 0.5;
+        } else if (expLower.contains("intermédiaire") || expLower.contains("confirmé")) {
+            if (eduLower.contains("master") || eduLower.contains("ingénieur")) return 1.0;
+            return 0.7;
+        } else if (expLower.contains("senior")) {
+            if (eduLower.contains("master") || eduLower.contains("ingénieur")) return 0.8;
+            return 0.1;
+        }
+        return 0.5;
+    }
+
+    private static double matchingEducation(String requiredExperience, String candidateEducation) {
+        return matchingExperience(requiredExperience, candidateEducation);
+    }
+
+    private static double matchingContrat(String typeContrat, String formation) {
+        String contratLower = typeContrat != null ? typeContrat.toLowerCase() : "";
+        String formLower = formation != null ? formation.toLowerCase() : "";
+
+        if (contratLower.contains("stage") && formLower.contains("informatique")) {
+            return 1.0;
+        }
+
+        if (contratLower.contains("cdi") && !formLower.contains("stage")) {
+            return 1.0;
+        }
+
+        return 0.5;
+    }
+}
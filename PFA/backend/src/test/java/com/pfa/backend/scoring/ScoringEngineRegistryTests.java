@@ -0,0 +1,109 @@
+package com.pfa.backend.scoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mémoïsation par (empreinte offre, empreinte candidat, version) : une paire de contenus n'est scorée
+ * qu'une fois par moteur, tout changement de contenu donne une nouvelle clé, et la version active choisit
+ * le moteur comme les scores à recalculer.
+ */
+class ScoringEngineRegistryTests {
+
+    private final SkillVocabulary vocabulaire = new SkillVocabulary(1_000);
+    private final MoteurCompteur v1 = new MoteurCompteur("v1", 10);
+    private final MoteurCompteur v2 = new MoteurCompteur("v2", 20);
+
+    @Test
+    void memeContenuScoreUneSeuleFois() {
+        ScoringEngineRegistry registre = registre("v1");
+
+        assertEquals(10, registre.score(offre(1L, "Java, SQL"), candidat(1L, "java")));
+        // Autres identifiants, même contenu : la clé ne porte que sur le contenu
+        assertEquals(10, registre.score(offre(2L, "Java, SQL"), candidat(2L, "java")));
+        assertEquals(1, v1.appels.get());
+        assertEquals(0, v2.appels.get());
+    }
+
+    @Test
+    void contenuModifieRescore() {
+        ScoringEngineRegistry registre = registre("v1");
+
+        registre.score(offre(1L, "Java, SQL"), candidat(1L, "java"));
+        registre.score(offre(1L, "Java, Spring"), candidat(1L, "java"));
+        registre.score(offre(1L, "Java, Spring"), candidat(1L, "java, spring"));
+        registre.score(offre(1L, "Java, Spring"), new CandidatFeatures(1L, "master", "", vocabulaire.encoder("java, spring")));
+        assertEquals(4, v1.appels.get());
+    }
+
+    @Test
+    void versionActiveChoisitLeMoteurEtLesScoresPerimes() {
+        ScoringEngineRegistry registre = registre("v2");
+
+        assertEquals(20, registre.score(offre(1L, "Java"), candidat(1L, "java")));
+        assertEquals(0, v1.appels.get());
+        assertEquals("v2", registre.versionActive());
+        assertTrue(registre.estPerime("v1"));
+        assertTrue(registre.estPerime(null));
+        assertFalse(registre.estPerime("v2"));
+
+        assertThrows(IllegalStateException.class, () -> registre("v3"));
+    }
+
+    @Test
+    void empreintesDistinctesSelonLeContenu() {
+        int[] java = vocabulaire.encoder("java");
+        long reference = Empreintes.de("junior", "cdi", java);
+
+        assertEquals(reference, Empreintes.de("junior", "cdi", vocabulaire.encoder("Java")));
+        assertNotEquals(reference, Empreintes.de("junior", "cdd", java));
+        assertNotEquals(reference, Empreintes.de("junior", "cdi", vocabulaire.encoder("java sql")));
+        assertNotEquals(reference, Empreintes.de("junior", "cdi", new int[0]));
+        // Séparateur entre les champs
+        assertNotEquals(Empreintes.de("ab", "c", java), Empreintes.de("a", "bc", java));
+    }
+
+    private ScoringEngineRegistry registre(String version) {
+        return new ScoringEngineRegistry(List.of(v1, v2), new SimpleMeterRegistry(), version, 1_000);
+    }
+
+    private OffreFeatures offre(Long id, String competences) {
+        return OffreFeatures.of(id, "Junior", "CDI", competences, vocabulaire);
+    }
+
+    private CandidatFeatures candidat(Long id, String competences) {
+        return CandidatFeatures.of(id, "Licence", "Informatique", competences, vocabulaire);
+    }
+
+    private static final class MoteurCompteur implements ScoringEngine {
+
+        private final String version;
+        private final double score;
+        private final AtomicInteger appels = new AtomicInteger();
+
+        MoteurCompteur(String version, double score) {
+            this.version = version;
+            this.score = score;
+        }
+
+        @Override
+        public String getVersion() {
+            return version;
+        }
+
+        @Override
+        public double score(OffreFeatures offre, CandidatFeatures candidat) {
+            appels.incrementAndGet();
+            return score;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.pfa.backend.scoring;
+
+import com.pfa.backend.entities.CandidateProfile;
+import com.pfa.backend.entities.Offre;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Le moteur v1 rend exactement le score de l'ancien calcul de CandidatureService (ScoreHistorique),
+ * sur un corpus fixe qui parcourt toutes les branches : niveaux, contrats, formations, compétences.
+ */
+class ScoringEngineV1Tests {
+
+    private static final List<String> NIVEAUX_EXPERIENCE = Arrays.asList(null, "", "Junior", "Intermédiaire",
+            "Confirmé", "Senior", "Expert");
+    private static final List<String> CONTRATS = Arrays.asList(null, "CDI", "CDD", "Stage", "Stage PFE");
+    private static final List<String> COMPETENCES_REQUISES = Arrays.asList(null, "", " , ", "Java", "Java, Spring",
+            "JavaScript;React", "SQL PostgreSQL Docker", "Python, Java, Java");
+    private static final List<String> NIVEAUX_ETUDE = Arrays.asList(null, "Bac+2", "Licence", "Master",
+            "Ingénieur d'état", "Doctorat");
+    private static final List<String> FORMATIONS = Arrays.asList(null, "Génie informatique", "Stage de fin d'études",
+            "Gestion");
+    private static final List<String> COMPETENCES = Arrays.asList(null, "", "java", "JAVA, spring boot",
+            "react native; js", "PostgreSQL, docker", "Python");
+
+    @Test
+    void scoresEgauxAuCalculHistorique() {
+        SkillVocabulary vocabulaire = new SkillVocabulary(20_000);
+        ScoringEngineV1 moteur = new ScoringEngineV1(vocabulaire);
+        int comparaisons = 0;
+
+        for (String niveauExperience : NIVEAUX_EXPERIENCE) {
+            for (String contrat : CONTRATS) {
+                for (String requises : COMPETENCES_REQUISES) {
+                    Offre offre = new Offre();
+                    offre.setNiveauExperience(niveauExperience);
+                    offre.setTypeContrat(contrat);
+                    offre.setCompetencesRequises(requises);
+                    OffreFeatures offreFeatures = OffreFeatures.of(offre, vocabulaire);
+
+                    for (String niveauEtude : NIVEAUX_ETUDE) {
+                        for (String formation : FORMATIONS) {
+                            for (String competences : COMPETENCES) {
+                                CandidateProfile candidat = new CandidateProfile();
+                                candidat.setNiveauEtude(niveauEtude);
+                                candidat.setFormation(formation);
+                                candidat.setCompetences(competences);
+
+                                assertEquals(ScoreHistorique.calculerScoreMatching(offre, candidat),
+                                        moteur.score(offreFeatures, CandidatFeatures.of(candidat, vocabulaire)),
+                                        () -> offre.getNiveauExperience() + "/" + offre.getTypeContrat() + "/"
+                                                + offre.getCompetencesRequises() + " - " + candidat.getNiveauEtude()
+                                                + "/" + candidat.getFormation() + "/" + candidat.getCompetences());
+                                comparaisons++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(7 * 5 * 8 * 6 * 4 * 7, comparaisons);
+    }
+}
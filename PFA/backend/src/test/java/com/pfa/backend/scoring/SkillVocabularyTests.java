@@ -0,0 +1,82 @@
+package com.pfa.backend.scoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Règle de sous-chaîne conservée à travers les agrandissements, et vocabulaire borné : au-delà de la
+ * limite, les mots nouveaux sont comparés par sous-chaîne et le taux de couverture ne change pas.
+ */
+class SkillVocabularyTests {
+
+    private static final List<String> MOTS = List.of("java", "javascript", "script", "sql", "mysql", "postgresql",
+            "docker", "kubernetes", "react", "reactnative", "native", "spring", "springboot", "boot", "c", "c++",
+            "python", "py", "angular", "git");
+
+    @Test
+    void apparentesConserveesApresAgrandissement() {
+        SkillVocabulary vocabulaire = new SkillVocabulary(1_000);
+        int java = vocabulaire.interner("java");
+        for (int i = 0; i < 100; i++) {
+            vocabulaire.interner("mot" + i);
+        }
+        int javascript = vocabulaire.interner("javascript");
+
+        assertArrayEquals(new int[]{java, javascript}, vocabulaire.apparentes(java));
+        assertEquals(1.0, vocabulaire.tauxCouverture(vocabulaire.encoder("java"), vocabulaire.encoder("javascript")));
+        assertEquals(102, vocabulaire.taille());
+    }
+
+    @Test
+    void motsAuDelaDeLaLimiteComparesParSousChaine() {
+        SkillVocabulary vocabulaire = new SkillVocabulary(2);
+        vocabulaire.encoder("java sql");
+
+        int docker = vocabulaire.interner("docker");
+        int mysql = vocabulaire.interner("mysql");
+        assertTrue(SkillVocabulary.horsVocabulaire(docker));
+        assertTrue(SkillVocabulary.horsVocabulaire(mysql));
+        assertEquals(docker, vocabulaire.interner("docker"));
+        assertEquals(2, vocabulaire.taille());
+        assertArrayEquals(new int[]{vocabulaire.interner("sql")}, vocabulaire.apparentes(mysql));
+
+        // Dans les deux sens, et entre deux mots hors vocabulaire
+        assertEquals(1.0, vocabulaire.tauxCouverture(vocabulaire.encoder("docker"), vocabulaire.encoder("docker")));
+        assertEquals(1.0, vocabulaire.tauxCouverture(vocabulaire.encoder("sql"), vocabulaire.encoder("mysql")));
+        assertEquals(1.0, vocabulaire.tauxCouverture(vocabulaire.encoder("mysql"), vocabulaire.encoder("sql")));
+        assertEquals(0.0, vocabulaire.tauxCouverture(vocabulaire.encoder("docker"), vocabulaire.encoder("kubernetes")));
+        assertEquals(0.5, vocabulaire.tauxCouverture(vocabulaire.encoder("java docker"), vocabulaire.encoder("java kubernetes")));
+    }
+
+    @Test
+    void limiteAtteinteScoresEgauxALaRegleHistorique() {
+        Random aleatoire = new Random(7);
+        for (int limite : new int[]{1, 3, 8, 1_000}) {
+            SkillVocabulary vocabulaire = new SkillVocabulary(limite);
+            for (int i = 0; i < 2_000; i++) {
+                String requises = texte(aleatoire);
+                String candidat = texte(aleatoire);
+                assertEquals(ScoreHistorique.matchingKeywords(requises, candidat),
+                        vocabulaire.tauxCouverture(vocabulaire.encoder(requises), vocabulaire.encoder(candidat)),
+                        () -> "limite " + limite + " : '" + requises + "' / '" + candidat + "'");
+            }
+            assertTrue(vocabulaire.taille() <= limite);
+        }
+    }
+
+    private static String texte(Random aleatoire) {
+        int n = aleatoire.nextInt(5);
+        StringBuilder texte = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            String mot = MOTS.get(aleatoire.nextInt(MOTS.size()));
+            texte.append(aleatoire.nextBoolean() ? mot.toUpperCase() : mot).append(i % 2 == 0 ? ", " : ";");
+        }
+        return texte.toString();
+    }
+}
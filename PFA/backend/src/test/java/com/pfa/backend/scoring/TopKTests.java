@@ -0,0 +1,96 @@
+package com.pfa.backend.scoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tas borné : les k meilleurs (score décroissant, puis identifiant croissant), quel que soit l'ordre
+ * d'arrivée, réutilisable après extraction.
+ */
+class TopKTests {
+
+    @Test
+    void garderLesKMeilleursTries() {
+        TopK topK = new TopK(3);
+        double[] scores = {0.2, 0.9, 0.5, 0.1, 0.7, 0.3};
+        for (int i = 0; i < scores.length; i++) {
+            topK.offrir(i + 1, scores[i]);
+        }
+
+        assertEquals(3, topK.taille());
+        assertExtraction(topK, 3, new long[]{2, 5, 3}, new double[]{0.9, 0.7, 0.5});
+    }
+
+    @Test
+    void egaliteDepartageeParLePlusPetitIdentifiant() {
+        TopK topK = new TopK(2);
+        // Même score, arrivées dans le désordre : 3 et 5 sont évincés par les identifiants plus petits
+        topK.offrir(5, 0.5);
+        topK.offrir(3, 0.5);
+        topK.offrir(1, 0.5);
+        topK.offrir(4, 0.5);
+
+        assertExtraction(topK, 2, new long[]{1, 3}, new double[]{0.5, 0.5});
+    }
+
+    @Test
+    void moinsDElementsQueK() {
+        TopK topK = new TopK(5);
+        topK.offrir(8, 0.4);
+        topK.offrir(9, 0.6);
+
+        assertEquals(2, topK.taille());
+        assertExtraction(topK, 2, new long[]{9, 8}, new double[]{0.6, 0.4});
+        assertEquals(0, topK.taille());
+
+        TopK vide = new TopK(0);
+        vide.offrir(1, 1.0);
+        assertEquals(0, vide.taille());
+    }
+
+    @Test
+    void fusionEtReutilisationEgalesAuTriComplet() {
+        Random aleatoire = new Random(11);
+        TopK fusion = new TopK(10);
+        TopK[] partiels = {new TopK(10), new TopK(10), new TopK(10)};
+
+        for (int tour = 0; tour < 20; tour++) {
+            fusion.vider();
+            List<double[]> tous = new ArrayList<>();
+            for (TopK partiel : partiels) {
+                partiel.vider();
+            }
+            for (int id = 0; id < 200; id++) {
+                // Peu de valeurs distinctes : beaucoup d'égalités
+                double score = aleatoire.nextInt(20) / 20.0;
+                partiels[id % partiels.length].offrir(id, score);
+                tous.add(new double[]{id, score});
+            }
+            for (TopK partiel : partiels) {
+                fusion.fusionner(partiel);
+            }
+
+            tous.sort(Comparator.<double[]>comparingDouble(e -> -e[1]).thenComparingDouble(e -> e[0]));
+            long[] idsAttendus = tous.stream().limit(10).mapToLong(e -> (long) e[0]).toArray();
+            double[] scoresAttendus = tous.stream().limit(10).mapToDouble(e -> e[1]).toArray();
+            assertExtraction(fusion, 10, idsAttendus, scoresAttendus);
+        }
+    }
+
+    private static void assertExtraction(TopK topK, int attendus, long[] ids, double[] scores) {
+        long[] idsTries = new long[attendus];
+        double[] scoresTries = new double[attendus];
+
+        assertEquals(attendus, topK.extraireTries(idsTries, scoresTries));
+        assertArrayEquals(ids, idsTries, () -> Arrays.toString(idsTries));
+        assertArrayEquals(scores, scoresTries);
+    }
+}
@@ -0,0 +1,131 @@
+package com.pfa.backend.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfigurationAttributes;
+import org.springframework.test.context.ContextCustomizer;
+import org.springframework.test.context.ContextCustomizerFactory;
+import org.springframework.test.context.MergedContextConfiguration;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Un seul serveur PostgreSQL embarqué par JVM, démarré au premier besoin ; une base par contexte Spring
+ * ou par appel, pour que les tests ne voient jamais les lignes des autres.
+ */
+public final class BasesDeTest {
+
+    private static final AtomicInteger NUMERO = new AtomicInteger();
+
+    private static EmbeddedPostgres serveur;
+
+    private BasesDeTest() {
+    }
+
+    /**
+     * Base vide, sans schéma.
+     * @return l'URL JDBC (utilisateur postgres, sans mot de passe)
+     */
+    public static String nouvelleBase() {
+        return serveur().getJdbcUrl("postgres", creer());
+    }
+
+    /**
+     * Base neuve migrée par Flyway, pour les tests qui travaillent en SQL sans contexte Spring.
+     */
+    public static DataSource nouvelleBaseMigree() {
+        return migrer(nouvelleBase());
+    }
+
+    /**
+     * Migre par Flyway la base d'une URL rendue par {@link #nouvelleBase()}.
+     * @return une DataSource sur cette base
+     */
+    public static DataSource migrer(String url) {
+        PGSimpleDataSource base = new PGSimpleDataSource();
+        base.setURL(url);
+        Flyway.configure().dataSource(base).load().migrate();
+        return base;
+    }
+
+    private static String creer() {
+        String nom = "test_" + NUMERO.incrementAndGet();
+        new JdbcTemplate(serveur().getPostgresDatabase()).execute("CREATE DATABASE " + nom);
+        return nom;
+    }
+
+    private static synchronized EmbeddedPostgres serveur() {
+        if (serveur == null) {
+            try {
+                // Chaque contexte gardé en cache par Spring conserve son pool
+                serveur = EmbeddedPostgres.builder().setServerConfig("max_connections", "300").start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            EmbeddedPostgres demarre = serveur;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    demarre.close();
+                } catch (IOException ignored) {
+                    // arrêt de la JVM : rien à faire de plus
+                }
+            }));
+        }
+        return serveur;
+    }
+
+    static final class HorsRoot implements ExecutionCondition {
+
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            return "root".equals(System.getProperty("user.name")) ?
+                    ConditionEvaluationResult.disabled("PostgreSQL ne démarre pas sous root") :
+                    ConditionEvaluationResult.enabled("PostgreSQL embarqué disponible");
+        }
+    }
+
+    static final class Fabrique implements ContextCustomizerFactory {
+
+        @Override
+        public ContextCustomizer createContextCustomizer(Class<?> testClass,
+                                                         List<ContextConfigurationAttributes> configAttributes) {
+            return new BaseDuContexte();
+        }
+    }
+
+    /**
+     * Une base par contexte créé : deux classes de test qui partagent un contexte partagent aussi sa base.
+     */
+    private static final class BaseDuContexte implements ContextCustomizer {
+
+        @Override
+        public void customizeContext(ConfigurableApplicationContext context, MergedContextConfiguration config) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("postgresEmbarque", Map.of(
+                    "spring.datasource.url", nouvelleBase(),
+                    "spring.datasource.username", "postgres",
+                    "spring.jpa.show-sql", "false")));
+        }
+
+        @Override
+        public boolean equals(Object autre) {
+            return autre instanceof BaseDuContexte;
+        }
+
+        @Override
+        public int hashCode() {
+            return BaseDuContexte.class.hashCode();
+        }
+    }
+}
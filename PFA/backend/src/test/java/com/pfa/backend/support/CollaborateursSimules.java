@@ -0,0 +1,58 @@
+package com.pfa.backend.support;
+
+import com.pfa.backend.Service.FileScoringService;
+import com.pfa.backend.Service.OutboxService;
+import com.pfa.backend.Service.RescoringService;
+import com.pfa.backend.Service.ResultatsInterviewService;
+import com.pfa.backend.scoring.ScoringEngineRegistry;
+import com.pfa.backend.scoring.SkillVocabulary;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockReset;
+import org.springframework.context.annotation.Bean;
+
+import java.beans.Introspector;
+import java.util.List;
+
+/**
+ * Collaborateurs de CandidatureService remplacés par des mocks Mockito, sauf ceux que le test fournit
+ * lui-même (vrai service importé, ou @MockBean). Un nouveau collaborateur s'ajoute ici, pas dans chaque test.
+ *
+ * Comme les @MockBean, les mocks sont remis à zéro après chaque test ; on les obtient par @Autowired.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class CollaborateursSimules {
+
+    static final List<Class<?>> COLLABORATEURS = List.of(SkillVocabulary.class, ScoringEngineRegistry.class,
+            RescoringService.class, FileScoringService.class, OutboxService.class, ResultatsInterviewService.class);
+
+    // Après l'enregistrement des classes importées par le test : on sait alors ce qui manque
+    @Bean
+    static BeanDefinitionRegistryPostProcessor mocksDesCollaborateursAbsents() {
+        return new BeanDefinitionRegistryPostProcessor() {
+            @Override
+            public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+                ListableBeanFactory fabrique = (ListableBeanFactory) registry;
+                for (Class<?> type : COLLABORATEURS) {
+                    if (fabrique.getBeanNamesForType(type, true, false).length == 0) {
+                        registry.registerBeanDefinition(Introspector.decapitalize(type.getSimpleName()),
+                                simulation(type));
+                    }
+                }
+            }
+
+            @Override
+            public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            }
+        };
+    }
+
+    private static <T> RootBeanDefinition simulation(Class<T> type) {
+        return new RootBeanDefinition(type, () -> Mockito.mock(type, MockReset.withSettings(MockReset.AFTER)));
+    }
+}
@@ -0,0 +1,25 @@
+package com.pfa.backend.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.ContextCustomizerFactories;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Test sur PostgreSQL embarqué, pour ce que H2 ne sait pas faire (SKIP LOCKED, triggers, jsonb, plans).
+ *
+ * Chaque contexte Spring reçoit une base neuve (spring.datasource.url), migrée par Flyway au démarrage du
+ * contexte ; les tests sans Spring prennent la leur avec {@link BasesDeTest#nouvelleBaseMigree()}.
+ * Désactivé sous root : initdb refuse de s'y lancer (conteneurs de build).
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ExtendWith(BasesDeTest.HorsRoot.class)
+@ContextCustomizerFactories(BasesDeTest.Fabrique.class)
+public @interface PostgresEmbarque {
+}